@@ -0,0 +1,74 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 销售订单行的聚合查询：行存储（每行一个 ByteDataStorage）对比 DynamicObjectBatch 列存储。
+ * 金额列 scale 固定为 2，列存储在 long 上累加；行存储每行都要 BigDecimal.valueOf + add。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ColumnarBatchBench {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private IntPropertyAccessor quantity;
+    private BigDecimalPropertyAccessor amount;
+    private ByteDataStorage[] storages;
+    private DynamicObjectBatch batch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        DynamicObjectType type = new DynamicObjectType();
+        type.register(new LongPropertyAccessor(false, 0L));          // id
+        quantity = type.register(new IntPropertyAccessor(false, 0));
+        amount = type.register(new BigDecimalPropertyAccessor(false));
+        type.register(new LocalDatePropertyAccessor(true));           // 下单日期
+        type.register(new BooleanPropertyAccessor(false, false));      // 是否退货
+
+        Random random = new Random(21);
+        storages = new ByteDataStorage[rows];
+        batch = new DynamicObjectBatch(type, rows);
+        for (int i = 0; i < rows; i++) {
+            ByteDataStorage storage = type.createInstance();
+            storage.setInt(quantity, 1 + random.nextInt(10));
+            amount.setBigDecimal(storage, BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+            storages[i] = storage;
+            batch.add(storage);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal sumAmount_rowWise() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (ByteDataStorage storage : storages) {
+            sum = sum.add(amount.getBigDecimal(storage));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public BigDecimal sumAmount_columnar() {
+        return batch.column(amount).sum();
+    }
+
+    @Benchmark
+    public long sumQuantity_rowWise() {
+        long sum = 0;
+        for (ByteDataStorage storage : storages) {
+            sum += storage.getInt(quantity);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumQuantity_columnar() {
+        return batch.column(quantity).sum();
+    }
+}
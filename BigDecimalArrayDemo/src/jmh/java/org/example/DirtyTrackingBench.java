@@ -0,0 +1,75 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成 UPDATE 的变更检测：现在的做法是加载后 memberClone 保留一份完整副本，保存时逐个属性比较（O(属性数)）；
+ * 对比 clearDirty 之后只看 dirtyProperties（O(修改数)），原值只保存改过的属性。
+ * 每次调用模拟一个实体的加载 - 修改 changed 个属性 - 检测变更。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class DirtyTrackingBench {
+
+    @Param({"64"})
+    public int fields;
+
+    @Param({"3"})
+    public int changed;
+
+    private DynamicObjectType type;
+    private List<PropertyAccessor> properties;
+    private IntPropertyAccessor[] ints;
+    private ByteDataStorage storage;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        type = new DynamicObjectType();
+        ints = new IntPropertyAccessor[fields / 2];
+        for (int i = 0; i < fields; i++) {
+            if ((i & 1) == 0) {
+                ints[i / 2] = type.register(new IntPropertyAccessor(false, 0));
+            } else {
+                type.register(new LongPropertyAccessor(true, 0L));
+            }
+        }
+        properties = type.getProperties();
+        storage = type.createInstance();
+        for (int i = 0; i < ints.length; i++) {
+            storage.setInt(ints[i], i);
+        }
+    }
+
+    @Benchmark
+    public List<PropertyAccessor> fullClone() {
+        ByteDataStorage original = storage.memberClone();
+        modify();
+        List<PropertyAccessor> dirty = new ArrayList<>();
+        for (PropertyAccessor property : properties) {
+            if (!Objects.equals(property.get(original), property.get(storage))) {
+                dirty.add(property);
+            }
+        }
+        return dirty;
+    }
+
+    @Benchmark
+    public List<PropertyAccessor> dirtyTracking() {
+        storage.clearDirty();
+        modify();
+        return type.dirtyProperties(storage);
+    }
+
+    private void modify() {
+        for (int i = 0; i < changed; i++) {
+            IntPropertyAccessor property = ints[i * 5 % ints.length];
+            storage.setInt(property, storage.getInt(property) + 1);
+        }
+    }
+}
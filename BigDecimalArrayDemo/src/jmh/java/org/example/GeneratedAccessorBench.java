@@ -0,0 +1,95 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PropertyAccessor（7 个子类的多态调用，每个 Field 读 offset 并检查越界）对比 DynamicObjectType.compiledAccessors()
+ * 生成的类（单态，偏移是常量）。boxed 遍历所有属性，typed 读固定的几个属性并求和。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class GeneratedAccessorBench {
+
+    private static final int INSTANCES = 1024;
+
+    // 属性下标
+    private static final int QUANTITY = 3;
+    private static final int ID = 4;
+    private static final int PRICE = 6;
+
+    private List<PropertyAccessor> properties;
+    private IntPropertyAccessor quantity;
+    private LongPropertyAccessor id;
+    private DoublePropertyAccessor price;
+    private CompiledAccessors compiled;
+    private ByteDataStorage[] storages;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        DynamicObjectType type = new DynamicObjectType();
+        type.register(new BooleanPropertyAccessor(false, false));
+        type.register(new BytePropertyAccessor(true, (byte) 0));
+        type.register(new ShortPropertyAccessor(false, (short) 0));
+        quantity = type.register(new IntPropertyAccessor(false, 1));
+        id = type.register(new LongPropertyAccessor(false, 0L));
+        type.register(new FloatPropertyAccessor(true, 0f));
+        price = type.register(new DoublePropertyAccessor(false, 0.0));
+        properties = type.getProperties();
+        compiled = type.compiledAccessors();
+
+        storages = new ByteDataStorage[INSTANCES];
+        for (int i = 0; i < INSTANCES; i++) {
+            ByteDataStorage storage = type.createInstance();
+            storage.setLocalValue(properties.get(0), (i & 1) == 0);
+            storage.setLocalValue(properties.get(1), (byte) i);
+            storage.setLocalValue(properties.get(2), (short) i);
+            storage.setInt(quantity, i);
+            storage.setLong(id, i * 1_000_003L);
+            storage.setLocalValue(properties.get(5), i * 0.5f);
+            storage.setDouble(price, i * 0.25);
+            storages[i] = storage;
+        }
+    }
+
+    @Benchmark
+    public void boxed_interpreted(Blackhole bh) {
+        for (ByteDataStorage storage : storages) {
+            for (int i = 0; i < properties.size(); i++) {
+                bh.consume(properties.get(i).get(storage));
+            }
+        }
+    }
+
+    @Benchmark
+    public void boxed_compiled(Blackhole bh) {
+        int count = compiled.getPropertyCount();
+        for (ByteDataStorage storage : storages) {
+            for (int i = 0; i < count; i++) {
+                bh.consume(compiled.get(storage, i));
+            }
+        }
+    }
+
+    @Benchmark
+    public double typed_interpreted() {
+        double sum = 0;
+        for (ByteDataStorage storage : storages) {
+            sum += storage.getInt(quantity) + storage.getLong(id) + storage.getDouble(price);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double typed_compiled() {
+        double sum = 0;
+        for (ByteDataStorage storage : storages) {
+            sum += compiled.getInt(storage, QUANTITY) + compiled.getLong(storage, ID) + compiled.getDouble(storage, PRICE);
+        }
+        return sum;
+    }
+}
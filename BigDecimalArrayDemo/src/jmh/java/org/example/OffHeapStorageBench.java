@@ -0,0 +1,102 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 常驻 entities 个实体（类似缓存），堆内 ByteArray 布局对比 OffHeapArena 堆外槽位。
+ * churn 随机替换实体（堆外先 release 旧槽位再复用），scan 顺序读一个 int 字段。
+ * scanBuffer 是堆内基线：直接从 buffer 读，不经过 ByteDataStorage 的布局版本判断和 base/address 分派，
+ * HEAP 下与 scan 的差值就是支持堆外存储给堆内读取带来的开销（OFF_HEAP 下没有 buffer，与 scan 相同）。
+ * GC 次数与耗时看 gc profiler 的 gc.count / gc.time（build.gradle 已开启），堆外时 old 区只剩 ByteDataStorage 对象本身。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class OffHeapStorageBench {
+
+    @Param({"HEAP", "OFF_HEAP"})
+    public String backend;
+
+    @Param({"1000000"})
+    public int entities;
+
+    private static final int CHURN_BATCH = 1024;
+
+    private DynamicObjectType type;
+    private IntPropertyAccessor id;
+    private LongPropertyAccessor amount;
+    private DoublePropertyAccessor price;
+    private BooleanPropertyAccessor active;
+    private OffHeapArena arena;
+    private ByteDataStorage[] storages;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        type = new DynamicObjectType();
+        id = type.register(new IntPropertyAccessor(false, 0));
+        amount = type.register(new LongPropertyAccessor(true, 0L));
+        price = type.register(new DoublePropertyAccessor(false, 0.0));
+        active = type.register(new BooleanPropertyAccessor(false, false));
+        type.register(new LocalDateTimePropertyAccessor(true));
+        if ("OFF_HEAP".equals(backend)) {
+            arena = type.createArena(OffHeapArena.DEFAULT_SLOTS_PER_SLAB);
+        }
+        storages = new ByteDataStorage[entities];
+        for (int i = 0; i < entities; i++) {
+            storages[i] = newEntity(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        storages = null;
+        if (arena != null) {
+            arena.close();
+        }
+    }
+
+    private ByteDataStorage newEntity(int i) {
+        ByteDataStorage storage = arena == null ? type.createInstance() : type.createInstance(arena);
+        storage.setInt(id, i);
+        storage.setLong(amount, i * 31L);
+        storage.setDouble(price, i * 0.5);
+        storage.setBoolean(active, (i & 1) == 0);
+        return storage;
+    }
+
+    @Benchmark
+    public void churn(Blackhole bh) {
+        for (int k = 0; k < CHURN_BATCH; k++) {
+            int i = cursor;
+            cursor = (cursor + 7919) % entities;
+            storages[i].release();
+            storages[i] = newEntity(i);
+            bh.consume(storages[i].getLong(amount));
+        }
+    }
+
+    @Benchmark
+    public long scan() {
+        long sum = 0;
+        for (ByteDataStorage storage : storages) {
+            sum += storage.getInt(id);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long scanBuffer() {
+        if (arena != null) {
+            return scan();
+        }
+        long sum = 0;
+        for (ByteDataStorage storage : storages) {
+            sum += id.getInt(storage.getBuffer());
+        }
+        return sum;
+    }
+}
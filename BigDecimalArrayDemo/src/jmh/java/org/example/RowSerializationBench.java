@@ -0,0 +1,95 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体在应用服务器与分布式缓存之间传输：现在的做法是按属性 getLocalValue 装箱后用 Java 序列化写出，
+ * 对比 DynamicObjectType.writeTo/readFrom（buffer 整段复制 + 只编码非 null 的 Object 槽位）。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class RowSerializationBench {
+
+    private DynamicObjectType type;
+    private List<PropertyAccessor> properties;
+    private ByteDataStorage storage;
+    private ByteBuffer out;
+    private byte[] binary;
+    private byte[] boxed;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        type = new DynamicObjectType();
+        LongPropertyAccessor id = type.register(new LongPropertyAccessor(false, 0L));
+        IntPropertyAccessor quantity = type.register(new IntPropertyAccessor(false, 0));
+        DoublePropertyAccessor price = type.register(new DoublePropertyAccessor(true, 0.0));
+        BooleanPropertyAccessor returned = type.register(new BooleanPropertyAccessor(false, false));
+        BigDecimalPropertyAccessor amount = type.register(new BigDecimalPropertyAccessor(false));
+        LocalDatePropertyAccessor orderDate = type.register(new LocalDatePropertyAccessor(true));
+        ObjectPropertyAccessor customer = type.register(new ObjectPropertyAccessor());
+        properties = type.getProperties();
+
+        storage = type.createInstance();
+        storage.setLong(id, 1_000_003L);
+        storage.setInt(quantity, 12);
+        storage.setDouble(price, 19.99);
+        storage.setBoolean(returned, false);
+        amount.setBigDecimal(storage, new BigDecimal("239.88"));
+        storage.setLocalValue(orderDate, LocalDate.of(2024, 6, 18));
+        storage.setLocalValue(customer, "上海某某贸易有限公司");
+
+        out = ByteBuffer.allocate(type.serializedSize(storage));
+        binary = type.toByteArray(storage);
+        boxed = writeBoxed();
+    }
+
+    @Benchmark
+    public ByteBuffer write_binary() {
+        out.clear();
+        type.writeTo(storage, out);
+        return out;
+    }
+
+    @Benchmark
+    public ByteDataStorage read_binary() {
+        return type.readFrom(ByteBuffer.wrap(binary), null);
+    }
+
+    @Benchmark
+    public byte[] write_boxed() throws IOException {
+        return writeBoxed();
+    }
+
+    @Benchmark
+    public ByteDataStorage read_boxed() throws IOException, ClassNotFoundException {
+        ByteDataStorage copy = type.createInstance();
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(boxed))) {
+            for (PropertyAccessor property : properties) {
+                copy.setLocalValue(property, in.readObject());
+            }
+        }
+        return copy;
+    }
+
+    private byte[] writeBoxed() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            for (PropertyAccessor property : properties) {
+                oos.writeObject(storage.getLocalValue(property));
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
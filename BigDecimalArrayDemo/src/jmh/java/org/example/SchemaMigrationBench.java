@@ -0,0 +1,93 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已有 entities 个实例后，扩展再注册两个属性（long 和 String），测量旧实例升级到新布局的代价。
+ * bulk 是 migrateAll 一次性升级；lazy 是逐个写入新属性触发 copy-on-write；
+ * readNewProperty 读新属性（返回缺省值，不升级）；oldPropertyOnly 只读已有属性，不会升级，作为基线。
+ * 升级会改变状态，所以每次迭代重新构造实例，用 SingleShotTime 计一次完整迁移的耗时。
+ * 堆外时 long 放不进原来的槽位，bulk 和 lazy 都搬到类型的 migrationArena。
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class SchemaMigrationBench {
+
+    @Param({"HEAP", "OFF_HEAP"})
+    public String backend;
+
+    @Param({"1000000"})
+    public int entities;
+
+    private DynamicObjectType type;
+    private IntPropertyAccessor id;
+    private LongPropertyAccessor added;
+    private OffHeapArena oldArena;
+    private ByteDataStorage[] storages;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        type = new DynamicObjectType();
+        id = type.register(new IntPropertyAccessor(false, 0));
+        type.register(new DoublePropertyAccessor(true, 0.0));
+        type.register(new BooleanPropertyAccessor(false, false));
+        type.register(new ObjectPropertyAccessor());
+        if ("OFF_HEAP".equals(backend)) {
+            oldArena = type.createArena(OffHeapArena.DEFAULT_SLOTS_PER_SLAB);
+        }
+        storages = new ByteDataStorage[entities];
+        for (int i = 0; i < entities; i++) {
+            ByteDataStorage storage = oldArena == null ? type.createInstance() : type.createInstance(oldArena);
+            storage.setInt(id, i);
+            storages[i] = storage;
+        }
+
+        added = type.register(new LongPropertyAccessor(false, 0L));
+        type.register(new ObjectPropertyAccessor());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        storages = null;
+        type.closeMigrationArenas();
+        if (oldArena != null) {
+            oldArena.close();
+            oldArena = null;
+        }
+    }
+
+    @Benchmark
+    public int bulk() {
+        return type.migrateAll(Arrays.asList(storages), null);
+    }
+
+    @Benchmark
+    public int lazy() {
+        for (int i = 0; i < storages.length; i++) {
+            storages[i].setLong(added, i);
+        }
+        return storages.length;
+    }
+
+    @Benchmark
+    public long readNewProperty() {
+        long sum = 0;
+        for (ByteDataStorage storage : storages) {
+            sum += storage.getLong(added);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long oldPropertyOnly() {
+        long sum = 0;
+        for (ByteDataStorage storage : storages) {
+            sum += storage.getInt(id);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,168 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ByteDataStorage 基本类型字段：getLocalValue/setLocalValue（Any? 装箱）对比 getInt/setInt 等类型化访问。
+ * readBoxed/readTyped 按 kind 只读一种属性，分别看每种 accessor 的读取开销；
+ * mixedBoxed/mixedTyped 交替读写全部 7 种属性。写入的值都在 Integer/Long 缓存之外，装箱路径每次都会分配对象。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class TypedAccessBench {
+
+    // 可空属性多一个 null 标记位的读写
+    @Param({"false", "true"})
+    public boolean nullable;
+
+    private static final int ROUNDS = 1024;
+
+    private BooleanPropertyAccessor boolAcc;
+    private BytePropertyAccessor byteAcc;
+    private ShortPropertyAccessor shortAcc;
+    private IntPropertyAccessor intAcc;
+    private LongPropertyAccessor longAcc;
+    private FloatPropertyAccessor floatAcc;
+    private DoublePropertyAccessor doubleAcc;
+    private ByteDataStorage storage;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        DynamicObjectType type = new DynamicObjectType();
+        boolAcc = type.register(new BooleanPropertyAccessor(nullable, false));
+        byteAcc = type.register(new BytePropertyAccessor(nullable, (byte) 0));
+        shortAcc = type.register(new ShortPropertyAccessor(nullable, (short) 0));
+        intAcc = type.register(new IntPropertyAccessor(nullable, 0));
+        longAcc = type.register(new LongPropertyAccessor(nullable, 0L));
+        floatAcc = type.register(new FloatPropertyAccessor(nullable, 0f));
+        doubleAcc = type.register(new DoublePropertyAccessor(nullable, 0.0));
+        storage = type.createInstance();
+    }
+
+    /**
+     * 只读一种属性，值预先写入（非缺省值，可空属性的 null 标记位已置位）。
+     */
+    @State(Scope.Thread)
+    public static class ReadState {
+        @Param({"BOOLEAN", "BYTE", "SHORT", "INT", "LONG", "FLOAT", "DOUBLE"})
+        public String kind;
+
+        @Param({"false", "true"})
+        public boolean nullable;
+
+        PropertyAccessor accessor;
+        ByteDataStorage storage;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            DynamicObjectType type = new DynamicObjectType();
+            Object value;
+            switch (kind) {
+                case "BOOLEAN": accessor = type.register(new BooleanPropertyAccessor(nullable, false)); value = true; break;
+                case "BYTE": accessor = type.register(new BytePropertyAccessor(nullable, (byte) 0)); value = (byte) 7; break;
+                case "SHORT": accessor = type.register(new ShortPropertyAccessor(nullable, (short) 0)); value = (short) 1000; break;
+                case "INT": accessor = type.register(new IntPropertyAccessor(nullable, 0)); value = 100_000; break;
+                case "LONG": accessor = type.register(new LongPropertyAccessor(nullable, 0L)); value = 10_000_000_000L; break;
+                case "FLOAT": accessor = type.register(new FloatPropertyAccessor(nullable, 0f)); value = 0.5f; break;
+                case "DOUBLE": accessor = type.register(new DoublePropertyAccessor(nullable, 0.0)); value = 0.25; break;
+                default: throw new IllegalArgumentException(kind);
+            }
+            storage = type.createInstance();
+            storage.setLocalValue(accessor, value);
+        }
+    }
+
+    @Benchmark
+    public void readBoxed(ReadState state, Blackhole bh) {
+        ByteDataStorage storage = state.storage;
+        PropertyAccessor accessor = state.accessor;
+        for (int i = 0; i < ROUNDS; i++) {
+            bh.consume(storage.getLocalValue(accessor));
+        }
+    }
+
+    @Benchmark
+    public void readTyped(ReadState state, Blackhole bh) {
+        ByteDataStorage storage = state.storage;
+        switch (state.kind) {
+            case "BOOLEAN": {
+                BooleanPropertyAccessor accessor = (BooleanPropertyAccessor) state.accessor;
+                for (int i = 0; i < ROUNDS; i++) bh.consume(storage.getBoolean(accessor));
+                break;
+            }
+            case "BYTE": {
+                BytePropertyAccessor accessor = (BytePropertyAccessor) state.accessor;
+                for (int i = 0; i < ROUNDS; i++) bh.consume(storage.getByte(accessor));
+                break;
+            }
+            case "SHORT": {
+                ShortPropertyAccessor accessor = (ShortPropertyAccessor) state.accessor;
+                for (int i = 0; i < ROUNDS; i++) bh.consume(storage.getShort(accessor));
+                break;
+            }
+            case "INT": {
+                IntPropertyAccessor accessor = (IntPropertyAccessor) state.accessor;
+                for (int i = 0; i < ROUNDS; i++) bh.consume(storage.getInt(accessor));
+                break;
+            }
+            case "LONG": {
+                LongPropertyAccessor accessor = (LongPropertyAccessor) state.accessor;
+                for (int i = 0; i < ROUNDS; i++) bh.consume(storage.getLong(accessor));
+                break;
+            }
+            case "FLOAT": {
+                FloatPropertyAccessor accessor = (FloatPropertyAccessor) state.accessor;
+                for (int i = 0; i < ROUNDS; i++) bh.consume(storage.getFloat(accessor));
+                break;
+            }
+            default: {
+                DoublePropertyAccessor accessor = (DoublePropertyAccessor) state.accessor;
+                for (int i = 0; i < ROUNDS; i++) bh.consume(storage.getDouble(accessor));
+            }
+        }
+    }
+
+    @Benchmark
+    public void mixedBoxed(Blackhole bh) {
+        for (int i = 0; i < ROUNDS; i++) {
+            storage.setLocalValue(boolAcc, (i & 1) == 0);
+            storage.setLocalValue(byteAcc, (byte) i);
+            storage.setLocalValue(shortAcc, (short) (i + 1000));
+            storage.setLocalValue(intAcc, i + 100_000);
+            storage.setLocalValue(longAcc, i + 10_000_000_000L);
+            storage.setLocalValue(floatAcc, i + 0.5f);
+            storage.setLocalValue(doubleAcc, i + 0.25);
+            bh.consume(storage.getLocalValue(boolAcc));
+            bh.consume(storage.getLocalValue(byteAcc));
+            bh.consume(storage.getLocalValue(shortAcc));
+            bh.consume(storage.getLocalValue(intAcc));
+            bh.consume(storage.getLocalValue(longAcc));
+            bh.consume(storage.getLocalValue(floatAcc));
+            bh.consume(storage.getLocalValue(doubleAcc));
+        }
+    }
+
+    @Benchmark
+    public void mixedTyped(Blackhole bh) {
+        for (int i = 0; i < ROUNDS; i++) {
+            storage.setBoolean(boolAcc, (i & 1) == 0);
+            storage.setByte(byteAcc, (byte) i);
+            storage.setShort(shortAcc, (short) (i + 1000));
+            storage.setInt(intAcc, i + 100_000);
+            storage.setLong(longAcc, i + 10_000_000_000L);
+            storage.setFloat(floatAcc, i + 0.5f);
+            storage.setDouble(doubleAcc, i + 0.25);
+            bh.consume(storage.getBoolean(boolAcc));
+            bh.consume(storage.getByte(byteAcc));
+            bh.consume(storage.getShort(shortAcc));
+            bh.consume(storage.getInt(intAcc));
+            bh.consume(storage.getLong(longAcc));
+            bh.consume(storage.getFloat(floatAcc));
+            bh.consume(storage.getDouble(doubleAcc));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example
+
+/**
+ * ByteDataStorage 的脏标记：按属性下标（PropertyAccessor.propertyIndex）的位图，以及每个被修改属性第一次修改前的原值。
+ * 原值按修改顺序追加在 ordinals/originals 两个数组里，只保留改过的属性，代替 memberClone 整个实体的副本；
+ * 实体一次修改的属性通常很少，按下标查原值时线性查找即可。
+ *
+ * 修改后又改回原值仍然算脏（不比较值）。非线程安全。
+ */
+internal class ChangeTracker private constructor(
+    private var bits: LongArray,
+    private var ordinals: IntArray,
+    private var originals: Array<Any?>,
+    private var count: Int
+) {
+    constructor() : this(LongArray(1), IntArray(INITIAL_CAPACITY), arrayOfNulls(INITIAL_CAPACITY), 0)
+
+    val dirtyCount: Int get() = count
+
+    fun isDirty(propertyIndex: Int): Boolean {
+        val word = propertyIndex ushr 6
+        return word < bits.size && (bits[word] and (1L shl propertyIndex)) != 0L
+    }
+
+    /**
+     * 写入 accessor 之前调用：第一次修改时置位并保存原值，之后什么也不做。
+     */
+    fun beforeWrite(accessor: PropertyAccessor, storage: ByteDataStorage) {
+        val index = accessor.propertyIndex
+        check(index >= 0) { "${accessor.javaClass.simpleName} is not registered to a DynamicObjectType, changes cannot be tracked" }
+        if (isDirty(index)) return
+
+        val word = index ushr 6
+        if (word >= bits.size) {
+            bits = bits.copyOf(word + 1)
+        }
+        if (count == ordinals.size) {
+            ordinals = ordinals.copyOf(count * 2)
+            originals = originals.copyOf(count * 2)
+        }
+        ordinals[count] = index
+        originals[count] = accessor.get(storage)
+        count++
+        bits[word] = bits[word] or (1L shl index)
+    }
+
+    /**
+     * 属性第一次修改前的值，属性未修改时抛出 IllegalArgumentException。
+     */
+    fun original(propertyIndex: Int): Any? {
+        for (i in 0 until count) {
+            if (ordinals[i] == propertyIndex) return originals[i]
+        }
+        throw IllegalArgumentException("Property $propertyIndex is not dirty")
+    }
+
+    /**
+     * 修改过的属性下标，升序。
+     */
+    fun dirtyProperties(): IntArray {
+        val result = ordinals.copyOf(count)
+        result.sort()
+        return result
+    }
+
+    fun clear() {
+        bits.fill(0L)
+        originals.fill(null, 0, count)
+        count = 0
+    }
+
+    fun copy(): ChangeTracker = ChangeTracker(bits.copyOf(), ordinals.copyOf(), originals.copyOf(), count)
+
+    private companion object {
+        const val INITIAL_CAPACITY = 4
+    }
+}
@@ -0,0 +1,464 @@
+package org.example
+
+import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Label
+import org.objectweb.asm.MethodVisitor
+import org.objectweb.asm.Opcodes.*
+import org.objectweb.asm.Type
+import sun.misc.Unsafe
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 按属性下标访问一个 DynamicObjectType 的实例，由 [AccessorGenerator] 为每个类型生成子类（见 [DynamicObjectType.compiledAccessors]）。
+ *
+ * PropertyAccessor.get/set 在 15 个子类间是多态调用，每个 Field 还要读取自己的 offset 并检查越界；
+ * 生成的 getInt/setInt 等方法对属性下标做 switch，每个分支里的偏移、标志位和缺省值都是常量，
+ * 调用点只看到一个类型（单态），属性下标是常量时 JIT 会把 switch 和地址计算一起折叠掉。
+ *
+ * 只特化 7 种基本类型属性；其他属性（BigDecimal、UUID、日期等）以及写入 null 仍委托给对应的 PropertyAccessor。
+ * 属性类型与方法不符时抛出 IllegalArgumentException，与 DynamicObjectType.getInt 等一致。
+ */
+internal abstract class CompiledAccessors protected constructor(
+    private val properties: Array<PropertyAccessor>, private val layout: ObjectLayout
+) {
+    private val kinds = ByteArray(properties.size) { kindOf(properties[it]) }
+
+    val propertyCount: Int get() = properties.size
+
+    /**
+     * 只接受本类型（任意一代布局）的实例，防止把其他类型的实例传进来时按本类型的偏移越界读写；
+     * 堆内存储再检查一次数组长度（代替每个 Field 的 checkOffset），release 之后的实例在这里失败。
+     * 不升级实例：生成的 getter 对比实例更新的属性返回缺省值，setter 在 [beforeWrite] 中升级。
+     */
+    protected fun base(storage: ByteDataStorage): Any? {
+        val storageLayout = storage.layout
+        if (storageLayout.owner !== layout.owner) {
+            throw IllegalArgumentException("Storage layout does not belong to this type")
+        }
+        val base = storage.base
+        if (base is ByteArray && base.size < storageLayout.byteSize) {
+            throw IllegalArgumentException("Storage buffer.size ${base.size} is smaller than layout size ${storageLayout.byteSize}")
+        }
+        return base
+    }
+
+    /**
+     * 生成的 setter 在写入前调用：写入更新一代的属性时升级实例（堆外可能搬到新槽位），并记录脏标记。
+     * 之后 setter 重新读取 base/address。
+     */
+    protected fun beforeWrite(storage: ByteDataStorage, propertyIndex: Int) {
+        storage.beforeWrite(properties[propertyIndex])
+    }
+
+    // region 由生成的子类覆盖，默认实现只处理类型不符
+    open fun getBoolean(storage: ByteDataStorage, propertyIndex: Int): Boolean = throw mismatch(propertyIndex, KIND_BOOLEAN)
+    open fun setBoolean(storage: ByteDataStorage, propertyIndex: Int, value: Boolean): Unit = throw mismatch(propertyIndex, KIND_BOOLEAN)
+    open fun getByte(storage: ByteDataStorage, propertyIndex: Int): Byte = throw mismatch(propertyIndex, KIND_BYTE)
+    open fun setByte(storage: ByteDataStorage, propertyIndex: Int, value: Byte): Unit = throw mismatch(propertyIndex, KIND_BYTE)
+    open fun getShort(storage: ByteDataStorage, propertyIndex: Int): Short = throw mismatch(propertyIndex, KIND_SHORT)
+    open fun setShort(storage: ByteDataStorage, propertyIndex: Int, value: Short): Unit = throw mismatch(propertyIndex, KIND_SHORT)
+    open fun getInt(storage: ByteDataStorage, propertyIndex: Int): Int = throw mismatch(propertyIndex, KIND_INT)
+    open fun setInt(storage: ByteDataStorage, propertyIndex: Int, value: Int): Unit = throw mismatch(propertyIndex, KIND_INT)
+    open fun getLong(storage: ByteDataStorage, propertyIndex: Int): Long = throw mismatch(propertyIndex, KIND_LONG)
+    open fun setLong(storage: ByteDataStorage, propertyIndex: Int, value: Long): Unit = throw mismatch(propertyIndex, KIND_LONG)
+    open fun getFloat(storage: ByteDataStorage, propertyIndex: Int): Float = throw mismatch(propertyIndex, KIND_FLOAT)
+    open fun setFloat(storage: ByteDataStorage, propertyIndex: Int, value: Float): Unit = throw mismatch(propertyIndex, KIND_FLOAT)
+    open fun getDouble(storage: ByteDataStorage, propertyIndex: Int): Double = throw mismatch(propertyIndex, KIND_DOUBLE)
+    open fun setDouble(storage: ByteDataStorage, propertyIndex: Int, value: Double): Unit = throw mismatch(propertyIndex, KIND_DOUBLE)
+
+    /**
+     * 属性当前是否为 null。生成的子类对基本类型属性直接读标志位，其他属性走 PropertyAccessor.get。
+     */
+    open fun isNull(storage: ByteDataStorage, propertyIndex: Int): Boolean = properties[propertyIndex].get(storage) == null
+    //endregion
+
+    /**
+     * 与 PropertyAccessor.get 结果相同，基本类型属性不经过多态调用（但仍然装箱）。
+     */
+    fun get(storage: ByteDataStorage, propertyIndex: Int): Any? {
+        val kind = kinds[propertyIndex]
+        if (kind == KIND_OTHER) return properties[propertyIndex].get(storage)
+        if (isNull(storage, propertyIndex)) return null
+        return when (kind) {
+            KIND_BOOLEAN -> getBoolean(storage, propertyIndex)
+            KIND_BYTE -> getByte(storage, propertyIndex)
+            KIND_SHORT -> getShort(storage, propertyIndex)
+            KIND_INT -> getInt(storage, propertyIndex)
+            KIND_LONG -> getLong(storage, propertyIndex)
+            KIND_FLOAT -> getFloat(storage, propertyIndex)
+            else -> getDouble(storage, propertyIndex)
+        }
+    }
+
+    /**
+     * 与 PropertyAccessor.set 结果相同。
+     */
+    fun set(storage: ByteDataStorage, propertyIndex: Int, value: Any?) {
+        when (if (value == null) KIND_OTHER else kinds[propertyIndex]) {
+            KIND_BOOLEAN -> setBoolean(storage, propertyIndex, value as Boolean)
+            KIND_BYTE -> setByte(storage, propertyIndex, value as Byte)
+            KIND_SHORT -> setShort(storage, propertyIndex, value as Short)
+            KIND_INT -> setInt(storage, propertyIndex, value as Int)
+            KIND_LONG -> setLong(storage, propertyIndex, value as Long)
+            KIND_FLOAT -> setFloat(storage, propertyIndex, value as Float)
+            KIND_DOUBLE -> setDouble(storage, propertyIndex, value as Double)
+            else -> properties[propertyIndex].set(storage, value)
+        }
+    }
+
+    private fun mismatch(propertyIndex: Int, kind: Byte): IllegalArgumentException {
+        val property = properties[propertyIndex]
+        return IllegalArgumentException(
+            "Property $propertyIndex is ${property.javaClass.simpleName}, not ${KIND_NAMES[kind.toInt()]}PropertyAccessor")
+    }
+
+    companion object {
+        @JvmField
+        val UNSAFE: Unsafe = Field.UNSAFE
+
+        internal const val KIND_OTHER: Byte = 0
+        internal const val KIND_BOOLEAN: Byte = 1
+        internal const val KIND_BYTE: Byte = 2
+        internal const val KIND_SHORT: Byte = 3
+        internal const val KIND_INT: Byte = 4
+        internal const val KIND_LONG: Byte = 5
+        internal const val KIND_FLOAT: Byte = 6
+        internal const val KIND_DOUBLE: Byte = 7
+
+        private val KIND_NAMES = arrayOf("", "Boolean", "Byte", "Short", "Int", "Long", "Float", "Double")
+
+        internal fun kindOf(property: PropertyAccessor): Byte = when (property) {
+            is BooleanPropertyAccessor -> KIND_BOOLEAN
+            is BytePropertyAccessor -> KIND_BYTE
+            is ShortPropertyAccessor -> KIND_SHORT
+            is IntPropertyAccessor -> KIND_INT
+            is LongPropertyAccessor -> KIND_LONG
+            is FloatPropertyAccessor -> KIND_FLOAT
+            is DoublePropertyAccessor -> KIND_DOUBLE
+            else -> KIND_OTHER
+        }
+    }
+}
+
+/**
+ * 用 ASM 生成 [CompiledAccessors] 的子类。工具链是 JDK 8，没有 hidden class / Lookup.defineClass，
+ * 每个类型用一个独立的子 ClassLoader 定义，类型不再被引用时生成的类可以一起卸载。
+ * 生成的类只访问 public 成员（Kotlin internal 类在字节码中是 public），所以跨 ClassLoader 也可以访问。
+ */
+internal object AccessorGenerator {
+    private val SUPER = Type.getInternalName(CompiledAccessors::class.java)
+    private val STORAGE = Type.getInternalName(ByteDataStorage::class.java)
+    private val STORAGE_DESC = Type.getDescriptor(ByteDataStorage::class.java)
+    private val LAYOUT = Type.getInternalName(ObjectLayout::class.java)
+    private val LAYOUT_DESC = Type.getDescriptor(ObjectLayout::class.java)
+    private val UNSAFE = Type.getInternalName(Unsafe::class.java)
+    private val UNSAFE_DESC = Type.getDescriptor(Unsafe::class.java)
+    private val counter = AtomicInteger()
+
+    /**
+     * 每种基本类型的 JVM 描述符与 Unsafe 方法名。
+     */
+    private class Primitive(val kind: Byte, val name: String, val desc: String, val unsafeSuffix: String) {
+        val type: Type = Type.getType(desc)
+    }
+
+    private val PRIMITIVES = listOf(
+        Primitive(CompiledAccessors.KIND_BOOLEAN, "Boolean", "Z", "Byte"),  // 值是字节中的一位
+        Primitive(CompiledAccessors.KIND_BYTE, "Byte", "B", "Byte"),
+        Primitive(CompiledAccessors.KIND_SHORT, "Short", "S", "Short"),
+        Primitive(CompiledAccessors.KIND_INT, "Int", "I", "Int"),
+        Primitive(CompiledAccessors.KIND_LONG, "Long", "J", "Long"),
+        Primitive(CompiledAccessors.KIND_FLOAT, "Float", "F", "Float"),
+        Primitive(CompiledAccessors.KIND_DOUBLE, "Double", "D", "Double"),
+    )
+
+    /**
+     * 一个基本类型属性的布局：值字段偏移（boolean 另有位下标）、可选的标志位、缺省值，以及属性加入时的布局版本。
+     */
+    private class Slot(val index: Int, val valueOffset: Long, val valueBit: Int,
+                       val definedOffset: Long, val definedBit: Int, val defaultValue: Any) {
+        var version = 0
+    }
+
+    private fun slotOf(index: Int, property: PropertyAccessor): Slot? =
+        primitiveSlotOf(index, property)?.also { it.version = property.layoutVersion }
+
+    private fun primitiveSlotOf(index: Int, property: PropertyAccessor): Slot? {
+        fun defined(field: BooleanField?) = if (field == null) -1L else field.byteOffset.toLong()
+        fun definedBit(field: BooleanField?) = field?.bit ?: 0
+        return when (property) {
+            is BooleanPropertyAccessor -> Slot(index, property.valueField.byteOffset.toLong(), property.valueField.bit,
+                defined(property.definedField), definedBit(property.definedField), property.defaultPrimitive)
+            is BytePropertyAccessor -> Slot(index, property.valueField.byteOffset.toLong(), 0,
+                defined(property.definedField), definedBit(property.definedField), property.defaultPrimitive.toInt())
+            is ShortPropertyAccessor -> Slot(index, property.valueField.byteOffset.toLong(), 0,
+                defined(property.definedField), definedBit(property.definedField), property.defaultPrimitive.toInt())
+            is IntPropertyAccessor -> Slot(index, property.valueField.byteOffset.toLong(), 0,
+                defined(property.definedField), definedBit(property.definedField), property.defaultPrimitive)
+            is LongPropertyAccessor -> Slot(index, property.valueField.byteOffset.toLong(), 0,
+                defined(property.definedField), definedBit(property.definedField), property.defaultPrimitive)
+            is FloatPropertyAccessor -> Slot(index, property.valueField.byteOffset.toLong(), 0,
+                defined(property.definedField), definedBit(property.definedField), property.defaultPrimitive)
+            is DoublePropertyAccessor -> Slot(index, property.valueField.byteOffset.toLong(), 0,
+                defined(property.definedField), definedBit(property.definedField), property.defaultPrimitive)
+            else -> null
+        }
+    }
+
+    /**
+     * 为已经完成布局（offset 已分配）的属性列表生成访问类并实例化，layout 是属性列表对应的最新一代布局。
+     */
+    fun generate(properties: List<PropertyAccessor>, layout: ObjectLayout): CompiledAccessors {
+        val slots = properties.mapIndexedNotNull { index, property -> slotOf(index, property) }
+        val byKind = slots.groupBy { CompiledAccessors.kindOf(properties[it.index]) }
+        val name = "org/example/GeneratedAccessors$${counter.incrementAndGet()}"
+
+        val cw = object : ClassWriter(COMPUTE_FRAMES or COMPUTE_MAXS) {
+            // 生成的代码在分支合并处只有 Object / ByteDataStorage 等引用，不需要加载类来计算公共父类
+            override fun getCommonSuperClass(type1: String, type2: String) = "java/lang/Object"
+        }
+        cw.visit(V1_8, ACC_PUBLIC or ACC_FINAL or ACC_SUPER, name, null, SUPER, null)
+
+        val ctorDesc = "([${Type.getDescriptor(PropertyAccessor::class.java)}$LAYOUT_DESC)V"
+        cw.visitMethod(ACC_PUBLIC, "<init>", ctorDesc, null, null).apply {
+            visitCode()
+            visitVarInsn(ALOAD, 0)
+            visitVarInsn(ALOAD, 1)
+            visitVarInsn(ALOAD, 2)
+            visitMethodInsn(INVOKESPECIAL, SUPER, "<init>", ctorDesc, false)
+            visitInsn(RETURN)
+            visitMaxs(0, 0)
+            visitEnd()
+        }
+
+        for (primitive in PRIMITIVES) {
+            val kindSlots = byKind[primitive.kind] ?: continue
+            generateGetter(cw, primitive, kindSlots)
+            generateSetter(cw, primitive, kindSlots)
+        }
+        generateIsNull(cw, slots.filter { it.definedOffset >= 0 && properties[it.index].nullable },
+            slots.filter { !properties[it.index].nullable })
+        cw.visitEnd()
+
+        val bytes = cw.toByteArray()
+        val clazz = GeneratedClassLoader(CompiledAccessors::class.java.classLoader).define(name.replace('/', '.'), bytes)
+        return clazz.getConstructor(Array<PropertyAccessor>::class.java, ObjectLayout::class.java)
+            .newInstance(properties.toTypedArray(), layout) as CompiledAccessors
+    }
+
+    // 局部变量：0 = this, 1 = storage, 2 = propertyIndex, 之后是 value（setter）、base、address
+    private fun loadBaseAndAddress(mv: MethodVisitor, baseSlot: Int) {
+        mv.visitVarInsn(ALOAD, 0)
+        mv.visitVarInsn(ALOAD, 1)
+        mv.visitMethodInsn(INVOKEVIRTUAL, SUPER, "base", "($STORAGE_DESC)Ljava/lang/Object;", false)
+        mv.visitVarInsn(ASTORE, baseSlot)
+        mv.visitVarInsn(ALOAD, 1)
+        mv.visitMethodInsn(INVOKEVIRTUAL, STORAGE, "getAddress", "()J", false)
+        mv.visitVarInsn(LSTORE, baseSlot + 1)
+    }
+
+    /**
+     * 实例的布局比 slot 所在的布局旧（还没有这个属性的字段）时跳到 older。首代布局的属性不生成检查。
+     */
+    private fun jumpIfOlder(mv: MethodVisitor, slot: Slot, older: Label) {
+        if (slot.version == 0) return
+        mv.visitVarInsn(ALOAD, 1)
+        mv.visitMethodInsn(INVOKEVIRTUAL, STORAGE, "getLayout", "()$LAYOUT_DESC", false)
+        mv.visitMethodInsn(INVOKEVIRTUAL, LAYOUT, "getVersion", "()I", false)
+        mv.visitLdcInsn(slot.version)
+        mv.visitJumpInsn(IF_ICMPLT, older)
+    }
+
+    /**
+     * 压入 UNSAFE, base, address + offset。
+     */
+    private fun pushAddress(mv: MethodVisitor, baseSlot: Int, offset: Long) {
+        mv.visitFieldInsn(GETSTATIC, SUPER, "UNSAFE", UNSAFE_DESC)
+        mv.visitVarInsn(ALOAD, baseSlot)
+        mv.visitVarInsn(LLOAD, baseSlot + 1)
+        mv.visitLdcInsn(offset)
+        mv.visitInsn(LADD)
+    }
+
+    private fun getByte(mv: MethodVisitor, baseSlot: Int, offset: Long) {
+        pushAddress(mv, baseSlot, offset)
+        mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE, "getByte", "(Ljava/lang/Object;J)B", false)
+    }
+
+    /**
+     * 把 (offset, bit) 处的位置为 1 或 0。
+     */
+    private fun writeBit(mv: MethodVisitor, baseSlot: Int, offset: Long, bit: Int, value: Boolean) {
+        pushAddress(mv, baseSlot, offset)
+        getByte(mv, baseSlot, offset)
+        if (value) {
+            mv.visitLdcInsn(1 shl bit)
+            mv.visitInsn(IOR)
+        } else {
+            mv.visitLdcInsn((1 shl bit).inv())
+            mv.visitInsn(IAND)
+        }
+        mv.visitInsn(I2B)
+        mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE, "putByte", "(Ljava/lang/Object;JB)V", false)
+    }
+
+    /**
+     * 对 propertyIndex 做 lookupswitch，slots 须按下标升序。
+     */
+    private fun switchOn(mv: MethodVisitor, slots: List<Slot>): Pair<Array<Label>, Label> {
+        val labels = Array(slots.size) { Label() }
+        val fallback = Label()
+        mv.visitVarInsn(ILOAD, 2)
+        mv.visitLookupSwitchInsn(fallback, slots.map { it.index }.toIntArray(), labels)
+        return labels to fallback
+    }
+
+    private fun generateGetter(cw: ClassWriter, primitive: Primitive, slots: List<Slot>) {
+        val desc = "($STORAGE_DESC" + "I)${primitive.desc}"
+        val mv = cw.visitMethod(ACC_PUBLIC, "get${primitive.name}", desc, null, null)
+        mv.visitCode()
+        val baseSlot = 3
+        loadBaseAndAddress(mv, baseSlot)
+        val (labels, fallback) = switchOn(mv, slots)
+        for ((i, slot) in slots.withIndex()) {
+            mv.visitLabel(labels[i])
+            val useDefault = Label()
+            jumpIfOlder(mv, slot, useDefault)
+            if (slot.definedOffset >= 0) {
+                val defined = Label()
+                getByte(mv, baseSlot, slot.definedOffset)
+                mv.visitLdcInsn(1 shl slot.definedBit)
+                mv.visitInsn(IAND)
+                mv.visitJumpInsn(IFNE, defined)
+                mv.visitJumpInsn(GOTO, useDefault)
+                mv.visitLabel(defined)
+            }
+            if (primitive.kind == CompiledAccessors.KIND_BOOLEAN) {
+                getByte(mv, baseSlot, slot.valueOffset)
+                mv.visitLdcInsn(slot.valueBit)
+                mv.visitInsn(ISHR)
+                mv.visitInsn(ICONST_1)
+                mv.visitInsn(IAND)
+            } else {
+                pushAddress(mv, baseSlot, slot.valueOffset)
+                mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE, "get${primitive.unsafeSuffix}",
+                    "(Ljava/lang/Object;J)${primitive.desc}", false)
+            }
+            mv.visitInsn(primitive.type.getOpcode(IRETURN))
+            mv.visitLabel(useDefault)
+            pushConstant(mv, primitive, slot.defaultValue)
+            mv.visitInsn(primitive.type.getOpcode(IRETURN))
+        }
+        mv.visitLabel(fallback)
+        mv.visitVarInsn(ALOAD, 0)
+        mv.visitVarInsn(ALOAD, 1)
+        mv.visitVarInsn(ILOAD, 2)
+        mv.visitMethodInsn(INVOKESPECIAL, SUPER, "get${primitive.name}", desc, false)
+        mv.visitInsn(primitive.type.getOpcode(IRETURN))
+        mv.visitMaxs(0, 0)
+        mv.visitEnd()
+    }
+
+    private fun generateSetter(cw: ClassWriter, primitive: Primitive, slots: List<Slot>) {
+        val desc = "($STORAGE_DESC" + "I${primitive.desc})V"
+        val mv = cw.visitMethod(ACC_PUBLIC, "set${primitive.name}", desc, null, null)
+        mv.visitCode()
+        val valueSlot = 3
+        val baseSlot = valueSlot + primitive.type.size
+        loadBaseAndAddress(mv, baseSlot)
+        val (labels, fallback) = switchOn(mv, slots)
+        for ((i, slot) in slots.withIndex()) {
+            mv.visitLabel(labels[i])
+            mv.visitVarInsn(ALOAD, 0)
+            mv.visitVarInsn(ALOAD, 1)
+            mv.visitVarInsn(ILOAD, 2)
+            mv.visitMethodInsn(INVOKEVIRTUAL, SUPER, "beforeWrite", "($STORAGE_DESC" + "I)V", false)
+            if (slot.version > 0) {
+                // 可能刚升级过（堆外实例可能换了槽位），重新读取
+                mv.visitVarInsn(ALOAD, 1)
+                mv.visitMethodInsn(INVOKEVIRTUAL, STORAGE, "getBase", "()Ljava/lang/Object;", false)
+                mv.visitVarInsn(ASTORE, baseSlot)
+                mv.visitVarInsn(ALOAD, 1)
+                mv.visitMethodInsn(INVOKEVIRTUAL, STORAGE, "getAddress", "()J", false)
+                mv.visitVarInsn(LSTORE, baseSlot + 1)
+            }
+            if (primitive.kind == CompiledAccessors.KIND_BOOLEAN) {
+                val clear = Label()
+                val done = Label()
+                mv.visitVarInsn(ILOAD, valueSlot)
+                mv.visitJumpInsn(IFEQ, clear)
+                writeBit(mv, baseSlot, slot.valueOffset, slot.valueBit, true)
+                mv.visitJumpInsn(GOTO, done)
+                mv.visitLabel(clear)
+                writeBit(mv, baseSlot, slot.valueOffset, slot.valueBit, false)
+                mv.visitLabel(done)
+            } else {
+                pushAddress(mv, baseSlot, slot.valueOffset)
+                mv.visitVarInsn(primitive.type.getOpcode(ILOAD), valueSlot)
+                mv.visitMethodInsn(INVOKEVIRTUAL, UNSAFE, "put${primitive.unsafeSuffix}",
+                    "(Ljava/lang/Object;J${primitive.desc})V", false)
+            }
+            if (slot.definedOffset >= 0) {
+                writeBit(mv, baseSlot, slot.definedOffset, slot.definedBit, true)
+            }
+            mv.visitInsn(RETURN)
+        }
+        mv.visitLabel(fallback)
+        mv.visitVarInsn(ALOAD, 0)
+        mv.visitVarInsn(ALOAD, 1)
+        mv.visitVarInsn(ILOAD, 2)
+        mv.visitVarInsn(primitive.type.getOpcode(ILOAD), valueSlot)
+        mv.visitMethodInsn(INVOKESPECIAL, SUPER, "set${primitive.name}", desc, false)
+        mv.visitInsn(RETURN)
+        mv.visitMaxs(0, 0)
+        mv.visitEnd()
+    }
+
+    /**
+     * 可空基本类型属性读标志位，不可空的基本类型属性恒为 false，其余交给父类。
+     */
+    private fun generateIsNull(cw: ClassWriter, nullableSlots: List<Slot>, nonNullSlots: List<Slot>) {
+        val desc = "($STORAGE_DESC" + "I)Z"
+        val mv = cw.visitMethod(ACC_PUBLIC, "isNull", desc, null, null)
+        mv.visitCode()
+        val baseSlot = 3
+        loadBaseAndAddress(mv, baseSlot)
+        val slots = (nullableSlots + nonNullSlots).sortedBy { it.index }
+        val (labels, fallback) = switchOn(mv, slots)
+        for ((i, slot) in slots.withIndex()) {
+            mv.visitLabel(labels[i])
+            if (slot in nullableSlots) {
+                jumpIfOlder(mv, slot, fallback)  // 交给父类按缺省值判断
+                getByte(mv, baseSlot, slot.definedOffset)
+                mv.visitLdcInsn(slot.definedBit)
+                mv.visitInsn(ISHR)
+                mv.visitInsn(ICONST_1)
+                mv.visitInsn(IAND)
+                mv.visitInsn(ICONST_1)
+                mv.visitInsn(IXOR)
+            } else {
+                mv.visitInsn(ICONST_0)
+            }
+            mv.visitInsn(IRETURN)
+        }
+        mv.visitLabel(fallback)
+        mv.visitVarInsn(ALOAD, 0)
+        mv.visitVarInsn(ALOAD, 1)
+        mv.visitVarInsn(ILOAD, 2)
+        mv.visitMethodInsn(INVOKESPECIAL, SUPER, "isNull", desc, false)
+        mv.visitInsn(IRETURN)
+        mv.visitMaxs(0, 0)
+        mv.visitEnd()
+    }
+
+    private fun pushConstant(mv: MethodVisitor, primitive: Primitive, value: Any) {
+        when (primitive.kind) {
+            CompiledAccessors.KIND_BOOLEAN -> mv.visitInsn(if (value as Boolean) ICONST_1 else ICONST_0)
+            else -> mv.visitLdcInsn(value)  // Byte/Short 已转为 Int
+        }
+    }
+
+    private class GeneratedClassLoader(parent: ClassLoader?) : ClassLoader(parent) {
+        fun define(name: String, bytes: ByteArray): Class<*> = defineClass(name, bytes, 0, bytes.size)
+    }
+}
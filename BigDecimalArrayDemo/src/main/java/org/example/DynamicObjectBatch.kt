@@ -0,0 +1,830 @@
+package org.example
+
+import java.math.BigDecimal
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.ZoneOffset
+import java.util.Date
+import java.util.IdentityHashMap
+import java.util.UUID
+
+/**
+ * DynamicObjectType 的列存储（struct-of-arrays）：每个 PropertyAccessor 的值存放在一列连续的基本类型数组中，
+ * 100 万行只有每列几个数组头，而不是 100 万个 ByteDataStorage + ByteArray + Array<Any?>。
+ * BigDecimal、UUID、日期时间沿用行存储的紧凑编码（intCompact + scale、两个 long、epoch 值等）。
+ *
+ * - 行视图：[row] 返回轻量的 [Row]，按 accessor 读写单个值（装箱，适合非热点代码）；
+ * - 列扫描：[column] 按 accessor 的具体类型返回对应的列（如 IntPropertyAccessor -> [IntColumn]），提供类型化读写与 sum 等聚合。
+ *
+ * 创建时对 type.properties 做快照，之后注册的属性不会出现在本批次中。非线程安全。
+ */
+internal class DynamicObjectBatch(val type: DynamicObjectType, initialCapacity: Int = 16) {
+    private val properties = type.properties.toList()
+    private val columnIndex = IdentityHashMap<PropertyAccessor, Int>()
+    private val columns: Array<Column>
+
+    var size = 0
+        private set
+
+    var capacity = 0
+        private set
+
+    init {
+        require(initialCapacity >= 0) { "initialCapacity must be >= 0: $initialCapacity" }
+        properties.forEachIndexed { index, property -> columnIndex[property] = index }
+        columns = newColumns(initialCapacity)
+    }
+
+    private fun newColumns(capacity: Int): Array<Column> {
+        val columns = Array(properties.size) { Column.of(this, properties[it]) }
+        for (column in columns) {
+            column.resize(capacity)
+        }
+        this.capacity = capacity
+        return columns
+    }
+
+    /**
+     * 追加一行默认值（与 createInstance 的初始值相同），返回行号。
+     */
+    fun addRow(): Int {
+        if (size == capacity) {
+            val newCapacity = maxOf(16, capacity + (capacity shr 1))
+            for (column in columns) {
+                column.resize(newCapacity)
+            }
+            capacity = newCapacity
+        }
+        return size++
+    }
+
+    /**
+     * 追加一行并复制行存储实例中每个属性的值，返回行号。
+     */
+    fun add(storage: ByteDataStorage): Int {
+        val row = addRow()
+        for (i in columns.indices) {
+            columns[i].set(row, properties[i].get(storage))
+        }
+        return row
+    }
+
+    /**
+     * 把一行复制为行存储实例。
+     */
+    fun toStorage(row: Int): ByteDataStorage {
+        checkRow(row)
+        val storage = type.createInstance()
+        for (i in columns.indices) {
+            properties[i].set(storage, columns[i].get(row))
+        }
+        return storage
+    }
+
+    /**
+     * 删除全部行，保留容量。列原地恢复为默认值，之前通过 [column] 取得的列引用仍然有效。
+     */
+    fun clear() {
+        for (column in columns) {
+            column.reset(size)
+        }
+        size = 0
+    }
+
+    fun row(index: Int): Row {
+        checkRow(index)
+        return Row(index)
+    }
+
+    internal fun checkRow(row: Int) {
+        if (row < 0 || row >= size) {
+            throw IndexOutOfBoundsException("row: $row, size: $size")
+        }
+    }
+
+    // region 列
+    fun column(propertyIndex: Int): Column = columns[propertyIndex]
+
+    fun column(accessor: PropertyAccessor): Column {
+        val index = columnIndex[accessor] ?: throw IllegalArgumentException("Property is not registered in this batch: $accessor")
+        return columns[index]
+    }
+
+    fun column(accessor: BooleanPropertyAccessor) = column(accessor as PropertyAccessor) as BooleanColumn
+    fun column(accessor: BytePropertyAccessor) = column(accessor as PropertyAccessor) as ByteColumn
+    fun column(accessor: ShortPropertyAccessor) = column(accessor as PropertyAccessor) as ShortColumn
+    fun column(accessor: IntPropertyAccessor) = column(accessor as PropertyAccessor) as IntColumn
+    fun column(accessor: LongPropertyAccessor) = column(accessor as PropertyAccessor) as LongColumn
+    fun column(accessor: FloatPropertyAccessor) = column(accessor as PropertyAccessor) as FloatColumn
+    fun column(accessor: DoublePropertyAccessor) = column(accessor as PropertyAccessor) as DoubleColumn
+    fun column(accessor: BigDecimalPropertyAccessor) = column(accessor as PropertyAccessor) as BigDecimalColumn
+    //endregion
+
+    /**
+     * 某一行的视图，不复制数据；batch.clear() 之后失效。
+     */
+    inner class Row internal constructor(val index: Int) {
+        operator fun get(accessor: PropertyAccessor): Any? = column(accessor).get(index)
+        operator fun set(accessor: PropertyAccessor, value: Any?) = column(accessor).set(index, value)
+    }
+}
+
+//region =================== Columns ========================
+/**
+ * 一个属性的列。nullable 列额外有一个 defined 位图（位为 0 表示 null），与行存储的 _definedField 语义相同，新行默认为 null；
+ * 不可空列在扩容时直接填入 defaultValue，不需要标志位。
+ */
+internal abstract class Column(protected val batch: DynamicObjectBatch, val nullable: Boolean) {
+    private var defined: LongArray? = if (nullable) LongArray(0) else null
+
+    abstract fun get(row: Int): Any?
+    abstract fun set(row: Int, value: Any?)
+
+    open fun isNull(row: Int): Boolean {
+        batch.checkRow(row)
+        val bits = defined ?: return false
+        return bits[row ushr 6] and (1L shl row) == 0L
+    }
+
+    protected fun markDefined(row: Int, value: Boolean) {
+        val bits = defined ?: return
+        val word = row ushr 6
+        bits[word] = if (value) bits[word] or (1L shl row) else bits[word] and (1L shl row).inv()
+    }
+
+    /**
+     * 扩容到 newCapacity 行，新增的行为默认值。
+     */
+    internal open fun resize(newCapacity: Int) {
+        defined = defined?.copyOf((newCapacity + 63) ushr 6)
+    }
+
+    /**
+     * 把 [0, rows) 行原地恢复为默认值（batch.clear 时调用），不替换数组。
+     */
+    internal open fun reset(rows: Int) {
+        defined?.fill(0L, 0, (rows + 63) ushr 6)
+    }
+
+    companion object {
+        fun of(batch: DynamicObjectBatch, accessor: PropertyAccessor): Column = when (accessor) {
+            is BooleanPropertyAccessor -> BooleanColumn(batch, accessor)
+            is BytePropertyAccessor -> ByteColumn(batch, accessor)
+            is ShortPropertyAccessor -> ShortColumn(batch, accessor)
+            is IntPropertyAccessor -> IntColumn(batch, accessor)
+            is LongPropertyAccessor -> LongColumn(batch, accessor)
+            is FloatPropertyAccessor -> FloatColumn(batch, accessor)
+            is DoublePropertyAccessor -> DoubleColumn(batch, accessor)
+            is BigDecimalPropertyAccessor -> BigDecimalColumn(batch, accessor)
+            is UUIDPropertyAccessor -> UUIDColumn(batch, accessor)
+            is LocalDatePropertyAccessor -> EpochColumn(batch, accessor, LocalDate::toEpochDay, LocalDate::ofEpochDay)
+            is LocalTimePropertyAccessor -> EpochColumn(batch, accessor, LocalTime::toNanoOfDay, LocalTime::ofNanoOfDay)
+            is DatePropertyAccessor -> EpochColumn(batch, accessor, Date::getTime, ::Date)
+            is LocalDateTimePropertyAccessor -> EpochNanoColumn(batch, accessor,
+                { it.toEpochSecond(ZoneOffset.UTC) }, LocalDateTime::getNano,
+                { second, nano -> LocalDateTime.ofEpochSecond(second, nano, ZoneOffset.UTC) })
+            is InstantPropertyAccessor -> EpochNanoColumn(batch, accessor,
+                Instant::getEpochSecond, Instant::getNano,
+                { second, nano -> Instant.ofEpochSecond(second, nano.toLong()) })
+            else -> ObjectColumn(batch)
+        }
+    }
+}
+
+/**
+ * 值按位存放在 LongArray 中。
+ */
+internal class BooleanColumn(batch: DynamicObjectBatch, accessor: BooleanPropertyAccessor) : Column(batch, accessor.nullable) {
+    private val defaultValue = accessor.defaultValue as Boolean? ?: false
+    private var values = LongArray(0)
+
+    fun getBoolean(row: Int): Boolean {
+        batch.checkRow(row)
+        return values[row ushr 6] and (1L shl row) != 0L
+    }
+
+    fun setBoolean(row: Int, value: Boolean) {
+        batch.checkRow(row)
+        write(row, value)
+        markDefined(row, true)
+    }
+
+    private fun write(row: Int, value: Boolean) {
+        val word = row ushr 6
+        values[word] = if (value) values[word] or (1L shl row) else values[word] and (1L shl row).inv()
+    }
+
+    override fun get(row: Int): Any? = if (isNull(row)) null else getBoolean(row)
+
+    override fun set(row: Int, value: Any?) {
+        if (value == null) {
+            batch.checkRow(row)
+            write(row, defaultValue)
+            markDefined(row, false)
+        } else {
+            setBoolean(row, value as Boolean)
+        }
+    }
+
+    /**
+     * 值为 true 的行数（null 不计入）。
+     */
+    fun countTrue(): Int {
+        var count = 0
+        val size = batch.size
+        val fullWords = size ushr 6
+        for (i in 0 until fullWords) {
+            count += java.lang.Long.bitCount(values[i])
+        }
+        // size 之后的行（已按 defaultValue 填充）不计入
+        if (size and 63 != 0) {
+            count += java.lang.Long.bitCount(values[fullWords] and ((1L shl size) - 1))
+        }
+        return count
+    }
+
+    override fun reset(rows: Int) {
+        // resize 按整个 word 填充默认值，这里同样按 word 恢复
+        values.fill(if (defaultValue) -1L else 0L, 0, (rows + 63) ushr 6)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        val oldCapacity = values.size shl 6
+        values = values.copyOf((newCapacity + 63) ushr 6)
+        if (defaultValue) {
+            for (row in oldCapacity until (values.size shl 6)) {
+                write(row, true)
+            }
+        }
+        super.resize(newCapacity)
+    }
+}
+
+internal class ByteColumn(batch: DynamicObjectBatch, accessor: BytePropertyAccessor) : Column(batch, accessor.nullable) {
+    private val defaultValue = accessor.defaultValue as Byte? ?: 0.toByte()
+    private var values = ByteArray(0)
+
+    /**
+     * null 读为 0，需要区分 null 时使用 [isNull] 或 [get]。
+     */
+    fun getByte(row: Int): Byte {
+        batch.checkRow(row)
+        return values[row]
+    }
+
+    fun setByte(row: Int, value: Byte) {
+        batch.checkRow(row)
+        values[row] = value
+        markDefined(row, true)
+    }
+
+    override fun get(row: Int): Any? = if (isNull(row)) null else getByte(row)
+
+    override fun set(row: Int, value: Any?) {
+        if (value == null) {
+            batch.checkRow(row)
+            values[row] = defaultValue
+            markDefined(row, false)
+        } else {
+            setByte(row, value as Byte)
+        }
+    }
+
+    /**
+     * 所有行之和（null 按 0 计）。
+     */
+    fun sum(): Long {
+        var sum = 0L
+        for (i in 0 until batch.size) {
+            sum += values[i].toLong()
+        }
+        return sum
+    }
+
+    override fun reset(rows: Int) {
+        values.fill(defaultValue, 0, rows)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        val oldCapacity = values.size
+        values = values.copyOf(newCapacity)
+        values.fill(defaultValue, oldCapacity, newCapacity)
+        super.resize(newCapacity)
+    }
+}
+
+internal class ShortColumn(batch: DynamicObjectBatch, accessor: ShortPropertyAccessor) : Column(batch, accessor.nullable) {
+    private val defaultValue = accessor.defaultValue as Short? ?: 0.toShort()
+    private var values = ShortArray(0)
+
+    /**
+     * null 读为 0，需要区分 null 时使用 [isNull] 或 [get]。
+     */
+    fun getShort(row: Int): Short {
+        batch.checkRow(row)
+        return values[row]
+    }
+
+    fun setShort(row: Int, value: Short) {
+        batch.checkRow(row)
+        values[row] = value
+        markDefined(row, true)
+    }
+
+    override fun get(row: Int): Any? = if (isNull(row)) null else getShort(row)
+
+    override fun set(row: Int, value: Any?) {
+        if (value == null) {
+            batch.checkRow(row)
+            values[row] = defaultValue
+            markDefined(row, false)
+        } else {
+            setShort(row, value as Short)
+        }
+    }
+
+    /**
+     * 所有行之和（null 按 0 计）。
+     */
+    fun sum(): Long {
+        var sum = 0L
+        for (i in 0 until batch.size) {
+            sum += values[i].toLong()
+        }
+        return sum
+    }
+
+    override fun reset(rows: Int) {
+        values.fill(defaultValue, 0, rows)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        val oldCapacity = values.size
+        values = values.copyOf(newCapacity)
+        values.fill(defaultValue, oldCapacity, newCapacity)
+        super.resize(newCapacity)
+    }
+}
+
+internal class IntColumn(batch: DynamicObjectBatch, accessor: IntPropertyAccessor) : Column(batch, accessor.nullable) {
+    private val defaultValue = accessor.defaultValue as Int? ?: 0
+    private var values = IntArray(0)
+
+    /**
+     * null 读为 0，需要区分 null 时使用 [isNull] 或 [get]。
+     */
+    fun getInt(row: Int): Int {
+        batch.checkRow(row)
+        return values[row]
+    }
+
+    fun setInt(row: Int, value: Int) {
+        batch.checkRow(row)
+        values[row] = value
+        markDefined(row, true)
+    }
+
+    override fun get(row: Int): Any? = if (isNull(row)) null else getInt(row)
+
+    override fun set(row: Int, value: Any?) {
+        if (value == null) {
+            batch.checkRow(row)
+            values[row] = defaultValue
+            markDefined(row, false)
+        } else {
+            setInt(row, value as Int)
+        }
+    }
+
+    /**
+     * 所有行之和（null 按 0 计）。
+     */
+    fun sum(): Long {
+        var sum = 0L
+        for (i in 0 until batch.size) {
+            sum += values[i].toLong()
+        }
+        return sum
+    }
+
+    override fun reset(rows: Int) {
+        values.fill(defaultValue, 0, rows)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        val oldCapacity = values.size
+        values = values.copyOf(newCapacity)
+        values.fill(defaultValue, oldCapacity, newCapacity)
+        super.resize(newCapacity)
+    }
+}
+
+internal class LongColumn(batch: DynamicObjectBatch, accessor: LongPropertyAccessor) : Column(batch, accessor.nullable) {
+    private val defaultValue = accessor.defaultValue as Long? ?: 0L
+    private var values = LongArray(0)
+
+    /**
+     * null 读为 0，需要区分 null 时使用 [isNull] 或 [get]。
+     */
+    fun getLong(row: Int): Long {
+        batch.checkRow(row)
+        return values[row]
+    }
+
+    fun setLong(row: Int, value: Long) {
+        batch.checkRow(row)
+        values[row] = value
+        markDefined(row, true)
+    }
+
+    override fun get(row: Int): Any? = if (isNull(row)) null else getLong(row)
+
+    override fun set(row: Int, value: Any?) {
+        if (value == null) {
+            batch.checkRow(row)
+            values[row] = defaultValue
+            markDefined(row, false)
+        } else {
+            setLong(row, value as Long)
+        }
+    }
+
+    /**
+     * 所有行之和（null 按 0 计）。
+     */
+    fun sum(): Long {
+        var sum = 0L
+        for (i in 0 until batch.size) {
+            sum += values[i]
+        }
+        return sum
+    }
+
+    override fun reset(rows: Int) {
+        values.fill(defaultValue, 0, rows)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        val oldCapacity = values.size
+        values = values.copyOf(newCapacity)
+        values.fill(defaultValue, oldCapacity, newCapacity)
+        super.resize(newCapacity)
+    }
+}
+
+internal class FloatColumn(batch: DynamicObjectBatch, accessor: FloatPropertyAccessor) : Column(batch, accessor.nullable) {
+    private val defaultValue = accessor.defaultValue as Float? ?: 0.0f
+    private var values = FloatArray(0)
+
+    /**
+     * null 读为 0，需要区分 null 时使用 [isNull] 或 [get]。
+     */
+    fun getFloat(row: Int): Float {
+        batch.checkRow(row)
+        return values[row]
+    }
+
+    fun setFloat(row: Int, value: Float) {
+        batch.checkRow(row)
+        values[row] = value
+        markDefined(row, true)
+    }
+
+    override fun get(row: Int): Any? = if (isNull(row)) null else getFloat(row)
+
+    override fun set(row: Int, value: Any?) {
+        if (value == null) {
+            batch.checkRow(row)
+            values[row] = defaultValue
+            markDefined(row, false)
+        } else {
+            setFloat(row, value as Float)
+        }
+    }
+
+    /**
+     * 所有行之和（null 按 0 计）。
+     */
+    fun sum(): Double {
+        var sum = 0.0
+        for (i in 0 until batch.size) {
+            sum += values[i].toDouble()
+        }
+        return sum
+    }
+
+    override fun reset(rows: Int) {
+        values.fill(defaultValue, 0, rows)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        val oldCapacity = values.size
+        values = values.copyOf(newCapacity)
+        values.fill(defaultValue, oldCapacity, newCapacity)
+        super.resize(newCapacity)
+    }
+}
+
+internal class DoubleColumn(batch: DynamicObjectBatch, accessor: DoublePropertyAccessor) : Column(batch, accessor.nullable) {
+    private val defaultValue = accessor.defaultValue as Double? ?: 0.0
+    private var values = DoubleArray(0)
+
+    /**
+     * null 读为 0，需要区分 null 时使用 [isNull] 或 [get]。
+     */
+    fun getDouble(row: Int): Double {
+        batch.checkRow(row)
+        return values[row]
+    }
+
+    fun setDouble(row: Int, value: Double) {
+        batch.checkRow(row)
+        values[row] = value
+        markDefined(row, true)
+    }
+
+    override fun get(row: Int): Any? = if (isNull(row)) null else getDouble(row)
+
+    override fun set(row: Int, value: Any?) {
+        if (value == null) {
+            batch.checkRow(row)
+            values[row] = defaultValue
+            markDefined(row, false)
+        } else {
+            setDouble(row, value as Double)
+        }
+    }
+
+    /**
+     * 所有行之和（null 按 0 计）。
+     */
+    fun sum(): Double {
+        var sum = 0.0
+        for (i in 0 until batch.size) {
+            sum += values[i]
+        }
+        return sum
+    }
+
+    override fun reset(rows: Int) {
+        values.fill(defaultValue, 0, rows)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        val oldCapacity = values.size
+        values = values.copyOf(newCapacity)
+        values.fill(defaultValue, oldCapacity, newCapacity)
+        super.resize(newCapacity)
+    }
+}
+
+/**
+ * 与 [BigDecimalPropertyAccessor] 相同的编码：intCompact + scale 两列，放不下的值（intCompact 为 INFLATED 或 scale 超出 byte）
+ * 存到稀疏的 overflow 中。
+ */
+internal class BigDecimalColumn(batch: DynamicObjectBatch, accessor: BigDecimalPropertyAccessor) : Column(batch, accessor.nullable) {
+    private var intCompacts = LongArray(0)
+    private var scales = ByteArray(0)
+    private val overflow = HashMap<Int, BigDecimal>()
+
+    fun getBigDecimal(row: Int): BigDecimal? {
+        if (isNull(row)) return null
+        val intCompact = intCompacts[row]
+        return if (intCompact == INFLATED) overflow[row] else BigDecimal.valueOf(intCompact, scales[row].toInt())
+    }
+
+    fun setBigDecimal(row: Int, value: BigDecimal?) {
+        batch.checkRow(row)
+        markDefined(row, value != null)
+        overflow.remove(row)
+        if (value == null) {
+            intCompacts[row] = 0L
+            scales[row] = 0
+            return
+        }
+        val intCompact = BigDecimalPropertyAccessor.intCompactOf(value)
+        val scale = value.scale()
+        if (intCompact != INFLATED && scale in Byte.MIN_VALUE..Byte.MAX_VALUE) {
+            intCompacts[row] = intCompact
+            scales[row] = scale.toByte()
+        } else {
+            intCompacts[row] = INFLATED
+            scales[row] = 0
+            overflow[row] = value
+        }
+    }
+
+    override fun get(row: Int): Any? = getBigDecimal(row)
+
+    override fun set(row: Int, value: Any?) = setBigDecimal(row, value as BigDecimal?)
+
+    /**
+     * 所有非 null 行之和，结果与逐个 BigDecimal.add 相同（scale 为各行 scale 的最大值）。
+     * 相邻行 scale 相同时直接在 long 上累加，溢出、scale 变化或遇到 overflow 值时才折算为 BigDecimal，
+     * 金额这类 scale 固定的列几乎不创建对象。
+     */
+    fun sum(): BigDecimal {
+        var total: BigDecimal? = null
+        var acc = 0L
+        var accScale = 0
+        var hasAcc = false
+        for (row in 0 until batch.size) {
+            if (nullable && isNull(row)) continue
+            val intCompact = intCompacts[row]
+            if (intCompact == INFLATED) {
+                val value = overflow[row]!!
+                total = total?.add(value) ?: value
+                continue
+            }
+            val scale = scales[row].toInt()
+            if (hasAcc && scale == accScale) {
+                val sum = acc + intCompact
+                // 同号相加结果变号即溢出（与 Math.addExact 相同的判断）
+                if (((acc xor sum) and (intCompact xor sum)) >= 0L) {
+                    acc = sum
+                    continue
+                }
+            }
+            if (hasAcc) {
+                val value = BigDecimal.valueOf(acc, accScale)
+                total = total?.add(value) ?: value
+            }
+            acc = intCompact
+            accScale = scale
+            hasAcc = true
+        }
+        if (hasAcc) {
+            val value = BigDecimal.valueOf(acc, accScale)
+            total = total?.add(value) ?: value
+        }
+        return total ?: BigDecimal.ZERO
+    }
+
+    override fun reset(rows: Int) {
+        intCompacts.fill(0L, 0, rows)
+        scales.fill(0, 0, rows)
+        overflow.clear()
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        intCompacts = intCompacts.copyOf(newCapacity)
+        scales = scales.copyOf(newCapacity)
+        super.resize(newCapacity)
+    }
+
+    private companion object {
+        const val INFLATED = BigDecimalPropertyAccessor.INFLATED
+    }
+}
+
+internal class UUIDColumn(batch: DynamicObjectBatch, accessor: UUIDPropertyAccessor) : Column(batch, accessor.nullable) {
+    private var mostSigBits = LongArray(0)
+    private var leastSigBits = LongArray(0)
+
+    override fun get(row: Int): UUID? {
+        if (isNull(row)) return null
+        return UUID(mostSigBits[row], leastSigBits[row])
+    }
+
+    override fun set(row: Int, value: Any?) {
+        batch.checkRow(row)
+        val uuid = value as UUID?
+        markDefined(row, uuid != null)
+        mostSigBits[row] = uuid?.mostSignificantBits ?: 0L
+        leastSigBits[row] = uuid?.leastSignificantBits ?: 0L
+    }
+
+    override fun reset(rows: Int) {
+        mostSigBits.fill(0L, 0, rows)
+        leastSigBits.fill(0L, 0, rows)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        mostSigBits = mostSigBits.copyOf(newCapacity)
+        leastSigBits = leastSigBits.copyOf(newCapacity)
+        super.resize(newCapacity)
+    }
+}
+
+/**
+ * 编码为一个 long 的类型：LocalDate（epochDay）、LocalTime（nanoOfDay）、Date（time）。
+ */
+internal class EpochColumn<T : Any>(
+    batch: DynamicObjectBatch, accessor: PropertyAccessor,
+    private val encode: (T) -> Long, private val decode: (Long) -> T
+) : Column(batch, accessor.nullable) {
+    private var values = LongArray(0)
+
+    /**
+     * 编码后的原始值，便于在列上直接比较或做区间过滤。
+     */
+    fun getEpoch(row: Int): Long {
+        batch.checkRow(row)
+        return values[row]
+    }
+
+    override fun get(row: Int): T? {
+        if (isNull(row)) return null
+        return decode(values[row])
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    override fun set(row: Int, value: Any?) {
+        batch.checkRow(row)
+        markDefined(row, value != null)
+        values[row] = if (value == null) 0L else encode(value as T)
+    }
+
+    override fun reset(rows: Int) {
+        values.fill(0L, 0, rows)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        values = values.copyOf(newCapacity)
+        super.resize(newCapacity)
+    }
+}
+
+/**
+ * 编码为 epochSecond + nano 的类型：LocalDateTime（UTC）、Instant。
+ */
+internal class EpochNanoColumn<T : Any>(
+    batch: DynamicObjectBatch, accessor: PropertyAccessor,
+    private val encodeSecond: (T) -> Long, private val encodeNano: (T) -> Int,
+    private val decode: (Long, Int) -> T
+) : Column(batch, accessor.nullable) {
+    private var seconds = LongArray(0)
+    private var nanos = IntArray(0)
+
+    override fun get(row: Int): T? {
+        if (isNull(row)) return null
+        return decode(seconds[row], nanos[row])
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    override fun set(row: Int, value: Any?) {
+        batch.checkRow(row)
+        markDefined(row, value != null)
+        if (value == null) {
+            seconds[row] = 0L
+            nanos[row] = 0
+        } else {
+            seconds[row] = encodeSecond(value as T)
+            nanos[row] = encodeNano(value)
+        }
+    }
+
+    override fun reset(rows: Int) {
+        seconds.fill(0L, 0, rows)
+        nanos.fill(0, 0, rows)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        seconds = seconds.copyOf(newCapacity)
+        nanos = nanos.copyOf(newCapacity)
+        super.resize(newCapacity)
+    }
+}
+
+/**
+ * 没有紧凑编码的属性（如 ObjectPropertyAccessor），直接存对象引用。
+ */
+internal class ObjectColumn(batch: DynamicObjectBatch) : Column(batch, false) {
+    private var values = arrayOfNulls<Any>(0)
+
+    override fun isNull(row: Int): Boolean = get(row) == null
+
+    override fun get(row: Int): Any? {
+        batch.checkRow(row)
+        return values[row]
+    }
+
+    override fun set(row: Int, value: Any?) {
+        batch.checkRow(row)
+        values[row] = value
+    }
+
+    override fun reset(rows: Int) {
+        values.fill(null, 0, rows)
+        super.reset(rows)
+    }
+
+    override fun resize(newCapacity: Int) {
+        values = values.copyOf(newCapacity)
+        super.resize(newCapacity)
+    }
+}
+//endregion
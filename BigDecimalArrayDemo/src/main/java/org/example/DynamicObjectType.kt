@@ -2,6 +2,8 @@ package org.example
 
 import sun.misc.Unsafe
 import java.math.BigDecimal
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
 import java.util.UUID
 import java.time.Instant
 import java.time.LocalDate
@@ -25,6 +27,11 @@ internal abstract class Field {
 
     protected val offset : Int get() = _offset
 
+    /**
+     * 字段在布局中的字节偏移，供 [AccessorGenerator] 把偏移写成常量。
+     */
+    internal val byteOffset : Int get() = _offset
+
     open fun setOffset(byteOffset: Int, bitIndex : Int) {
         require(bitIndex == 0)
         _offset = byteOffset
@@ -39,7 +46,23 @@ internal abstract class Field {
         }
     }
 
-    protected companion object{
+    /**
+     * 所有读写最终都是 Unsafe 的 (base, address + offset)：堆内 base 是 ByteArray、address 是 BASE_OFFSET，
+     * 堆外 base 是 null、address 是 OffHeapArena 分配的槽位地址。
+     * 堆内照旧检查越界；堆外槽位不小于布局大小（由 OffHeapArena 保证），只检查 offset 是否已初始化。
+     */
+    protected fun checkAddress(base: Any?, address: Long) {
+        if (base is ByteArray) {
+            val index = address - BASE_OFFSET + offset
+            require(offset >= 0 && index >= 0 && index <= base.size - size) {
+                "Field offset not initialized or out of range: $offset , buffer.size: ${base.size}"
+            }
+        } else {
+            require(offset >= 0) { "Field offset not initialized: $offset" }
+        }
+    }
+
+    internal companion object{
         val UNSAFE = try {
             val unsafeField = Unsafe::class.java.getDeclaredField("theUnsafe")
             unsafeField.setAccessible(true)
@@ -55,6 +78,8 @@ internal abstract class Field {
 internal class BooleanField : Field() {
     private var bitIndex : Int = 0
 
+    internal val bit : Int get() = bitIndex
+
     fun get(buffer: ByteArray): Boolean = ((buffer[offset].toInt() shr bitIndex) and 1) == 1
 
     fun set(buffer: ByteArray, value: Boolean) {
@@ -63,6 +88,18 @@ internal class BooleanField : Field() {
         buffer[offset] = updated.toByte()
     }
 
+    fun get(base: Any?, address: Long): Boolean {
+        checkAddress(base, address)
+        return ((UNSAFE.getByte(base, address + offset).toInt() shr bitIndex) and 1) == 1
+    }
+
+    fun set(base: Any?, address: Long, value: Boolean) {
+        checkAddress(base, address)
+        val original = UNSAFE.getByte(base, address + offset).toInt()
+        val updated = if (value) original or (1 shl bitIndex) else original and (1 shl bitIndex).inv()
+        UNSAFE.putByte(base, address + offset, updated.toByte())
+    }
+
     override fun setOffset(byteOffset: Int, bitIndex: Int) {
         require(bitIndex in 0 until 8)
         this.bitIndex = bitIndex
@@ -76,6 +113,14 @@ internal class BooleanField : Field() {
 internal class ByteField : Field() {
     fun get(buffer: ByteArray): Byte = buffer[offset]
     fun set(buffer: ByteArray, value: Byte) { buffer[offset] = value }
+    fun get(base: Any?, address: Long): Byte {
+        checkAddress(base, address)
+        return UNSAFE.getByte(base, address + offset)
+    }
+    fun set(base: Any?, address: Long, value: Byte) {
+        checkAddress(base, address)
+        UNSAFE.putByte(base, address + offset, value)
+    }
     override val size get() = Byte.SIZE_BYTES
     override val alignment get() = 1
 }
@@ -90,6 +135,14 @@ internal class ShortField : Field() {
         checkOffset(buffer)
         UNSAFE.putShort(buffer, BASE_OFFSET + offset, value)
     }
+    fun get(base: Any?, address: Long): Short {
+        checkAddress(base, address)
+        return UNSAFE.getShort(base, address + offset)
+    }
+    fun set(base: Any?, address: Long, value: Short) {
+        checkAddress(base, address)
+        UNSAFE.putShort(base, address + offset, value)
+    }
     override val size get() = Short.SIZE_BYTES
     override val alignment get() = 2
 }
@@ -103,6 +156,14 @@ internal class IntField : Field() {
         checkOffset(buffer)
         UNSAFE.putInt(buffer, BASE_OFFSET + offset, value)
     }
+    fun get(base: Any?, address: Long): Int {
+        checkAddress(base, address)
+        return UNSAFE.getInt(base, address + offset)
+    }
+    fun set(base: Any?, address: Long, value: Int) {
+        checkAddress(base, address)
+        UNSAFE.putInt(base, address + offset, value)
+    }
     override val size get() = Int.SIZE_BYTES
     override val alignment get() = 4
 }
@@ -116,6 +177,14 @@ internal class LongField : Field() {
         checkOffset(buffer)
         UNSAFE.putLong(buffer, BASE_OFFSET + offset, value)
     }
+    fun get(base: Any?, address: Long): Long {
+        checkAddress(base, address)
+        return UNSAFE.getLong(base, address + offset)
+    }
+    fun set(base: Any?, address: Long, value: Long) {
+        checkAddress(base, address)
+        UNSAFE.putLong(base, address + offset, value)
+    }
     override val size get() = Long.SIZE_BYTES
     override val alignment get() = 8
 }
@@ -129,6 +198,14 @@ internal class FloatField : Field() {
         checkOffset(buffer)
         UNSAFE.putFloat(buffer, BASE_OFFSET + offset, value)
     }
+    fun get(base: Any?, address: Long): Float {
+        checkAddress(base, address)
+        return UNSAFE.getFloat(base, address + offset)
+    }
+    fun set(base: Any?, address: Long, value: Float) {
+        checkAddress(base, address)
+        UNSAFE.putFloat(base, address + offset, value)
+    }
     override val size get() = Float.SIZE_BYTES
     override val alignment get() = 4
 }
@@ -142,6 +219,14 @@ internal class DoubleField : Field() {
         checkOffset(buffer)
         UNSAFE.putDouble(buffer, BASE_OFFSET + offset, value)
     }
+    fun get(base: Any?, address: Long): Double {
+        checkAddress(base, address)
+        return UNSAFE.getDouble(base, address + offset)
+    }
+    fun set(base: Any?, address: Long, value: Double) {
+        checkAddress(base, address)
+        UNSAFE.putDouble(base, address + offset, value)
+    }
     override val size get() = Double.SIZE_BYTES
     override val alignment get() = 8
 }
@@ -150,10 +235,70 @@ internal class DoubleField : Field() {
 
 //region =================== SparseObjectMap ========================
 internal class ByteDataStorage private constructor(
-    val buffer: ByteArray, private var objectMap: Array<Any?>, private val maxObjectSize : Int
+    private var data: Any, private var objectMap: Array<Any?>, layout: ObjectLayout
 ) {
+    constructor(layout: ObjectLayout)
+            : this(ByteArray(layout.byteSize), newObjectMap(layout.objectSize), layout)
+
+    /**
+     * 基本类型槽位分配在 arena 的堆外内存中，只有 objectMap（String、溢出的 BigDecimal 等）仍在堆上。
+     */
+    constructor(arena: OffHeapArena, layout: ObjectLayout)
+            : this(StorageExtras(null, arena.allocate(), arena), newObjectMap(layout.objectSize), layout)
+
+    // 不属于任何 DynamicObjectType 的独立布局，主要供测试使用
     constructor(byteSize: Int, objectSize : Int, maxObjectSize : Int)
-            : this(ByteArray(byteSize), arrayOfNulls(objectSize), maxObjectSize)
+            : this(ObjectLayout(0, byteSize, objectSize, maxObjectSize, 0L))
+
+    constructor(arena: OffHeapArena, objectSize : Int, maxObjectSize : Int)
+            : this(arena, ObjectLayout(0, arena.slotSize, objectSize, maxObjectSize, 0L))
+
+    // data 只有两种取值：堆内且未跟踪脏标记时就是 ByteArray 本身，实例只有 data/objectMap/layout 三个引用
+    // （压缩指针下 24 字节，与只有 buffer 的时候一样）；堆外或正在跟踪时指向 StorageExtras。
+
+    // 基本类型槽位的起始位置，直接交给 Unsafe：堆内为 (ByteArray, BASE_OFFSET)，堆外为 (null, 槽位地址)。
+    val base: Any?
+        get() {
+            val data = data
+            return if (data is ByteArray) data else (data as StorageExtras).bytes
+        }
+    val address: Long
+        get() {
+            val data = data
+            return if (data is ByteArray) Field.BASE_OFFSET else (data as StorageExtras).address
+        }
+
+    private val arena: OffHeapArena? get() = (data as? StorageExtras)?.arena
+
+    val isOffHeap: Boolean get() = arena != null
+
+    /**
+     * 实例所在的布局代，之后注册的属性在第一次写入时才升级（见 [upgrade]），读取时返回缺省值。
+     * 代替原来的 maxObjectSize 字段，压缩指针下实例大小不变。
+     */
+    var layout: ObjectLayout = layout
+        private set
+
+    // 脏标记，clearDirty 之后才分配；未跟踪时每次写入只多一次类型判断。
+    // 堆内实例开始跟踪时 data 换成 StorageExtras，停止跟踪后换回 ByteArray。
+    private var changes: ChangeTracker?
+        get() = (data as? StorageExtras)?.changes
+        set(value) {
+            val data = data
+            if (data is StorageExtras) {
+                data.changes = value
+                val bytes = data.bytes
+                if (value == null && data.arena == null && bytes != null) this.data = bytes
+            } else if (value != null) {
+                this.data = StorageExtras(data as ByteArray, Field.BASE_OFFSET, null, value)
+            }
+        }
+
+    /**
+     * 堆内存储的字节数组；堆外存储没有字节数组，调用会抛出 IllegalStateException。
+     */
+    val buffer: ByteArray
+        get() = base as? ByteArray ?: throw IllegalStateException("Off-heap storage has no heap buffer")
 
     fun getLocalValue(accessor: PropertyAccessor): Any? {
         return accessor.get(this)
@@ -164,9 +309,190 @@ internal class ByteDataStorage private constructor(
     }
 
     fun memberClone(): ByteDataStorage {
-        return ByteDataStorage(buffer.copyOf(), objectMap.copyOf(), maxObjectSize)
+        val objects = if (objectMap.isEmpty()) objectMap else objectMap.copyOf()
+        val arena = this.arena
+        val clone = if (arena == null) {
+            ByteDataStorage(buffer.copyOf(), objects, layout)
+        } else {
+            val copy = arena.allocate()
+            Field.UNSAFE.copyMemory(address, copy, arena.slotSize.toLong())
+            ByteDataStorage(StorageExtras(null, copy, arena), objects, layout)
+        }
+        clone.changes = changes?.copy()
+        return clone
+    }
+
+    /**
+     * 升级到最新一代布局（类型上有尚未布局的新属性时先为它们追加一代），已经是最新（或已 release）时返回 false。
+     * 布局只在尾部追加且追加部分全 0 即缺省值，所以堆内只需把 buffer 复制到更大的数组；
+     * 堆外槽位（按 8 字节对齐，可能有富余）放得下时什么也不用复制，放不下时搬到 arena 新分配的槽位并归还旧槽位。
+     * 不传 arena 时使用类型的 [DynamicObjectType.migrationArena]；不属于任何类型的独立布局没有，此时抛出 IllegalStateException。
+     */
+    fun upgrade(arena: OffHeapArena? = null): Boolean {
+        // 经由类型取最新布局，把尚未布局的新属性一起布局
+        val target = layout.owner?.layout ?: layout.latest
+        if (target === layout || data === RELEASED) return false
+        val data = data
+        val current = this.arena
+        if (current == null) {
+            val buffer = buffer
+            if (buffer.size < target.byteSize) {
+                val grown = buffer.copyOf(target.byteSize)
+                if (data is StorageExtras) data.bytes = grown else this.data = grown
+            }
+        } else if (current.slotSize < target.byteSize) {
+            data as StorageExtras
+            val into = checkNotNull(arena ?: target.owner?.migrationArena()) {
+                "Off-heap slot (${current.slotSize} bytes) is too small for layout version ${target.version} " +
+                        "(${target.byteSize} bytes), migrate it into a new arena"
+            }
+            require(into.slotSize >= target.byteSize) { "Arena slot size ${into.slotSize} is smaller than layout size ${target.byteSize}" }
+            val slot = into.allocate()
+            Field.UNSAFE.copyMemory(data.address, slot, layout.byteSize.toLong())
+            current.free(data.address)
+            data.arena = into
+            data.address = slot
+        }
+        layout = target
+        return true
     }
 
+    /**
+     * accessor 是在更新的一代布局中加入的，本实例中还没有它的字节。已有属性的 offset 不会改变，只需比较版本号。
+     * 读取这样的属性直接返回缺省值（追加部分全 0 即缺省值），不升级实例：读不应该引起复制或搬迁堆外槽位。
+     */
+    internal fun isNewer(accessor: PropertyAccessor): Boolean = accessor.layoutVersion > layout.version
+
+    /**
+     * 所有经过 ByteDataStorage、PropertyAccessor.set(storage) 和 CompiledAccessors 的写入都先调用：
+     * 写入更新一代的属性时先升级本实例（copy-on-write），跟踪修改时记录原值。
+     */
+    internal fun beforeWrite(accessor: PropertyAccessor) {
+        if (isNewer(accessor)) upgrade()
+        changes?.beforeWrite(accessor, this)
+    }
+
+    // region 脏标记
+    // 用于生成 UPDATE：加载实体后调用 clearDirty 开始跟踪，之后 dirtyProperties 只返回修改过的属性（O(修改数)），
+    // originalValue 取修改前的值，不必再用 memberClone 保留整个实体的副本。
+    // 从未调用 clearDirty 的实例（例如新建待 INSERT 的实体）不跟踪，dirtyProperties 为空。
+
+    /**
+     * 以当前值为基准清除脏标记并开始跟踪。
+     */
+    fun clearDirty() {
+        val changes = this.changes
+        if (changes == null) this.changes = ChangeTracker() else changes.clear()
+    }
+
+    /**
+     * 停止跟踪并丢弃脏标记与原值。
+     */
+    fun stopTracking() {
+        changes = null
+    }
+
+    val isTracking: Boolean get() = changes != null
+
+    /**
+     * 自上次 clearDirty 以来修改过的属性下标（PropertyAccessor.propertyIndex），升序。
+     */
+    fun dirtyProperties(): IntArray = changes?.dirtyProperties() ?: EMPTY_INDICES
+
+    fun isDirty(accessor: PropertyAccessor): Boolean = changes?.isDirty(accessor.propertyIndex) ?: false
+
+    /**
+     * 属性在上次 clearDirty 时的值：修改过的返回保存的原值，未修改的返回当前值。
+     */
+    fun originalValue(accessor: PropertyAccessor): Any? {
+        val changes = this.changes
+        if (changes != null && changes.isDirty(accessor.propertyIndex)) return changes.original(accessor.propertyIndex)
+        return accessor.get(this)
+    }
+    //endregion
+
+    /**
+     * 把堆外槽位归还给 arena 以便复用，堆内存储无需调用（什么也不做）。之后再读写本实例会抛出 IllegalArgumentException，
+     * 但如果 arena 已经 close，则不能再访问它分配的任何实例。
+     */
+    fun release() {
+        val data = data as? StorageExtras ?: return
+        val arena = data.arena ?: return
+        arena.free(data.address)
+        // 指向空数组：之后的访问会在 Field.checkAddress 的越界检查中失败，而不是写到别的实例的槽位上。
+        // 脏标记随 StorageExtras 一起丢弃。
+        this.data = RELEASED
+        objectMap = EMPTY_OBJECTS
+    }
+
+    // region 基本类型的类型化访问
+    // getLocalValue/setLocalValue 走 Any?，每次读写都会装箱（Int 只有 -128..127 命中缓存），
+    // 这里按 accessor 的具体类型直接读写槽位，JIT 内联后与手写字段访问相当。
+    // 可空属性为 null 时返回该类型的 0 值，需要区分 null 的场景仍使用 getLocalValue。
+    fun getBoolean(accessor: BooleanPropertyAccessor): Boolean {
+        if (isNewer(accessor)) return accessor.defaultPrimitive
+        return accessor.getBoolean(base, address)
+    }
+    fun setBoolean(accessor: BooleanPropertyAccessor, value: Boolean) {
+        beforeWrite(accessor)
+        accessor.setBoolean(base, address, value)
+    }
+
+    fun getByte(accessor: BytePropertyAccessor): Byte {
+        if (isNewer(accessor)) return accessor.defaultPrimitive
+        return accessor.getByte(base, address)
+    }
+    fun setByte(accessor: BytePropertyAccessor, value: Byte) {
+        beforeWrite(accessor)
+        accessor.setByte(base, address, value)
+    }
+
+    fun getShort(accessor: ShortPropertyAccessor): Short {
+        if (isNewer(accessor)) return accessor.defaultPrimitive
+        return accessor.getShort(base, address)
+    }
+    fun setShort(accessor: ShortPropertyAccessor, value: Short) {
+        beforeWrite(accessor)
+        accessor.setShort(base, address, value)
+    }
+
+    fun getInt(accessor: IntPropertyAccessor): Int {
+        if (isNewer(accessor)) return accessor.defaultPrimitive
+        return accessor.getInt(base, address)
+    }
+    fun setInt(accessor: IntPropertyAccessor, value: Int) {
+        beforeWrite(accessor)
+        accessor.setInt(base, address, value)
+    }
+
+    fun getLong(accessor: LongPropertyAccessor): Long {
+        if (isNewer(accessor)) return accessor.defaultPrimitive
+        return accessor.getLong(base, address)
+    }
+    fun setLong(accessor: LongPropertyAccessor, value: Long) {
+        beforeWrite(accessor)
+        accessor.setLong(base, address, value)
+    }
+
+    fun getFloat(accessor: FloatPropertyAccessor): Float {
+        if (isNewer(accessor)) return accessor.defaultPrimitive
+        return accessor.getFloat(base, address)
+    }
+    fun setFloat(accessor: FloatPropertyAccessor, value: Float) {
+        beforeWrite(accessor)
+        accessor.setFloat(base, address, value)
+    }
+
+    fun getDouble(accessor: DoublePropertyAccessor): Double {
+        if (isNewer(accessor)) return accessor.defaultPrimitive
+        return accessor.getDouble(base, address)
+    }
+    fun setDouble(accessor: DoublePropertyAccessor, value: Double) {
+        beforeWrite(accessor)
+        accessor.setDouble(base, address, value)
+    }
+    //endregion
+
     // region Object 的优化存储
     // objectMap 最初的版本是使用 稀疏字典 SparseObjectMap，后来发现如果 string 字段太多反而效果不佳。
     // 后来改为 Array，大小是所有可能用到 Object 存储的属性的总和，但是 BigDecimal 也很尴尬，一般情况下，是不会存储到 Array，
@@ -193,25 +519,58 @@ internal class ByteDataStorage private constructor(
                 return
             }
 
-            if(key < maxObjectSize){
+            if(key < layout.maxObjectSize){
                 ensureCapacity(key + 1)
                 objectMap[key] = value
+            } else if (upgrade()) {
+                // 新一代布局追加的属性，objectIndex 从上一代的 maxObjectSize 开始
+                setObject(key, value)
             } else {
-                throw IllegalStateException("key($key) must be >= 0 and < $maxObjectSize")
+                throw IllegalStateException("key($key) must be >= 0 and < ${layout.maxObjectSize}")
             }
         }
     }
 
+    /**
+     * 按 key 升序遍历非 null 的 Object 槽位。
+     */
+    internal fun forEachObject(action: (key: Int, value: Any) -> Unit) {
+        for (key in objectMap.indices) {
+            val value = objectMap[key] ?: continue
+            action(key, value)
+        }
+    }
+
     private fun ensureCapacity(cap: Int) {
         // 这里没有使用 * 2 的常见策略，因为实体中 Object 类型的字段已经初始化过，再 * 2 就会激增太多。
         // 目前是 16， 一个 object 如果压缩指针是 4 字节，那么就是 64 Byte.
-        val newCap = min(max(objectMap.size + 16, cap),maxObjectSize)
+        val newCap = min(max(objectMap.size + 16, cap),layout.maxObjectSize)
         if(newCap > objectMap.size){
             objectMap = objectMap.copyOf(newCap)
         }
     }
     //endregion
+
+    private companion object {
+        // 没有 Object 属性的类型（常见情况）共用一个空数组，不必每个实例分配一个；首次 setObject 时按 ensureCapacity 扩容。
+        val EMPTY_OBJECTS = arrayOfNulls<Any>(0)
+        val EMPTY_INDICES = IntArray(0)
+        val RELEASED = ByteArray(0)
+
+        fun newObjectMap(objectSize: Int): Array<Any?> = if (objectSize == 0) EMPTY_OBJECTS else arrayOfNulls(objectSize)
+    }
 }
+
+/**
+ * ByteDataStorage 不常用的状态：堆外槽位和脏标记，放在一起使堆内、未跟踪的实例不为它们多占字段。
+ * (bytes, address) 即交给 Unsafe 的 (base, address)：堆外为 (null, 槽位地址)，跟踪中的堆内实例为 (buffer, BASE_OFFSET)。
+ */
+internal class StorageExtras(
+    @JvmField var bytes: ByteArray?,
+    @JvmField var address: Long,
+    @JvmField var arena: OffHeapArena?,
+    @JvmField var changes: ChangeTracker? = null
+)
 //endregion
 
 //region =================== PropertyAccessor ========================
@@ -228,16 +587,46 @@ internal abstract class PropertyAccessor {
         _objectIndex = index
     }
 
+    // 属性在 DynamicObjectType 中的下标，用作脏标记位图的下标，未注册时为 -1。
+    private var _propertyIndex : Int = -1
+    val propertyIndex: Int get() = _propertyIndex
+    fun resetPropertyIndex(index: Int){
+        _propertyIndex = index
+    }
+
+    // 属性加入时的布局代（见 ObjectLayout），比实例的布局新时，读取返回缺省值，写入先升级实例。
+    // 已有布局之后注册、还没有布局的属性为 PENDING_LAYOUT_VERSION，比任何实例都新。
+    private var _layoutVersion : Int = 0
+    val layoutVersion: Int get() = _layoutVersion
+    fun resetLayoutVersion(version: Int){
+        _layoutVersion = version
+    }
+
     abstract val nullable: Boolean
     abstract val defaultValue : Any?
     abstract fun getFields(): List<Field>
-    abstract fun get(buffer: ByteArray): Any?
+    /**
+     * 按 Unsafe 的 (base, address) 读写，堆内与堆外存储共用同一份实现，见 [Field.checkAddress]。
+     */
+    abstract fun get(base: Any?, address: Long): Any?
+    open fun get(buffer: ByteArray): Any? {
+        return get(buffer, Field.BASE_OFFSET)
+    }
     open fun get(storage: ByteDataStorage) : Any?{
-        return get(storage.buffer)
+        if (storage.isNewer(this)) return defaultValue
+        return get(storage.base, storage.address)
+    }
+    abstract fun set(base: Any?, address: Long, value: Any?)
+    open fun set(buffer: ByteArray, value: Any?) {
+        set(buffer, Field.BASE_OFFSET, value)
     }
-    abstract fun set(buffer: ByteArray, value: Any?)
     open fun set(storage: ByteDataStorage, value: Any?){
-        set(storage.buffer, value)
+        storage.beforeWrite(this)
+        set(storage.base, storage.address, value)
+    }
+
+    companion object {
+        const val PENDING_LAYOUT_VERSION = Int.MAX_VALUE
     }
 }
 
@@ -248,18 +637,20 @@ internal class ObjectPropertyAccessor : PropertyAccessor(){
     override val requiresObjectStorage: Float get() = 1.0f
 
     override fun get(storage: ByteDataStorage): Any? {
+        if (storage.isNewer(this)) return null  // 还没有布局时 objectIndex 未分配
         return storage.getObject(this.objectIndex)
     }
 
     override fun set(storage: ByteDataStorage, value: Any?) {
+        storage.beforeWrite(this)
         storage.setObject(this.objectIndex, value)
     }
 
-    override fun get(buffer: ByteArray): Any? {
+    override fun get(base: Any?, address: Long): Any? {
         throw RuntimeException("not support")
     }
 
-    override fun set(buffer: ByteArray, value: Any?) {
+    override fun set(base: Any?, address: Long, value: Any?) {
         throw RuntimeException("not support")
     }
 }
@@ -272,6 +663,11 @@ internal class BooleanPropertyAccessor(override val nullable: Boolean, defaultVa
     private val _definedField: BooleanField?
     private val _defaultValue: Boolean
 
+    // 供 AccessorGenerator 生成特化代码
+    internal val valueField: BooleanField get() = _valueField
+    internal val definedField: BooleanField? get() = _definedField
+    internal val defaultPrimitive: Boolean get() = _defaultValue
+
     init {
         if (nullable) {
             if (defaultValue) {
@@ -291,24 +687,26 @@ internal class BooleanPropertyAccessor(override val nullable: Boolean, defaultVa
     override val defaultValue: Any?
         get() = if (nullable) null else _defaultValue
 
-    override fun get(buffer: ByteArray): Any? {
-        if (_definedField?.get(buffer) == false) return defaultValue
-        return _valueField.get(buffer)
+    override fun get(base: Any?, address: Long): Any? {
+        if (_definedField?.get(base, address) == false) return defaultValue
+        return _valueField.get(base, address)
     }
 
-    override fun set(buffer: ByteArray, value: Any?) {
-        _definedField?.set(buffer, value != null)
-        if (value == null) _valueField.set(buffer, _defaultValue) else _valueField.set(buffer, value as Boolean)
+    override fun set(base: Any?, address: Long, value: Any?) {
+        _definedField?.set(base, address, value != null)
+        if (value == null) _valueField.set(base, address, _defaultValue) else _valueField.set(base, address, value as Boolean)
     }
 
-    fun getBoolean(buffer: ByteArray): Boolean {
-        if (_definedField?.get(buffer) == false) return _defaultValue
-        return _valueField.get(buffer)
+    fun getBoolean(buffer: ByteArray): Boolean = getBoolean(buffer, Field.BASE_OFFSET)
+    fun getBoolean(base: Any?, address: Long): Boolean {
+        if (_definedField?.get(base, address) == false) return _defaultValue
+        return _valueField.get(base, address)
     }
 
-    fun setBoolean(buffer: ByteArray, value: Boolean) {
-        _valueField.set(buffer, value)
-        _definedField?.set(buffer, true)
+    fun setBoolean(buffer: ByteArray, value: Boolean) = setBoolean(buffer, Field.BASE_OFFSET, value)
+    fun setBoolean(base: Any?, address: Long, value: Boolean) {
+        _valueField.set(base, address, value)
+        _definedField?.set(base, address, true)
     }
 }
 
@@ -320,6 +718,11 @@ internal class BytePropertyAccessor(override val nullable: Boolean, defaultValue
     private val _definedField: BooleanField?
     private val _defaultValue: Byte
 
+    // 供 AccessorGenerator 生成特化代码
+    internal val valueField: ByteField get() = _valueField
+    internal val definedField: BooleanField? get() = _definedField
+    internal val defaultPrimitive: Byte get() = _defaultValue
+
     init {
         if (nullable) {
             if (defaultValue.toInt() != 0) {
@@ -338,24 +741,26 @@ internal class BytePropertyAccessor(override val nullable: Boolean, defaultValue
     override val defaultValue: Any?
         get() = if (nullable) null else _defaultValue
 
-    override fun get(buffer: ByteArray): Any? {
-        if (_definedField?.get(buffer) == false) return defaultValue
-        return _valueField.get(buffer)
+    override fun get(base: Any?, address: Long): Any? {
+        if (_definedField?.get(base, address) == false) return defaultValue
+        return _valueField.get(base, address)
     }
 
-    override fun set(buffer: ByteArray, value: Any?) {
-        _definedField?.set(buffer, value != null)
-        if (value == null) _valueField.set(buffer, _defaultValue) else _valueField.set(buffer, value as Byte)
+    override fun set(base: Any?, address: Long, value: Any?) {
+        _definedField?.set(base, address, value != null)
+        if (value == null) _valueField.set(base, address, _defaultValue) else _valueField.set(base, address, value as Byte)
     }
 
-    fun getByte(buffer: ByteArray): Byte {
-        if (_definedField?.get(buffer) == false) return _defaultValue
-        return _valueField.get(buffer)
+    fun getByte(buffer: ByteArray): Byte = getByte(buffer, Field.BASE_OFFSET)
+    fun getByte(base: Any?, address: Long): Byte {
+        if (_definedField?.get(base, address) == false) return _defaultValue
+        return _valueField.get(base, address)
     }
 
-    fun setByte(buffer: ByteArray, value: Byte) {
-        _valueField.set(buffer, value)
-        _definedField?.set(buffer, true)
+    fun setByte(buffer: ByteArray, value: Byte) = setByte(buffer, Field.BASE_OFFSET, value)
+    fun setByte(base: Any?, address: Long, value: Byte) {
+        _valueField.set(base, address, value)
+        _definedField?.set(base, address, true)
     }
 }
 
@@ -367,6 +772,11 @@ internal class ShortPropertyAccessor(override val nullable: Boolean, defaultValu
     private val _definedField: BooleanField?
     private val _defaultValue: Short
 
+    // 供 AccessorGenerator 生成特化代码
+    internal val valueField: ShortField get() = _valueField
+    internal val definedField: BooleanField? get() = _definedField
+    internal val defaultPrimitive: Short get() = _defaultValue
+
     init {
         if (nullable) {
             if (defaultValue.toInt() != 0) {
@@ -385,24 +795,26 @@ internal class ShortPropertyAccessor(override val nullable: Boolean, defaultValu
     override val defaultValue: Any?
         get() = if (nullable) null else _defaultValue
 
-    override fun get(buffer: ByteArray): Any? {
-        if (_definedField?.get(buffer) == false) return defaultValue
-        return _valueField.get(buffer)
+    override fun get(base: Any?, address: Long): Any? {
+        if (_definedField?.get(base, address) == false) return defaultValue
+        return _valueField.get(base, address)
     }
 
-    override fun set(buffer: ByteArray, value: Any?) {
-        _definedField?.set(buffer, value != null)
-        if (value == null) _valueField.set(buffer, _defaultValue) else _valueField.set(buffer, value as Short)
+    override fun set(base: Any?, address: Long, value: Any?) {
+        _definedField?.set(base, address, value != null)
+        if (value == null) _valueField.set(base, address, _defaultValue) else _valueField.set(base, address, value as Short)
     }
 
-    fun getShort(buffer: ByteArray): Short {
-        if (_definedField?.get(buffer) == false) return _defaultValue
-        return _valueField.get(buffer)
+    fun getShort(buffer: ByteArray): Short = getShort(buffer, Field.BASE_OFFSET)
+    fun getShort(base: Any?, address: Long): Short {
+        if (_definedField?.get(base, address) == false) return _defaultValue
+        return _valueField.get(base, address)
     }
 
-    fun setShort(buffer: ByteArray, value: Short) {
-        _valueField.set(buffer, value)
-        _definedField?.set(buffer, true)
+    fun setShort(buffer: ByteArray, value: Short) = setShort(buffer, Field.BASE_OFFSET, value)
+    fun setShort(base: Any?, address: Long, value: Short) {
+        _valueField.set(base, address, value)
+        _definedField?.set(base, address, true)
     }
 }
 
@@ -415,6 +827,11 @@ internal class IntPropertyAccessor(override val nullable: Boolean, defaultValue
     private val _definedField : BooleanField?
     private val _defaultValue: Int
 
+    // 供 AccessorGenerator 生成特化代码
+    internal val valueField: IntField get() = _valueField
+    internal val definedField: BooleanField? get() = _definedField
+    internal val defaultPrimitive: Int get() = _defaultValue
+
     init {
         if (nullable) {
             // 允许 null 时，缺省值不支持设置，只能为 0
@@ -435,24 +852,26 @@ internal class IntPropertyAccessor(override val nullable: Boolean, defaultValue
     override val defaultValue: Any?
         get() = if(nullable) null else _defaultValue
 
-    override fun get(buffer: ByteArray): Any? {
-        if (_definedField?.get(buffer) == false) return defaultValue
-        return _valueField.get(buffer)
+    override fun get(base: Any?, address: Long): Any? {
+        if (_definedField?.get(base, address) == false) return defaultValue
+        return _valueField.get(base, address)
     }
 
-    override fun set(buffer: ByteArray, value: Any?) {
-        _definedField?.set(buffer, value != null)
-        if (value == null) _valueField.set(buffer, _defaultValue) else _valueField.set(buffer, value as Int)
+    override fun set(base: Any?, address: Long, value: Any?) {
+        _definedField?.set(base, address, value != null)
+        if (value == null) _valueField.set(base, address, _defaultValue) else _valueField.set(base, address, value as Int)
     }
 
-    fun getInt(buffer: ByteArray): Int {
-        if (_definedField?.get(buffer) == false) return _defaultValue
-        return _valueField.get(buffer)
+    fun getInt(buffer: ByteArray): Int = getInt(buffer, Field.BASE_OFFSET)
+    fun getInt(base: Any?, address: Long): Int {
+        if (_definedField?.get(base, address) == false) return _defaultValue
+        return _valueField.get(base, address)
     }
 
-    fun setInt(buffer: ByteArray, value: Int) {
-        _valueField.set(buffer, value)
-        _definedField?.set(buffer, true)
+    fun setInt(buffer: ByteArray, value: Int) = setInt(buffer, Field.BASE_OFFSET, value)
+    fun setInt(base: Any?, address: Long, value: Int) {
+        _valueField.set(base, address, value)
+        _definedField?.set(base, address, true)
     }
 }
 
@@ -464,6 +883,11 @@ internal class LongPropertyAccessor(override val nullable: Boolean, defaultValue
     private val _definedField: BooleanField?
     private val _defaultValue: Long
 
+    // 供 AccessorGenerator 生成特化代码
+    internal val valueField: LongField get() = _valueField
+    internal val definedField: BooleanField? get() = _definedField
+    internal val defaultPrimitive: Long get() = _defaultValue
+
     init {
         if (nullable) {
             if (defaultValue != 0L) {
@@ -482,24 +906,26 @@ internal class LongPropertyAccessor(override val nullable: Boolean, defaultValue
     override val defaultValue: Any?
         get() = if (nullable) null else _defaultValue
 
-    override fun get(buffer: ByteArray): Any? {
-        if (_definedField?.get(buffer) == false) return defaultValue
-        return _valueField.get(buffer)
+    override fun get(base: Any?, address: Long): Any? {
+        if (_definedField?.get(base, address) == false) return defaultValue
+        return _valueField.get(base, address)
     }
 
-    override fun set(buffer: ByteArray, value: Any?) {
-        _definedField?.set(buffer, value != null)
-        if (value == null) _valueField.set(buffer, _defaultValue) else _valueField.set(buffer, value as Long)
+    override fun set(base: Any?, address: Long, value: Any?) {
+        _definedField?.set(base, address, value != null)
+        if (value == null) _valueField.set(base, address, _defaultValue) else _valueField.set(base, address, value as Long)
     }
 
-    fun getLong(buffer: ByteArray): Long {
-        if (_definedField?.get(buffer) == false) return _defaultValue
-        return _valueField.get(buffer)
+    fun getLong(buffer: ByteArray): Long = getLong(buffer, Field.BASE_OFFSET)
+    fun getLong(base: Any?, address: Long): Long {
+        if (_definedField?.get(base, address) == false) return _defaultValue
+        return _valueField.get(base, address)
     }
 
-    fun setLong(buffer: ByteArray, value: Long) {
-        _valueField.set(buffer, value)
-        _definedField?.set(buffer, true)
+    fun setLong(buffer: ByteArray, value: Long) = setLong(buffer, Field.BASE_OFFSET, value)
+    fun setLong(base: Any?, address: Long, value: Long) {
+        _valueField.set(base, address, value)
+        _definedField?.set(base, address, true)
     }
 }
 
@@ -511,6 +937,11 @@ internal class FloatPropertyAccessor(override val nullable: Boolean, defaultValu
     private val _definedField: BooleanField?
     private val _defaultValue: Float
 
+    // 供 AccessorGenerator 生成特化代码
+    internal val valueField: FloatField get() = _valueField
+    internal val definedField: BooleanField? get() = _definedField
+    internal val defaultPrimitive: Float get() = _defaultValue
+
     init {
         if (nullable) {
             if (defaultValue != 0.0f) {
@@ -529,24 +960,26 @@ internal class FloatPropertyAccessor(override val nullable: Boolean, defaultValu
     override val defaultValue: Any?
         get() = if (nullable) null else _defaultValue
 
-    override fun get(buffer: ByteArray): Any? {
-        if (_definedField?.get(buffer) == false) return defaultValue
-        return _valueField.get(buffer)
+    override fun get(base: Any?, address: Long): Any? {
+        if (_definedField?.get(base, address) == false) return defaultValue
+        return _valueField.get(base, address)
     }
 
-    override fun set(buffer: ByteArray, value: Any?) {
-        _definedField?.set(buffer, value != null)
-        if (value == null) _valueField.set(buffer, _defaultValue) else _valueField.set(buffer, value as Float)
+    override fun set(base: Any?, address: Long, value: Any?) {
+        _definedField?.set(base, address, value != null)
+        if (value == null) _valueField.set(base, address, _defaultValue) else _valueField.set(base, address, value as Float)
     }
 
-    fun getFloat(buffer: ByteArray): Float {
-        if (_definedField?.get(buffer) == false) return _defaultValue
-        return _valueField.get(buffer)
+    fun getFloat(buffer: ByteArray): Float = getFloat(buffer, Field.BASE_OFFSET)
+    fun getFloat(base: Any?, address: Long): Float {
+        if (_definedField?.get(base, address) == false) return _defaultValue
+        return _valueField.get(base, address)
     }
 
-    fun setFloat(buffer: ByteArray, value: Float) {
-        _valueField.set(buffer, value)
-        _definedField?.set(buffer, true)
+    fun setFloat(buffer: ByteArray, value: Float) = setFloat(buffer, Field.BASE_OFFSET, value)
+    fun setFloat(base: Any?, address: Long, value: Float) {
+        _valueField.set(base, address, value)
+        _definedField?.set(base, address, true)
     }
 }
 
@@ -558,6 +991,11 @@ internal class DoublePropertyAccessor(override val nullable: Boolean, defaultVal
     private val _definedField: BooleanField?
     private val _defaultValue: Double
 
+    // 供 AccessorGenerator 生成特化代码
+    internal val valueField: DoubleField get() = _valueField
+    internal val definedField: BooleanField? get() = _definedField
+    internal val defaultPrimitive: Double get() = _defaultValue
+
     init {
         if (nullable) {
             if (defaultValue != 0.0) {
@@ -576,24 +1014,26 @@ internal class DoublePropertyAccessor(override val nullable: Boolean, defaultVal
     override val defaultValue: Any?
         get() = if (nullable) null else _defaultValue
 
-    override fun get(buffer: ByteArray): Any? {
-        if (_definedField?.get(buffer) == false) return defaultValue
-        return _valueField.get(buffer)
+    override fun get(base: Any?, address: Long): Any? {
+        if (_definedField?.get(base, address) == false) return defaultValue
+        return _valueField.get(base, address)
     }
 
-    override fun set(buffer: ByteArray, value: Any?) {
-        _definedField?.set(buffer, value != null)
-        if (value == null) _valueField.set(buffer, _defaultValue) else _valueField.set(buffer, value as Double)
+    override fun set(base: Any?, address: Long, value: Any?) {
+        _definedField?.set(base, address, value != null)
+        if (value == null) _valueField.set(base, address, _defaultValue) else _valueField.set(base, address, value as Double)
     }
 
-    fun getDouble(buffer: ByteArray): Double {
-        if (_definedField?.get(buffer) == false) return _defaultValue
-        return _valueField.get(buffer)
+    fun getDouble(buffer: ByteArray): Double = getDouble(buffer, Field.BASE_OFFSET)
+    fun getDouble(base: Any?, address: Long): Double {
+        if (_definedField?.get(base, address) == false) return _defaultValue
+        return _valueField.get(base, address)
     }
 
-    fun setDouble(buffer: ByteArray, value: Double) {
-        _valueField.set(buffer, value)
-        _definedField?.set(buffer, true)
+    fun setDouble(buffer: ByteArray, value: Double) = setDouble(buffer, Field.BASE_OFFSET, value)
+    fun setDouble(base: Any?, address: Long, value: Double) {
+        _valueField.set(base, address, value)
+        _definedField?.set(base, address, true)
     }
 }
 
@@ -609,7 +1049,7 @@ internal class BigDecimalPropertyAccessor(override val nullable: Boolean) : Prop
     override val defaultValue: Any? get() = defaultBigDecimalValue
     private val defaultBigDecimalValue : BigDecimal? get() = if (nullable) null else BigDecimal.ZERO
 
-    override fun get(buffer: ByteArray): Any? {
+    override fun get(base: Any?, address: Long): Any? {
         throw RuntimeException("not support")
     }
 
@@ -617,7 +1057,7 @@ internal class BigDecimalPropertyAccessor(override val nullable: Boolean) : Prop
         return getBigDecimal(storage)
     }
 
-    override fun set(buffer: ByteArray, value: Any?) {
+    override fun set(base: Any?, address: Long, value: Any?) {
         throw RuntimeException("not support")
     }
 
@@ -626,11 +1066,13 @@ internal class BigDecimalPropertyAccessor(override val nullable: Boolean) : Prop
     }
 
     fun getBigDecimal(storage: ByteDataStorage): BigDecimal? {
-        val buffer = storage.buffer
+        if (storage.isNewer(this)) return defaultBigDecimalValue
+        val base = storage.base
+        val address = storage.address
 
-        if (_definedField?.get(buffer) == false) return null
+        if (_definedField?.get(base, address) == false) return null
 
-        val intCompact = _intCompactField.get(buffer)
+        val intCompact = _intCompactField.get(base, address)
         return if (intCompact == INFLATED) {
             // 从 objectMap 中获取值，如果获取的值是 null, 返回 默认值
             // 注意这里和 UUID 的处理方式不同，UUID 一定能用两个 long 存储，但 BigDecimal 可能数值过大，还是放到 objectMap
@@ -639,17 +1081,19 @@ internal class BigDecimalPropertyAccessor(override val nullable: Boolean) : Prop
             obj ?: defaultBigDecimalValue
         } else {
             // 从数据中恢复, scale 可以是负数也可以是正数
-            BigDecimal.valueOf(intCompact, _scaleField.get(buffer).toInt())
+            BigDecimal.valueOf(intCompact, _scaleField.get(base, address).toInt())
         }
     }
 
     fun setBigDecimal(storage: ByteDataStorage, value: BigDecimal?) {
-        val buffer = storage.buffer
+        storage.beforeWrite(this)
+        val base = storage.base
+        val address = storage.address
 
-        _definedField?.set(buffer, value != null)
+        _definedField?.set(base, address, value != null)
         if (value == null) {
-            _intCompactField.set(buffer, 0L)
-            _scaleField.set(buffer, 0)
+            _intCompactField.set(base, address, 0L)
+            _scaleField.set(base, address, 0)
             storage.setObject(objectIndex, null)
             return
         }
@@ -658,17 +1102,17 @@ internal class BigDecimalPropertyAccessor(override val nullable: Boolean) : Prop
         val scale = value.scale()
 
         if (intCompact != INFLATED && (scale in Byte.MIN_VALUE .. Byte.MAX_VALUE)) {
-            _intCompactField.set(buffer, intCompact)
-            _scaleField.set(buffer, scale.toByte())
+            _intCompactField.set(base, address, intCompact)
+            _scaleField.set(base, address, scale.toByte())
             storage.setObject(objectIndex, null)
         } else {
-            _intCompactField.set(buffer, INFLATED)
-            _scaleField.set(buffer, 0)
+            _intCompactField.set(base, address, INFLATED)
+            _scaleField.set(base, address, 0)
             storage.setObject(objectIndex, value)
         }
     }
 
-    private companion object {
+    internal companion object {
         private val UNSAFE = try {
             val unsafeField = Unsafe::class.java.getDeclaredField("theUnsafe")
             unsafeField.setAccessible(true)
@@ -690,7 +1134,12 @@ internal class BigDecimalPropertyAccessor(override val nullable: Boolean) : Prop
             -1L
         }
 
-        private const val INFLATED = Long.MIN_VALUE
+        const val INFLATED = Long.MIN_VALUE
+
+        /**
+         * value 的 intCompact，放不进 long 时为 [INFLATED]。列存储（DynamicObjectBatch）与行存储共用这套编码。
+         */
+        fun intCompactOf(value: BigDecimal): Long = value.getIntCompact()
 
         @JvmStatic
         private fun BigDecimal.getIntCompact(): Long {
@@ -723,29 +1172,31 @@ internal class UUIDPropertyAccessor(override val nullable: Boolean) : PropertyAc
 
     override val defaultValue: Any? get() = if (nullable) null else EMPTY
 
-    override fun get(buffer: ByteArray): Any? {
-        return getUUID(buffer)
+    override fun get(base: Any?, address: Long): Any? {
+        return getUUID(base, address)
     }
 
-    override fun set(buffer: ByteArray, value: Any?) {
-        setUUID(buffer, value as UUID?)
+    override fun set(base: Any?, address: Long, value: Any?) {
+        setUUID(base, address, value as UUID?)
     }
 
-    fun getUUID(buffer: ByteArray): UUID? {
-        if (_definedField?.get(buffer) == false) return null
-        val most = _mostSigBitsField.get(buffer)
-        val least = _leastSigBitsField.get(buffer)
+    fun getUUID(buffer: ByteArray): UUID? = getUUID(buffer, Field.BASE_OFFSET)
+    fun getUUID(base: Any?, address: Long): UUID? {
+        if (_definedField?.get(base, address) == false) return null
+        val most = _mostSigBitsField.get(base, address)
+        val least = _leastSigBitsField.get(base, address)
         return if (most == 0L && least == 0L) EMPTY else UUID(most, least)
     }
 
-    fun setUUID(buffer: ByteArray, value: UUID?) {
-        _definedField?.set(buffer, value != null)
+    fun setUUID(buffer: ByteArray, value: UUID?) = setUUID(buffer, Field.BASE_OFFSET, value)
+    fun setUUID(base: Any?, address: Long, value: UUID?) {
+        _definedField?.set(base, address, value != null)
         if (value == null) {
-            _mostSigBitsField.set(buffer, 0L)
-            _leastSigBitsField.set(buffer, 0L)
+            _mostSigBitsField.set(base, address, 0L)
+            _leastSigBitsField.set(base, address, 0L)
         } else {
-            _mostSigBitsField.set(buffer, value.mostSignificantBits)
-            _leastSigBitsField.set(buffer, value.leastSignificantBits)
+            _mostSigBitsField.set(base, address, value.mostSignificantBits)
+            _leastSigBitsField.set(base, address, value.leastSignificantBits)
         }
     }
 
@@ -761,21 +1212,23 @@ internal class LocalDatePropertyAccessor(override val nullable: Boolean) : Prope
     override fun getFields() = listOfNotNull(_epochDayField, _definedField)
     override val defaultValue: Any? get() = if (nullable) null else EMPTY
 
-    override fun get(buffer: ByteArray): Any? = getLocalDate(buffer)
-    override fun set(buffer: ByteArray, value: Any?) = setLocalDate(buffer, value as LocalDate?)
+    override fun get(base: Any?, address: Long): Any? = getLocalDate(base, address)
+    override fun set(base: Any?, address: Long, value: Any?) = setLocalDate(base, address, value as LocalDate?)
 
-    fun getLocalDate(buffer: ByteArray): LocalDate? {
-        if (_definedField?.get(buffer) == false) return null
-        val epochDay = _epochDayField.get(buffer)
+    fun getLocalDate(buffer: ByteArray): LocalDate? = getLocalDate(buffer, Field.BASE_OFFSET)
+    fun getLocalDate(base: Any?, address: Long): LocalDate? {
+        if (_definedField?.get(base, address) == false) return null
+        val epochDay = _epochDayField.get(base, address)
         return if (epochDay == 0L) EMPTY else LocalDate.ofEpochDay(epochDay)
     }
 
-    fun setLocalDate(buffer: ByteArray, value: LocalDate?) {
-        _definedField?.set(buffer, value != null)
+    fun setLocalDate(buffer: ByteArray, value: LocalDate?) = setLocalDate(buffer, Field.BASE_OFFSET, value)
+    fun setLocalDate(base: Any?, address: Long, value: LocalDate?) {
+        _definedField?.set(base, address, value != null)
         if (value == null) {
-            _epochDayField.set(buffer, 0L)
+            _epochDayField.set(base, address, 0L)
         } else {
-            _epochDayField.set(buffer, value.toEpochDay())
+            _epochDayField.set(base, address, value.toEpochDay())
         }
     }
 
@@ -791,21 +1244,23 @@ internal class LocalTimePropertyAccessor(override val nullable: Boolean) : Prope
     override fun getFields() = listOfNotNull(_nanoOfDayField, _definedField)
     override val defaultValue: Any? get() = if (nullable) null else EMPTY
 
-    override fun get(buffer: ByteArray): Any? = getLocalTime(buffer)
-    override fun set(buffer: ByteArray, value: Any?) = setLocalTime(buffer, value as LocalTime?)
+    override fun get(base: Any?, address: Long): Any? = getLocalTime(base, address)
+    override fun set(base: Any?, address: Long, value: Any?) = setLocalTime(base, address, value as LocalTime?)
 
-    fun getLocalTime(buffer: ByteArray): LocalTime? {
-        if (_definedField?.get(buffer) == false) return null
-        val nanoOfDay = _nanoOfDayField.get(buffer)
+    fun getLocalTime(buffer: ByteArray): LocalTime? = getLocalTime(buffer, Field.BASE_OFFSET)
+    fun getLocalTime(base: Any?, address: Long): LocalTime? {
+        if (_definedField?.get(base, address) == false) return null
+        val nanoOfDay = _nanoOfDayField.get(base, address)
         return if (nanoOfDay == 0L) EMPTY else LocalTime.ofNanoOfDay(nanoOfDay)
     }
 
-    fun setLocalTime(buffer: ByteArray, value: LocalTime?) {
-        _definedField?.set(buffer, value != null)
+    fun setLocalTime(buffer: ByteArray, value: LocalTime?) = setLocalTime(buffer, Field.BASE_OFFSET, value)
+    fun setLocalTime(base: Any?, address: Long, value: LocalTime?) {
+        _definedField?.set(base, address, value != null)
         if (value == null) {
-            _nanoOfDayField.set(buffer, 0L)
+            _nanoOfDayField.set(base, address, 0L)
         } else {
-            _nanoOfDayField.set(buffer, value.toNanoOfDay())
+            _nanoOfDayField.set(base, address, value.toNanoOfDay())
         }
     }
 
@@ -822,24 +1277,26 @@ internal class LocalDateTimePropertyAccessor(override val nullable: Boolean) : P
     override fun getFields() = listOfNotNull(_epochSecondField, _nanoField, _definedField)
     override val defaultValue: Any? get() = if (nullable) null else EMPTY
 
-    override fun get(buffer: ByteArray): Any? = getLocalDateTime(buffer)
-    override fun set(buffer: ByteArray, value: Any?) = setLocalDateTime(buffer, value as LocalDateTime?)
+    override fun get(base: Any?, address: Long): Any? = getLocalDateTime(base, address)
+    override fun set(base: Any?, address: Long, value: Any?) = setLocalDateTime(base, address, value as LocalDateTime?)
 
-    fun getLocalDateTime(buffer: ByteArray): LocalDateTime? {
-        if (_definedField?.get(buffer) == false) return null
-        val epochSecond = _epochSecondField.get(buffer)
-        val nano = _nanoField.get(buffer)
+    fun getLocalDateTime(buffer: ByteArray): LocalDateTime? = getLocalDateTime(buffer, Field.BASE_OFFSET)
+    fun getLocalDateTime(base: Any?, address: Long): LocalDateTime? {
+        if (_definedField?.get(base, address) == false) return null
+        val epochSecond = _epochSecondField.get(base, address)
+        val nano = _nanoField.get(base, address)
         return if (epochSecond == 0L && nano == 0) EMPTY else LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC)
     }
 
-    fun setLocalDateTime(buffer: ByteArray, value: LocalDateTime?) {
-        _definedField?.set(buffer, value != null)
+    fun setLocalDateTime(buffer: ByteArray, value: LocalDateTime?) = setLocalDateTime(buffer, Field.BASE_OFFSET, value)
+    fun setLocalDateTime(base: Any?, address: Long, value: LocalDateTime?) {
+        _definedField?.set(base, address, value != null)
         if (value == null) {
-            _epochSecondField.set(buffer, 0L)
-            _nanoField.set(buffer, 0)
+            _epochSecondField.set(base, address, 0L)
+            _nanoField.set(base, address, 0)
         } else {
-            _epochSecondField.set(buffer, value.toEpochSecond(ZoneOffset.UTC))
-            _nanoField.set(buffer, value.nano)
+            _epochSecondField.set(base, address, value.toEpochSecond(ZoneOffset.UTC))
+            _nanoField.set(base, address, value.nano)
         }
     }
 
@@ -856,24 +1313,26 @@ internal class InstantPropertyAccessor(override val nullable: Boolean) : Propert
     override fun getFields() = listOfNotNull(_epochSecondField, _nanoField, _definedField)
     override val defaultValue: Any? get() = if (nullable) null else Instant.EPOCH
 
-    override fun get(buffer: ByteArray): Any? = getInstant(buffer)
-    override fun set(buffer: ByteArray, value: Any?) = setInstant(buffer, value as Instant?)
+    override fun get(base: Any?, address: Long): Any? = getInstant(base, address)
+    override fun set(base: Any?, address: Long, value: Any?) = setInstant(base, address, value as Instant?)
 
-    fun getInstant(buffer: ByteArray): Instant? {
-        if (_definedField?.get(buffer) == false) return null
-        val epochSecond = _epochSecondField.get(buffer)
-        val nano = _nanoField.get(buffer)
+    fun getInstant(buffer: ByteArray): Instant? = getInstant(buffer, Field.BASE_OFFSET)
+    fun getInstant(base: Any?, address: Long): Instant? {
+        if (_definedField?.get(base, address) == false) return null
+        val epochSecond = _epochSecondField.get(base, address)
+        val nano = _nanoField.get(base, address)
         return if (epochSecond == 0L && nano == 0) Instant.EPOCH else Instant.ofEpochSecond(epochSecond, nano.toLong())
     }
 
-    fun setInstant(buffer: ByteArray, value: Instant?) {
-        _definedField?.set(buffer, value != null)
+    fun setInstant(buffer: ByteArray, value: Instant?) = setInstant(buffer, Field.BASE_OFFSET, value)
+    fun setInstant(base: Any?, address: Long, value: Instant?) {
+        _definedField?.set(base, address, value != null)
         if (value == null) {
-            _epochSecondField.set(buffer, 0L)
-            _nanoField.set(buffer, 0)
+            _epochSecondField.set(base, address, 0L)
+            _nanoField.set(base, address, 0)
         } else {
-            _epochSecondField.set(buffer, value.epochSecond)
-            _nanoField.set(buffer, value.nano)
+            _epochSecondField.set(base, address, value.epochSecond)
+            _nanoField.set(base, address, value.nano)
         }
     }
 }
@@ -885,21 +1344,23 @@ internal class DatePropertyAccessor(override val nullable: Boolean) : PropertyAc
     override fun getFields() = listOfNotNull(_timeField, _definedField)
     override val defaultValue: Any? get() = if (nullable) null else EMPTY
 
-    override fun get(buffer: ByteArray): Any? = getDate(buffer)
-    override fun set(buffer: ByteArray, value: Any?) = setDate(buffer, value as Date?)
+    override fun get(base: Any?, address: Long): Any? = getDate(base, address)
+    override fun set(base: Any?, address: Long, value: Any?) = setDate(base, address, value as Date?)
 
-    fun getDate(buffer: ByteArray): Date? {
-        if (_definedField?.get(buffer) == false) return null
-        val time = _timeField.get(buffer)
+    fun getDate(buffer: ByteArray): Date? = getDate(buffer, Field.BASE_OFFSET)
+    fun getDate(base: Any?, address: Long): Date? {
+        if (_definedField?.get(base, address) == false) return null
+        val time = _timeField.get(base, address)
         return if (time == 0L) EMPTY else Date(time)
     }
 
-    fun setDate(buffer: ByteArray, value: Date?) {
-        _definedField?.set(buffer, value != null)
+    fun setDate(buffer: ByteArray, value: Date?) = setDate(buffer, Field.BASE_OFFSET, value)
+    fun setDate(base: Any?, address: Long, value: Date?) {
+        _definedField?.set(base, address, value != null)
         if (value == null) {
-            _timeField.set(buffer, 0L)
+            _timeField.set(base, address, 0L)
         } else {
-            _timeField.set(buffer, value.time)
+            _timeField.set(base, address, value.time)
         }
     }
 
@@ -910,10 +1371,44 @@ internal class DatePropertyAccessor(override val nullable: Boolean) : PropertyAc
 //endregion
 
 //region =================== LayoutManager ========================
+/**
+ * 一代布局。DynamicObjectType 在已经创建过实例之后再注册属性时，产生新的一代而不是重新布局：
+ * 已有字段的 offset 和 objectIndex 保持不变，新字段排在上一代 byteSize 之后，新的 objectIndex 从上一代 maxObjectSize 开始。
+ * 追加部分全为 0 正好是缺省值，所以旧实例照常读写已有属性，读新属性得到缺省值，写入新属性时再升级（见 ByteDataStorage.upgrade）。
+ * owner 是产生这一代的类型，升级堆外实例时由它提供 arena；独立布局（测试用）为 null。
+ * objectSlots 按 objectIndex 记录这一代中使用 Object 槽位的属性（长度为 maxObjectSize），反序列化时用来校验槽位。
+ */
+internal class ObjectLayout(
+    val version: Int,
+    val byteSize: Int,
+    val objectSize: Int,
+    val maxObjectSize: Int,
+    val fingerprint: Long,
+    val owner: DynamicObjectType? = null,
+    internal val objectSlots: Array<PropertyAccessor?> = arrayOfNulls(maxObjectSize)
+) {
+    /**
+     * 下一代布局，由 DynamicObjectType 在产生新的一代时设置。
+     */
+    var next: ObjectLayout? = null
+        internal set
+
+    val latest: ObjectLayout
+        get() {
+            var layout = this
+            while (true) {
+                layout = layout.next ?: return layout
+            }
+        }
+}
+
 internal object LayoutManager {
-    fun assignOffsets(fields: List<Field>) : Int {
+    /**
+     * 从 start 开始分配 offset，返回布局结束位置。start 是上一代的 byteSize（追加布局）或 0。
+     */
+    fun assignOffsets(fields: List<Field>, start: Int = 0) : Int {
         // 两次循环 —— 先布局非布尔，再把全部布尔集中尾部 bit 打包
-        var offsetCounter = 0
+        var offsetCounter = start
 
         for (field in fields.sortedByDescending { it.alignment }) {
             if (field !is BooleanField) {
@@ -941,7 +1436,10 @@ internal object LayoutManager {
 
     private fun alignUp(offset: Int, align: Int): Int = (offset + align - 1) and (-align)
 
-    fun calcObjectInitSize(properties: Iterable<PropertyAccessor>): Pair<Int, Int> {
+    /**
+     * 为 properties 分配 objectIndex（从 firstIndex 开始），返回 (预分配大小, objectIndex 上限)。
+     */
+    fun calcObjectInitSize(properties: Iterable<PropertyAccessor>, firstIndex: Int = 0): Pair<Int, Int> {
         var initSize = 0.0f
         val orderedProperties = ArrayList<PropertyAccessor>()
 
@@ -960,7 +1458,7 @@ internal object LayoutManager {
         // initSize.toInt() 最终只有 String 预分配了 10, 即初始化 objectMap[10],但他们的 ObjectIndex 是 10 .. 19
         // 当为任何一个 String 属性赋值时，其编号都大于 10，将触发扩容，这违背了我们最初的设计：希望常见的Object类型预先分配空间。
         // 所以这里根据 requiresObjectStorage 排序后，String 被排序到前面，即 ObjectIndex 是 0 .. 9,这时不再发生扩容。
-        var objectSize = 0
+        var objectSize = firstIndex
         orderedProperties.sortByDescending { it.requiresObjectStorage }
         for (property in orderedProperties){
             property.resetObjectIndex(objectSize++)
@@ -970,11 +1468,49 @@ internal object LayoutManager {
         return Pair(initSize.toInt(), objectSize)
     }
 
-    fun calcByteSize(properties: Iterable<PropertyAccessor>): Int {
+    fun calcByteSize(properties: Iterable<PropertyAccessor>, start: Int = 0): Int {
         val fields = properties.flatMap { it.getFields() }
         // 注意不能使用这样的计算方式： fields.sumOf { it.size }， 因为 boolean 实际占用的是 bit.
-        return assignOffsets(fields)
+        return assignOffsets(fields, start)
     }
+
+    /**
+     * 布局指纹（64 位 FNV-1a），在 offset 与 objectIndex 分配之后调用。
+     * 覆盖属性类型、可空性、缺省值、每个字段的位置、objectIndex、总字节数以及本机字节序（字段按本机字节序写入 buffer），
+     * 两端的指纹相同才能直接复制 buffer，见 [RowCodec]。只依赖类名和数值，跨 JVM 稳定。
+     */
+    fun fingerprint(properties: Iterable<PropertyAccessor>, byteSize: Int): Long {
+        var hash = FNV_OFFSET_BASIS
+        fun mix(value: Int) {
+            for (shift in 0 until 32 step 8) {
+                hash = (hash xor ((value ushr shift) and 0xFF).toLong()) * FNV_PRIME
+            }
+        }
+        fun mix(value: String) {
+            mix(value.length)
+            for (c in value) {
+                mix(c.code)
+            }
+        }
+
+        mix(byteSize)
+        mix(if (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) 1 else 0)
+        for (property in properties) {
+            mix(property.javaClass.name)
+            mix(if (property.nullable) 1 else 0)
+            mix(property.defaultValue.toString())
+            mix(property.objectIndex)
+            for (field in property.getFields()) {
+                mix(field.javaClass.name)
+                mix(field.byteOffset)
+                mix(if (field is BooleanField) field.bit else 0)
+            }
+        }
+        return hash
+    }
+
+    private const val FNV_OFFSET_BASIS = -0x340d631b7bdddcdbL
+    private const val FNV_PRIME = 0x100000001b3L
 }
 //endregion
 
@@ -984,24 +1520,235 @@ internal class DynamicObjectType {
     private val _properties = mutableListOf<PropertyAccessor>()
     val properties: List<PropertyAccessor> get() = _properties
 
-    private var _byteSize = -1
-    private var _objectSize = -1
-    private var _objectMaxSize = -1
+    // 每一代布局，见 ObjectLayout；_laidOut 是已经分配了 offset 的属性个数。
+    private val _layouts = mutableListOf<ObjectLayout>()
+    private var _laidOut = 0
+    private var _compiled: CompiledAccessors? = null
 
+    /**
+     * 注册属性。已经布局过（创建过实例等）时不立即追加布局：连续注册的一批属性在下一次 createInstance、compiledAccessors、
+     * migrate 或写入新属性时一起追加为一代，布尔位可以共用字节，升级时的 latest 链也不会随注册次数变长。
+     * 在此之前读取新属性返回缺省值；旧实例在写入新属性时升级，见 [migrate]。
+     */
     fun <T : PropertyAccessor> register(property: T) : T {
+        property.resetPropertyIndex(_properties.size)
         _properties.add(property)
+        if (_layouts.isNotEmpty()) {
+            property.resetLayoutVersion(PropertyAccessor.PENDING_LAYOUT_VERSION)
+        }
         return property
     }
 
+    // region 按属性下标的类型化访问
+    // ByteDataStorage 不持有类型信息（避免每个实例多一个引用），所以按下标访问放在类型上。
+    // 属性类型与方法不符时抛出 IllegalArgumentException。
+    fun getBoolean(storage: ByteDataStorage, propertyIndex: Int): Boolean =
+        storage.getBoolean(typedProperty<BooleanPropertyAccessor>(propertyIndex))
+    fun setBoolean(storage: ByteDataStorage, propertyIndex: Int, value: Boolean) =
+        storage.setBoolean(typedProperty<BooleanPropertyAccessor>(propertyIndex), value)
+
+    fun getByte(storage: ByteDataStorage, propertyIndex: Int): Byte =
+        storage.getByte(typedProperty<BytePropertyAccessor>(propertyIndex))
+    fun setByte(storage: ByteDataStorage, propertyIndex: Int, value: Byte) =
+        storage.setByte(typedProperty<BytePropertyAccessor>(propertyIndex), value)
+
+    fun getShort(storage: ByteDataStorage, propertyIndex: Int): Short =
+        storage.getShort(typedProperty<ShortPropertyAccessor>(propertyIndex))
+    fun setShort(storage: ByteDataStorage, propertyIndex: Int, value: Short) =
+        storage.setShort(typedProperty<ShortPropertyAccessor>(propertyIndex), value)
+
+    fun getInt(storage: ByteDataStorage, propertyIndex: Int): Int =
+        storage.getInt(typedProperty<IntPropertyAccessor>(propertyIndex))
+    fun setInt(storage: ByteDataStorage, propertyIndex: Int, value: Int) =
+        storage.setInt(typedProperty<IntPropertyAccessor>(propertyIndex), value)
+
+    fun getLong(storage: ByteDataStorage, propertyIndex: Int): Long =
+        storage.getLong(typedProperty<LongPropertyAccessor>(propertyIndex))
+    fun setLong(storage: ByteDataStorage, propertyIndex: Int, value: Long) =
+        storage.setLong(typedProperty<LongPropertyAccessor>(propertyIndex), value)
+
+    fun getFloat(storage: ByteDataStorage, propertyIndex: Int): Float =
+        storage.getFloat(typedProperty<FloatPropertyAccessor>(propertyIndex))
+    fun setFloat(storage: ByteDataStorage, propertyIndex: Int, value: Float) =
+        storage.setFloat(typedProperty<FloatPropertyAccessor>(propertyIndex), value)
+
+    fun getDouble(storage: ByteDataStorage, propertyIndex: Int): Double =
+        storage.getDouble(typedProperty<DoublePropertyAccessor>(propertyIndex))
+    fun setDouble(storage: ByteDataStorage, propertyIndex: Int, value: Double) =
+        storage.setDouble(typedProperty<DoublePropertyAccessor>(propertyIndex), value)
+
+    private inline fun <reified T : PropertyAccessor> typedProperty(propertyIndex: Int): T {
+        val property = _properties[propertyIndex]
+        return property as? T ?: throw IllegalArgumentException(
+            "Property $propertyIndex is ${property.javaClass.simpleName}, not ${T::class.java.simpleName}")
+    }
+    //endregion
+
     fun createInstance() : ByteDataStorage{
-        if(_objectSize < 0 || _byteSize < 0 || _objectMaxSize < 0){
-            _byteSize = LayoutManager.calcByteSize(_properties)
-            val s = LayoutManager.calcObjectInitSize(_properties)
-            _objectSize = s.first
-            _objectMaxSize = s.second
+        return ByteDataStorage(ensureLayout())
+    }
+
+    /**
+     * 在 arena 的堆外内存中创建实例，arena 必须由本类型的 [createArena] 创建（槽位不小于布局大小）。
+     */
+    fun createInstance(arena: OffHeapArena) : ByteDataStorage{
+        val layout = ensureLayout()
+        require(arena.slotSize >= layout.byteSize) { "Arena slot size ${arena.slotSize} is smaller than layout size ${layout.byteSize}" }
+        return ByteDataStorage(arena, layout)
+    }
+
+    /**
+     * 创建按本类型布局大小切分槽位的堆外 arena，用完后需要 close。
+     */
+    fun createArena(slotsPerSlab: Int = OffHeapArena.DEFAULT_SLOTS_PER_SLAB) : OffHeapArena{
+        return OffHeapArena(ensureLayout().byteSize, slotsPerSlab)
+    }
+
+    /**
+     * 当前（最新一代）布局。
+     */
+    val layout: ObjectLayout get() = ensureLayout()
+
+    /**
+     * 布局指纹，序列化时写入，反序列化时校验，见 [LayoutManager.fingerprint]。
+     */
+    val layoutFingerprint: Long get() = ensureLayout().fingerprint
+
+    /**
+     * 自上次 clearDirty 以来修改过的属性，见 [ByteDataStorage.dirtyProperties]。
+     */
+    fun dirtyProperties(storage: ByteDataStorage): List<PropertyAccessor> =
+        storage.dirtyProperties().map { _properties[it] }
+
+    // region 布局升级
+    // 在已有实例之后注册属性会产生新的一代布局，旧实例有两种升级方式：
+    // 1. 写入新属性时自动升级（copy-on-write），经 ByteDataStorage 的方法、PropertyAccessor.set(storage) 或 CompiledAccessors 写入都会触发；
+    // 2. 调用 migrate/migrateAll 一次性升级，例如在低峰期或把堆外实例搬到指定的 arena 时。
+    // 读取新属性返回缺省值，不升级；只访问已有属性的实例不会被升级，也不需要升级。
+    // 堆外槽位放不下新布局时，实例搬到调用方传入的 arena，没有传入时搬到 migrationArena。
+
+    private val _migrationArenas = mutableListOf<OffHeapArena>()
+
+    /**
+     * 堆外实例升级时原槽位放不下、又没有指定 arena 时搬入的 arena。按当前布局首次需要时创建，之后的布局放不下时再创建新的；
+     * 这些 arena 归本类型所有，不再使用本类型的堆外实例后调用 [closeMigrationArenas] 释放。
+     */
+    internal fun migrationArena(): OffHeapArena {
+        val layout = ensureLayout()
+        val last = _migrationArenas.lastOrNull()
+        if (last != null && !last.isClosed && last.slotSize >= layout.byteSize) {
+            return last
+        }
+        return createArena().also { _migrationArenas.add(it) }
+    }
+
+    /**
+     * 关闭 [migrationArena] 创建的全部 arena，之后不能再访问搬进去的实例。
+     */
+    fun closeMigrationArenas() {
+        for (arena in _migrationArenas) {
+            arena.close()
+        }
+        _migrationArenas.clear()
+    }
+
+    /**
+     * 升级到最新一代布局，返回是否发生了升级。堆外槽位放不下新布局时搬到 arena（由 [createArena] 创建），
+     * 不传时使用 [migrationArena]。
+     */
+    fun migrate(storage: ByteDataStorage, arena: OffHeapArena? = null): Boolean {
+        ensureLayout()
+        return storage.upgrade(arena)
+    }
+
+    /**
+     * 批量升级，返回升级的实例数。
+     */
+    fun migrateAll(storages: Iterable<ByteDataStorage>, arena: OffHeapArena? = null): Int {
+        ensureLayout()
+        var count = 0
+        for (storage in storages) {
+            if (storage.upgrade(arena)) count++
         }
+        return count
+    }
+    //endregion
+
+    /**
+     * 序列化后的字节数，见 [RowCodec]。
+     */
+    fun serializedSize(storage: ByteDataStorage): Int {
+        return RowCodec.serializedSize(storage, storage.layout.byteSize)
+    }
+
+    /**
+     * 把实例写到 out 的当前位置（buffer 原样复制 + 非 null 的 Object 槽位），空间不足时抛出 BufferOverflowException。
+     * 按实例自己的布局代写出，旧实例不会因为序列化而升级。
+     */
+    fun writeTo(storage: ByteDataStorage, out: ByteBuffer) {
+        val layout = storage.layout
+        RowCodec.write(storage, out, layout.fingerprint, layout.byteSize)
+    }
 
-        return ByteDataStorage(_byteSize, _objectSize, _objectMaxSize)
+    fun toByteArray(storage: ByteDataStorage): ByteArray {
+        val bytes = ByteArray(serializedSize(storage))
+        writeTo(storage, ByteBuffer.wrap(bytes))
+        return bytes
+    }
+
+    /**
+     * 从 input 的当前位置读取 [writeTo] 写出的实例，指纹不属于本类型的任何一代或大小不符时抛出 IllegalArgumentException。
+     * 旧一代写出的数据读成最新一代的实例（新属性为缺省值）。传入 arena 时在堆外创建实例。
+     */
+    fun readFrom(input: ByteBuffer, arena: OffHeapArena? = null): ByteDataStorage {
+        val current = ensureLayout()
+        val fingerprint = RowCodec.peekFingerprint(input)
+        val written = _layouts.firstOrNull { it.fingerprint == fingerprint } ?: current
+        val storage = if (arena == null) createInstance() else createInstance(arena)
+        try {
+            RowCodec.read(storage, input, written)
+        } catch (e: RuntimeException) {
+            storage.release()  // 堆外槽位归还给 arena
+            throw e
+        }
+        return storage
+    }
+
+    /**
+     * 为本类型生成的 [CompiledAccessors]（首次调用时完成布局并生成字节码）。
+     * 之后注册属性会产生新的一代布局，下次调用时重新生成；旧的 CompiledAccessors 仍可用于它生成时已有的属性。
+     */
+    fun compiledAccessors() : CompiledAccessors{
+        val layout = ensureLayout()
+        return _compiled ?: AccessorGenerator.generate(_properties, layout).also { _compiled = it }
+    }
+
+    private fun ensureLayout(): ObjectLayout {
+        val previous = _layouts.lastOrNull()
+        if (previous != null && _laidOut == _properties.size) {
+            return previous
+        }
+        // 第一代对全部属性布局；之后只对新注册的属性追加布局，已有属性的 offset 和 objectIndex 不变。
+        val added = _properties.subList(_laidOut, _properties.size)
+        val version = if (previous == null) 0 else previous.version + 1
+        for (property in added) {
+            property.resetLayoutVersion(version)
+        }
+        val byteSize = LayoutManager.calcByteSize(added, previous?.byteSize ?: 0)
+        val s = LayoutManager.calcObjectInitSize(added, previous?.maxObjectSize ?: 0)
+        val objectSize = (previous?.objectSize ?: 0) + s.first
+        val objectSlots = arrayOfNulls<PropertyAccessor>(s.second)
+        for (property in _properties) {
+            if (property.requiresObjectStorage > 0.0f) objectSlots[property.objectIndex] = property
+        }
+        val layout = ObjectLayout(version, byteSize, objectSize, s.second,
+            LayoutManager.fingerprint(_properties, byteSize), this, objectSlots)
+
+        previous?.next = layout
+        _layouts.add(layout)
+        _laidOut = _properties.size
+        _compiled = null
+        return layout
     }
 }
 //endregion
\ No newline at end of file
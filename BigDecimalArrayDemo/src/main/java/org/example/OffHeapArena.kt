@@ -0,0 +1,109 @@
+package org.example
+
+/**
+ * ByteDataStorage 的堆外后端：按 slab 向 Unsafe.allocateMemory 申请大块内存，再切成固定大小的槽位，
+ * 同一个 DynamicObjectType 的堆外实例共用一个 arena（见 [DynamicObjectType.createArena]）。
+ *
+ * 生命周期两种用法可以混用：
+ * - 逐个释放：[ByteDataStorage.release] 把槽位放回空闲链表，下次 allocate 优先复用；
+ * - arena 生命周期：[close] 一次归还全部 slab，之后不能再访问该 arena 分配的任何实例（与 Chronicle 的 releaseLast 相同，访问已释放内存可能直接崩溃）。
+ *
+ * 非线程安全，与 ByteDataStorage 一致。
+ */
+internal class OffHeapArena(byteSize: Int, val slotsPerSlab: Int = DEFAULT_SLOTS_PER_SLAB) : AutoCloseable {
+    /**
+     * 槽位大小按 8 字节对齐，保证 LongField 等在堆外也是对齐访问。
+     */
+    val slotSize: Int
+
+    private var slabs = LongArray(4)
+    private var slabCount = 0
+    private var cursor = 0L  // 当前 slab 中下一个未用过的槽位
+    private var limit = 0L
+
+    private var freeSlots = LongArray(16)
+    private var freeCount = 0
+
+    private var _liveSlots = 0
+    val liveSlots: Int get() = _liveSlots
+
+    var isClosed = false
+        private set
+
+    init {
+        require(byteSize >= 0) { "byteSize must be >= 0: $byteSize" }
+        require(slotsPerSlab > 0) { "slotsPerSlab must be > 0: $slotsPerSlab" }
+        slotSize = (maxOf(byteSize, 1) + 7) and 7.inv()
+    }
+
+    /**
+     * 已向操作系统申请的堆外字节数（只增不减，直到 close）。
+     */
+    val reservedBytes: Long get() = slabCount.toLong() * slotSize * slotsPerSlab
+
+    /**
+     * 分配一个清零的槽位，返回其地址。
+     */
+    fun allocate(): Long {
+        check(!isClosed) { "OffHeapArena is closed" }
+        val address = if (freeCount > 0) {
+            freeSlots[--freeCount]
+        } else {
+            if (cursor == limit) {
+                newSlab()
+            }
+            val slot = cursor
+            cursor += slotSize
+            slot
+        }
+        UNSAFE.setMemory(address, slotSize.toLong(), 0)
+        _liveSlots++
+        return address
+    }
+
+    /**
+     * 归还槽位，arena 已关闭时忽略。
+     */
+    fun free(address: Long) {
+        if (isClosed) {
+            return
+        }
+        if (freeCount == freeSlots.size) {
+            freeSlots = freeSlots.copyOf(freeCount * 2)
+        }
+        freeSlots[freeCount++] = address
+        _liveSlots--
+    }
+
+    private fun newSlab() {
+        val slab = UNSAFE.allocateMemory(slotSize.toLong() * slotsPerSlab)
+        if (slabCount == slabs.size) {
+            slabs = slabs.copyOf(slabCount * 2)
+        }
+        slabs[slabCount++] = slab
+        cursor = slab
+        limit = slab + slotSize.toLong() * slotsPerSlab
+    }
+
+    override fun close() {
+        if (isClosed) {
+            return
+        }
+        isClosed = true
+        for (i in 0 until slabCount) {
+            UNSAFE.freeMemory(slabs[i])
+        }
+        slabCount = 0
+        freeCount = 0
+        _liveSlots = 0
+        cursor = 0L
+        limit = 0L
+    }
+
+    companion object {
+        // 64 字节的实体约 64KB 一个 slab
+        const val DEFAULT_SLOTS_PER_SLAB = 1024
+
+        private val UNSAFE = Field.UNSAFE
+    }
+}
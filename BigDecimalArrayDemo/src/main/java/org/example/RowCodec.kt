@@ -0,0 +1,279 @@
+package org.example
+
+import java.math.BigDecimal
+import java.math.BigInteger
+import java.nio.Buffer
+import java.nio.BufferOverflowException
+import java.nio.BufferUnderflowException
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.ReadOnlyBufferException
+
+/**
+ * ByteDataStorage 的二进制行格式，由 DynamicObjectType.writeTo/readFrom 调用。
+ * 基本类型已经连续存放在 buffer（或堆外槽位）中，直接整段复制，不再逐个属性装箱；只有非 null 的 Object 槽位单独编码：
+ * ```
+ * long    布局指纹（LayoutManager.fingerprint，包含本机字节序）
+ * varint  byteSize
+ * byte[]  buffer 原样复制
+ * varint  Object 槽位个数，之后每个槽位：varint key, byte tag, 内容
+ *         TAG_STRING:      varint UTF-8 字节数, UTF-8 字节
+ *         TAG_BIG_DECIMAL: zigzag varint scale, varint 字节数, unscaledValue 的补码字节（只有放不进 intCompact 的值才会在这里）
+ * ```
+ * 头部整数按小端写入，与 ByteBuffer 自身的 order 无关（写完后恢复）。
+ * Object 槽位只支持 String 和 BigDecimal（ObjectPropertyAccessor 存其他类型时抛出 IllegalArgumentException）。
+ * 读取时按写出时那一代布局的 objectSlots 校验每个槽位：key 不是 Object 槽位、或值的类型与槽位的属性不符
+ * （例如 BigDecimalPropertyAccessor 的槽位里是 String）时抛出 IllegalArgumentException。
+ */
+internal object RowCodec {
+    private const val TAG_STRING: Byte = 1
+    private const val TAG_BIG_DECIMAL: Byte = 2
+
+    private val UNSAFE = Field.UNSAFE
+    private val BASE_OFFSET = Field.BASE_OFFSET
+
+    // java.nio.Buffer.address：DirectByteBuffer 的起始地址。sun.nio.ch.DirectBuffer 在 JDK 9+ 不再导出，改用字段偏移读取
+    private val BUFFER_ADDRESS_OFFSET: Long = try {
+        UNSAFE.objectFieldOffset(Buffer::class.java.getDeclaredField("address"))
+    } catch (e: Exception) {
+        -1L
+    }
+
+    /**
+     * 直接缓冲区当前 position 处的地址；不是直接缓冲区或取不到地址时返回 0。
+     */
+    private fun directAddress(buffer: ByteBuffer): Long {
+        if (!buffer.isDirect || BUFFER_ADDRESS_OFFSET < 0) return 0L
+        return UNSAFE.getLong(buffer, BUFFER_ADDRESS_OFFSET) + buffer.position()
+    }
+
+    fun serializedSize(storage: ByteDataStorage, byteSize: Int): Int {
+        var size = 8 + varIntSize(byteSize) + byteSize
+        var count = 0
+        storage.forEachObject { key, value ->
+            count++
+            size += varIntSize(key) + 1
+            size += when (value) {
+                is String -> utf8Length(value).let { varIntSize(it) + it }
+                is BigDecimal -> {
+                    val length = (value.unscaledValue().bitLength() shr 3) + 1  // 与 BigInteger.toByteArray 相同
+                    varIntSize(zigZag(value.scale())) + varIntSize(length) + length
+                }
+                else -> throw unsupported(key, value)
+            }
+        }
+        return size + varIntSize(count)
+    }
+
+    fun write(storage: ByteDataStorage, out: ByteBuffer, fingerprint: Long, byteSize: Int) {
+        val order = out.order()
+        out.order(ByteOrder.LITTLE_ENDIAN)
+        try {
+            out.putLong(fingerprint)
+            putVarInt(out, byteSize)
+            writeSlot(storage, out, byteSize)
+
+            var count = 0
+            storage.forEachObject { _, _ -> count++ }
+            putVarInt(out, count)
+            storage.forEachObject { key, value ->
+                putVarInt(out, key)
+                when (value) {
+                    is String -> {
+                        out.put(TAG_STRING)
+                        val bytes = value.toByteArray(Charsets.UTF_8)
+                        putVarInt(out, bytes.size)
+                        out.put(bytes)
+                    }
+                    is BigDecimal -> {
+                        out.put(TAG_BIG_DECIMAL)
+                        putVarInt(out, zigZag(value.scale()))
+                        val bytes = value.unscaledValue().toByteArray()
+                        putVarInt(out, bytes.size)
+                        out.put(bytes)
+                    }
+                    else -> throw unsupported(key, value)
+                }
+            }
+        } finally {
+            out.order(order)
+        }
+    }
+
+    /**
+     * 不移动 position 读取头部的布局指纹，用于选择写出时的那一代布局。
+     */
+    fun peekFingerprint(input: ByteBuffer): Long {
+        if (input.remaining() < 8) throw BufferUnderflowException()
+        val value = input.getLong(input.position())
+        return if (input.order() == ByteOrder.LITTLE_ENDIAN) value else java.lang.Long.reverseBytes(value)
+    }
+
+    /**
+     * 读入 storage（新创建、全为缺省值的实例），written 是写出时的那一代布局。
+     * storage 可以是更新一代的布局：追加的部分在 written.byteSize 之后，保持缺省值。
+     */
+    fun read(storage: ByteDataStorage, input: ByteBuffer, written: ObjectLayout) {
+        val fingerprint = written.fingerprint
+        val byteSize = written.byteSize
+        val slots = written.objectSlots
+        val order = input.order()
+        input.order(ByteOrder.LITTLE_ENDIAN)
+        try {
+            val actual = input.getLong()
+            require(actual == fingerprint) {
+                "Layout fingerprint mismatch: expected ${java.lang.Long.toHexString(fingerprint)}, " +
+                        "got ${java.lang.Long.toHexString(actual)}"
+            }
+            val size = getVarInt(input)
+            require(size == byteSize) { "Byte size mismatch: expected $byteSize, got $size" }
+            readSlot(storage, input, byteSize)
+
+            val count = getVarInt(input)
+            repeat(count) {
+                val key = getVarInt(input)
+                val property = slots.getOrNull(key)
+                    ?: throw IllegalArgumentException("Key $key is not an object slot of layout version ${written.version}")
+                val value: Any = when (val tag = input.get()) {
+                    TAG_STRING -> {
+                        require(property is ObjectPropertyAccessor) {
+                            "Object slot $key belongs to ${property.javaClass.simpleName}, cannot hold a String"
+                        }
+                        readString(input, getVarInt(input))
+                    }
+                    TAG_BIG_DECIMAL -> {
+                        val scale = unZigZag(getVarInt(input))
+                        val bytes = ByteArray(getVarInt(input))
+                        input.get(bytes)
+                        BigDecimal(BigInteger(bytes), scale)
+                    }
+                    else -> throw IllegalArgumentException("Unknown object tag $tag for key $key")
+                }
+                storage.setObject(key, value)
+            }
+        } finally {
+            input.order(order)
+        }
+    }
+
+    // region buffer 整段复制
+    private fun writeSlot(storage: ByteDataStorage, out: ByteBuffer, byteSize: Int) {
+        val base = storage.base
+        if (base is ByteArray) {
+            out.put(base, 0, byteSize)
+            return
+        }
+        if (out.remaining() < byteSize) throw BufferOverflowException()
+        val address = storage.address
+        if (out.hasArray()) {
+            UNSAFE.copyMemory(null, address, out.array(), BASE_OFFSET + out.arrayOffset() + out.position(), byteSize.toLong())
+            out.position(out.position() + byteSize)
+            return
+        }
+        if (out.isReadOnly) throw ReadOnlyBufferException()
+        val target = directAddress(out)
+        if (target != 0L) {
+            UNSAFE.copyMemory(address, target, byteSize.toLong())
+            out.position(out.position() + byteSize)
+        } else {
+            for (i in 0 until byteSize) {
+                out.put(UNSAFE.getByte(address + i))
+            }
+        }
+    }
+
+    private fun readSlot(storage: ByteDataStorage, input: ByteBuffer, byteSize: Int) {
+        val base = storage.base
+        if (base is ByteArray) {
+            input.get(base, 0, byteSize)
+            return
+        }
+        if (input.remaining() < byteSize) throw BufferUnderflowException()
+        val address = storage.address
+        if (input.hasArray()) {
+            UNSAFE.copyMemory(input.array(), BASE_OFFSET + input.arrayOffset() + input.position(), null, address, byteSize.toLong())
+            input.position(input.position() + byteSize)
+            return
+        }
+        // 只读的直接缓冲区同样可以按地址读取
+        val source = directAddress(input)
+        if (source != 0L) {
+            UNSAFE.copyMemory(source, address, byteSize.toLong())
+            input.position(input.position() + byteSize)
+        } else {
+            for (i in 0 until byteSize) {
+                UNSAFE.putByte(address + i, input.get())
+            }
+        }
+    }
+    //endregion
+
+    // region 编码工具
+    private fun readString(input: ByteBuffer, length: Int): String {
+        if (input.remaining() < length) throw BufferUnderflowException()
+        if (input.hasArray()) {
+            val s = String(input.array(), input.arrayOffset() + input.position(), length, Charsets.UTF_8)
+            input.position(input.position() + length)
+            return s
+        }
+        val bytes = ByteArray(length)
+        input.get(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+
+    private fun utf8Length(s: String): Int {
+        var length = 0
+        var i = 0
+        while (i < s.length) {
+            val c = s[i]
+            length += when {
+                c.code < 0x80 -> 1
+                c.code < 0x800 -> 2
+                !Character.isSurrogate(c) -> 3
+                Character.isHighSurrogate(c) && i + 1 < s.length && Character.isLowSurrogate(s[i + 1]) -> { i++; 4 }
+                else -> 1  // 孤立的代理项，String.getBytes 替换为 '?'
+            }
+            i++
+        }
+        return length
+    }
+
+    private fun putVarInt(out: ByteBuffer, value: Int) {
+        var v = value
+        while (v and 0x7F.inv() != 0) {
+            out.put(((v and 0x7F) or 0x80).toByte())
+            v = v ushr 7
+        }
+        out.put(v.toByte())
+    }
+
+    private fun getVarInt(input: ByteBuffer): Int {
+        var result = 0
+        var shift = 0
+        while (true) {
+            val b = input.get().toInt()
+            result = result or ((b and 0x7F) shl shift)
+            if (b and 0x80 == 0) return result
+            shift += 7
+            require(shift < 35) { "Malformed varint" }
+        }
+    }
+
+    private fun varIntSize(value: Int): Int {
+        var v = value
+        var size = 1
+        while (v and 0x7F.inv() != 0) {
+            size++
+            v = v ushr 7
+        }
+        return size
+    }
+
+    private fun zigZag(value: Int): Int = (value shl 1) xor (value shr 31)
+
+    private fun unZigZag(value: Int): Int = (value ushr 1) xor -(value and 1)
+
+    private fun unsupported(key: Int, value: Any) =
+        IllegalArgumentException("Object slot $key holds ${value.javaClass.name}, only String and BigDecimal can be serialized")
+    //endregion
+}
@@ -156,4 +156,86 @@ class ByteDataStorageTest {
         Assert.assertEquals(bigValue, storage.getLocalValue(decimalProperty0))
         Assert.assertTrue(getObjectMapLength(storage) in 11 .. 20)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun testTypedAccessorsMatchBoxedPath() {
+        val dt = DynamicObjectType()
+        val bool = dt.register(BooleanPropertyAccessor(nullable = false, defaultValue = true))
+        val byte = dt.register(BytePropertyAccessor(nullable = false, defaultValue = 7))
+        val short = dt.register(ShortPropertyAccessor(nullable = true, defaultValue = 0))
+        val int = dt.register(IntPropertyAccessor(nullable = false, defaultValue = 42))
+        val long = dt.register(LongPropertyAccessor(nullable = true, defaultValue = 0L))
+        val float = dt.register(FloatPropertyAccessor(nullable = false, defaultValue = 1.5f))
+        val double = dt.register(DoublePropertyAccessor(nullable = false, defaultValue = 0.0))
+        val storage = dt.createInstance()
+
+        // 默认值（可空属性为 null 时返回 0）
+        Assert.assertEquals(true, storage.getBoolean(bool))
+        Assert.assertEquals(7.toByte(), storage.getByte(byte))
+        Assert.assertEquals(0.toShort(), storage.getShort(short))
+        Assert.assertNull(storage.getLocalValue(short))
+        Assert.assertEquals(42, storage.getInt(int))
+        Assert.assertEquals(0L, storage.getLong(long))
+        Assert.assertEquals(1.5f, storage.getFloat(float), 0.0f)
+        Assert.assertEquals(0.0, storage.getDouble(double), 0.0)
+
+        storage.setBoolean(bool, false)
+        storage.setByte(byte, -3)
+        storage.setShort(short, 1234)
+        storage.setInt(int, 123_456)
+        storage.setLong(long, Long.MAX_VALUE)
+        storage.setFloat(float, -2.25f)
+        storage.setDouble(double, Math.PI)
+
+        // 类型化写入与装箱读取一致
+        Assert.assertEquals(false, storage.getLocalValue(bool))
+        Assert.assertEquals((-3).toByte(), storage.getLocalValue(byte))
+        Assert.assertEquals(1234.toShort(), storage.getLocalValue(short))
+        Assert.assertEquals(123_456, storage.getLocalValue(int))
+        Assert.assertEquals(Long.MAX_VALUE, storage.getLocalValue(long))
+        Assert.assertEquals(-2.25f, storage.getLocalValue(float))
+        Assert.assertEquals(Math.PI, storage.getLocalValue(double))
+
+        // 装箱写入与类型化读取一致
+        storage.setLocalValue(int, -1)
+        storage.setLocalValue(long, null)
+        Assert.assertEquals(-1, storage.getInt(int))
+        Assert.assertEquals(0L, storage.getLong(long))
+        Assert.assertNull(storage.getLocalValue(long))
+    }
+
+    @Test
+    fun testTypedAccessByPropertyIndex() {
+        val dt = DynamicObjectType()
+        dt.register(BooleanPropertyAccessor(nullable = false, defaultValue = false))
+        dt.register(BytePropertyAccessor(nullable = false, defaultValue = 0))
+        dt.register(ShortPropertyAccessor(nullable = false, defaultValue = 0))
+        dt.register(IntPropertyAccessor(nullable = false, defaultValue = 0))
+        dt.register(LongPropertyAccessor(nullable = false, defaultValue = 0L))
+        dt.register(FloatPropertyAccessor(nullable = false, defaultValue = 0f))
+        dt.register(DoublePropertyAccessor(nullable = false, defaultValue = 0.0))
+        val storage = dt.createInstance()
+
+        dt.setBoolean(storage, 0, true)
+        dt.setByte(storage, 1, 1)
+        dt.setShort(storage, 2, 2)
+        dt.setInt(storage, 3, 3)
+        dt.setLong(storage, 4, 4L)
+        dt.setFloat(storage, 5, 5f)
+        dt.setDouble(storage, 6, 6.0)
+
+        Assert.assertTrue(dt.getBoolean(storage, 0))
+        Assert.assertEquals(1.toByte(), dt.getByte(storage, 1))
+        Assert.assertEquals(2.toShort(), dt.getShort(storage, 2))
+        Assert.assertEquals(3, dt.getInt(storage, 3))
+        Assert.assertEquals(4L, dt.getLong(storage, 4))
+        Assert.assertEquals(5f, dt.getFloat(storage, 5), 0f)
+        Assert.assertEquals(6.0, dt.getDouble(storage, 6), 0.0)
+        Assert.assertEquals(3, storage.getLocalValue(dt.properties[3]))
+
+        // 下标对应的属性类型不符
+        Assert.assertThrows(IllegalArgumentException::class.java) {
+            dt.getLong(storage, 3)
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.example
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.math.BigDecimal
+import java.math.BigInteger
+import java.time.LocalDate
+
+class ChangeTrackerTest {
+
+    private val dt = DynamicObjectType()
+    private val id = dt.register(LongPropertyAccessor(false, 0L))                 // 0
+    private val quantity = dt.register(IntPropertyAccessor(false, 1))             // 1
+    private val active = dt.register(BooleanPropertyAccessor(true, false))        // 2
+    private val amount = dt.register(BigDecimalPropertyAccessor(true))            // 3
+    private val date = dt.register(LocalDatePropertyAccessor(true))               // 4
+    private val name = dt.register(ObjectPropertyAccessor())                      // 5
+
+    private fun loaded(): ByteDataStorage {
+        val storage = dt.createInstance()
+        storage.setLong(id, 100L)
+        storage.setInt(quantity, 3)
+        storage.setLocalValue(amount, BigDecimal("9.99"))
+        name.set(storage, "old")
+        storage.clearDirty()
+        return storage
+    }
+
+    @Test
+    fun testUntrackedByDefault() {
+        val storage = dt.createInstance()
+        storage.setInt(quantity, 5)
+        assertFalse(storage.isTracking)
+        assertEquals(0, storage.dirtyProperties().size)
+        assertFalse(storage.isDirty(quantity))
+    }
+
+    @Test
+    fun testDirtyPropertiesAndOriginals() {
+        val storage = loaded()
+        assertTrue(storage.isTracking)
+        assertEquals(0, storage.dirtyProperties().size)
+
+        // 顺序打乱，结果按下标升序；同一属性多次修改只记第一次的原值
+        name.set(storage, "new")
+        storage.setInt(quantity, 4)
+        storage.setInt(quantity, 5)
+        storage.setLocalValue(date, LocalDate.of(2024, 1, 1))
+        storage.setLocalValue(amount, BigDecimal(BigInteger.TEN.pow(25), 2))
+
+        assertArrayEquals(intArrayOf(1, 3, 4, 5), storage.dirtyProperties())
+        assertEquals(listOf(quantity, amount, date, name), dt.dirtyProperties(storage))
+        assertEquals(3, storage.originalValue(quantity))
+        assertEquals(BigDecimal("9.99"), storage.originalValue(amount))
+        assertNull(storage.originalValue(date))
+        assertEquals("old", storage.originalValue(name))
+        // 未修改的返回当前值
+        assertFalse(storage.isDirty(id))
+        assertEquals(100L, storage.originalValue(id))
+
+        // 改回原值仍然算脏
+        storage.setInt(quantity, 3)
+        assertTrue(storage.isDirty(quantity))
+
+        storage.clearDirty()
+        assertEquals(0, storage.dirtyProperties().size)
+        assertEquals(3, storage.getInt(quantity))
+        storage.setBoolean(active, true)
+        assertArrayEquals(intArrayOf(2), storage.dirtyProperties())
+        assertNull(storage.originalValue(active))
+    }
+
+    @Test
+    fun testCompiledAndIndexedSettersAreTracked() {
+        val storage = loaded()
+        val compiled = dt.compiledAccessors()
+        compiled.setLong(storage, 0, 7L)
+        compiled.set(storage, 2, null)
+        dt.setInt(storage, 1, 8)
+        assertArrayEquals(intArrayOf(0, 1, 2), storage.dirtyProperties())
+        assertEquals(100L, storage.originalValue(id))
+        assertEquals(3, storage.originalValue(quantity))
+
+        // 类型不符的写入失败，不能留下脏标记
+        assertThrows(IllegalArgumentException::class.java) { compiled.setInt(storage, 4, 1) }
+        assertFalse(storage.isDirty(date))
+    }
+
+    @Test
+    fun testMemberCloneAndStopTracking() {
+        val storage = loaded()
+        storage.setInt(quantity, 10)
+        val clone = storage.memberClone()
+        clone.setLong(id, 1L)
+        assertArrayEquals(intArrayOf(1), storage.dirtyProperties())
+        assertArrayEquals(intArrayOf(0, 1), clone.dirtyProperties())
+        assertEquals(3, clone.originalValue(quantity))
+
+        storage.stopTracking()
+        assertFalse(storage.isTracking)
+        assertEquals(0, storage.dirtyProperties().size)
+    }
+
+    @Test
+    fun testTrackingAcrossUpgradeAndOffHeap() {
+        // 开始/停止跟踪时切换 ByteDataStorage 的内部表示，值和布局升级都不能丢
+        val storage = loaded()
+        val extra = dt.register(IntPropertyAccessor(false, 0))
+        storage.setInt(extra, 6)
+        assertArrayEquals(intArrayOf(extra.propertyIndex), storage.dirtyProperties())
+        storage.stopTracking()
+        storage.setInt(quantity, 4)
+        assertEquals(100L, storage.getLong(id))
+        assertEquals(6, storage.getInt(extra))
+        assertEquals(4, storage.getInt(quantity))
+
+        dt.createArena(2).use { arena ->
+            val offHeap = dt.createInstance(arena)
+            offHeap.setInt(quantity, 7)
+            offHeap.clearDirty()
+            offHeap.setInt(extra, 8)
+            offHeap.stopTracking()
+            assertTrue(offHeap.isOffHeap)
+            assertEquals(7, offHeap.getInt(quantity))
+            assertEquals(8, offHeap.getInt(extra))
+            offHeap.release()
+        }
+    }
+
+    @Test
+    fun testManyProperties() {
+        val wide = DynamicObjectType()
+        val properties = List(150) { wide.register(IntPropertyAccessor(false, 0)) }
+        val storage = wide.createInstance()
+        storage.clearDirty()
+        for (i in properties.indices.reversed() step 7) {
+            storage.setInt(properties[i], i)
+        }
+        val expected = properties.indices.reversed().step(7).sorted().toIntArray()
+        assertArrayEquals(expected, storage.dirtyProperties())
+        for (i in expected) {
+            assertEquals(0, storage.originalValue(properties[i]))
+        }
+    }
+
+    @Test
+    fun testUnregisteredAccessor() {
+        val storage = ByteDataStorage(8, 0, 0)
+        val standalone = IntPropertyAccessor(false, 0)
+        LayoutManager.assignOffsets(standalone.getFields())
+        storage.setInt(standalone, 1)  // 未跟踪时不需要下标
+        storage.clearDirty()
+        assertThrows(IllegalStateException::class.java) { storage.setInt(standalone, 2) }
+    }
+}
@@ -0,0 +1,147 @@
+package org.example
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.math.BigDecimal
+import java.time.LocalDate
+import java.util.Random
+
+class CompiledAccessorsTest {
+
+    private fun mixedType(): DynamicObjectType = DynamicObjectType().apply {
+        // 10 个 boolean 跨两个字节，覆盖第 7 位
+        for (i in 0 until 10) {
+            register(BooleanPropertyAccessor(nullable = i % 3 == 0, defaultValue = i % 3 == 1))
+        }
+        register(BytePropertyAccessor(nullable = false, defaultValue = -7))
+        register(BytePropertyAccessor(nullable = true, defaultValue = 0))
+        register(ShortPropertyAccessor(nullable = false, defaultValue = 300))
+        register(ShortPropertyAccessor(nullable = true, defaultValue = 0))
+        register(IntPropertyAccessor(nullable = false, defaultValue = 0))
+        register(IntPropertyAccessor(nullable = false, defaultValue = 42))
+        register(IntPropertyAccessor(nullable = true, defaultValue = 0))
+        register(LongPropertyAccessor(nullable = false, defaultValue = Long.MIN_VALUE))
+        register(LongPropertyAccessor(nullable = true, defaultValue = 0L))
+        register(FloatPropertyAccessor(nullable = false, defaultValue = 1.5f))
+        register(FloatPropertyAccessor(nullable = true, defaultValue = 0f))
+        register(DoublePropertyAccessor(nullable = false, defaultValue = -0.25))
+        register(DoublePropertyAccessor(nullable = true, defaultValue = 0.0))
+        register(BigDecimalPropertyAccessor(nullable = true))
+        register(LocalDatePropertyAccessor(nullable = false))
+        register(ObjectPropertyAccessor())
+    }
+
+    private fun randomValue(property: PropertyAccessor, random: Random): Any? {
+        if (property.nullable && random.nextInt(4) == 0) return null
+        return when (property) {
+            is BooleanPropertyAccessor -> random.nextBoolean()
+            is BytePropertyAccessor -> random.nextInt().toByte()
+            is ShortPropertyAccessor -> random.nextInt().toShort()
+            is IntPropertyAccessor -> random.nextInt()
+            is LongPropertyAccessor -> random.nextLong()
+            is FloatPropertyAccessor -> random.nextFloat()
+            is DoublePropertyAccessor -> random.nextDouble()
+            is BigDecimalPropertyAccessor -> BigDecimal.valueOf(random.nextInt(100_000).toLong(), 2)
+            is LocalDatePropertyAccessor -> LocalDate.ofEpochDay(random.nextInt(30_000).toLong())
+            else -> "s" + random.nextInt(100)
+        }
+    }
+
+    private fun assertSameAsInterpreted(dt: DynamicObjectType, compiled: CompiledAccessors, storage: ByteDataStorage) {
+        for ((i, property) in dt.properties.withIndex()) {
+            val expected = property.get(storage)
+            assertEquals("property $i", expected, compiled.get(storage, i))
+            assertEquals("property $i", expected == null, compiled.isNull(storage, i))
+            when (property) {
+                is BooleanPropertyAccessor -> assertEquals(property.getBoolean(storage.base, storage.address), compiled.getBoolean(storage, i))
+                is BytePropertyAccessor -> assertEquals(storage.getByte(property), compiled.getByte(storage, i))
+                is ShortPropertyAccessor -> assertEquals(storage.getShort(property), compiled.getShort(storage, i))
+                is IntPropertyAccessor -> assertEquals(storage.getInt(property), compiled.getInt(storage, i))
+                is LongPropertyAccessor -> assertEquals(storage.getLong(property), compiled.getLong(storage, i))
+                is FloatPropertyAccessor -> assertEquals(storage.getFloat(property), compiled.getFloat(storage, i), 0f)
+                is DoublePropertyAccessor -> assertEquals(storage.getDouble(property), compiled.getDouble(storage, i), 0.0)
+            }
+        }
+    }
+
+    @Test
+    fun testMatchesInterpretedAccessors() {
+        val dt = mixedType()
+        val compiled = dt.compiledAccessors()
+        assertSame(compiled, dt.compiledAccessors())
+        assertEquals(dt.properties.size, compiled.propertyCount)
+
+        dt.createArena().use { arena ->
+            for (storage in listOf(dt.createInstance(), dt.createInstance(arena))) {
+                assertSameAsInterpreted(dt, compiled, storage)
+                val random = Random(22)
+                repeat(50) {
+                    // 交替用编译版与解释版写入，再互相读取
+                    for ((i, property) in dt.properties.withIndex()) {
+                        val value = randomValue(property, random)
+                        if (random.nextBoolean()) compiled.set(storage, i, value) else property.set(storage, value)
+                    }
+                    assertSameAsInterpreted(dt, compiled, storage)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun testTypedSettersMarkDefined() {
+        val dt = mixedType()
+        val compiled = dt.compiledAccessors()
+        val storage = dt.createInstance()
+        val nullableInt = 16
+        assertTrue(compiled.isNull(storage, nullableInt))
+        compiled.setInt(storage, nullableInt, 0)
+        assertFalse(compiled.isNull(storage, nullableInt))
+        assertEquals(0, dt.properties[nullableInt].get(storage))
+
+        // 不可空、缺省值非 0：写入 0 之后读到 0 而不是缺省值
+        val defaultedInt = 15
+        assertEquals(42, compiled.getInt(storage, defaultedInt))
+        compiled.setInt(storage, defaultedInt, 0)
+        assertEquals(0, storage.getLocalValue(dt.properties[defaultedInt]))
+
+        compiled.setBoolean(storage, 7, true)
+        assertEquals(true, dt.properties[7].get(storage))
+        compiled.setBoolean(storage, 7, false)
+        assertEquals(false, dt.properties[7].get(storage))
+    }
+
+    @Test
+    fun testTypeMismatch() {
+        val dt = mixedType()
+        val compiled = dt.compiledAccessors()
+        val storage = dt.createInstance()
+        assertThrows(IllegalArgumentException::class.java) { compiled.getInt(storage, 0) }
+        assertThrows(IllegalArgumentException::class.java) { compiled.setLong(storage, 14, 1L) }
+        assertThrows(IllegalArgumentException::class.java) { compiled.getDouble(storage, 23) }
+    }
+
+    @Test
+    fun testRejectsSmallerStorage() {
+        val dt = mixedType()
+        val other = DynamicObjectType().apply { register(IntPropertyAccessor(nullable = false, defaultValue = 0)) }
+        assertThrows(IllegalArgumentException::class.java) {
+            dt.compiledAccessors().getLong(other.createInstance(), 17)
+        }
+    }
+
+    @Test
+    fun testTypeWithoutPrimitives() {
+        val dt = DynamicObjectType().apply {
+            register(BigDecimalPropertyAccessor(nullable = true))
+            register(ObjectPropertyAccessor())
+        }
+        val compiled = dt.compiledAccessors()
+        val storage = dt.createInstance()
+        assertTrue(compiled.isNull(storage, 0))
+        compiled.set(storage, 0, BigDecimal("1.5"))
+        compiled.set(storage, 1, "x")
+        assertEquals(BigDecimal("1.5"), compiled.get(storage, 0))
+        assertEquals("x", dt.properties[1].get(storage))
+        assertThrows(IllegalArgumentException::class.java) { compiled.getInt(storage, 0) }
+    }
+}
@@ -0,0 +1,204 @@
+package org.example
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.math.BigDecimal
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.ZoneOffset
+import java.util.Date
+import java.util.Random
+import java.util.UUID
+
+class DynamicObjectBatchTest {
+
+    private fun allTypes(nullable: Boolean) = DynamicObjectType().apply {
+        register(BooleanPropertyAccessor(nullable, defaultValue = false))   // 0
+        register(BytePropertyAccessor(nullable, 0))            // 1
+        register(ShortPropertyAccessor(nullable, 0))           // 2
+        register(IntPropertyAccessor(nullable, 0))             // 3
+        register(LongPropertyAccessor(nullable, 0L))           // 4
+        register(FloatPropertyAccessor(nullable, 0f))          // 5
+        register(DoublePropertyAccessor(nullable, 0.0))        // 6
+        register(BigDecimalPropertyAccessor(nullable))                      // 7
+        register(UUIDPropertyAccessor(nullable))                            // 8
+        register(LocalDatePropertyAccessor(nullable))                       // 9
+        register(LocalTimePropertyAccessor(nullable))                       // 10
+        register(LocalDateTimePropertyAccessor(nullable))                   // 11
+        register(InstantPropertyAccessor(nullable))                         // 12
+        register(DatePropertyAccessor(nullable))                            // 13
+        register(ObjectPropertyAccessor())                                  // 14
+    }
+
+    private val sampleValues = listOf<Any?>(
+        true, 1.toByte(), 2.toShort(), 3, 4L, 5.1f, 6.1,
+        BigDecimal("7.10"), UUID(8L, -8L), LocalDate.ofEpochDay(9), LocalTime.ofNanoOfDay(10),
+        LocalDateTime.ofEpochSecond(11, 11, ZoneOffset.UTC), Instant.ofEpochSecond(12, 12), Date(13), "fourteen"
+    )
+
+    @Test
+    fun testDefaultsMatchRowStorage() {
+        for (nullable in listOf(false, true)) {
+            val dt = allTypes(nullable)
+            val batch = DynamicObjectBatch(dt, 0)
+            val row = batch.addRow()
+            val storage = dt.createInstance()
+            for ((i, property) in dt.properties.withIndex()) {
+                assertEquals("property $i", property.get(storage), batch.row(row)[property])
+                assertEquals(nullable || i == 14, batch.column(i).isNull(row))
+            }
+        }
+    }
+
+    @Test
+    fun testRoundTripWithRowStorage() {
+        for (nullable in listOf(false, true)) {
+            val dt = allTypes(nullable)
+            val storage = dt.createInstance()
+            dt.properties.forEachIndexed { i, property -> property.set(storage, sampleValues[i]) }
+
+            val batch = DynamicObjectBatch(dt)
+            batch.addRow()
+            val row = batch.add(storage)
+            assertEquals(1, row)
+            val copy = batch.toStorage(row)
+            dt.properties.forEachIndexed { i, property ->
+                assertEquals(sampleValues[i], batch.row(row)[property])
+                assertEquals(sampleValues[i], property.get(copy))
+            }
+
+            // 写回 null：可空列变为 null，不可空列回到缺省值
+            val view = batch.row(row)
+            for (property in dt.properties) {
+                view[property] = null
+                assertEquals(property.defaultValue, view[property])
+            }
+        }
+    }
+
+    @Test
+    fun testNonZeroDefaultsFilledOnGrowth() {
+        val dt = DynamicObjectType()
+        val flag = dt.register(BooleanPropertyAccessor(nullable = false, defaultValue = true))
+        val count = dt.register(IntPropertyAccessor(nullable = false, defaultValue = 42))
+        val ratio = dt.register(DoublePropertyAccessor(nullable = false, defaultValue = 0.5))
+        val batch = DynamicObjectBatch(dt, 1)
+        repeat(200) { batch.addRow() }
+        assertTrue(batch.capacity >= 200)
+        for (row in 0 until 200) {
+            assertTrue(batch.column(flag).getBoolean(row))
+            assertEquals(42, batch.column(count).getInt(row))
+            assertEquals(0.5, batch.column(ratio).getDouble(row), 0.0)
+        }
+        batch.column(flag).setBoolean(70, false)
+        batch.column(count).setInt(70, 1)
+        assertEquals(199, batch.column(flag).countTrue())
+        assertEquals(42L * 199 + 1, batch.column(count).sum())
+
+        batch.clear()
+        assertEquals(0, batch.size)
+        batch.addRow()
+        assertEquals(42, batch.column(count).getInt(0))
+        assertTrue(batch.column(flag).getBoolean(0))
+    }
+
+    @Test
+    fun testClearKeepsColumnReferences() {
+        val dt = DynamicObjectType()
+        val flag = dt.register(BooleanPropertyAccessor(nullable = false, defaultValue = true))
+        val count = dt.register(IntPropertyAccessor(nullable = true, defaultValue = 0))
+        val amount = dt.register(BigDecimalPropertyAccessor(nullable = true))
+        val name = dt.register(ObjectPropertyAccessor())
+        val batch = DynamicObjectBatch(dt)
+        val flags = batch.column(flag)
+        val counts = batch.column(count)
+        val amounts = batch.column(amount)
+        val names = batch.column(name)
+        repeat(3) { row ->
+            batch.addRow()
+            flags.setBoolean(row, false)
+            counts.setInt(row, row + 1)
+            amounts.set(row, BigDecimal.TEN.pow(30).add(BigDecimal(row)))  // 放不进 intCompact
+            names.set(row, "n$row")
+        }
+
+        batch.clear()
+        batch.addRow()
+        batch.addRow()
+        // 之前取得的列引用读到的是默认值，而不是 clear 之前的数据
+        for (row in 0 until 2) {
+            assertTrue(flags.getBoolean(row))
+            assertTrue(counts.isNull(row))
+            assertNull(amounts.get(row))
+            assertNull(names.get(row))
+        }
+        // 通过旧引用写入，batch 可以看到
+        counts.setInt(1, 7)
+        amounts.set(0, BigDecimal("1.5"))
+        assertEquals(7, batch.row(1)[count])
+        assertEquals(BigDecimal("1.5"), batch.row(0)[amount])
+        assertSame(counts, batch.column(count))
+    }
+
+    @Test
+    fun testBigDecimalSumMatchesRowWise() {
+        val dt = DynamicObjectType()
+        val amount = dt.register(BigDecimalPropertyAccessor(nullable = true))
+        val batch = DynamicObjectBatch(dt)
+        val random = Random(21)
+        var expected = BigDecimal.ZERO
+        for (i in 0 until 5_000) {
+            val value: BigDecimal? = when (i % 10) {
+                0 -> null
+                1 -> BigDecimal.valueOf(Long.MAX_VALUE - random.nextInt(100), 2)   // 累加会溢出 long
+                2 -> BigDecimal("1234567890123456789012345.678")                    // INFLATED，放在 overflow
+                3 -> BigDecimal.valueOf(random.nextLong() % 1_000_000, 4)          // scale 变化
+                else -> BigDecimal.valueOf(random.nextInt(1_000_000).toLong() - 500_000, 2)
+            }
+            val row = batch.addRow()
+            batch.column(amount).setBigDecimal(row, value)
+            if (value != null) {
+                expected = expected.add(value)
+            }
+            assertEquals(value, batch.column(amount).getBigDecimal(row))
+        }
+        assertEquals(expected, batch.column(amount).sum())
+        assertEquals(BigDecimal.ZERO, DynamicObjectBatch(dt).column(amount).sum())
+    }
+
+    @Test
+    fun testPrimitiveSums() {
+        val dt = DynamicObjectType()
+        val b = dt.register(BytePropertyAccessor(nullable = true, defaultValue = 0))
+        val l = dt.register(LongPropertyAccessor(nullable = false, defaultValue = 0L))
+        val f = dt.register(FloatPropertyAccessor(nullable = false, defaultValue = 0f))
+        val batch = DynamicObjectBatch(dt)
+        for (i in 0 until 100) {
+            val row = batch.addRow()
+            batch.column(b).setByte(row, (-i).toByte())
+            batch.column(l).setLong(row, i * 1_000_000_000L)
+            batch.column(f).setFloat(row, 0.5f)
+        }
+        batch.column(b).set(0, null)
+        assertTrue(batch.column(b).isNull(0))
+        assertEquals(-4950L, batch.column(b).sum())
+        assertEquals(4950L * 1_000_000_000L, batch.column(l).sum())
+        assertEquals(50.0, batch.column(f).sum(), 0.0)
+    }
+
+    @Test
+    fun testRowBounds() {
+        val dt = DynamicObjectType()
+        val id = dt.register(IntPropertyAccessor(nullable = false, defaultValue = 0))
+        val batch = DynamicObjectBatch(dt, 16)
+        batch.addRow()
+        assertThrows(IndexOutOfBoundsException::class.java) { batch.row(1) }
+        assertThrows(IndexOutOfBoundsException::class.java) { batch.column(id).getInt(1) }
+        assertThrows(IndexOutOfBoundsException::class.java) { batch.column(id).setInt(-1, 0) }
+        assertThrows(IllegalArgumentException::class.java) {
+            batch.column(IntPropertyAccessor(nullable = false, defaultValue = 0))
+        }
+    }
+}
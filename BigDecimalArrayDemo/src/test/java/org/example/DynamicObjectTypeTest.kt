@@ -89,6 +89,46 @@ class DynamicObjectTypeTest {
         testOtherValues(dt, target)
     }
 
+    @Test
+    fun testCreateOffHeapInstance() {
+        for (nullable in listOf(false, true)) {
+            val dt = DynamicObjectType().apply {
+                register(BooleanPropertyAccessor(nullable, defaultValue = false))   // 0
+                register(BytePropertyAccessor(nullable, 0))            // 1
+                register(ShortPropertyAccessor(nullable, 0))           // 2
+                register(IntPropertyAccessor(nullable, 0))             // 3
+                register(LongPropertyAccessor(nullable, 0L))           // 4
+                register(FloatPropertyAccessor(nullable, 0f))          // 5
+                register(DoublePropertyAccessor(nullable, 0.0))        // 6
+                register(BigDecimalPropertyAccessor(nullable))                      // 7
+                register(UUIDPropertyAccessor(nullable))                            // 8
+                register(LocalDatePropertyAccessor(nullable))                       // 9
+                register(LocalTimePropertyAccessor(nullable))                       // 10
+                register(LocalDateTimePropertyAccessor(nullable))                   // 11
+                register(InstantPropertyAccessor(nullable))                         // 12
+                register(DatePropertyAccessor(nullable))                            // 13
+            }
+
+            dt.createArena().use { arena ->
+                val heap = dt.createInstance()
+                val target = dt.createInstance(arena)
+                assertTrue(target.isOffHeap)
+                for (property in dt.properties) {
+                    assertEquals(property.get(heap), property.get(target))
+                }
+
+                testOtherValues(dt, target)
+
+                // 超出 intCompact 的 BigDecimal 仍然放在堆上的 objectMap
+                val big = BigDecimal("123456789012345678901234567890.5")
+                dt.properties[7].set(target, big)
+                assertEquals(big, dt.properties[7].get(target))
+                dt.properties[7].set(target, null)
+                assertEquals(if (nullable) null else BigDecimal.ZERO, dt.properties[7].get(target))
+            }
+        }
+    }
+
     private fun testOtherValues(dt: DynamicObjectType, target: ByteDataStorage) {
         dt.properties[0].set(target, true)
         assertEquals(true, dt.properties[0].get(target))
@@ -170,4 +210,226 @@ class DynamicObjectTypeTest {
         val target = dt.createInstance()
         assertEquals(2, target.buffer.size)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun testRegisterAfterInstancesAppendsLayout() {
+        val dt = DynamicObjectType()
+        val id = dt.register(IntPropertyAccessor(false, 0))
+        val flag = dt.register(BooleanPropertyAccessor(false, defaultValue = false))
+        val name = dt.register(ObjectPropertyAccessor())
+        val old = dt.createInstance()
+        old.setInt(id, 7)
+        old.setBoolean(flag, true)
+        name.set(old, "old")
+        val v0 = dt.layout
+        val idOffset = id.valueField.byteOffset
+
+        val amount = dt.register(LongPropertyAccessor(false, 5L))
+        val price = dt.register(BigDecimalPropertyAccessor(true))
+        val note = dt.register(ObjectPropertyAccessor())
+        // 注册本身不追加布局，还没有布局的新属性读取返回缺省值
+        assertNull(v0.next)
+        assertEquals(5L, old.getLong(amount))
+        assertNull(price.get(old))
+        assertNull(note.get(old))
+
+        // 连续注册的一批属性合为一代
+        val v1 = dt.layout
+        assertEquals(1, v1.version)
+        assertSame(v1, v0.latest)
+        assertSame(v1, v0.next)
+        assertNotEquals(v0.fingerprint, v1.fingerprint)
+        assertTrue(v1.byteSize > v0.byteSize)
+        assertEquals(v0.maxObjectSize + 2, v1.maxObjectSize)
+        // 已有属性的位置不变
+        assertEquals(idOffset, id.valueField.byteOffset)
+
+        // 只访问已有属性时不升级
+        assertEquals(7, old.getInt(id))
+        assertTrue(old.getBoolean(flag))
+        assertSame(v0, old.layout)
+        assertEquals(v0.byteSize, old.buffer.size)
+
+        // 读取新属性返回缺省值，不升级
+        assertEquals(5L, old.getLong(amount))
+        assertNull(price.get(old))
+        assertNull(note.get(old))
+        assertSame(v0, old.layout)
+        assertEquals(v0.byteSize, old.buffer.size)
+
+        // 写入新属性时升级（copy-on-write），已有值保留
+        old.setLocalValue(price, BigDecimal("1.25"))
+        assertSame(v1, old.layout)
+        assertEquals(v1.byteSize, old.buffer.size)
+        assertEquals(5L, old.getLong(amount))
+        note.set(old, "new")
+        assertEquals(7, old.getInt(id))
+        assertTrue(old.getBoolean(flag))
+        assertEquals("old", name.get(old))
+        assertEquals(BigDecimal("1.25"), price.get(old))
+        assertEquals("new", note.get(old))
+
+        // 新实例直接是最新一代
+        val fresh = dt.createInstance()
+        assertSame(v1, fresh.layout)
+        assertEquals(5L, fresh.getLong(amount))
+    }
+
+    @Test
+    fun testRegisterBatchIsOneGeneration() {
+        val dt = DynamicObjectType()
+        val id = dt.register(IntPropertyAccessor(false, 0))
+        val old = dt.createInstance()
+        old.setInt(id, 1)
+        val v0 = dt.layout
+        val flags = List(8) { dt.register(BooleanPropertyAccessor(false, defaultValue = false)) }
+
+        // 写入尚未布局的属性时才布局，8 个布尔位共用一个字节
+        old.setBoolean(flags[3], true)
+        val v1 = dt.layout
+        assertSame(v1, v0.next)
+        assertNull(v1.next)
+        assertSame(v1, old.layout)
+        assertEquals(1, flags.map { it.valueField.byteOffset }.distinct().size)
+        assertTrue(flags[3].let { old.getBoolean(it) })
+        assertFalse(old.getBoolean(flags[4]))
+        assertEquals(1, old.getInt(id))
+    }
+
+    @Test
+    fun testObjectOnlyPropertyUpgradesOnSet() {
+        val dt = DynamicObjectType()
+        dt.register(IntPropertyAccessor(false, 0))
+        val old = dt.createInstance()
+        val note = dt.register(ObjectPropertyAccessor())
+        assertNull(note.get(old))
+        note.set(old, "x")
+        assertEquals("x", note.get(old))
+        assertSame(dt.layout, old.layout)
+    }
+
+    @Test
+    fun testMigrateAll() {
+        val dt = DynamicObjectType()
+        val id = dt.register(IntPropertyAccessor(false, 0))
+        val storages = List(10) { i -> dt.createInstance().also { it.setInt(id, i) } }
+        assertEquals(0, dt.migrateAll(storages))
+
+        val amount = dt.register(DoublePropertyAccessor(true, 0.0))
+        assertEquals(10, dt.migrateAll(storages))
+        assertEquals(0, dt.migrateAll(storages))
+        for ((i, storage) in storages.withIndex()) {
+            assertEquals(dt.layout.byteSize, storage.buffer.size)
+            assertEquals(i, storage.getInt(id))
+            assertNull(amount.get(storage))
+        }
+    }
+
+    @Test
+    fun testMigrateOffHeap() {
+        val dt = DynamicObjectType()
+        val id = dt.register(IntPropertyAccessor(false, 0))
+        val small = dt.register(BytePropertyAccessor(false, 0))
+        dt.createArena(4).use { oldArena ->
+            val storage = dt.createInstance(oldArena)
+            storage.setInt(id, 42)
+            storage.setByte(small, 3)
+            val other = dt.createInstance(oldArena)
+            other.setInt(id, 7)
+
+            // 5 字节的布局占 8 字节槽位，追加一个 short 仍放得下：读取不升级，写入时原地升级
+            val s = dt.register(ShortPropertyAccessor(false, 0))
+            assertEquals(8, dt.layout.byteSize)
+            assertEquals(0.toShort(), storage.getShort(s))
+            assertNotSame(dt.layout, storage.layout)
+            val address = storage.address
+            storage.setShort(s, 5)
+            assertSame(dt.layout, storage.layout)
+            assertEquals(address, storage.address)
+
+            // 再追加一个 long 就放不下了：读取仍然只返回缺省值，写入时搬到类型的 migrationArena
+            val amount = dt.register(LongPropertyAccessor(false, 0L))
+            assertEquals(0L, storage.getLong(amount))
+            assertEquals(2, oldArena.liveSlots)
+            storage.setLong(amount, Long.MAX_VALUE)
+            assertEquals(1, oldArena.liveSlots)
+            assertEquals(1, dt.migrationArena().liveSlots)
+            assertEquals(42, storage.getInt(id))
+            assertEquals(3.toByte(), storage.getByte(small))
+            assertEquals(5.toShort(), storage.getShort(s))
+            assertEquals(Long.MAX_VALUE, storage.getLong(amount))
+
+            // 也可以显式迁移到调用方的 arena
+            dt.createArena(4).use { newArena ->
+                assertTrue(dt.migrate(other, newArena))
+                assertEquals(0, oldArena.liveSlots)
+                assertEquals(1, newArena.liveSlots)
+                assertEquals(7, other.getInt(id))
+            }
+        }
+        dt.closeMigrationArenas()
+    }
+
+    @Test
+    fun testCompiledAccessorsAfterRegister() {
+        val dt = DynamicObjectType()
+        val id = dt.register(IntPropertyAccessor(false, 0))
+        val old = dt.createInstance()
+        old.setInt(id, 9)
+        val compiled0 = dt.compiledAccessors()
+
+        dt.register(LongPropertyAccessor(false, 11L))
+        val compiled1 = dt.compiledAccessors()
+        assertNotSame(compiled0, compiled1)
+        assertEquals(9, compiled0.getInt(old, 0))
+        assertEquals(11L, compiled1.getLong(old, 1))
+        assertEquals(9, compiled1.getInt(old, 0))
+        // 读取不升级，写入新属性时升级
+        assertNotSame(dt.layout, old.layout)
+        compiled1.setLong(old, 1, 12L)
+        assertSame(dt.layout, old.layout)
+        assertEquals(12L, compiled1.getLong(old, 1))
+        assertEquals(9, compiled1.getInt(old, 0))
+    }
+
+    @Test
+    fun testCompiledSetterMigratesOffHeap() {
+        val dt = DynamicObjectType()
+        val id = dt.register(IntPropertyAccessor(false, 0))
+        dt.createArena(4).use { arena ->
+            val storage = dt.createInstance(arena)
+            storage.setInt(id, 3)
+            val amount = dt.register(LongPropertyAccessor(true, 0L))
+            val compiled = dt.compiledAccessors()
+            assertTrue(compiled.isNull(storage, 1))
+            assertEquals(0L, compiled.getLong(storage, 1))
+            assertEquals(1, arena.liveSlots)
+
+            compiled.setLong(storage, 1, 99L)
+            assertEquals(0, arena.liveSlots)
+            assertFalse(compiled.isNull(storage, 1))
+            assertEquals(99L, compiled.getLong(storage, 1))
+            assertEquals(99L, storage.getLong(amount))
+            assertEquals(3, compiled.getInt(storage, 0))
+        }
+        dt.closeMigrationArenas()
+    }
+
+    @Test
+    fun testReadOldGenerationPayload() {
+        val dt = DynamicObjectType()
+        val id = dt.register(IntPropertyAccessor(false, 0))
+        val name = dt.register(ObjectPropertyAccessor())
+        val storage = dt.createInstance()
+        storage.setInt(id, 3)
+        name.set(storage, "abc")
+        val bytes = dt.toByteArray(storage)
+
+        val flag = dt.register(BooleanPropertyAccessor(false, defaultValue = true))
+        val copy = dt.readFrom(java.nio.ByteBuffer.wrap(bytes))
+        assertSame(dt.layout, copy.layout)
+        assertEquals(3, copy.getInt(id))
+        assertEquals("abc", name.get(copy))
+        assertTrue(copy.getBoolean(flag))
+    }
+}
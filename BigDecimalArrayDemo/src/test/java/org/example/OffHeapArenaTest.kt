@@ -0,0 +1,123 @@
+package org.example
+
+import org.junit.Assert.*
+import org.junit.Test
+
+class OffHeapArenaTest {
+
+    private fun newType(): Triple<DynamicObjectType, IntPropertyAccessor, LongPropertyAccessor> {
+        val dt = DynamicObjectType()
+        val id = dt.register(IntPropertyAccessor(nullable = false, defaultValue = 7))
+        val amount = dt.register(LongPropertyAccessor(nullable = true, defaultValue = 0L))
+        return Triple(dt, id, amount)
+    }
+
+    @Test
+    fun testSlotSizeAligned() {
+        assertEquals(8, OffHeapArena(0).use { it.slotSize })
+        assertEquals(8, OffHeapArena(5).use { it.slotSize })
+        assertEquals(16, OffHeapArena(9).use { it.slotSize })
+        val (dt, _, _) = newType()
+        dt.createArena().use { assertEquals(16, it.slotSize) } // 4 + 8 + 1 个 boolean 字节
+    }
+
+    @Test
+    fun testAllocateAcrossSlabsAndReuseReleasedSlots() {
+        val (dt, id, amount) = newType()
+        dt.createArena(slotsPerSlab = 4).use { arena ->
+            val storages = (0 until 10).map { dt.createInstance(arena) }
+            storages.forEachIndexed { i, s ->
+                s.setInt(id, i)
+                s.setLocalValue(amount, i * 1_000_000_000L)
+            }
+            assertEquals(10, arena.liveSlots)
+            assertEquals(3L * 4 * arena.slotSize, arena.reservedBytes)
+            storages.forEachIndexed { i, s ->
+                assertEquals(i, s.getInt(id))
+                assertEquals(i * 1_000_000_000L, s.getLocalValue(amount))
+            }
+
+            val released = storages[3]
+            val address = released.address
+            released.release()
+            assertEquals(9, arena.liveSlots)
+            released.release() // 重复释放无副作用
+            assertEquals(9, arena.liveSlots)
+
+            // 复用的槽位重新清零，不会读到上一个实例的值
+            val reused = dt.createInstance(arena)
+            assertEquals(address, reused.address)
+            assertEquals(7, reused.getInt(id))
+            assertNull(reused.getLocalValue(amount))
+            assertEquals(3L * 4 * arena.slotSize, arena.reservedBytes)
+        }
+    }
+
+    @Test
+    fun testAccessAfterReleaseFails() {
+        val (dt, id, _) = newType()
+        dt.createArena().use { arena ->
+            val storage = dt.createInstance(arena)
+            storage.release()
+            assertFalse(storage.isOffHeap)
+            assertThrows(IllegalArgumentException::class.java) { storage.getInt(id) }
+            assertThrows(IllegalArgumentException::class.java) { storage.setInt(id, 1) }
+        }
+    }
+
+    @Test
+    fun testMemberCloneCopiesSlot() {
+        val (dt, id, amount) = newType()
+        dt.createArena().use { arena ->
+            val storage = dt.createInstance(arena)
+            storage.setInt(id, 42)
+            storage.setLocalValue(amount, -5L)
+            val copy = storage.memberClone()
+            assertTrue(copy.isOffHeap)
+            assertNotEquals(storage.address, copy.address)
+            assertEquals(42, copy.getInt(id))
+            assertEquals(-5L, copy.getLocalValue(amount))
+
+            copy.setInt(id, 1)
+            assertEquals(42, storage.getInt(id))
+            assertEquals(2, arena.liveSlots)
+        }
+    }
+
+    @Test
+    fun testHeapStorageUnchanged() {
+        val (dt, id, _) = newType()
+        val storage = dt.createInstance()
+        assertFalse(storage.isOffHeap)
+        storage.setInt(id, 3)
+        storage.release() // 堆内存储什么也不做
+        assertEquals(3, storage.getInt(id))
+        assertEquals(13, storage.buffer.size)
+    }
+
+    @Test
+    fun testClosedArena() {
+        val (dt, _, _) = newType()
+        val arena = dt.createArena()
+        val storage = dt.createInstance(arena)
+        arena.close()
+        assertTrue(arena.isClosed)
+        assertEquals(0, arena.liveSlots)
+        assertEquals(0L, arena.reservedBytes)
+        storage.release() // arena 关闭后释放被忽略
+        assertThrows(IllegalStateException::class.java) { dt.createInstance(arena) }
+        arena.close()
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun testOffHeapStorageHasNoBuffer() {
+        val (dt, _, _) = newType()
+        dt.createArena().use { dt.createInstance(it).buffer }
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun testArenaFromOtherTypeTooSmall() {
+        val (dt, _, _) = newType()
+        OffHeapArena(4).use { dt.createInstance(it) }
+    }
+}
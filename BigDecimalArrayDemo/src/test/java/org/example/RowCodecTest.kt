@@ -0,0 +1,189 @@
+package org.example
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.math.BigDecimal
+import java.math.BigInteger
+import java.nio.BufferUnderflowException
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.time.LocalDate
+import java.util.UUID
+
+class RowCodecTest {
+
+    private fun mixedType(): DynamicObjectType = DynamicObjectType().apply {
+        register(BooleanPropertyAccessor(nullable = true, defaultValue = false))
+        register(BytePropertyAccessor(nullable = false, defaultValue = -7))
+        register(ShortPropertyAccessor(nullable = true, defaultValue = 0))
+        register(IntPropertyAccessor(nullable = false, defaultValue = 42))
+        register(LongPropertyAccessor(nullable = true, defaultValue = 0L))
+        register(FloatPropertyAccessor(nullable = false, defaultValue = 1.5f))
+        register(DoublePropertyAccessor(nullable = true, defaultValue = 0.0))
+        register(BigDecimalPropertyAccessor(nullable = true))
+        register(BigDecimalPropertyAccessor(nullable = false))
+        register(LocalDatePropertyAccessor(nullable = true))
+        register(UUIDPropertyAccessor(nullable = false))
+        register(ObjectPropertyAccessor())
+        register(ObjectPropertyAccessor())
+    }
+
+    private val values = listOf<Any?>(
+        true, (-100).toByte(), null, Int.MIN_VALUE, 1234567890123L, -2.5f, null,
+        BigDecimal(BigInteger.TEN.pow(30), 4),  // 放不进 intCompact，存在 objectMap
+        BigDecimal("-12.345"),
+        LocalDate.of(2024, 2, 29),
+        UUID(0x0123456789abcdefL, -1L),
+        "中文 / emoji 😀",
+        null
+    )
+
+    private fun fill(dt: DynamicObjectType, storage: ByteDataStorage) {
+        for ((i, property) in dt.properties.withIndex()) {
+            property.set(storage, values[i])
+        }
+    }
+
+    private fun assertValues(dt: DynamicObjectType, storage: ByteDataStorage) {
+        for ((i, property) in dt.properties.withIndex()) {
+            assertEquals("property $i", values[i], property.get(storage))
+        }
+    }
+
+    @Test
+    fun testRoundTripHeap() {
+        val dt = mixedType()
+        val storage = dt.createInstance()
+        fill(dt, storage)
+
+        val bytes = dt.toByteArray(storage)
+        assertEquals(dt.serializedSize(storage), bytes.size)
+
+        val copy = dt.readFrom(ByteBuffer.wrap(bytes))
+        assertValues(dt, copy)
+        assertArrayEquals(storage.buffer, copy.buffer)
+
+        // 孤立的代理项被 UTF-8 编码替换为 '?'，serializedSize 必须与实际写出的一致
+        dt.properties.last().set(storage, "a\uD800b")
+        assertEquals(dt.serializedSize(storage), dt.toByteArray(storage).size)
+    }
+
+    @Test
+    fun testRoundTripOffHeap() {
+        val dt = mixedType()
+        dt.createArena(4).use { arena ->
+            val storage = dt.createInstance(arena)
+            fill(dt, storage)
+
+            // 堆外 -> 堆内数组
+            val heap = ByteBuffer.allocate(dt.serializedSize(storage) + 3)
+            heap.position(3)
+            dt.writeTo(storage, heap)
+            assertFalse(heap.hasRemaining())
+            heap.position(3)
+            assertValues(dt, dt.readFrom(heap, arena))
+            heap.position(3)
+            assertValues(dt, dt.readFrom(heap))
+
+            // 堆外 -> DirectByteBuffer（按地址整段复制），position 不为 0、只读视图也一样
+            val direct = ByteBuffer.allocateDirect(dt.serializedSize(storage) + 5)
+            direct.position(5)
+            dt.writeTo(storage, direct)
+            assertFalse(direct.hasRemaining())
+            direct.position(5)
+            assertValues(dt, dt.readFrom(direct, arena))
+            direct.position(5)
+            assertValues(dt, dt.readFrom(direct.asReadOnlyBuffer(), arena))
+            assertEquals(4, arena.liveSlots)
+        }
+    }
+
+    @Test
+    fun testDefaultsAndMultipleRowsInOneBuffer() {
+        val dt = mixedType()
+        val empty = dt.createInstance()
+        val full = dt.createInstance()
+        fill(dt, full)
+
+        val out = ByteBuffer.allocate(dt.serializedSize(empty) + dt.serializedSize(full)).order(ByteOrder.BIG_ENDIAN)
+        dt.writeTo(empty, out)
+        dt.writeTo(full, out)
+        assertEquals(ByteOrder.BIG_ENDIAN, out.order())
+        out.flip()
+
+        val first = dt.readFrom(out)
+        for (property in dt.properties) {
+            assertEquals(property.defaultValue, property.get(first))
+        }
+        assertValues(dt, dt.readFrom(out))
+        assertFalse(out.hasRemaining())
+    }
+
+    @Test
+    fun testFingerprint() {
+        assertEquals(mixedType().layoutFingerprint, mixedType().layoutFingerprint)
+
+        val a = DynamicObjectType().apply { register(IntPropertyAccessor(nullable = false, defaultValue = 0)) }
+        val nullable = DynamicObjectType().apply { register(IntPropertyAccessor(nullable = true, defaultValue = 0)) }
+        val otherDefault = DynamicObjectType().apply { register(IntPropertyAccessor(nullable = false, defaultValue = 1)) }
+        val float = DynamicObjectType().apply { register(FloatPropertyAccessor(nullable = false, defaultValue = 0f)) }
+        val fingerprints = listOf(a, nullable, otherDefault, float).map { it.layoutFingerprint }
+        assertEquals(fingerprints.size, fingerprints.toSet().size)
+    }
+
+    @Test
+    fun testRejectsOtherLayout() {
+        val dt = mixedType()
+        val bytes = dt.toByteArray(dt.createInstance())
+        val other = DynamicObjectType().apply { register(IntPropertyAccessor(nullable = false, defaultValue = 0)) }
+        assertThrows(IllegalArgumentException::class.java) { other.readFrom(ByteBuffer.wrap(bytes)) }
+
+        other.createArena(4).use { arena ->
+            assertThrows(IllegalArgumentException::class.java) { other.readFrom(ByteBuffer.wrap(bytes), arena) }
+            assertEquals(0, arena.liveSlots)  // 失败时槽位已归还
+        }
+    }
+
+    @Test
+    fun testTruncatedInput() {
+        val dt = mixedType()
+        val storage = dt.createInstance()
+        fill(dt, storage)
+        val bytes = dt.toByteArray(storage)
+        for (length in intArrayOf(0, 7, 9, bytes.size - 1)) {
+            assertThrows(BufferUnderflowException::class.java) { dt.readFrom(ByteBuffer.wrap(bytes, 0, length)) }
+        }
+    }
+
+    @Test
+    fun testRejectsMismatchedObjectSlot() {
+        val dt = mixedType()
+        val storage = dt.createInstance()
+        val name = dt.properties[11]
+        name.set(storage, "x")
+        val bytes = dt.toByteArray(storage)
+        // 只有一个 Object 槽位，结尾是：key, TAG_STRING, 长度 1, 'x'
+        assertEquals(name.objectIndex.toByte(), bytes[bytes.size - 4])
+
+        // String 写进 BigDecimalPropertyAccessor 的槽位
+        bytes[bytes.size - 4] = dt.properties[7].objectIndex.toByte()
+        assertThrows(IllegalArgumentException::class.java) { dt.readFrom(ByteBuffer.wrap(bytes)) }
+        // 不是这一代布局的 Object 槽位
+        bytes[bytes.size - 4] = 100
+        assertThrows(IllegalArgumentException::class.java) { dt.readFrom(ByteBuffer.wrap(bytes)) }
+
+        dt.createArena(4).use { arena ->
+            assertThrows(IllegalArgumentException::class.java) { dt.readFrom(ByteBuffer.wrap(bytes), arena) }
+            assertEquals(0, arena.liveSlots)
+        }
+    }
+
+    @Test
+    fun testUnsupportedObject() {
+        val dt = mixedType()
+        val storage = dt.createInstance()
+        dt.properties.last().set(storage, listOf(1, 2))
+        assertThrows(IllegalArgumentException::class.java) { dt.serializedSize(storage) }
+        assertThrows(IllegalArgumentException::class.java) { dt.writeTo(storage, ByteBuffer.allocate(1024)) }
+    }
+}
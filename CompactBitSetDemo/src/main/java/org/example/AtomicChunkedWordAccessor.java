@@ -0,0 +1,179 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * 线程安全的 AtomicWordAccessor：宿主声明 N 个 inline long 字段 + 1 个 long[][] 分块目录字段。
+ * <pre>
+ * public class SharedFlags {
+ *     private volatile long flags;
+ *     private volatile long[][] moreFlags;
+ *
+ *     static final AtomicCompactBitsHandle&lt;SharedFlags&gt; FLAGS = new AtomicCompactBitsHandle&lt;&gt;(
+ *             AtomicChunkedWordAccessor.of(MethodHandles.lookup(), SharedFlags.class, "moreFlags", "flags"));
+ * }
+ * </pre>
+ * 溢出部分按 {@link #CHUNK_WORDS} 个 word 分块：扩容时只复制目录（块引用），块本身永不搬迁，
+ * 因此对块内 word 的 CAS 不会因为并发扩容而丢失。目录发布后不再修改，扩容通过 CAS 替换整个目录。
+ * 不支持 trim，存储只增不减。
+ *
+ * @param <T> 宿主类型
+ */
+public final class AtomicChunkedWordAccessor<T> implements AtomicWordAccessor<T> {
+
+    private static final int CHUNK_SHIFT = 6;
+    public static final int CHUNK_WORDS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_WORDS - 1;
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final HostFields<T> fields;
+    private final int inlineCount;
+
+    private AtomicChunkedWordAccessor(HostFields<T> fields) {
+        this.fields = fields;
+        this.inlineCount = fields.longCount();
+    }
+
+    /**
+     * 按字段名创建 accessor。
+     *
+     * @param lookup       宿主类中的 MethodHandles.lookup()，用于访问 private 字段
+     * @param hostClass    宿主类型
+     * @param chunksField  long[][] 分块目录字段名
+     * @param inlineFields inline long 字段名，按 word 顺序排列，可以为空
+     */
+    public static <T> AtomicChunkedWordAccessor<T> of(MethodHandles.Lookup lookup, Class<T> hostClass,
+                                                      String chunksField, String... inlineFields) {
+        if (lookup == null || hostClass == null || chunksField == null) {
+            throw new NullPointerException("lookup, hostClass and chunksField cannot be null");
+        }
+        return new AtomicChunkedWordAccessor<>(
+                HostFields.of(lookup, hostClass, inlineFields, chunksField, long[][].class));
+    }
+
+    /**
+     * 返回 wordIndex 所在的块，尚未分配时返回 null。
+     */
+    private long[] chunkOf(T instance, int wordIndex) {
+        long[][] directory = (long[][]) fields.getRefAcquire(instance);
+        int chunkIndex = (wordIndex - inlineCount) >>> CHUNK_SHIFT;
+        if (directory == null || chunkIndex >= directory.length) {
+            return null;
+        }
+        return directory[chunkIndex];
+    }
+
+    private long[] requireChunk(T instance, int wordIndex) {
+        long[] chunk = chunkOf(instance, wordIndex);
+        if (chunk == null) {
+            throw new IndexOutOfBoundsException("wordIndex " + wordIndex + " beyond capacity, call ensureCapacity first");
+        }
+        return chunk;
+    }
+
+    // --- WordAccessor ---
+
+    @Override
+    public long getWord(T instance, int wordIndex) {
+        if (wordIndex < inlineCount) {
+            return fields.getLongVolatile(instance, wordIndex);
+        }
+        long[] chunk = chunkOf(instance, wordIndex);
+        return chunk == null ? 0L : (long) WORDS.getVolatile(chunk, (wordIndex - inlineCount) & CHUNK_MASK);
+    }
+
+    @Override
+    public void setWord(T instance, int wordIndex, long value) {
+        if (wordIndex < inlineCount) {
+            fields.setLongVolatile(instance, wordIndex, value);
+            return;
+        }
+        long[] chunk = chunkOf(instance, wordIndex);
+        if (chunk == null) {
+            if (value == 0L) {
+                return; // 未分配的 word 视为 0
+            }
+            throw new IndexOutOfBoundsException("wordIndex " + wordIndex + " beyond capacity, call ensureCapacity first");
+        }
+        WORDS.setVolatile(chunk, (wordIndex - inlineCount) & CHUNK_MASK, value);
+    }
+
+    @Override
+    public void ensureCapacity(T instance, int minWordCount) {
+        int minChunks = (minWordCount - inlineCount + CHUNK_MASK) >> CHUNK_SHIFT;
+        if (minChunks <= 0) {
+            return;
+        }
+        while (true) {
+            long[][] directory = (long[][]) fields.getRefAcquire(instance);
+            int current = directory != null ? directory.length : 0;
+            if (current >= minChunks) {
+                return;
+            }
+            // 与 CowWords 相同按倍数增长，逐 word 扩容时不必每次复制目录；目录中的每个位置都有块
+            int newLength = Math.max(minChunks, current * 2);
+            long[][] grown = directory == null ? new long[newLength][] : Arrays.copyOf(directory, newLength);
+            for (int i = current; i < newLength; i++) {
+                grown[i] = new long[CHUNK_WORDS];
+            }
+            if (fields.compareAndSetRef(instance, directory, grown)) {
+                return;
+            }
+            // 其他线程已扩容，重新读取目录（已有块引用在新目录中保持不变）
+        }
+    }
+
+    @Override
+    public int getWordCount(T instance) {
+        long[][] directory = (long[][]) fields.getRefAcquire(instance);
+        return inlineCount + (directory != null ? directory.length << CHUNK_SHIFT : 0);
+    }
+
+    @Override
+    public long estimatedBytes(T instance) {
+        long[][] directory = (long[][]) fields.getRefAcquire(instance);
+        if (directory == null) {
+            return 0L;
+        }
+        return Footprint.align(Footprint.ARRAY_HEADER + (long) Footprint.REFERENCE * directory.length)
+                + directory.length * Footprint.longArrayBytes(CHUNK_WORDS);
+    }
+
+    // --- AtomicWordAccessor ---
+
+    @Override
+    public boolean compareAndSetWord(T instance, int wordIndex, long expected, long newValue) {
+        if (wordIndex < inlineCount) {
+            return fields.compareAndSetLong(instance, wordIndex, expected, newValue);
+        }
+        return WORDS.compareAndSet(requireChunk(instance, wordIndex), (wordIndex - inlineCount) & CHUNK_MASK,
+                expected, newValue);
+    }
+
+    @Override
+    public long getAndBitwiseOrWord(T instance, int wordIndex, long mask) {
+        if (wordIndex < inlineCount) {
+            return fields.getAndBitwiseOrLong(instance, wordIndex, mask);
+        }
+        return (long) WORDS.getAndBitwiseOr(requireChunk(instance, wordIndex), (wordIndex - inlineCount) & CHUNK_MASK, mask);
+    }
+
+    @Override
+    public long getAndBitwiseAndWord(T instance, int wordIndex, long mask) {
+        if (wordIndex < inlineCount) {
+            return fields.getAndBitwiseAndLong(instance, wordIndex, mask);
+        }
+        return (long) WORDS.getAndBitwiseAnd(requireChunk(instance, wordIndex), (wordIndex - inlineCount) & CHUNK_MASK, mask);
+    }
+
+    @Override
+    public long getAndBitwiseXorWord(T instance, int wordIndex, long mask) {
+        if (wordIndex < inlineCount) {
+            return fields.getAndBitwiseXorLong(instance, wordIndex, mask);
+        }
+        return (long) WORDS.getAndBitwiseXor(requireChunk(instance, wordIndex), (wordIndex - inlineCount) & CHUNK_MASK, mask);
+    }
+}
@@ -0,0 +1,183 @@
+package org.example;
+
+/**
+ * 线程安全的紧凑位数组句柄：set/clear/flip/testAndSet 通过 AtomicWordAccessor 对单个 word 做无锁原子更新，
+ * 多个线程同时修改同一 word 中的不同位不会丢失。
+ * <p>
+ * 单比特操作是原子的；范围操作对每个 word 原子，但整体不是一个原子快照。
+ * cardinality/nextSetBit 等只读扫描委托给 CompactBitsHandle，结果是弱一致的。
+ *
+ * @param <T> 拥有位字段的类类型
+ */
+public final class AtomicCompactBitsHandle<T> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final long WORD_MASK = -1L;
+
+    private final AtomicWordAccessor<T> accessor;
+    private final CompactBitsHandle<T> view;
+
+    public AtomicCompactBitsHandle(AtomicWordAccessor<T> accessor) {
+        if (accessor == null) {
+            throw new NullPointerException("AtomicWordAccessor cannot be null");
+        }
+        this.accessor = accessor;
+        this.view = new CompactBitsHandle<>(accessor);
+    }
+
+    // --- 工具方法 ---
+
+    private int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    private void checkBitIndex(int bitIndex) {
+        if (bitIndex < 0) {
+            throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+        }
+    }
+
+    private void checkRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0) {
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        }
+        if (toIndex < 0) {
+            throw new IndexOutOfBoundsException("toIndex < 0: " + toIndex);
+        }
+        if (fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + " > toIndex: " + toIndex);
+        }
+    }
+
+    // --- 原子单比特操作 ---
+
+    public void set(T instance, int bitIndex) {
+        testAndSet(instance, bitIndex);
+    }
+
+    public void clear(T instance, int bitIndex) {
+        testAndClear(instance, bitIndex);
+    }
+
+    public void flip(T instance, int bitIndex) {
+        checkBitIndex(bitIndex);
+        int wordIndex = wordIndex(bitIndex);
+        accessor.ensureCapacity(instance, wordIndex + 1);
+        accessor.getAndBitwiseXorWord(instance, wordIndex, 1L << bitIndex);
+    }
+
+    /**
+     * 原子地置位，返回置位前该位的值（false 表示本次调用抢到了该位）。
+     */
+    public boolean testAndSet(T instance, int bitIndex) {
+        checkBitIndex(bitIndex);
+        int wordIndex = wordIndex(bitIndex);
+        long mask = 1L << bitIndex;
+        accessor.ensureCapacity(instance, wordIndex + 1);
+        if ((accessor.getWord(instance, wordIndex) & mask) != 0) {
+            return true; // 已置位，避免无谓的写竞争
+        }
+        return (accessor.getAndBitwiseOrWord(instance, wordIndex, mask) & mask) != 0;
+    }
+
+    /**
+     * 原子地清位，返回清位前该位的值。
+     */
+    public boolean testAndClear(T instance, int bitIndex) {
+        checkBitIndex(bitIndex);
+        int wordIndex = wordIndex(bitIndex);
+        if (wordIndex >= accessor.getWordCount(instance)) {
+            return false;
+        }
+        long mask = 1L << bitIndex;
+        if ((accessor.getWord(instance, wordIndex) & mask) == 0) {
+            return false;
+        }
+        return (accessor.getAndBitwiseAndWord(instance, wordIndex, ~mask) & mask) != 0;
+    }
+
+    public boolean get(T instance, int bitIndex) {
+        return view.get(instance, bitIndex);
+    }
+
+    // --- 范围操作（逐 word 原子） ---
+
+    public void set(T instance, int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        int firstWordIndex = wordIndex(fromIndex);
+        int lastWordIndex = wordIndex(toIndex - 1);
+        accessor.ensureCapacity(instance, lastWordIndex + 1);
+        long firstWordMask = WORD_MASK << fromIndex;
+        long lastWordMask = WORD_MASK >>> -toIndex;
+        if (firstWordIndex == lastWordIndex) {
+            accessor.getAndBitwiseOrWord(instance, firstWordIndex, firstWordMask & lastWordMask);
+        } else {
+            accessor.getAndBitwiseOrWord(instance, firstWordIndex, firstWordMask);
+            for (int i = firstWordIndex + 1; i < lastWordIndex; i++) {
+                accessor.getAndBitwiseOrWord(instance, i, WORD_MASK);
+            }
+            accessor.getAndBitwiseOrWord(instance, lastWordIndex, lastWordMask);
+        }
+    }
+
+    public void clear(T instance, int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        int firstWordIndex = wordIndex(fromIndex);
+        int count = accessor.getWordCount(instance);
+        if (firstWordIndex >= count) {
+            return;
+        }
+        int lastWordIndex = wordIndex(toIndex - 1);
+        if (lastWordIndex >= count) {
+            lastWordIndex = count - 1;
+            toIndex = count << ADDRESS_BITS_PER_WORD;
+        }
+        long firstWordMask = WORD_MASK << fromIndex;
+        long lastWordMask = WORD_MASK >>> -toIndex;
+        if (firstWordIndex == lastWordIndex) {
+            accessor.getAndBitwiseAndWord(instance, firstWordIndex, ~(firstWordMask & lastWordMask));
+        } else {
+            accessor.getAndBitwiseAndWord(instance, firstWordIndex, ~firstWordMask);
+            for (int i = firstWordIndex + 1; i < lastWordIndex; i++) {
+                accessor.getAndBitwiseAndWord(instance, i, 0L);
+            }
+            accessor.getAndBitwiseAndWord(instance, lastWordIndex, ~lastWordMask);
+        }
+    }
+
+    // --- 弱一致的只读扫描 ---
+
+    public int cardinality(T instance) {
+        return view.cardinality(instance);
+    }
+
+    public boolean isEmpty(T instance) {
+        return view.isEmpty(instance);
+    }
+
+    public int length(T instance) {
+        return view.length(instance);
+    }
+
+    public int nextSetBit(T instance, int fromIndex) {
+        return view.nextSetBit(instance, fromIndex);
+    }
+
+    public int nextClearBit(T instance, int fromIndex) {
+        return view.nextClearBit(instance, fromIndex);
+    }
+
+    public long[] toLongArray(T instance) {
+        return view.toLongArray(instance);
+    }
+
+    public int size(T instance) {
+        return view.size(instance);
+    }
+}
@@ -0,0 +1,147 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程共享同一个位集合：AtomicCompactBitsHandle（无锁 CAS）对比 synchronized BitSet。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AtomicCompactBitsHandleBenchmark {
+
+    private static final int MAX_BIT_INDEX = 1_000_000;
+    private static final int OPERATIONS = 10_000;
+
+    private final BitSet bitSet = new BitSet();
+    private final SharedBean sharedBean = new SharedBean();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // 预先扩容，测量稳态下的竞争开销
+        bitSet.set(MAX_BIT_INDEX);
+        SharedBean.HANDLE.set(sharedBean, MAX_BIT_INDEX);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        public int[] randomIndices;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(Thread.currentThread().getId());
+            randomIndices = new int[OPERATIONS];
+            for (int i = 0; i < OPERATIONS; i++) {
+                randomIndices[i] = random.nextInt(MAX_BIT_INDEX);
+            }
+        }
+    }
+
+    // --- set ---
+
+    @Benchmark
+    public void benchmarkSyncBitSet_Set(ThreadState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            synchronized (bitSet) {
+                bitSet.set(index);
+            }
+        }
+        blackhole.consume(bitSet);
+    }
+
+    @Benchmark
+    public void benchmarkAtomic_Set(ThreadState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            SharedBean.HANDLE.set(sharedBean, index);
+        }
+        blackhole.consume(sharedBean);
+    }
+
+    // --- flip（每次都真正写入，竞争最激烈） ---
+
+    @Benchmark
+    public void benchmarkSyncBitSet_Flip(ThreadState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            synchronized (bitSet) {
+                bitSet.flip(index);
+            }
+        }
+        blackhole.consume(bitSet);
+    }
+
+    @Benchmark
+    public void benchmarkAtomic_Flip(ThreadState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            SharedBean.HANDLE.flip(sharedBean, index);
+        }
+        blackhole.consume(sharedBean);
+    }
+
+    // --- testAndSet ---
+
+    @Benchmark
+    public void benchmarkSyncBitSet_TestAndSet(ThreadState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            boolean previous;
+            synchronized (bitSet) {
+                previous = bitSet.get(index);
+                bitSet.set(index);
+            }
+            blackhole.consume(previous);
+        }
+    }
+
+    @Benchmark
+    public void benchmarkAtomic_TestAndSet(ThreadState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            blackhole.consume(SharedBean.HANDLE.testAndSet(sharedBean, index));
+        }
+    }
+
+    // --- get ---
+
+    @Benchmark
+    public void benchmarkSyncBitSet_Get(ThreadState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            synchronized (bitSet) {
+                blackhole.consume(bitSet.get(index));
+            }
+        }
+    }
+
+    @Benchmark
+    public void benchmarkAtomic_Get(ThreadState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            blackhole.consume(SharedBean.HANDLE.get(sharedBean, index));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(AtomicCompactBitsHandleBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class SharedBean {
+        private volatile long inlineBits;
+        private volatile long[][] chunks;
+
+        public static final AtomicCompactBitsHandle<SharedBean> HANDLE = new AtomicCompactBitsHandle<>(
+                AtomicChunkedWordAccessor.of(MethodHandles.lookup(), SharedBean.class, "chunks", "inlineBits"));
+    }
+}
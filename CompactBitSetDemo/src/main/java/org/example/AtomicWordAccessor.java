@@ -0,0 +1,51 @@
+package org.example;
+
+/**
+ * 支持原子更新的 WordAccessor，由 AtomicCompactBitsHandle 使用。
+ * 实现要求：
+ * <ul>
+ *     <li>getWord/setWord 具有 volatile 语义；</li>
+ *     <li>ensureCapacity 可被多个线程并发调用，且扩容时已有 word 不能搬迁（否则并发 CAS 会写到旧存储上丢失）；</li>
+ *     <li>trim 不释放存储（默认空实现即可）。</li>
+ * </ul>
+ */
+public interface AtomicWordAccessor<T> extends WordAccessor<T> {
+
+    /**
+     * 若 word 当前值等于 expected 则原子地设置为 newValue，返回是否成功。调用前需保证 ensureCapacity。
+     */
+    boolean compareAndSetWord(T instance, int wordIndex, long expected, long newValue);
+
+    /**
+     * 原子地执行 word |= mask，返回旧值。默认基于 CAS 循环，实现可以改用 VarHandle.getAndBitwiseOr。
+     */
+    default long getAndBitwiseOrWord(T instance, int wordIndex, long mask) {
+        long word;
+        do {
+            word = getWord(instance, wordIndex);
+        } while (!compareAndSetWord(instance, wordIndex, word, word | mask));
+        return word;
+    }
+
+    /**
+     * 原子地执行 word &amp;= mask，返回旧值。
+     */
+    default long getAndBitwiseAndWord(T instance, int wordIndex, long mask) {
+        long word;
+        do {
+            word = getWord(instance, wordIndex);
+        } while (!compareAndSetWord(instance, wordIndex, word, word & mask));
+        return word;
+    }
+
+    /**
+     * 原子地执行 word ^= mask，返回旧值。
+     */
+    default long getAndBitwiseXorWord(T instance, int wordIndex, long mask) {
+        long word;
+        do {
+            word = getWord(instance, wordIndex);
+        } while (!compareAndSetWord(instance, wordIndex, word, word ^ mask));
+        return word;
+    }
+}
@@ -0,0 +1,189 @@
+package org.example;
+
+/**
+ * 位切片索引（bit-sliced index）：非负整数列的第 k 个二进制位对应一个 IndexBitmap（slice k），
+ * 另有一个 existence 位图记录非空行。位数为 bitDepth 的列只需 bitDepth + 1 个位图，与取值个数无关，
+ * 适合金额、时间戳等高基数列。
+ * <p>
+ * 比较查询使用 O'Neil &amp; Quass 的逐位算法：从最高位向低位，对每个 word 同时维护 "等于/小于/大于" 三个掩码，
+ * 一次遍历全部 slice 就得到结果，每次查询只分配结果位图本身。
+ * <pre>
+ * BitSlicedIndex amount = BitSlicedIndex.build(amounts);
+ * IndexBitmap rows = amount.between(1_000, 5_000).and(approved.eq(1));
+ * long total = amount.sum(rows);
+ * </pre>
+ * 行号按 {@link #add} 的调用顺序从 0 开始分配。非线程安全。
+ */
+public final class BitSlicedIndex {
+
+    // compare 的结果选择：小于 / 等于 / 大于常量的行
+    private static final int LT = 1;
+    private static final int EQ = 2;
+    private static final int GT = 4;
+
+    private final IndexBitmap[] slices;
+    private final IndexBitmap existence = new IndexBitmap();
+    private final int bitDepth;
+    private int rowCount;
+
+    /**
+     * @param bitDepth 取值的二进制位数（1..63），可索引的取值范围为 [0, 2^bitDepth)
+     */
+    public BitSlicedIndex(int bitDepth) {
+        if (bitDepth < 1 || bitDepth > 63) {
+            throw new IllegalArgumentException("bitDepth out of range [1, 63]: " + bitDepth);
+        }
+        this.bitDepth = bitDepth;
+        this.slices = new IndexBitmap[bitDepth];
+        for (int i = 0; i < bitDepth; i++) {
+            slices[i] = new IndexBitmap();
+        }
+    }
+
+    /**
+     * 为整列建立索引，bitDepth 取最大值所需的位数。
+     */
+    public static BitSlicedIndex build(long[] column) {
+        long max = 0L;
+        for (long value : column) {
+            if (value < 0L) {
+                throw new IllegalArgumentException("Negative value: " + value);
+            }
+            max = Math.max(max, value);
+        }
+        BitSlicedIndex index = new BitSlicedIndex(Math.max(1, 64 - Long.numberOfLeadingZeros(max)));
+        for (long value : column) {
+            index.add(value);
+        }
+        return index;
+    }
+
+    /**
+     * 追加一行，返回其行号。
+     */
+    public int add(long value) {
+        if (value < 0L || (value >>> bitDepth) != 0L) {
+            throw new IllegalArgumentException("value out of range [0, 2^" + bitDepth + "): " + value);
+        }
+        int row = rowCount++;
+        existence.add(row);
+        for (long v = value; v != 0L; v &= v - 1) {
+            slices[Long.numberOfTrailingZeros(v)].add(row);
+        }
+        return row;
+    }
+
+    /**
+     * 追加一行空值，空值行不满足任何比较条件，返回其行号。
+     */
+    public int addNull() {
+        return rowCount++;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int bitDepth() {
+        return bitDepth;
+    }
+
+    /**
+     * 非空行。
+     */
+    public IndexBitmap notNull() {
+        return existence.copy();
+    }
+
+    // --- 比较查询：返回新的 IndexBitmap ---
+
+    public IndexBitmap eq(long value) {
+        return compare(value, EQ);
+    }
+
+    public IndexBitmap lt(long value) {
+        return compare(value, LT);
+    }
+
+    public IndexBitmap le(long value) {
+        return compare(value, LT | EQ);
+    }
+
+    public IndexBitmap gt(long value) {
+        return compare(value, GT);
+    }
+
+    public IndexBitmap ge(long value) {
+        return compare(value, GT | EQ);
+    }
+
+    /**
+     * lower &lt;= value &lt;= upper 的行。
+     */
+    public IndexBitmap between(long lower, long upper) {
+        if (lower > upper) {
+            return new IndexBitmap();
+        }
+        return ge(lower).and(le(upper));
+    }
+
+    // --- 聚合 ---
+
+    /**
+     * filter 中各行取值之和：sum = Σ 2^k × |slice k ∧ filter|，filter 为 null 时对全部行求和。
+     */
+    public long sum(IndexBitmap filter) {
+        long sum = 0L;
+        for (int k = 0; k < bitDepth; k++) {
+            long count = filter == null ? slices[k].cardinality()
+                    : IndexBitmap.HANDLE.intersectionCardinality(slices[k], IndexBitmap.HANDLE, filter);
+            sum += count << k;
+        }
+        return sum;
+    }
+
+    // --- 逐位比较 ---
+
+    private IndexBitmap compare(long value, int mode) {
+        // 超出可表示范围的常量：所有非空行都小于（或大于）它
+        if (value < 0L) {
+            return (mode & GT) != 0 ? existence.copy() : new IndexBitmap();
+        }
+        if ((value >>> bitDepth) != 0L) {
+            return (mode & LT) != 0 ? existence.copy() : new IndexBitmap();
+        }
+        long[] exists = IndexBitmap.ACCESSOR.getWordSegment(existence);
+        int words = IndexBitmap.HANDLE.length(existence) + 63 >>> 6;
+        if (words == 0) {
+            return new IndexBitmap();
+        }
+        long[][] bits = new long[bitDepth][];
+        for (int k = 0; k < bitDepth; k++) {
+            bits[k] = IndexBitmap.ACCESSOR.getWordSegment(slices[k]);
+        }
+        long[] result = new long[words];
+        for (int w = 0; w < words; w++) {
+            long eq = exists[w];
+            long lt = 0L;
+            long gt = 0L;
+            for (int k = bitDepth - 1; k >= 0 && eq != 0L; k--) {
+                long[] slice = bits[k];
+                long b = slice != null && w < slice.length ? slice[w] : 0L;
+                if ((value >>> k & 1L) != 0L) {
+                    lt |= eq & ~b;
+                    eq &= b;
+                } else {
+                    gt |= eq & b;
+                    eq &= ~b;
+                }
+            }
+            result[w] = ((mode & LT) != 0 ? lt : 0L) | ((mode & EQ) != 0 ? eq : 0L) | ((mode & GT) != 0 ? gt : 0L);
+        }
+        return IndexBitmap.wrap(result);
+    }
+
+    @Override
+    public String toString() {
+        return "BitSlicedIndex{rows=" + rowCount + ", bitDepth=" + bitDepth + "}";
+    }
+}
@@ -0,0 +1,106 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1000 万行合成数据上的过滤：逐个遍历行对象 vs 位图索引（EqualityBitmapIndex + BitSlicedIndex）。
+ * 查询 1："status in (A, B) and approved"；查询 2："amount between 1000 and 5000 and status = C"，并对结果求和。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class BitmapIndexBenchmark {
+
+    private static final int ROWS = 10_000_000;
+    private static final int STATUS_A = 0;
+    private static final int STATUS_B = 1;
+    private static final int STATUS_C = 2;
+
+    private Row[] rows;
+    private EqualityBitmapIndex statusIndex;
+    private EqualityBitmapIndex approvedIndex;
+    private BitSlicedIndex amountIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        rows = new Row[ROWS];
+        statusIndex = new EqualityBitmapIndex(5);
+        approvedIndex = new EqualityBitmapIndex(2);
+        amountIndex = new BitSlicedIndex(17);
+        for (int i = 0; i < ROWS; i++) {
+            Row row = new Row(random.nextInt(5), random.nextInt(10) < 7, random.nextInt(100_000));
+            rows[i] = row;
+            statusIndex.add(row.status);
+            approvedIndex.add(row.approved ? 1 : 0);
+            amountIndex.add(row.amount);
+        }
+    }
+
+    // --- status in (A, B) and approved ---
+
+    @Benchmark
+    public void benchmarkObjects_StatusInAndApproved(Blackhole blackhole) {
+        int count = 0;
+        for (Row row : rows) {
+            if ((row.status == STATUS_A || row.status == STATUS_B) && row.approved) {
+                count++;
+            }
+        }
+        blackhole.consume(count);
+    }
+
+    @Benchmark
+    public void benchmarkIndex_StatusInAndApproved(Blackhole blackhole) {
+        blackhole.consume(statusIndex.in(STATUS_A, STATUS_B).and(approvedIndex.eq(1)).cardinality());
+    }
+
+    // --- amount between 1000 and 5000 and status = C，求和 ---
+
+    @Benchmark
+    public void benchmarkObjects_AmountRangeSum(Blackhole blackhole) {
+        long sum = 0;
+        for (Row row : rows) {
+            if (row.amount >= 1000 && row.amount <= 5000 && row.status == STATUS_C) {
+                sum += row.amount;
+            }
+        }
+        blackhole.consume(sum);
+    }
+
+    @Benchmark
+    public void benchmarkIndex_AmountRangeSum(Blackhole blackhole) {
+        IndexBitmap filter = amountIndex.between(1000, 5000).and(statusIndex.eq(STATUS_C));
+        blackhole.consume(amountIndex.sum(filter));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(BitmapIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    static final class Row {
+        final int status;
+        final boolean approved;
+        final int amount;
+
+        Row(int status, boolean approved, int amount) {
+            this.status = status;
+            this.approved = approved;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 与外部系统交换 byte[] 位图：BitSet.valueOf/toByteArray 对比 CompactBitsHandle.fill(byte[]/ByteBuffer)/toByteArray，
+ * 以及先把字节转换为 long[] 再 fill(long[]) 的旧做法。direct buffer 用于模拟从网络或文件读取。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteArrayBitsBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int maxBitIndex;
+
+    private byte[] bytes;
+    private ByteBuffer heapBuffer;
+    private ByteBuffer directBuffer;
+    private BitSet bitSet;
+    private HeapBean heapBean;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bitSet = new BitSet();
+        Random random = new Random(42);
+        for (int i = 0; i < maxBitIndex / 10; i++) {
+            bitSet.set(random.nextInt(maxBitIndex));
+        }
+        bitSet.set(maxBitIndex - 1);
+        bytes = bitSet.toByteArray();
+        heapBuffer = ByteBuffer.wrap(bytes);
+        directBuffer = ByteBuffer.allocateDirect(bytes.length);
+        directBuffer.put(bytes).flip();
+        heapBean = new HeapBean();
+        HeapBean.HANDLE.fill(heapBean, bytes);
+    }
+
+    // --- byte[] -> 位集合 ---
+
+    @Benchmark
+    public BitSet benchmarkBitSet_ValueOfBytes() {
+        return BitSet.valueOf(bytes);
+    }
+
+    @Benchmark
+    public HeapBean benchmarkHandle_FillBytes() {
+        HeapBean.HANDLE.fill(heapBean, bytes);
+        return heapBean;
+    }
+
+    @Benchmark
+    public HeapBean benchmarkHandle_FillViaLongArray() {
+        ByteBuffer le = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        long[] longs = new long[(bytes.length + 7) >>> 3];
+        for (int i = 0; le.hasRemaining(); i++) {
+            if (le.remaining() >= 8) {
+                longs[i] = le.getLong();
+            } else {
+                for (int shift = 0; le.hasRemaining(); shift += 8) {
+                    longs[i] |= (le.get() & 0xFFL) << shift;
+                }
+            }
+        }
+        HeapBean.HANDLE.fill(heapBean, longs);
+        return heapBean;
+    }
+
+    // --- ByteBuffer -> 位集合 ---
+
+    @Benchmark
+    public BitSet benchmarkBitSet_ValueOfHeapBuffer() {
+        return BitSet.valueOf(heapBuffer);
+    }
+
+    @Benchmark
+    public HeapBean benchmarkHandle_FillHeapBuffer() {
+        HeapBean.HANDLE.fill(heapBean, heapBuffer);
+        return heapBean;
+    }
+
+    @Benchmark
+    public BitSet benchmarkBitSet_ValueOfDirectBuffer() {
+        return BitSet.valueOf(directBuffer);
+    }
+
+    @Benchmark
+    public HeapBean benchmarkHandle_FillDirectBuffer() {
+        HeapBean.HANDLE.fill(heapBean, directBuffer);
+        return heapBean;
+    }
+
+    // --- 位集合 -> byte[] ---
+
+    @Benchmark
+    public byte[] benchmarkBitSet_ToByteArray() {
+        return bitSet.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] benchmarkHandle_ToByteArray() {
+        return HeapBean.HANDLE.toByteArray(heapBean);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ByteArrayBitsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class HeapBean {
+        private long inlineBits;
+        private long[] heapArray;
+        private int wordsInUse;
+
+        public static final CompactBitsHandle<HeapBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), HeapBean.class, "heapArray", "inlineBits")
+                        .withWordsInUseField(MethodHandles.lookup(), "wordsInUse"));
+    }
+}
@@ -1,8 +1,25 @@
 package org.example;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /**
  * 高性能紧凑位数组句柄，支持通过WordAccessor抽象存储，行为与java.util.BitSet一致。
- * 适用于JDK 1.8，专注于性能敏感场景的内存优化。
+ * 需要 JDK 9+（基于字段名的 accessor 通过 {@link HostFields} 使用 VarHandle），专注于性能敏感场景的内存优化。
  *
  * @param <T> 拥有位字段的类类型
  */
@@ -11,13 +28,39 @@ public final class CompactBitsHandle<T> {
     private static final int ADDRESS_BITS_PER_WORD = 6;
     private static final long WORD_MASK = -1L;
 
+    /**
+     * parallel* 方法的默认阈值：连续 word 段不足 32768 个 word（约 200 万位）时按顺序执行。
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 15;
+
+    /**
+     * int 位下标最多对应 2^25 个 word，序列化后的字节数不会超过 2^28。
+     */
+    private static final int MAX_SERIALIZED_BYTES = 1 << 28;
+
     private final WordAccessor<T> accessor;
+    private final int segmentOffset;
+    private final boolean tracking;
+    private final int parallelThreshold;
 
     public CompactBitsHandle(WordAccessor<T> accessor) {
+        this(accessor, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param parallelThreshold parallel* 方法启用 fork-join 的最小 word 数
+     */
+    public CompactBitsHandle(WordAccessor<T> accessor, int parallelThreshold) {
         if (accessor == null) {
             throw new NullPointerException("WordAccessor cannot be null");
         }
+        if (parallelThreshold <= 0) {
+            throw new IllegalArgumentException("parallelThreshold <= 0: " + parallelThreshold);
+        }
         this.accessor = accessor;
+        this.segmentOffset = accessor.getSegmentOffset();
+        this.tracking = accessor.tracksWordsInUse();
+        this.parallelThreshold = parallelThreshold;
     }
 
     // --- 工具方法 ---
@@ -57,6 +100,7 @@ public final class CompactBitsHandle<T> {
         long word = accessor.getWord(instance, wordIndex);
         word |= (1L << bitOffset(bitIndex));
         accessor.setWord(instance, wordIndex, word);
+        expandWordsInUse(instance, wordIndex + 1);
     }
 
     public void set(T instance, int bitIndex, boolean value) {
@@ -85,13 +129,12 @@ public final class CompactBitsHandle<T> {
             long word = accessor.getWord(instance, firstWordIndex);
             word |= firstWordMask;
             accessor.setWord(instance, firstWordIndex, word);
-            for (int i = firstWordIndex + 1; i < lastWordIndex; i++) {
-                accessor.setWord(instance, i, WORD_MASK);
-            }
+            accessor.fillWords(instance, firstWordIndex + 1, lastWordIndex, WORD_MASK);
             word = accessor.getWord(instance, lastWordIndex);
             word |= lastWordMask;
             accessor.setWord(instance, lastWordIndex, word);
         }
+        expandWordsInUse(instance, lastWordIndex + 1);
     }
 
     public void set(T instance, int fromIndex, int toIndex, boolean value) {
@@ -105,13 +148,18 @@ public final class CompactBitsHandle<T> {
     public void clear(T instance, int bitIndex) {
         checkBitIndex(bitIndex);
         int wordIndex = wordIndex(bitIndex);
-        if (wordIndex >= accessor.getWordCount(instance)) {
+        int limit = wordLimit(instance);
+        if (wordIndex >= limit) {
             return;
         }
         long word = accessor.getWord(instance, wordIndex);
         word &= ~(1L << bitOffset(bitIndex));
         accessor.setWord(instance, wordIndex, word);
-        accessor.trim(instance);
+        if (!tracking) {
+            accessor.trim(instance);
+        } else if (word == 0L && wordIndex == limit - 1) {
+            shrinkWordsInUse(instance, limit);
+        }
     }
 
     public void clear(T instance, int fromIndex, int toIndex) {
@@ -120,7 +168,7 @@ public final class CompactBitsHandle<T> {
             return;
         }
         int firstWordIndex = wordIndex(fromIndex);
-        int count = accessor.getWordCount(instance);
+        int count = wordLimit(instance);
         if (firstWordIndex >= count) {
             return;
         }
@@ -139,20 +187,22 @@ public final class CompactBitsHandle<T> {
             long word = accessor.getWord(instance, firstWordIndex);
             word &= ~firstWordMask;
             accessor.setWord(instance, firstWordIndex, word);
-            for (int i = firstWordIndex + 1; i < lastWordIndex; i++) {
-                accessor.setWord(instance, i, 0L);
-            }
+            accessor.fillWords(instance, firstWordIndex + 1, lastWordIndex, 0L);
             word = accessor.getWord(instance, lastWordIndex);
             word &= ~lastWordMask;
             accessor.setWord(instance, lastWordIndex, word);
         }
-        accessor.trim(instance);
+        if (!tracking) {
+            accessor.trim(instance);
+        } else if (lastWordIndex == count - 1) {
+            shrinkWordsInUse(instance, count);
+        }
     }
 
     public void clear(T instance) {
-        int count = accessor.getWordCount(instance);
-        for (int i = 0; i < count; i++) {
-            accessor.setWord(instance, i, 0L);
+        accessor.fillWords(instance, 0, wordLimit(instance), 0L);
+        if (tracking) {
+            accessor.setWordsInUse(instance, 0);
         }
         accessor.trim(instance);
     }
@@ -172,53 +222,135 @@ public final class CompactBitsHandle<T> {
         while (n > 0 && longs[n - 1] == 0L) {
             n--;
         }
+        int currentCount = wordLimit(instance);
         accessor.ensureCapacity(instance, n);
-        for (int i = 0; i < n; i++) {
-            accessor.setWord(instance, i, longs[i]);
+        accessor.setWords(instance, 0, longs, 0, n);
+        if (n < currentCount) {
+            accessor.fillWords(instance, n, currentCount, 0L);
         }
-        int currentCount = accessor.getWordCount(instance);
-        for (int i = n; i < currentCount; i++) {
-            accessor.setWord(instance, i, 0L);
+        if (tracking) {
+            accessor.setWordsInUse(instance, n);
         }
         accessor.trim(instance);
     }
 
+    /**
+     * 用小端字节替换全部位，格式与 {@code BitSet.valueOf(byte[])} / {@link #toByteArray} 相同。
+     */
+    public void fill(T instance, byte[] bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes array is null");
+        }
+        fill(instance, ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 用 [position, limit) 中的小端字节替换全部位，效果同 {@code BitSet.valueOf(ByteBuffer)}，不修改 bytes 的 position 和字节序。
+     * 按 word 做非对齐的 8 字节读取，直接写入 accessor 的连续 word 段，不分配中间 long[]。
+     *
+     * @throws IllegalArgumentException 去掉尾部 0 字节后超过 int 位下标的范围
+     */
+    public void fill(T instance, ByteBuffer bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes buffer is null");
+        }
+        ByteBuffer le = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int from = le.position();
+        int byteLength = le.remaining();
+        while (byteLength > 0 && le.get(from + byteLength - 1) == 0) {
+            byteLength--;
+        }
+        if (byteLength > MAX_SERIALIZED_BYTES) {
+            throw new IllegalArgumentException("Too many bytes for int bit indices: " + byteLength);
+        }
+        int n = (byteLength + 7) >>> 3;
+        int currentCount = wordLimit(instance);
+        accessor.ensureCapacity(instance, n);
+        readWords(instance, le, byteLength);
+        if (n < currentCount) {
+            accessor.fillWords(instance, n, currentCount, 0L);
+        }
+        if (tracking) {
+            accessor.setWordsInUse(instance, n);
+        }
+        accessor.trim(instance);
+    }
+
+    /**
+     * 把 instance 的位复制到 target（target 原有的位被覆盖），之后两者互不影响，效果同 BitSet.clone()。
+     * accessor 支持 {@link WordAccessor#shareWords} 时（如 {@link CowWordAccessor}）只复制块目录，
+     * 修改时才按块复制；否则逐 word 复制。
+     */
+    public void snapshot(T instance, T target) {
+        if (instance == target) {
+            return;
+        }
+        if (accessor.shareWords(instance, target)) {
+            return;
+        }
+        int n = wordsInUse(instance);
+        int currentCount = wordLimit(target);
+        accessor.ensureCapacity(target, n);
+        int i = 0;
+        long[] segment = accessor.getWordSegment(instance);
+        if (segment != null) {
+            for (; i < segmentOffset && i < n; i++) {
+                accessor.setWord(target, i, accessor.getWord(instance, i));
+            }
+            int segmentEnd = Math.min(n, segmentOffset + segment.length);
+            if (i < segmentEnd) {
+                accessor.setWords(target, i, segment, i - segmentOffset, segmentEnd - i);
+                i = segmentEnd;
+            }
+        }
+        for (; i < n; i++) {
+            accessor.setWord(target, i, accessor.getWord(instance, i));
+        }
+        if (n < currentCount) {
+            accessor.fillWords(target, n, currentCount, 0L);
+        }
+        if (tracking) {
+            accessor.setWordsInUse(target, n);
+        }
+        accessor.trim(target);
+    }
+
     public long[] toLongArray(T instance) {
-        int n = accessor.getWordCount(instance);
+        int n = wordLimit(instance);
         long[] result = new long[n];
-        for (int i = 0; i < n; i++) {
-            result[i] = accessor.getWord(instance, i);
-        }
+        accessor.getWords(instance, 0, result, 0, n);
         return result;
     }
 
+    /**
+     * 与 {@code BitSet.toByteArray()} 相同的小端字节，尾部 0 字节省略；按 word 直接写入结果数组。
+     */
+    public byte[] toByteArray(T instance) {
+        int n = wordsInUse(instance);
+        int byteLength = byteLength(instance, n);
+        byte[] bytes = new byte[byteLength];
+        writeWords(instance, ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN), byteLength);
+        return bytes;
+    }
+
     public int nextSetBit(T instance, int fromIndex) {
         if (fromIndex < 0) {
             throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
         }
         int wordIndex = wordIndex(fromIndex);
-        int maxWordIndex = accessor.getWordCount(instance);
-        if (wordIndex >= maxWordIndex) {
+        int count = wordLimit(instance);
+        if (wordIndex >= count) {
             return -1;
         }
-        int offset = bitOffset(fromIndex);
-        while (wordIndex < maxWordIndex) {
-            long word = accessor.getWord(instance, wordIndex);
-            if (offset > 0) {
-                word >>>= offset;
-                if (word != 0) {
-                    return (wordIndex << ADDRESS_BITS_PER_WORD) + offset + Long.numberOfTrailingZeros(word);
-                }
-                offset = 0;
-                wordIndex++;
-            } else {
-                if (word != 0) {
-                    return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
-                }
-                wordIndex++;
+        long word = accessor.getWord(instance, wordIndex) & (WORD_MASK << fromIndex);
+        if (word == 0L) {
+            wordIndex = nextWordNotEqual(instance, wordIndex + 1, count, 0L);
+            if (wordIndex == count) {
+                return -1;
             }
+            word = accessor.getWord(instance, wordIndex);
         }
-        return -1;
+        return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
     }
 
     public int nextClearBit(T instance, int fromIndex) {
@@ -226,58 +358,981 @@ public final class CompactBitsHandle<T> {
             throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
         }
         int wordIndex = wordIndex(fromIndex);
-        int maxWordIndex = accessor.getWordCount(instance);
-        int offset = bitOffset(fromIndex);
-        while (wordIndex < maxWordIndex) {
-            long word = ~accessor.getWord(instance, wordIndex);
-            if (offset > 0) {
-                word >>>= offset;
-                if (word != 0) {
-                    return (wordIndex << ADDRESS_BITS_PER_WORD) + offset + Long.numberOfTrailingZeros(word);
-                }
-                offset = 0;
-                wordIndex++;
-            } else {
-                if (word != 0) {
-                    return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
-                }
-                wordIndex++;
+        int count = wordLimit(instance);
+        if (wordIndex >= count) {
+            return fromIndex;
+        }
+        long word = ~accessor.getWord(instance, wordIndex) & (WORD_MASK << fromIndex);
+        if (word == 0L) {
+            wordIndex = nextWordNotEqual(instance, wordIndex + 1, count, WORD_MASK);
+            if (wordIndex == count) {
+                return count << ADDRESS_BITS_PER_WORD;
             }
+            word = ~accessor.getWord(instance, wordIndex);
         }
-        return wordIndex << ADDRESS_BITS_PER_WORD;
+        return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
     }
 
     public int length(T instance) {
-        int count = accessor.getWordCount(instance);
-        for (int i = count - 1; i >= 0; i--) {
-            long word = accessor.getWord(instance, i);
-            if (word != 0) {
-                return (i << ADDRESS_BITS_PER_WORD) + 64 - Long.numberOfLeadingZeros(word);
-            }
+        int i = wordsInUse(instance) - 1;
+        if (i < 0) {
+            return 0;
         }
-        return 0;
+        long word = accessor.getWord(instance, i);
+        return (i << ADDRESS_BITS_PER_WORD) + 64 - Long.numberOfLeadingZeros(word);
     }
 
     public boolean isEmpty(T instance) {
-        int count = accessor.getWordCount(instance);
-        for (int i = 0; i < count; i++) {
-            if (accessor.getWord(instance, i) != 0) {
-                return false;
-            }
+        if (tracking) {
+            return accessor.getWordsInUse(instance) == 0;
         }
-        return true;
+        int count = accessor.getWordCount(instance);
+        return nextWordNotEqual(instance, 0, count, 0L) == count;
     }
 
     public int cardinality(T instance) {
+        return bitCount(instance, wordLimit(instance));
+    }
+
+    /**
+     * word [0, toWordIndex) 中的置位数，连续 word 段部分使用 WordKernels。
+     */
+    private int bitCount(T instance, int toWordIndex) {
         int sum = 0;
-        int count = accessor.getWordCount(instance);
-        for (int i = 0; i < count; i++) {
+        long[] segment = accessor.getWordSegment(instance);
+        int inlineEnd = segment == null ? toWordIndex : Math.min(segmentOffset, toWordIndex);
+        for (int i = 0; i < inlineEnd; i++) {
             sum += Long.bitCount(accessor.getWord(instance, i));
         }
+        if (segment != null) {
+            int end = Math.min(segment.length, toWordIndex - segmentOffset);
+            if (end > 0) {
+                sum += WordKernels.ACTIVE.bitCount(segment, 0, end);
+            }
+        }
         return sum;
     }
 
+    // --- rank/select：accessor 提供 RankDirectory 时分别为 O(1) 和 O(log n)，否则线性扫描 ---
+
+    /**
+     * [0, bitIndex) 中置位的个数，即稀疏下标 bitIndex 对应的稠密下标（bitIndex 已置位时）。
+     *
+     * @throws IndexOutOfBoundsException bitIndex &lt; 0
+     */
+    public int rank(T instance, int bitIndex) {
+        checkBitIndex(bitIndex);
+        int wordIndex = wordIndex(bitIndex);
+        RankDirectory directory = accessor.getRankDirectory(instance);
+        int sum;
+        int i;
+        if (directory != null) {
+            if (wordIndex >= directory.wordCount()) {
+                return directory.total();
+            }
+            int block = wordIndex >>> RankDirectory.BLOCK_SHIFT;
+            sum = directory.rankOfBlock(block);
+            i = block << RankDirectory.BLOCK_SHIFT;
+        } else {
+            int count = wordLimit(instance);
+            if (wordIndex >= count) {
+                return bitCount(instance, count);
+            }
+            sum = bitCount(instance, wordIndex);
+            i = wordIndex;
+        }
+        for (; i < wordIndex; i++) {
+            sum += Long.bitCount(accessor.getWord(instance, i));
+        }
+        return sum + Long.bitCount(accessor.getWord(instance, wordIndex) & ~(WORD_MASK << bitOffset(bitIndex)));
+    }
+
+    /**
+     * 第 k 个（从 0 开始）置位的下标，k 不小于 cardinality 时返回 -1。对已置位的 i 有 select(rank(i)) == i。
+     *
+     * @throws IndexOutOfBoundsException k &lt; 0
+     */
+    public int select(T instance, int k) {
+        if (k < 0) {
+            throw new IndexOutOfBoundsException("k < 0: " + k);
+        }
+        RankDirectory directory = accessor.getRankDirectory(instance);
+        int i = 0;
+        int count;
+        int remaining = k;
+        if (directory != null) {
+            if (k >= directory.total()) {
+                return -1;
+            }
+            int block = directory.blockOfRank(k);
+            remaining -= directory.rankOfBlock(block);
+            i = block << RankDirectory.BLOCK_SHIFT;
+            count = directory.wordCount();
+        } else {
+            count = wordLimit(instance);
+        }
+        for (; i < count; i++) {
+            long word = accessor.getWord(instance, i);
+            int bits = Long.bitCount(word);
+            if (remaining < bits) {
+                return (i << ADDRESS_BITS_PER_WORD) + selectInWord(word, remaining);
+            }
+            remaining -= bits;
+        }
+        return -1;
+    }
+
+    /**
+     * word 中第 r 个（从 0 开始）置位的位置，要求 r &lt; bitCount(word)：先按字节跳过，再逐位清除。
+     */
+    private static int selectInWord(long word, int r) {
+        int shift = 0;
+        int bits;
+        while ((bits = Long.bitCount(word & 0xFFL)) <= r) {
+            r -= bits;
+            word >>>= 8;
+            shift += 8;
+        }
+        for (; r > 0; r--) {
+            word &= word - 1;
+        }
+        return shift + Long.numberOfTrailingZeros(word);
+    }
+
     public int size(T instance) {
         return accessor.getWordCount(instance) << ADDRESS_BITS_PER_WORD;
     }
+
+    /**
+     * 估算位字段在宿主对象之外占用的堆内存字节数，见 {@link WordAccessor#estimatedBytes} 和 {@link Footprint}。
+     */
+    public long estimatedBytes(T instance) {
+        return accessor.estimatedBytes(instance);
+    }
+
+    // --- 批量单比特操作：先校验全部下标并一次 ensureCapacity，连续落在同一 word 的下标合并为一次读写 ---
+
+    /**
+     * 置位 indices 中的每一位，效果与逐个调用 {@link #set(Object, int)} 相同。
+     * 下标已按升序或聚簇排列时，同一 word 内的位只读写一次；不会修改或排序 indices。
+     *
+     * @throws IndexOutOfBoundsException 任一下标 &lt; 0，此时 instance 不被修改
+     */
+    public void setAll(T instance, int[] indices) {
+        int maxWordIndex = checkIndices(indices);
+        if (maxWordIndex < 0) {
+            return;
+        }
+        accessor.ensureCapacity(instance, maxWordIndex + 1);
+        long[] segment = accessor.getWordSegment(instance);
+        int n = indices.length;
+        int i = 0;
+        while (i < n) {
+            int wordIndex = wordIndex(indices[i]);
+            long mask = 1L << indices[i++];
+            while (i < n && wordIndex(indices[i]) == wordIndex) {
+                mask |= 1L << indices[i++];
+            }
+            int s = wordIndex - segmentOffset;
+            if (segment != null && s >= 0 && s < segment.length) {
+                segment[s] |= mask;
+            } else {
+                accessor.setWord(instance, wordIndex, accessor.getWord(instance, wordIndex) | mask);
+            }
+        }
+        expandWordsInUse(instance, maxWordIndex + 1);
+    }
+
+    /**
+     * 清除 indices 中的每一位，效果与逐个调用 {@link #clear(Object, int)} 相同，trim 只在最后执行一次。
+     *
+     * @throws IndexOutOfBoundsException 任一下标 &lt; 0，此时 instance 不被修改
+     */
+    public void clearAll(T instance, int[] indices) {
+        checkIndices(indices);
+        int limit = wordLimit(instance);
+        long[] segment = accessor.getWordSegment(instance);
+        int n = indices.length;
+        int i = 0;
+        while (i < n) {
+            int wordIndex = wordIndex(indices[i]);
+            long mask = 1L << indices[i++];
+            while (i < n && wordIndex(indices[i]) == wordIndex) {
+                mask |= 1L << indices[i++];
+            }
+            if (wordIndex >= limit) {
+                continue;
+            }
+            int s = wordIndex - segmentOffset;
+            if (segment != null && s >= 0 && s < segment.length) {
+                segment[s] &= ~mask;
+            } else {
+                accessor.setWord(instance, wordIndex, accessor.getWord(instance, wordIndex) & ~mask);
+            }
+        }
+        if (!tracking) {
+            accessor.trim(instance);
+        } else if (limit > 0 && accessor.getWord(instance, limit - 1) == 0L) {
+            shrinkWordsInUse(instance, limit);
+        }
+    }
+
+    /**
+     * out[i] = get(instance, indices[i])，返回置位的个数。
+     */
+    public int getAll(T instance, int[] indices, boolean[] out) {
+        if (out.length < indices.length) {
+            throw new IllegalArgumentException("out.length " + out.length + " < indices.length " + indices.length);
+        }
+        int limit = accessor.getWordCount(instance);
+        long[] segment = accessor.getWordSegment(instance);
+        int count = 0;
+        for (int i = 0; i < indices.length; i++) {
+            boolean bit = (word(instance, segment, limit, indices[i]) & (1L << indices[i])) != 0;
+            out[i] = bit;
+            count += bit ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * 按位打包的结果：out 中第 i 位（out[i &gt;&gt; 6] 的第 i &amp; 63 位）= get(instance, indices[i])，返回置位的个数。
+     * out 中多余的位被清 0。
+     */
+    public int getAll(T instance, int[] indices, long[] out) {
+        if ((long) out.length << ADDRESS_BITS_PER_WORD < indices.length) {
+            throw new IllegalArgumentException("out has " + out.length + " words, need "
+                    + ((indices.length + 63) >>> ADDRESS_BITS_PER_WORD));
+        }
+        int limit = accessor.getWordCount(instance);
+        long[] segment = accessor.getWordSegment(instance);
+        int count = 0;
+        int n = indices.length;
+        for (int base = 0, o = 0; base < n; base += 64, o++) {
+            long packed = 0L;
+            int end = Math.min(n, base + 64);
+            for (int i = base; i < end; i++) {
+                long bit = (word(instance, segment, limit, indices[i]) >>> indices[i]) & 1L;
+                packed |= bit << i;
+            }
+            out[o] = packed;
+            count += Long.bitCount(packed);
+        }
+        Arrays.fill(out, (n + 63) >>> ADDRESS_BITS_PER_WORD, out.length, 0L);
+        return count;
+    }
+
+    /**
+     * 校验全部下标并返回最大的 wordIndex，indices 为空时返回 -1。
+     */
+    private int checkIndices(int[] indices) {
+        int max = -1;
+        for (int bitIndex : indices) {
+            checkBitIndex(bitIndex);
+            max = Math.max(max, bitIndex);
+        }
+        return max < 0 ? -1 : wordIndex(max);
+    }
+
+    /**
+     * getAll 使用：segment 命中时直接读数组，否则经过 accessor。
+     */
+    private long word(T instance, long[] segment, int limit, int bitIndex) {
+        checkBitIndex(bitIndex);
+        int wordIndex = wordIndex(bitIndex);
+        int s = wordIndex - segmentOffset;
+        if (segment != null && s >= 0 && s < segment.length) {
+            return segment[s];
+        }
+        return wordIndex < limit ? accessor.getWord(instance, wordIndex) : 0L;
+    }
+
+    // --- 反向查找（与 BitSet.previousSetBit/previousClearBit 语义一致） ---
+
+    public int previousSetBit(T instance, int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1) {
+                return -1;
+            }
+            throw new IndexOutOfBoundsException("fromIndex < -1: " + fromIndex);
+        }
+        int wordIndex = wordIndex(fromIndex);
+        int count = wordLimit(instance);
+        if (wordIndex >= count) {
+            return length(instance) - 1;
+        }
+        long word = accessor.getWord(instance, wordIndex) & (WORD_MASK >>> -(fromIndex + 1));
+        if (word == 0L) {
+            wordIndex = previousWordNotEqual(instance, wordIndex - 1, 0L);
+            if (wordIndex < 0) {
+                return -1;
+            }
+            word = accessor.getWord(instance, wordIndex);
+        }
+        return (wordIndex << ADDRESS_BITS_PER_WORD) + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    public int previousClearBit(T instance, int fromIndex) {
+        if (fromIndex < 0) {
+            if (fromIndex == -1) {
+                return -1;
+            }
+            throw new IndexOutOfBoundsException("fromIndex < -1: " + fromIndex);
+        }
+        int wordIndex = wordIndex(fromIndex);
+        if (wordIndex >= wordLimit(instance)) {
+            return fromIndex;
+        }
+        long word = ~accessor.getWord(instance, wordIndex) & (WORD_MASK >>> -(fromIndex + 1));
+        if (word == 0L) {
+            wordIndex = previousWordNotEqual(instance, wordIndex - 1, WORD_MASK);
+            if (wordIndex < 0) {
+                return -1;
+            }
+            word = ~accessor.getWord(instance, wordIndex);
+        }
+        return (wordIndex << ADDRESS_BITS_PER_WORD) + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    // --- 置位遍历：每个 word 只读取一次，用 numberOfTrailingZeros + word &= word - 1 逐位取出 ---
+
+    /**
+     * 按升序对每个置位调用 action，不分配任何对象。遍历期间不能修改 instance。
+     */
+    public void forEachSetBit(T instance, IntConsumer action) {
+        int count = wordLimit(instance);
+        long[] segment = accessor.getWordSegment(instance);
+        int inlineEnd = segment == null ? count : Math.min(segmentOffset, count);
+        for (int i = 0; i < inlineEnd; i++) {
+            forEachBit(i, accessor.getWord(instance, i), action);
+        }
+        if (segment != null) {
+            int end = Math.min(segment.length, count - segmentOffset);
+            for (int i = 0; i < end; i++) {
+                forEachBit(i + segmentOffset, segment[i], action);
+            }
+        }
+    }
+
+    private static void forEachBit(int wordIndex, long word, IntConsumer action) {
+        int base = wordIndex << ADDRESS_BITS_PER_WORD;
+        while (word != 0L) {
+            action.accept(base + Long.numberOfTrailingZeros(word));
+            word &= word - 1;
+        }
+    }
+
+    /**
+     * 创建置位游标，可通过 {@link SetBitCursor#reset} 在多个实例之间复用。
+     */
+    public SetBitCursor cursor(T instance) {
+        return new SetBitCursor().reset(instance);
+    }
+
+    /**
+     * 按升序返回所有置位下标，对应 BitSet.stream()。流消费期间不能修改 instance。
+     */
+    public IntStream stream(T instance) {
+        return StreamSupport.intStream(Spliterators.spliteratorUnknownSize(cursor(instance),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * 可复用的置位游标：每个 word 只调用一次 accessor.getWord。
+     */
+    public final class SetBitCursor implements PrimitiveIterator.OfInt {
+        private T instance;
+        private int wordIndex;
+        private int count;
+        private long word;
+
+        private SetBitCursor() {
+        }
+
+        /**
+         * 重新指向 instance 的第一个置位，返回自身以便链式调用。
+         */
+        public SetBitCursor reset(T instance) {
+            this.instance = instance;
+            this.count = wordLimit(instance);
+            this.wordIndex = 0;
+            this.word = count > 0 ? accessor.getWord(instance, 0) : 0L;
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (word == 0L) {
+                if (++wordIndex >= count) {
+                    wordIndex = count;
+                    return false;
+                }
+                word = accessor.getWord(instance, wordIndex);
+            }
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int bitIndex = (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+            return bitIndex;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (hasNext()) {
+                forEachBit(wordIndex, word, action);
+                word = 0L;
+            }
+        }
+    }
+
+    // --- 两个实例之间的位运算 API（与 BitSet.and/or/xor/andNot 语义一致） ---
+
+    /**
+     * instance &amp;= other，逐 word 通过两个 WordAccessor 直接计算，不分配中间数组。
+     * other 可以是不同宿主类型的位字段。
+     */
+    public <U> void and(T instance, CompactBitsHandle<U> other, U otherInstance) {
+        int count = wordsInUse(instance);
+        int common = Math.min(count, other.wordsInUse(otherInstance));
+        WordAccessor<U> otherAccessor = other.accessor;
+        for (int i = 0; i < common; i++) {
+            long word = accessor.getWord(instance, i);
+            long result = word & otherAccessor.getWord(otherInstance, i);
+            if (result != word) {
+                accessor.setWord(instance, i, result);
+            }
+        }
+        if (common < count) {
+            accessor.fillWords(instance, common, count, 0L);
+        }
+        shrinkWordsInUse(instance, common);
+    }
+
+    /**
+     * instance |= other，仅在 other 的有效 word 范围内扩容。
+     */
+    public <U> void or(T instance, CompactBitsHandle<U> other, U otherInstance) {
+        int otherCount = other.wordsInUse(otherInstance);
+        if (otherCount == 0) {
+            return;
+        }
+        accessor.ensureCapacity(instance, otherCount);
+        WordAccessor<U> otherAccessor = other.accessor;
+        for (int i = 0; i < otherCount; i++) {
+            long otherWord = otherAccessor.getWord(otherInstance, i);
+            if (otherWord != 0L) {
+                accessor.setWord(instance, i, accessor.getWord(instance, i) | otherWord);
+            }
+        }
+        expandWordsInUse(instance, otherCount);
+    }
+
+    /**
+     * instance ^= other，结果尾部可能出现 0 word，因此最后调用 trim。
+     */
+    public <U> void xor(T instance, CompactBitsHandle<U> other, U otherInstance) {
+        int otherCount = other.wordsInUse(otherInstance);
+        if (otherCount == 0) {
+            return;
+        }
+        accessor.ensureCapacity(instance, otherCount);
+        WordAccessor<U> otherAccessor = other.accessor;
+        for (int i = 0; i < otherCount; i++) {
+            long otherWord = otherAccessor.getWord(otherInstance, i);
+            if (otherWord != 0L) {
+                accessor.setWord(instance, i, accessor.getWord(instance, i) ^ otherWord);
+            }
+        }
+        shrinkWordsInUse(instance, Math.max(wordLimit(instance), otherCount));
+    }
+
+    /**
+     * instance &amp;= ~other，即清除 other 中所有置位的位。
+     */
+    public <U> void andNot(T instance, CompactBitsHandle<U> other, U otherInstance) {
+        int count = wordsInUse(instance);
+        int common = Math.min(count, other.wordsInUse(otherInstance));
+        WordAccessor<U> otherAccessor = other.accessor;
+        for (int i = 0; i < common; i++) {
+            long otherWord = otherAccessor.getWord(otherInstance, i);
+            if (otherWord != 0L) {
+                accessor.setWord(instance, i, accessor.getWord(instance, i) & ~otherWord);
+            }
+        }
+        shrinkWordsInUse(instance, count);
+    }
+
+    /**
+     * 两个位集合是否存在共同置位的位。
+     */
+    public <U> boolean intersects(T instance, CompactBitsHandle<U> other, U otherInstance) {
+        int common = Math.min(wordLimit(instance), other.wordLimit(otherInstance));
+        WordAccessor<U> otherAccessor = other.accessor;
+        for (int i = 0; i < common; i++) {
+            if ((accessor.getWord(instance, i) & otherAccessor.getWord(otherInstance, i)) != 0L) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 返回 (instance &amp; other) 的置位数量，不修改任何一方。
+     */
+    public <U> int intersectionCardinality(T instance, CompactBitsHandle<U> other, U otherInstance) {
+        int common = Math.min(wordLimit(instance), other.wordLimit(otherInstance));
+        WordAccessor<U> otherAccessor = other.accessor;
+        int sum = 0;
+        for (int i = 0; i < common; i++) {
+            sum += Long.bitCount(accessor.getWord(instance, i) & otherAccessor.getWord(otherInstance, i));
+        }
+        return sum;
+    }
+
+    // --- 大位集合的并行版本：仅对宿主暴露的连续 word 段并行，低于阈值或没有连续段时退化为顺序版本 ---
+
+    public int parallelCardinality(T instance) {
+        int count = wordLimit(instance);
+        long[] segment = accessor.getWordSegment(instance);
+        if (segment == null || count - segmentOffset < parallelThreshold) {
+            return cardinality(instance);
+        }
+        int sum = 0;
+        for (int i = 0; i < segmentOffset; i++) {
+            sum += Long.bitCount(accessor.getWord(instance, i));
+        }
+        return sum + ParallelWordTasks.cardinality(segment, 0, Math.min(segment.length, count - segmentOffset));
+    }
+
+    public <U> void parallelAnd(T instance, CompactBitsHandle<U> other, U otherInstance) {
+        parallelCombine(ParallelWordTasks.AND, instance, other, otherInstance);
+    }
+
+    public <U> void parallelOr(T instance, CompactBitsHandle<U> other, U otherInstance) {
+        parallelCombine(ParallelWordTasks.OR, instance, other, otherInstance);
+    }
+
+    public <U> void parallelXor(T instance, CompactBitsHandle<U> other, U otherInstance) {
+        parallelCombine(ParallelWordTasks.XOR, instance, other, otherInstance);
+    }
+
+    public <U> void parallelAndNot(T instance, CompactBitsHandle<U> other, U otherInstance) {
+        parallelCombine(ParallelWordTasks.AND_NOT, instance, other, otherInstance);
+    }
+
+    public void parallelSet(T instance, int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        int lastWordIndex = wordIndex(toIndex - 1);
+        accessor.ensureCapacity(instance, lastWordIndex + 1);
+        long[] segment = accessor.getWordSegment(instance);
+        int middleFrom = Math.max(wordIndex(fromIndex) + 1, segmentOffset);
+        if (segment == null || lastWordIndex - middleFrom < parallelThreshold) {
+            set(instance, fromIndex, toIndex);
+            return;
+        }
+        // 中间整 word 并行填充，首尾不完整的 word 及 inline 部分按顺序处理
+        ParallelWordTasks.fill(segment, middleFrom - segmentOffset, lastWordIndex - segmentOffset, WORD_MASK);
+        set(instance, fromIndex, middleFrom << ADDRESS_BITS_PER_WORD);
+        set(instance, lastWordIndex << ADDRESS_BITS_PER_WORD, toIndex);
+    }
+
+    public void parallelClear(T instance, int fromIndex, int toIndex) {
+        checkRange(fromIndex, toIndex);
+        int count = wordLimit(instance);
+        toIndex = (int) Math.min(toIndex, (long) count << ADDRESS_BITS_PER_WORD);
+        if (fromIndex >= toIndex) {
+            return;
+        }
+        int lastWordIndex = wordIndex(toIndex - 1);
+        long[] segment = accessor.getWordSegment(instance);
+        int middleFrom = Math.max(wordIndex(fromIndex) + 1, segmentOffset);
+        if (segment == null || lastWordIndex - middleFrom < parallelThreshold) {
+            clear(instance, fromIndex, toIndex);
+            return;
+        }
+        ParallelWordTasks.fill(segment, middleFrom - segmentOffset, lastWordIndex - segmentOffset, 0L);
+        clear(instance, fromIndex, middleFrom << ADDRESS_BITS_PER_WORD);
+        clear(instance, lastWordIndex << ADDRESS_BITS_PER_WORD, toIndex);
+    }
+
+    private <U> void parallelCombine(int op, T instance, CompactBitsHandle<U> other, U otherInstance) {
+        int count = wordsInUse(instance);
+        int otherCount = other.wordsInUse(otherInstance);
+        int end;
+        if (op == ParallelWordTasks.AND) {
+            end = count;
+        } else if (op == ParallelWordTasks.AND_NOT) {
+            end = Math.min(count, otherCount);
+        } else {
+            end = otherCount;
+            accessor.ensureCapacity(instance, end);
+        }
+        long[] segment = accessor.getWordSegment(instance);
+        long[] otherSegment = other.accessor.getWordSegment(otherInstance);
+        int parallelFrom = Math.max(segmentOffset, other.segmentOffset);
+        int parallelTo = segment == null ? 0 : Math.min(end, segmentOffset + segment.length);
+        if (otherSegment == null || parallelTo - parallelFrom < parallelThreshold) {
+            switch (op) {
+                case ParallelWordTasks.AND: and(instance, other, otherInstance); break;
+                case ParallelWordTasks.OR: or(instance, other, otherInstance); break;
+                case ParallelWordTasks.XOR: xor(instance, other, otherInstance); break;
+                default: andNot(instance, other, otherInstance); break;
+            }
+            return;
+        }
+        combineRange(op, instance, other, otherInstance, 0, parallelFrom);
+        ParallelWordTasks.combine(op, segment, segmentOffset, otherSegment, other.segmentOffset, parallelFrom, parallelTo);
+        combineRange(op, instance, other, otherInstance, parallelTo, end);
+        if (op == ParallelWordTasks.OR) {
+            expandWordsInUse(instance, end);
+        } else {
+            shrinkWordsInUse(instance, Math.max(count, end));
+        }
+    }
+
+    /**
+     * 逐 word 处理并行区间之外的部分（inline word 或超出连续段的 word）。
+     */
+    private <U> void combineRange(int op, T instance, CompactBitsHandle<U> other, U otherInstance, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long word = accessor.getWord(instance, i);
+            long otherWord = other.accessor.getWord(otherInstance, i);
+            switch (op) {
+                case ParallelWordTasks.AND: word &= otherWord; break;
+                case ParallelWordTasks.OR: word |= otherWord; break;
+                case ParallelWordTasks.XOR: word ^= otherWord; break;
+                default: word &= ~otherWord; break;
+            }
+            accessor.setWord(instance, i, word);
+        }
+    }
+
+    // --- 序列化：varint(字节数) + 与 BitSet.toByteArray 相同的小端字节，尾部 0 字节省略，逐 word 写出不分配中间数组 ---
+
+    /**
+     * 序列化后的字节数（含长度前缀），可用于预先分配 ByteBuffer。
+     */
+    public int serializedSize(T instance) {
+        int byteLength = byteLength(instance);
+        return varIntSize(byteLength) + byteLength;
+    }
+
+    /**
+     * 写出位集合：无符号 varint 表示的字节数，后跟 {@code BitSet.toByteArray()} 格式的小端字节。
+     */
+    public void writeTo(T instance, DataOutput out) throws IOException {
+        int n = wordsInUse(instance);
+        int byteLength = byteLength(instance, n);
+        writeVarInt(out, byteLength);
+        for (int i = 0; i < n - 1; i++) {
+            out.writeLong(Long.reverseBytes(accessor.getWord(instance, i)));
+        }
+        if (n > 0) {
+            long word = accessor.getWord(instance, n - 1);
+            for (int b = (n - 1) << 3; b < byteLength; b++) {
+                out.writeByte((int) word);
+                word >>>= 8;
+            }
+        }
+    }
+
+    /**
+     * 与 {@link #writeTo(Object, DataOutput)} 格式相同，从 buffer 的当前 position 写入，不改变 buffer 的字节序。
+     *
+     * @throws java.nio.BufferOverflowException 剩余空间小于 {@link #serializedSize}
+     */
+    public void writeTo(T instance, ByteBuffer buffer) {
+        int n = wordsInUse(instance);
+        int byteLength = byteLength(instance, n);
+        if (buffer.remaining() < varIntSize(byteLength) + byteLength) {
+            throw new BufferOverflowException();
+        }
+        int value = byteLength;
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        writeWords(instance, buffer, byteLength);
+        buffer.order(order);
+    }
+
+    /**
+     * 用 {@link #writeTo(Object, DataOutput)} 写出的内容替换 instance 的全部位。
+     *
+     * @throws StreamCorruptedException 长度前缀非法
+     */
+    public void readFrom(T instance, DataInput in) throws IOException {
+        int byteLength = readVarInt(in);
+        if (byteLength < 0 || byteLength > MAX_SERIALIZED_BYTES) {
+            throw new StreamCorruptedException("Invalid byte length: " + byteLength);
+        }
+        int n = (byteLength + 7) >>> 3;
+        int currentCount = beginRead(instance, n);
+        for (int i = 0; i < n - 1; i++) {
+            accessor.setWord(instance, i, Long.reverseBytes(in.readLong()));
+        }
+        if (n > 0) {
+            long word = 0L;
+            for (int b = (n - 1) << 3, shift = 0; b < byteLength; b++, shift += 8) {
+                word |= (in.readByte() & 0xFFL) << shift;
+            }
+            accessor.setWord(instance, n - 1, word);
+        }
+        endRead(instance, n, currentCount);
+    }
+
+    /**
+     * 从 buffer 的当前 position 读取 {@link #writeTo(Object, ByteBuffer)} 写出的内容，替换 instance 的全部位。
+     *
+     * @throws IllegalArgumentException         长度前缀非法
+     * @throws java.nio.BufferUnderflowException 内容不完整
+     */
+    public void readFrom(T instance, ByteBuffer buffer) {
+        int byteLength = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            if (shift == 28 && (b & 0xF0) != 0) {
+                throw new IllegalArgumentException("Malformed varint length");
+            }
+            byteLength |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        if (byteLength < 0 || byteLength > MAX_SERIALIZED_BYTES) {
+            throw new IllegalArgumentException("Invalid byte length: " + byteLength);
+        }
+        if (buffer.remaining() < byteLength) {
+            throw new BufferUnderflowException();
+        }
+        int n = (byteLength + 7) >>> 3;
+        int currentCount = beginRead(instance, n);
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        readWords(instance, buffer, byteLength);
+        buffer.order(order);
+        endRead(instance, n, currentCount);
+    }
+
+    /**
+     * 从小端 buffer 的当前 position 读取 byteLength 字节到 word [0, (byteLength + 7) / 8)，调用前需已 ensureCapacity。
+     * 完整的 word 用一次 getLong 读取，落在连续 word 段内的直接写数组，不足 8 字节的尾部逐字节拼接。
+     */
+    private void readWords(T instance, ByteBuffer le, int byteLength) {
+        int fullWords = byteLength >>> 3;
+        int i = 0;
+        long[] segment = accessor.getWordSegment(instance);
+        if (segment != null) {
+            for (; i < segmentOffset && i < fullWords; i++) {
+                accessor.setWord(instance, i, le.getLong());
+            }
+            int segmentEnd = Math.min(fullWords, segmentOffset + segment.length);
+            for (; i < segmentEnd; i++) {
+                segment[i - segmentOffset] = le.getLong();
+            }
+        }
+        for (; i < fullWords; i++) {
+            accessor.setWord(instance, i, le.getLong());
+        }
+        if ((byteLength & 7) != 0) {
+            long word = 0L;
+            for (int b = fullWords << 3, shift = 0; b < byteLength; b++, shift += 8) {
+                word |= (le.get() & 0xFFL) << shift;
+            }
+            accessor.setWord(instance, fullWords, word);
+        }
+    }
+
+    /**
+     * 把 word [0, (byteLength + 7) / 8) 的低 byteLength 字节写入小端 buffer 的当前 position。
+     */
+    private void writeWords(T instance, ByteBuffer le, int byteLength) {
+        int fullWords = byteLength >>> 3;
+        int i = 0;
+        long[] segment = accessor.getWordSegment(instance);
+        if (segment != null) {
+            for (; i < segmentOffset && i < fullWords; i++) {
+                le.putLong(accessor.getWord(instance, i));
+            }
+            int segmentEnd = Math.min(fullWords, segmentOffset + segment.length);
+            for (; i < segmentEnd; i++) {
+                le.putLong(segment[i - segmentOffset]);
+            }
+        }
+        for (; i < fullWords; i++) {
+            le.putLong(accessor.getWord(instance, i));
+        }
+        if ((byteLength & 7) != 0) {
+            long word = accessor.getWord(instance, fullWords);
+            for (int b = fullWords << 3; b < byteLength; b++) {
+                le.put((byte) word);
+                word >>>= 8;
+            }
+        }
+    }
+
+    private int byteLength(T instance) {
+        return byteLength(instance, wordsInUse(instance));
+    }
+
+    private int byteLength(T instance, int wordsInUse) {
+        if (wordsInUse == 0) {
+            return 0;
+        }
+        long last = accessor.getWord(instance, wordsInUse - 1);
+        return ((wordsInUse - 1) << 3) + ((64 - Long.numberOfLeadingZeros(last) + 7) >>> 3);
+    }
+
+    private int beginRead(T instance, int wordCount) {
+        int currentCount = wordLimit(instance);
+        accessor.ensureCapacity(instance, wordCount);
+        return currentCount;
+    }
+
+    /**
+     * 清空 [wordCount, currentCount) 中残留的旧 word；输入可能带有多余的尾部 0 字节，因此重新计算 wordsInUse。
+     */
+    private void endRead(T instance, int wordCount, int currentCount) {
+        if (wordCount < currentCount) {
+            accessor.fillWords(instance, wordCount, currentCount, 0L);
+        }
+        if (tracking) {
+            accessor.setWordsInUse(instance, scanWordsInUse(instance, wordCount));
+        }
+        accessor.trim(instance);
+    }
+
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            if (shift == 28 && (b & 0xF0) != 0) {
+                throw new StreamCorruptedException("Malformed varint length");
+            }
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    // --- 扫描辅助：宿主提供连续 word 段时直接遍历数组，否则逐 word 调用 accessor ---
+
+    /**
+     * 从 fromWordIndex 开始查找第一个不等于 skip 的 word，找不到返回 count。
+     */
+    private int nextWordNotEqual(T instance, int fromWordIndex, int count, long skip) {
+        int i = fromWordIndex;
+        long[] segment = accessor.getWordSegment(instance);
+        int inlineEnd = segment == null ? count : Math.min(segmentOffset, count);
+        for (; i < inlineEnd; i++) {
+            if (accessor.getWord(instance, i) != skip) {
+                return i;
+            }
+        }
+        if (segment != null) {
+            int end = Math.min(segment.length, count - segmentOffset);
+            int j = i - segmentOffset;
+            if (j < end) {
+                j = WordKernels.ACTIVE.indexOfNot(segment, j, end, skip);
+                if (j < end) {
+                    return j + segmentOffset;
+                }
+            }
+        }
+        return count;
+    }
+
+    // --- wordsInUse 维护 ---
+
+    /**
+     * 可能非 0 的 word 上界：跟踪 wordsInUse 时为 wordsInUse，否则为 word 总数。
+     */
+    private int wordLimit(T instance) {
+        return tracking ? accessor.getWordsInUse(instance) : accessor.getWordCount(instance);
+    }
+
+    /**
+     * 最高非 0 word 的下标 + 1（对应 BitSet.wordsInUse）。
+     */
+    private int wordsInUse(T instance) {
+        return tracking ? accessor.getWordsInUse(instance) : scanWordsInUse(instance, accessor.getWordCount(instance));
+    }
+
+    /**
+     * 置位后调用：wordsInUse 至少为 minWordsInUse。
+     */
+    private void expandWordsInUse(T instance, int minWordsInUse) {
+        if (tracking && accessor.getWordsInUse(instance) < minWordsInUse) {
+            accessor.setWordsInUse(instance, minWordsInUse);
+        }
+    }
+
+    /**
+     * 清位后调用：[upperBound, ...) 已知全为 0，从 upperBound 向下重新计算 wordsInUse，然后 trim。
+     */
+    private void shrinkWordsInUse(T instance, int upperBound) {
+        if (tracking) {
+            accessor.setWordsInUse(instance, scanWordsInUse(instance, upperBound));
+        }
+        accessor.trim(instance);
+    }
+
+    /**
+     * 从 upperBound - 1 向下查找最高非 0 word，返回其下标 + 1。
+     */
+    private int scanWordsInUse(T instance, int upperBound) {
+        return previousWordNotEqual(instance, upperBound - 1, 0L) + 1;
+    }
+
+    /**
+     * 从 fromWordIndex 向下查找第一个不等于 skip 的 word，找不到返回 -1。
+     */
+    private int previousWordNotEqual(T instance, int fromWordIndex, long skip) {
+        int i = fromWordIndex;
+        long[] segment = accessor.getWordSegment(instance);
+        if (segment != null) {
+            int j = Math.min(i - segmentOffset, segment.length - 1);
+            while (j >= 0 && segment[j] == skip) {
+                j--;
+            }
+            if (j >= 0) {
+                return j + segmentOffset;
+            }
+            i = Math.min(i, segmentOffset - 1);
+        }
+        while (i >= 0 && accessor.getWord(instance, i) == skip) {
+            i--;
+        }
+        return i;
+    }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.lang.invoke.MethodHandles;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Random;
@@ -27,19 +28,105 @@ public class CompactBitsHandleBenchmark {
     public static class BitSetState {
         public BitSet bitSet = new BitSet();
         public TestBean compactBean = new TestBean();
+        public LibraryBean libraryBean = new LibraryBean();
+        public TrackedBean trackedBean = new TrackedBean();
         public Random random = new Random(42); // 固定种子以确保可重复性
         public int[] randomIndices;
+        public int[] clusteredIndices;
+        public boolean[] getAllOut = new boolean[OPERATIONS];
+        public CompactBitsHandle<TestBean>.SetBitCursor cursor;
 
         @Setup(Level.Trial)
         public void setup() {
+            cursor = TestBean.HANDLE.cursor(compactBean);
             randomIndices = new int[OPERATIONS];
             for (int i = 0; i < OPERATIONS; i++) {
                 randomIndices[i] = random.nextInt(MAX_BIT_INDEX);
             }
+            // 聚簇下标：每 16 个落在同一个随机起点附近，模拟按实体批量写入相邻标志位
+            clusteredIndices = new int[OPERATIONS];
+            for (int i = 0; i < OPERATIONS; i += 16) {
+                int base = random.nextInt(MAX_BIT_INDEX - 64);
+                for (int j = 0; j < 16 && i + j < OPERATIONS; j++) {
+                    clusteredIndices[i + j] = base + j * 3;
+                }
+            }
             // 预填充一些数据
             for (int i = 0; i < MAX_BIT_INDEX / 2; i += 2) {
                 bitSet.set(i);
                 compactBean.set(i);
+                LibraryBean.HANDLE.set(libraryBean, i);
+                TrackedBean.HANDLE.set(trackedBean, i);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BulkOpState {
+        public BitSet leftBitSet = new BitSet();
+        public BitSet rightBitSet = new BitSet();
+        public TestBean leftBean = new TestBean();
+        public TestBean rightBean = new TestBean();
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(7);
+            for (int i = 0; i < OPERATIONS * 10; i++) {
+                int left = random.nextInt(MAX_BIT_INDEX);
+                int right = random.nextInt(MAX_BIT_INDEX);
+                leftBitSet.set(left);
+                leftBean.set(left);
+                rightBitSet.set(right);
+                rightBean.set(right);
+            }
+        }
+    }
+
+    /**
+     * 小位集合场景：1000 个实体，每个实体只有 48 个标志位，全部落在 inline word 中。
+     */
+    @State(Scope.Thread)
+    public static class SmallBitsState {
+        private static final int ENTITIES = 1000;
+        private static final int FLAGS = 48;
+
+        public BitSet[] bitSets = new BitSet[ENTITIES];
+        public SmallBean[] beans = new SmallBean[ENTITIES];
+        public int[] entityIndices = new int[OPERATIONS];
+        public int[] flagIndices = new int[OPERATIONS];
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            for (int i = 0; i < ENTITIES; i++) {
+                bitSets[i] = new BitSet(FLAGS);
+                beans[i] = new SmallBean();
+            }
+            for (int i = 0; i < OPERATIONS; i++) {
+                entityIndices[i] = random.nextInt(ENTITIES);
+                flagIndices[i] = random.nextInt(FLAGS);
+            }
+        }
+    }
+
+    /**
+     * accessor 本身的开销：逐 word 读写 inline 字段和溢出数组，对比手写的 TestBean.ACCESSOR 与
+     * InlineHeapWordAccessor（HostFields 生成的 static final VarHandle），两者应在误差范围内相同。
+     */
+    @State(Scope.Thread)
+    public static class AccessorState {
+        private static final int WORDS = 64;
+
+        public TestBean compactBean = new TestBean();
+        public LibraryBean libraryBean = new LibraryBean();
+
+        @Setup(Level.Trial)
+        public void setup() {
+            TestBean.ACCESSOR.ensureCapacity(compactBean, WORDS);
+            LibraryBean.ACCESSOR.ensureCapacity(libraryBean, WORDS);
+            for (int i = 0; i < WORDS; i++) {
+                TestBean.ACCESSOR.setWord(compactBean, i, i * 0x9E3779B97F4A7C15L);
+                LibraryBean.ACCESSOR.setWord(libraryBean, i, i * 0x9E3779B97F4A7C15L);
             }
         }
     }
@@ -62,6 +149,14 @@ public class CompactBitsHandleBenchmark {
         blackhole.consume(state.compactBean);
     }
 
+    @Benchmark
+    public void benchmarkLibrary_Set(BitSetState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            LibraryBean.HANDLE.set(state.libraryBean, index);
+        }
+        blackhole.consume(state.libraryBean);
+    }
+
     // --- 单比特 get ---
 
     @Benchmark
@@ -78,6 +173,13 @@ public class CompactBitsHandleBenchmark {
         }
     }
 
+    @Benchmark
+    public void benchmarkLibrary_Get(BitSetState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            blackhole.consume(LibraryBean.HANDLE.get(state.libraryBean, index));
+        }
+    }
+
     // --- 单比特 clear ---
 
     @Benchmark
@@ -96,6 +198,104 @@ public class CompactBitsHandleBenchmark {
         blackhole.consume(state.compactBean);
     }
 
+    @Benchmark
+    public void benchmarkTracked_Clear(BitSetState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            TrackedBean.HANDLE.clear(state.trackedBean, index);
+        }
+        blackhole.consume(state.trackedBean);
+    }
+
+    // --- 批量 setAll/getAll（同一批 10000 个下标） ---
+
+    @Benchmark
+    public void benchmarkLibrary_SetAll(BitSetState state, Blackhole blackhole) {
+        LibraryBean.HANDLE.setAll(state.libraryBean, state.randomIndices);
+        blackhole.consume(state.libraryBean);
+    }
+
+    @Benchmark
+    public void benchmarkLibrary_GetAll(BitSetState state, Blackhole blackhole) {
+        blackhole.consume(LibraryBean.HANDLE.getAll(state.libraryBean, state.randomIndices, state.getAllOut));
+    }
+
+    @Benchmark
+    public void benchmarkBitSet_SetClustered(BitSetState state, Blackhole blackhole) {
+        for (int index : state.clusteredIndices) {
+            state.bitSet.set(index);
+        }
+        blackhole.consume(state.bitSet);
+    }
+
+    @Benchmark
+    public void benchmarkLibrary_SetClustered(BitSetState state, Blackhole blackhole) {
+        for (int index : state.clusteredIndices) {
+            LibraryBean.HANDLE.set(state.libraryBean, index);
+        }
+        blackhole.consume(state.libraryBean);
+    }
+
+    @Benchmark
+    public void benchmarkLibrary_SetAllClustered(BitSetState state, Blackhole blackhole) {
+        LibraryBean.HANDLE.setAll(state.libraryBean, state.clusteredIndices);
+        blackhole.consume(state.libraryBean);
+    }
+
+    // --- accessor 逐 word 读写：手写 vs 生成 ---
+
+    @Benchmark
+    public long benchmarkCompact_AccessorWords(AccessorState state) {
+        TestBean bean = state.compactBean;
+        long sum = 0;
+        for (int i = 0; i < AccessorState.WORDS; i++) {
+            long word = TestBean.ACCESSOR.getWord(bean, i);
+            TestBean.ACCESSOR.setWord(bean, i, word ^ 1L);
+            sum += word;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long benchmarkLibrary_AccessorWords(AccessorState state) {
+        LibraryBean bean = state.libraryBean;
+        long sum = 0;
+        for (int i = 0; i < AccessorState.WORDS; i++) {
+            long word = LibraryBean.ACCESSOR.getWord(bean, i);
+            LibraryBean.ACCESSOR.setWord(bean, i, word ^ 1L);
+            sum += word;
+        }
+        return sum;
+    }
+
+    // --- 小位集合：每次 set 后 get 另一个标志位 ---
+
+    @Benchmark
+    public void benchmarkBitSet_SmallSetGet(SmallBitsState state, Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            BitSet bitSet = state.bitSets[state.entityIndices[i]];
+            bitSet.set(state.flagIndices[i]);
+            blackhole.consume(bitSet.get(state.flagIndices[OPERATIONS - 1 - i]));
+        }
+    }
+
+    @Benchmark
+    public void benchmarkLibrary_SmallSetGet(SmallBitsState state, Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            SmallBean bean = state.beans[state.entityIndices[i]];
+            SmallBean.HANDLE.set(bean, state.flagIndices[i]);
+            blackhole.consume(SmallBean.HANDLE.get(bean, state.flagIndices[OPERATIONS - 1 - i]));
+        }
+    }
+
+    @Benchmark
+    public void benchmarkFixed_SmallSetGet(SmallBitsState state, Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            SmallBean bean = state.beans[state.entityIndices[i]];
+            SmallBean.FIXED.set(bean, state.flagIndices[i]);
+            blackhole.consume(SmallBean.FIXED.get(bean, state.flagIndices[OPERATIONS - 1 - i]));
+        }
+    }
+
     // --- 范围 set ---
 
     @Benchmark
@@ -160,6 +360,60 @@ public class CompactBitsHandleBenchmark {
         }
     }
 
+    // --- 遍历全部置位 ---
+
+    @Benchmark
+    public void benchmarkBitSet_Stream(BitSetState state, Blackhole blackhole) {
+        blackhole.consume(state.bitSet.stream().sum());
+    }
+
+    @Benchmark
+    public void benchmarkCompact_Stream(BitSetState state, Blackhole blackhole) {
+        blackhole.consume(TestBean.HANDLE.stream(state.compactBean).sum());
+    }
+
+    @Benchmark
+    public void benchmarkBitSet_IterateNextSetBit(BitSetState state, Blackhole blackhole) {
+        long sum = 0;
+        for (int i = state.bitSet.nextSetBit(0); i >= 0; i = state.bitSet.nextSetBit(i + 1)) {
+            sum += i;
+        }
+        blackhole.consume(sum);
+    }
+
+    @Benchmark
+    public void benchmarkCompact_ForEachSetBit(BitSetState state, Blackhole blackhole) {
+        long[] sum = new long[1];
+        TestBean.HANDLE.forEachSetBit(state.compactBean, bit -> sum[0] += bit);
+        blackhole.consume(sum[0]);
+    }
+
+    @Benchmark
+    public void benchmarkCompact_Cursor(BitSetState state, Blackhole blackhole) {
+        long sum = 0;
+        CompactBitsHandle<TestBean>.SetBitCursor cursor = state.cursor.reset(state.compactBean);
+        while (cursor.hasNext()) {
+            sum += cursor.nextInt();
+        }
+        blackhole.consume(sum);
+    }
+
+    // --- previousSetBit ---
+
+    @Benchmark
+    public void benchmarkBitSet_PreviousSetBit(BitSetState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            blackhole.consume(state.bitSet.previousSetBit(index));
+        }
+    }
+
+    @Benchmark
+    public void benchmarkCompact_PreviousSetBit(BitSetState state, Blackhole blackhole) {
+        for (int index : state.randomIndices) {
+            blackhole.consume(TestBean.HANDLE.previousSetBit(state.compactBean, index));
+        }
+    }
+
     // --- nextClearBit ---
 
     @Benchmark
@@ -192,6 +446,11 @@ public class CompactBitsHandleBenchmark {
         blackhole.consume(state.compactBean.cardinality());
     }
 
+    @Benchmark
+    public void benchmarkLibrary_Cardinality(BitSetState state, Blackhole blackhole) {
+        blackhole.consume(LibraryBean.HANDLE.cardinality(state.libraryBean));
+    }
+
     // --- length ---
 
     @Benchmark
@@ -204,6 +463,11 @@ public class CompactBitsHandleBenchmark {
         blackhole.consume(state.compactBean.length());
     }
 
+    @Benchmark
+    public void benchmarkTracked_Length(BitSetState state, Blackhole blackhole) {
+        blackhole.consume(TrackedBean.HANDLE.length(state.trackedBean));
+    }
+
     // --- isEmpty ---
 
     @Benchmark
@@ -216,6 +480,11 @@ public class CompactBitsHandleBenchmark {
         blackhole.consume(state.compactBean.isEmpty());
     }
 
+    @Benchmark
+    public void benchmarkTracked_IsEmpty(BitSetState state, Blackhole blackhole) {
+        blackhole.consume(TrackedBean.HANDLE.isEmpty(state.trackedBean));
+    }
+
     // --- size ---
 
     @Benchmark
@@ -228,6 +497,11 @@ public class CompactBitsHandleBenchmark {
         blackhole.consume(state.compactBean.size());
     }
 
+    @Benchmark
+    public void benchmarkTracked_Size(BitSetState state, Blackhole blackhole) {
+        blackhole.consume(TrackedBean.HANDLE.size(state.trackedBean));
+    }
+
     // --- toLongArray ---
 
     @Benchmark
@@ -276,6 +550,67 @@ public class CompactBitsHandleBenchmark {
         blackhole.consume(state.compactBean);
     }
 
+    // --- 两个位集合之间的位运算（and/or/xor 反复执行后结果稳定或交替，无需每次重置） ---
+
+    @Benchmark
+    public void benchmarkBitSet_And(BulkOpState state, Blackhole blackhole) {
+        state.leftBitSet.and(state.rightBitSet);
+        blackhole.consume(state.leftBitSet);
+    }
+
+    @Benchmark
+    public void benchmarkCompact_And(BulkOpState state, Blackhole blackhole) {
+        state.leftBean.and(state.rightBean);
+        blackhole.consume(state.leftBean);
+    }
+
+    @Benchmark
+    public void benchmarkBitSet_Or(BulkOpState state, Blackhole blackhole) {
+        state.leftBitSet.or(state.rightBitSet);
+        blackhole.consume(state.leftBitSet);
+    }
+
+    @Benchmark
+    public void benchmarkCompact_Or(BulkOpState state, Blackhole blackhole) {
+        state.leftBean.or(state.rightBean);
+        blackhole.consume(state.leftBean);
+    }
+
+    @Benchmark
+    public void benchmarkBitSet_Xor(BulkOpState state, Blackhole blackhole) {
+        state.leftBitSet.xor(state.rightBitSet);
+        blackhole.consume(state.leftBitSet);
+    }
+
+    @Benchmark
+    public void benchmarkCompact_Xor(BulkOpState state, Blackhole blackhole) {
+        state.leftBean.xor(state.rightBean);
+        blackhole.consume(state.leftBean);
+    }
+
+    @Benchmark
+    public void benchmarkBitSet_Intersects(BulkOpState state, Blackhole blackhole) {
+        blackhole.consume(state.leftBitSet.intersects(state.rightBitSet));
+    }
+
+    @Benchmark
+    public void benchmarkCompact_Intersects(BulkOpState state, Blackhole blackhole) {
+        blackhole.consume(state.leftBean.intersects(state.rightBean));
+    }
+
+    // BitSet 没有 intersectionCardinality，只能 clone + and + cardinality
+    @Benchmark
+    public void benchmarkBitSet_IntersectionCardinality(BulkOpState state, Blackhole blackhole) {
+        BitSet copy = (BitSet) state.leftBitSet.clone();
+        copy.and(state.rightBitSet);
+        blackhole.consume(copy.cardinality());
+    }
+
+    @Benchmark
+    public void benchmarkCompact_IntersectionCardinality(BulkOpState state, Blackhole blackhole) {
+        blackhole.consume(state.leftBean.intersectionCardinality(state.rightBean));
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(CompactBitsHandleBenchmark.class.getSimpleName())
@@ -283,6 +618,41 @@ public class CompactBitsHandleBenchmark {
         new Runner(opt).run();
     }
 
+    // 使用 InlineHeapWordAccessor 的宿主，与手写 accessor 的 TestBean 布局相同
+    public static class LibraryBean {
+        private long inlineBits;
+        private long[] heapArray;
+
+        public static final InlineHeapWordAccessor<LibraryBean> ACCESSOR =
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), LibraryBean.class, "heapArray", "inlineBits");
+        public static final CompactBitsHandle<LibraryBean> HANDLE = new CompactBitsHandle<>(ACCESSOR);
+    }
+
+    // 额外用 int 字段跟踪 wordsInUse 的宿主（对应 BitSet.wordsInUse），length/isEmpty 为 O(1)
+    /**
+     * 同一个 long 字段上的两种句柄：通用的 InlineHeapWordAccessor 和只有 64 位的 FixedBitsHandle。
+     */
+    public static class SmallBean {
+        private long flags;
+        private long[] moreFlags;
+
+        public static final CompactBitsHandle<SmallBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), SmallBean.class, "moreFlags", "flags"));
+
+        public static final FixedBitsHandle<SmallBean> FIXED =
+                FixedBitsHandle.of64(bean -> bean.flags, (bean, value) -> bean.flags = value);
+    }
+
+    public static class TrackedBean {
+        private long inlineBits;
+        private long[] heapArray;
+        private int wordsInUse;
+
+        public static final CompactBitsHandle<TrackedBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), TrackedBean.class, "heapArray", "inlineBits")
+                        .withWordsInUseField(MethodHandles.lookup(), "wordsInUse"));
+    }
+
     // TestBean 类（从之前的代码复制，确保 HANDLE 和方法存在）
     public static class TestBean {
         private long inlineBits;
@@ -342,6 +712,16 @@ public class CompactBitsHandleBenchmark {
                     instance.heapArray = Arrays.copyOf(heap, n);
                 }
             }
+
+            @Override
+            public long[] getWordSegment(TestBean instance) {
+                return instance.heapArray;
+            }
+
+            @Override
+            public int getSegmentOffset() {
+                return 1; // heap[0] 对应 word 1
+            }
         };
 
         public static final CompactBitsHandle<TestBean> HANDLE = new CompactBitsHandle<>(ACCESSOR);
@@ -410,5 +790,29 @@ public class CompactBitsHandleBenchmark {
         public void clear() {
             HANDLE.clear(this);
         }
+
+        public void and(TestBean other) {
+            HANDLE.and(this, HANDLE, other);
+        }
+
+        public void or(TestBean other) {
+            HANDLE.or(this, HANDLE, other);
+        }
+
+        public void xor(TestBean other) {
+            HANDLE.xor(this, HANDLE, other);
+        }
+
+        public void andNot(TestBean other) {
+            HANDLE.andNot(this, HANDLE, other);
+        }
+
+        public boolean intersects(TestBean other) {
+            return HANDLE.intersects(this, HANDLE, other);
+        }
+
+        public int intersectionCardinality(TestBean other) {
+            return HANDLE.intersectionCardinality(this, HANDLE, other);
+        }
     }
 }
\ No newline at end of file
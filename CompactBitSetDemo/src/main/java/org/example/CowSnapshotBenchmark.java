@@ -0,0 +1,148 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 克隆密集场景（版本历史/撤销栈）：每个版本克隆上一版本后只修改少量位。
+ * 对比 BitSet.clone()、InlineHeapWordAccessor 上逐 word 复制的 snapshot 与 CowWordAccessor 共享块的 snapshot。
+ * 每次调用生成 VERSIONS 个版本并全部保留，分配速率（-prof gc）反映各方案的内存占用。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CowSnapshotBenchmark {
+
+    private static final int MAX_BIT_INDEX = 1_000_000; // 与 CompactBitsHandleBenchmark 相同
+    private static final int VERSIONS = 100;
+
+    @Param({"1", "16"})
+    public int bitsPerVersion;
+
+    private BitSet bitSet;
+    private HeapBean heapBean;
+    private CowBean cowBean;
+    private int[] randomIndices;
+
+    private final BitSet[] bitSetVersions = new BitSet[VERSIONS];
+    private final HeapBean[] heapVersions = new HeapBean[VERSIONS];
+    private final CowBean[] cowVersions = new CowBean[VERSIONS];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bitSet = new BitSet();
+        heapBean = new HeapBean();
+        cowBean = new CowBean();
+        Random random = new Random(42);
+        for (int i = 0; i < MAX_BIT_INDEX / 10; i++) {
+            int bit = random.nextInt(MAX_BIT_INDEX);
+            bitSet.set(bit);
+            HeapBean.HANDLE.set(heapBean, bit);
+            CowBean.HANDLE.set(cowBean, bit);
+        }
+        bitSet.set(MAX_BIT_INDEX - 1);
+        HeapBean.HANDLE.set(heapBean, MAX_BIT_INDEX - 1);
+        CowBean.HANDLE.set(cowBean, MAX_BIT_INDEX - 1);
+        randomIndices = new int[VERSIONS * bitsPerVersion];
+        for (int i = 0; i < randomIndices.length; i++) {
+            randomIndices[i] = random.nextInt(MAX_BIT_INDEX - 1);
+        }
+    }
+
+    // --- 克隆 + 修改 ---
+
+    @Benchmark
+    public void benchmarkBitSet_CloneAndModify(Blackhole blackhole) {
+        BitSet current = bitSet;
+        int k = 0;
+        for (int v = 0; v < VERSIONS; v++) {
+            current = (BitSet) current.clone();
+            for (int i = 0; i < bitsPerVersion; i++) {
+                current.flip(randomIndices[k++]);
+            }
+            bitSetVersions[v] = current;
+        }
+        blackhole.consume(bitSetVersions);
+    }
+
+    @Benchmark
+    public void benchmarkHeap_SnapshotAndModify(Blackhole blackhole) {
+        HeapBean current = heapBean;
+        int k = 0;
+        for (int v = 0; v < VERSIONS; v++) {
+            HeapBean next = new HeapBean();
+            HeapBean.HANDLE.snapshot(current, next);
+            for (int i = 0; i < bitsPerVersion; i++) {
+                int bit = randomIndices[k++];
+                HeapBean.HANDLE.set(next, bit, !HeapBean.HANDLE.get(next, bit));
+            }
+            heapVersions[v] = current = next;
+        }
+        blackhole.consume(heapVersions);
+    }
+
+    @Benchmark
+    public void benchmarkCow_SnapshotAndModify(Blackhole blackhole) {
+        CowBean current = cowBean;
+        int k = 0;
+        for (int v = 0; v < VERSIONS; v++) {
+            CowBean next = new CowBean();
+            CowBean.HANDLE.snapshot(current, next);
+            for (int i = 0; i < bitsPerVersion; i++) {
+                int bit = randomIndices[k++];
+                CowBean.HANDLE.set(next, bit, !CowBean.HANDLE.get(next, bit));
+            }
+            cowVersions[v] = current = next;
+        }
+        blackhole.consume(cowVersions);
+    }
+
+    // --- 读取快照：共享块不影响读路径 ---
+
+    @Benchmark
+    public void benchmarkBitSet_Cardinality(Blackhole blackhole) {
+        blackhole.consume(bitSet.cardinality());
+    }
+
+    @Benchmark
+    public void benchmarkCow_Cardinality(Blackhole blackhole) {
+        blackhole.consume(CowBean.HANDLE.cardinality(cowBean));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CowSnapshotBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class HeapBean {
+        private long inlineBits;
+        private long[] heapArray;
+        private int wordsInUse;
+
+        public static final CompactBitsHandle<HeapBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), HeapBean.class, "heapArray", "inlineBits")
+                        .withWordsInUseField(MethodHandles.lookup(), "wordsInUse"));
+    }
+
+    public static class CowBean {
+        private long inlineBits;
+        private CowWords bits;
+
+        public static final CompactBitsHandle<CowBean> HANDLE = new CompactBitsHandle<>(
+                CowWordAccessor.of(MethodHandles.lookup(), CowBean.class, "bits", "inlineBits"));
+    }
+}
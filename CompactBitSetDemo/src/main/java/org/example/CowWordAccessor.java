@@ -0,0 +1,199 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * 使用 CowWords（写时复制分块存储）的 WordAccessor：{@link CompactBitsHandle#snapshot} 只复制块目录，
+ * 克隆出的版本与原版本共享全部块，之后哪个版本修改了哪个块才复制哪个块。
+ * 宿主可以额外声明若干 inline long 字段，快照时直接复制：
+ * <pre>
+ * public class Document implements Cloneable {
+ *     private long flags;
+ *     private CowWords moreFlags;
+ *
+ *     static final CompactBitsHandle&lt;Document&gt; FLAGS = new CompactBitsHandle&lt;&gt;(
+ *             CowWordAccessor.of(MethodHandles.lookup(), Document.class, "moreFlags", "flags"));
+ *
+ *     Document newVersion() {
+ *         Document copy = new Document();
+ *         FLAGS.snapshot(this, copy);
+ *         return copy;
+ *     }
+ * }
+ * </pre>
+ * wordsInUse 保存在 CowWords 中，length/isEmpty 为 O(1)；空位集合时字段为 null。
+ * 注意：宿主用 Object.clone() 浅拷贝时两个版本会共享同一个 CowWords 对象，必须改用 snapshot。
+ *
+ * @param <T> 宿主类型
+ */
+public final class CowWordAccessor<T> implements WordAccessor<T> {
+
+    private final HostFields<T> fields;
+    private final int inlineCount;
+
+    private CowWordAccessor(HostFields<T> fields) {
+        this.fields = fields;
+        this.inlineCount = fields.longCount();
+    }
+
+    /**
+     * 按字段名创建 accessor。
+     *
+     * @param lookup       宿主类中的 MethodHandles.lookup()，用于访问 private 字段
+     * @param hostClass    宿主类型
+     * @param storeField   CowWords 字段名
+     * @param inlineFields inline long 字段名，按 word 顺序排列，可以为空
+     */
+    public static <T> CowWordAccessor<T> of(MethodHandles.Lookup lookup, Class<T> hostClass,
+                                            String storeField, String... inlineFields) {
+        if (lookup == null || hostClass == null || storeField == null) {
+            throw new NullPointerException("lookup, hostClass and storeField cannot be null");
+        }
+        return new CowWordAccessor<>(HostFields.of(lookup, hostClass, inlineFields, storeField, CowWords.class));
+    }
+
+    /**
+     * 返回宿主的分块存储，空位集合时为 null。
+     */
+    public CowWords getStore(T instance) {
+        return (CowWords) fields.getRef(instance);
+    }
+
+    // --- WordAccessor ---
+
+    @Override
+    public long getWord(T instance, int wordIndex) {
+        if (wordIndex < inlineCount) {
+            return fields.getLong(instance, wordIndex);
+        }
+        CowWords words = (CowWords) fields.getRef(instance);
+        return words == null ? 0L : words.getWord(wordIndex - inlineCount);
+    }
+
+    @Override
+    public void setWord(T instance, int wordIndex, long value) {
+        if (wordIndex < inlineCount) {
+            fields.setLong(instance, wordIndex, value);
+            return;
+        }
+        CowWords words = (CowWords) fields.getRef(instance);
+        if (words == null) {
+            if (value == 0L) {
+                return;
+            }
+            throw new IndexOutOfBoundsException("wordIndex " + wordIndex + " beyond capacity, call ensureCapacity first");
+        }
+        words.setWord(wordIndex - inlineCount, value);
+    }
+
+    @Override
+    public void ensureCapacity(T instance, int minWordCount) {
+        int minStoreWords = minWordCount - inlineCount;
+        if (minStoreWords <= 0) {
+            return;
+        }
+        CowWords words = (CowWords) fields.getRef(instance);
+        if (words == null) {
+            words = new CowWords();
+            fields.setRef(instance, words);
+        }
+        words.ensureCapacity(minStoreWords);
+    }
+
+    @Override
+    public int getWordCount(T instance) {
+        CowWords words = (CowWords) fields.getRef(instance);
+        return inlineCount + (words == null ? 0 : words.capacity());
+    }
+
+    @Override
+    public void trim(T instance) {
+        CowWords words = (CowWords) fields.getRef(instance);
+        if (words != null && words.wordsInUse() == 0) {
+            fields.setRef(instance, null);
+        }
+    }
+
+    @Override
+    public boolean tracksWordsInUse() {
+        return true;
+    }
+
+    /**
+     * CowWords 只记录溢出部分的 wordsInUse，溢出部分为空时由 inline 字段推算。
+     */
+    @Override
+    public int getWordsInUse(T instance) {
+        CowWords words = (CowWords) fields.getRef(instance);
+        if (words != null && words.wordsInUse() > 0) {
+            return inlineCount + words.wordsInUse();
+        }
+        int i = inlineCount - 1;
+        while (i >= 0 && fields.getLong(instance, i) == 0L) {
+            i--;
+        }
+        return i + 1;
+    }
+
+    @Override
+    public void setWordsInUse(T instance, int wordsInUse) {
+        CowWords words = (CowWords) fields.getRef(instance);
+        if (words != null) {
+            words.setWordsInUse(Math.max(0, wordsInUse - inlineCount));
+        }
+    }
+
+    @Override
+    public boolean shareWords(T source, T target) {
+        for (int i = 0; i < inlineCount; i++) {
+            fields.setLong(target, i, fields.getLong(source, i));
+        }
+        CowWords words = (CowWords) fields.getRef(source);
+        fields.setRef(target, words == null ? null : words.snapshot());
+        return true;
+    }
+
+    @Override
+    public long estimatedBytes(T instance) {
+        CowWords words = (CowWords) fields.getRef(instance);
+        return words == null ? 0L : words.estimatedBytes();
+    }
+
+    @Override
+    public void getWords(T instance, int fromWordIndex, long[] dest, int destPos, int length) {
+        int i = 0;
+        for (; i < length && fromWordIndex + i < inlineCount; i++) {
+            dest[destPos + i] = fields.getLong(instance, fromWordIndex + i);
+        }
+        if (i == length) {
+            return;
+        }
+        CowWords words = (CowWords) fields.getRef(instance);
+        if (words == null) {
+            for (; i < length; i++) {
+                dest[destPos + i] = 0L;
+            }
+            return;
+        }
+        words.getWords(fromWordIndex + i - inlineCount, dest, destPos + i, length - i);
+    }
+
+    @Override
+    public void fillWords(T instance, int fromWordIndex, int toWordIndex, long value) {
+        int i = fromWordIndex;
+        for (; i < toWordIndex && i < inlineCount; i++) {
+            fields.setLong(instance, i, value);
+        }
+        if (i >= toWordIndex) {
+            return;
+        }
+        CowWords words = (CowWords) fields.getRef(instance);
+        if (words == null) {
+            if (value != 0L) {
+                throw new IndexOutOfBoundsException("wordIndex " + i + " beyond capacity, call ensureCapacity first");
+            }
+            return;
+        }
+        words.fillWords(i - inlineCount, toWordIndex - inlineCount, value);
+    }
+}
@@ -0,0 +1,186 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * 支持写时复制的分块 word 存储：每 {@link #CHUNK_WORDS} 个 word 一块，{@link #snapshot()} 只复制块目录，
+ * 两个版本共享全部块；之后任一版本第一次写某个共享块时才复制该块（512 字节）。
+ * 适合实体克隆（撤销栈、版本历史）中每个版本只修改少量位的场景。
+ * <p>
+ * 全 0 的块用 null 表示，不占内存。每个实例自己维护 "块是否独占" 的标记，共享块对双方都是只读的，
+ * 因此同一时刻只能由一个线程修改同一个 CowWords，但不同版本可以分别由不同线程修改。
+ */
+public final class CowWords {
+
+    static final int CHUNK_SHIFT = 6;
+    public static final int CHUNK_WORDS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_WORDS - 1;
+
+    private long[][] chunks;
+    private boolean[] owned;
+    private int wordsInUse;
+
+    public CowWords() {
+        this(new long[0][], new boolean[0], 0);
+    }
+
+    private CowWords(long[][] chunks, boolean[] owned, int wordsInUse) {
+        this.chunks = chunks;
+        this.owned = owned;
+        this.wordsInUse = wordsInUse;
+    }
+
+    /**
+     * 返回与当前内容相同的新版本，O(块数)：只复制块目录，此后双方写入时各自复制被修改的块。
+     */
+    public CowWords snapshot() {
+        // 双方都不再独占任何块
+        Arrays.fill(owned, false);
+        return new CowWords(chunks.clone(), new boolean[chunks.length], wordsInUse);
+    }
+
+    // --- word 读写 ---
+
+    public long getWord(int wordIndex) {
+        int chunkIndex = wordIndex >>> CHUNK_SHIFT;
+        if (chunkIndex >= chunks.length) {
+            return 0L;
+        }
+        long[] chunk = chunks[chunkIndex];
+        return chunk == null ? 0L : chunk[wordIndex & CHUNK_MASK];
+    }
+
+    /**
+     * 写入一个 word，调用前需保证 {@link #ensureCapacity}。写入共享块时先复制该块。
+     */
+    public void setWord(int wordIndex, long value) {
+        int chunkIndex = wordIndex >>> CHUNK_SHIFT;
+        long[] chunk = chunks[chunkIndex];
+        if (chunk == null) {
+            if (value == 0L) {
+                return;
+            }
+            chunk = chunks[chunkIndex] = new long[CHUNK_WORDS];
+            owned[chunkIndex] = true;
+        } else if (!owned[chunkIndex]) {
+            if (chunk[wordIndex & CHUNK_MASK] == value) {
+                return;
+            }
+            chunk = chunks[chunkIndex] = chunk.clone();
+            owned[chunkIndex] = true;
+        }
+        chunk[wordIndex & CHUNK_MASK] = value;
+    }
+
+    public void getWords(int fromWordIndex, long[] dest, int destPos, int length) {
+        int i = 0;
+        while (i < length) {
+            int wordIndex = fromWordIndex + i;
+            int chunkIndex = wordIndex >>> CHUNK_SHIFT;
+            int offset = wordIndex & CHUNK_MASK;
+            int n = Math.min(length - i, CHUNK_WORDS - offset);
+            long[] chunk = chunkIndex < chunks.length ? chunks[chunkIndex] : null;
+            if (chunk == null) {
+                Arrays.fill(dest, destPos + i, destPos + i + n, 0L);
+            } else {
+                System.arraycopy(chunk, offset, dest, destPos + i, n);
+            }
+            i += n;
+        }
+    }
+
+    /**
+     * 将 [fromWordIndex, toWordIndex) 设置为 value：完整覆盖的块直接替换（全 0 时置为 null），不复制旧内容。
+     */
+    public void fillWords(int fromWordIndex, int toWordIndex, long value) {
+        int i = fromWordIndex;
+        while (i < toWordIndex) {
+            int chunkIndex = i >>> CHUNK_SHIFT;
+            int chunkEnd = (chunkIndex + 1) << CHUNK_SHIFT;
+            if ((i & CHUNK_MASK) == 0 && chunkEnd <= toWordIndex) {
+                if (value == 0L) {
+                    chunks[chunkIndex] = null;
+                    owned[chunkIndex] = false;
+                } else {
+                    long[] chunk = new long[CHUNK_WORDS];
+                    Arrays.fill(chunk, value);
+                    chunks[chunkIndex] = chunk;
+                    owned[chunkIndex] = true;
+                }
+                i = chunkEnd;
+            } else {
+                int end = Math.min(chunkEnd, toWordIndex);
+                for (; i < end; i++) {
+                    setWord(i, value);
+                }
+            }
+        }
+    }
+
+    public void ensureCapacity(int minWordCount) {
+        int minChunks = (minWordCount + CHUNK_MASK) >>> CHUNK_SHIFT;
+        if (minChunks > chunks.length) {
+            int newLength = Math.max(minChunks, chunks.length * 2);
+            chunks = Arrays.copyOf(chunks, newLength);
+            owned = Arrays.copyOf(owned, newLength);
+        }
+    }
+
+    /**
+     * 目录可容纳的 word 数。
+     */
+    public int capacity() {
+        return chunks.length << CHUNK_SHIFT;
+    }
+
+    public int wordsInUse() {
+        return wordsInUse;
+    }
+
+    void setWordsInUse(int wordsInUse) {
+        this.wordsInUse = wordsInUse;
+    }
+
+    // --- 诊断 ---
+
+    /**
+     * 已分配但尚未被本版本复制（仍与其他版本共享）的块数。
+     */
+    public int sharedChunkCount() {
+        int count = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] != null && !owned[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 本版本的堆内存估算，共享块按完整大小计入（多个版本的估算之和会高于实际占用）。
+     */
+    public long estimatedBytes() {
+        long bytes = Footprint.align(Footprint.OBJECT_HEADER + 2 * Footprint.REFERENCE + 4)
+                + Footprint.align(Footprint.ARRAY_HEADER + (long) Footprint.REFERENCE * chunks.length)
+                + Footprint.align(Footprint.ARRAY_HEADER + owned.length);
+        for (long[] chunk : chunks) {
+            if (chunk != null) {
+                bytes += Footprint.longArrayBytes(CHUNK_WORDS);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 本版本独占（已复制或新分配）的块占用的字节数，即相对其他版本的增量占用。
+     */
+    public long ownedBytes() {
+        long bytes = 0L;
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] != null && owned[i]) {
+                bytes += Footprint.longArrayBytes(CHUNK_WORDS);
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,129 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * 等值位图索引：低基数列（状态、类型等字典编码后的 0..distinctValues-1）每个取值一个 IndexBitmap，
+ * eq/in 查询只需复制或按 word 合并这些位图，不需要物化行对象。
+ * <pre>
+ * EqualityBitmapIndex status = EqualityBitmapIndex.build(statusCodes, Status.values().length);
+ * IndexBitmap rows = status.in(Status.A.ordinal(), Status.B.ordinal());
+ * </pre>
+ * 行号按 {@link #add} 的调用顺序从 0 开始分配。非线程安全。
+ */
+public final class EqualityBitmapIndex {
+
+    private final IndexBitmap[] bitmaps;
+    private int rowCount;
+
+    public EqualityBitmapIndex(int distinctValues) {
+        if (distinctValues <= 0) {
+            throw new IllegalArgumentException("distinctValues <= 0: " + distinctValues);
+        }
+        this.bitmaps = new IndexBitmap[distinctValues];
+    }
+
+    /**
+     * 为整列建立索引，column[row] 为该行的取值编码。
+     */
+    public static EqualityBitmapIndex build(int[] column, int distinctValues) {
+        EqualityBitmapIndex index = new EqualityBitmapIndex(distinctValues);
+        for (int value : column) {
+            index.add(value);
+        }
+        return index;
+    }
+
+    /**
+     * 追加一行，返回其行号。
+     */
+    public int add(int value) {
+        checkValue(value);
+        IndexBitmap bitmap = bitmaps[value];
+        if (bitmap == null) {
+            bitmap = bitmaps[value] = new IndexBitmap();
+        }
+        int row = rowCount++;
+        bitmap.add(row);
+        return row;
+    }
+
+    /**
+     * 追加一行空值（不属于任何取值），返回其行号。
+     */
+    public int addNull() {
+        return rowCount++;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int distinctValues() {
+        return bitmaps.length;
+    }
+
+    // --- 查询：返回新的 IndexBitmap ---
+
+    public IndexBitmap eq(int value) {
+        checkValue(value);
+        IndexBitmap bitmap = bitmaps[value];
+        return bitmap == null ? new IndexBitmap() : bitmap.copy();
+    }
+
+    public IndexBitmap in(int... values) {
+        IndexBitmap result = new IndexBitmap();
+        for (int value : values) {
+            checkValue(value);
+            IndexBitmap bitmap = bitmaps[value];
+            if (bitmap != null) {
+                result.or(bitmap);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 取值不在 values 中的行，空值行不包含在内。
+     */
+    public IndexBitmap notIn(int... values) {
+        boolean[] excluded = new boolean[bitmaps.length];
+        for (int value : values) {
+            checkValue(value);
+            excluded[value] = true;
+        }
+        IndexBitmap result = new IndexBitmap();
+        for (int value = 0; value < bitmaps.length; value++) {
+            if (!excluded[value] && bitmaps[value] != null) {
+                result.or(bitmaps[value]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 每个取值在 filter 中出现的行数（GROUP BY value COUNT(*)），filter 为 null 时统计全部行。
+     */
+    public int[] countByValue(IndexBitmap filter) {
+        int[] counts = new int[bitmaps.length];
+        for (int value = 0; value < bitmaps.length; value++) {
+            IndexBitmap bitmap = bitmaps[value];
+            if (bitmap != null) {
+                counts[value] = filter == null ? bitmap.cardinality()
+                        : IndexBitmap.HANDLE.intersectionCardinality(bitmap, IndexBitmap.HANDLE, filter);
+            }
+        }
+        return counts;
+    }
+
+    private void checkValue(int value) {
+        if (value < 0 || value >= bitmaps.length) {
+            throw new IllegalArgumentException("value out of range [0, " + bitmaps.length + "): " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EqualityBitmapIndex{rows=" + rowCount + ", counts=" + Arrays.toString(countByValue(null)) + "}";
+    }
+}
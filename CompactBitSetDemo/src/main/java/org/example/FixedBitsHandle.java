@@ -0,0 +1,210 @@
+package org.example;
+
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * 位数固定且不超过 64/128 的位字段的专用句柄：宿主只声明 1~2 个 long 字段，没有溢出数组，
+ * get/set 直接读写字段，省去 CompactBitsHandle 中的 ensureCapacity、wordsInUse 维护和 accessor 间接调用。
+ * <pre>
+ * public class SaleOrder {
+ *     private long flags;
+ *
+ *     static final FixedBitsHandle&lt;SaleOrder&gt; FLAGS =
+ *             FixedBitsHandle.of64(o -&gt; o.flags, (o, v) -&gt; o.flags = v);
+ * }
+ * </pre>
+ * 字段通过 lambda 访问而不是 VarHandle：保存在实例 final 字段中的 VarHandle 不会被 JIT 当作常量折叠，
+ * 每次调用都要走通用的 LambdaForm 路径，而 lambda 在调用点单态时会被完全内联，与直接读写字段开销相同。
+ * 本类不依赖 VarHandle，但模块整体需要 JDK 9+（按字段名查找的 accessor 见 {@link HostFields}）。句柄应保存在 static final 字段中。
+ * <p>
+ * 位下标必须在 [0, maxBits) 内，否则抛出 IndexOutOfBoundsException。需要 nextSetBit 之外的批量运算时，
+ * 可以用 {@link #asWordAccessor()} 构造一个共享同一字段的 CompactBitsHandle。
+ *
+ * @param <T> 宿主类型
+ */
+public final class FixedBitsHandle<T> {
+
+    private final ToLongFunction<T> word0;
+    private final ObjLongConsumer<T> setWord0;
+    private final ToLongFunction<T> word1;
+    private final ObjLongConsumer<T> setWord1;
+    private final int maxBits;
+
+    private FixedBitsHandle(ToLongFunction<T> word0, ObjLongConsumer<T> setWord0,
+                            ToLongFunction<T> word1, ObjLongConsumer<T> setWord1, int maxBits) {
+        this.word0 = word0;
+        this.setWord0 = setWord0;
+        this.word1 = word1;
+        this.setWord1 = setWord1;
+        this.maxBits = maxBits;
+    }
+
+    /**
+     * 最多 64 位，保存在一个 long 字段中。
+     */
+    public static <T> FixedBitsHandle<T> of64(ToLongFunction<T> word0, ObjLongConsumer<T> setWord0) {
+        if (word0 == null || setWord0 == null) {
+            throw new NullPointerException("word accessors cannot be null");
+        }
+        return new FixedBitsHandle<>(word0, setWord0, null, null, 64);
+    }
+
+    /**
+     * 最多 128 位，保存在两个 long 字段中（word0 为低 64 位）。
+     */
+    public static <T> FixedBitsHandle<T> of128(ToLongFunction<T> word0, ObjLongConsumer<T> setWord0,
+                                               ToLongFunction<T> word1, ObjLongConsumer<T> setWord1) {
+        if (word0 == null || setWord0 == null || word1 == null || setWord1 == null) {
+            throw new NullPointerException("word accessors cannot be null");
+        }
+        return new FixedBitsHandle<>(word0, setWord0, word1, setWord1, 128);
+    }
+
+    public int maxBits() {
+        return maxBits;
+    }
+
+    // --- 单比特操作 ---
+
+    public boolean get(T instance, int bitIndex) {
+        checkBitIndex(bitIndex);
+        long word = bitIndex < 64 ? word0.applyAsLong(instance) : word1.applyAsLong(instance);
+        return (word & (1L << bitIndex)) != 0;
+    }
+
+    public void set(T instance, int bitIndex) {
+        checkBitIndex(bitIndex);
+        if (bitIndex < 64) {
+            setWord0.accept(instance, word0.applyAsLong(instance) | (1L << bitIndex));
+        } else {
+            setWord1.accept(instance, word1.applyAsLong(instance) | (1L << bitIndex));
+        }
+    }
+
+    public void set(T instance, int bitIndex, boolean value) {
+        if (value) {
+            set(instance, bitIndex);
+        } else {
+            clear(instance, bitIndex);
+        }
+    }
+
+    public void clear(T instance, int bitIndex) {
+        checkBitIndex(bitIndex);
+        if (bitIndex < 64) {
+            setWord0.accept(instance, word0.applyAsLong(instance) & ~(1L << bitIndex));
+        } else {
+            setWord1.accept(instance, word1.applyAsLong(instance) & ~(1L << bitIndex));
+        }
+    }
+
+    public void flip(T instance, int bitIndex) {
+        checkBitIndex(bitIndex);
+        if (bitIndex < 64) {
+            setWord0.accept(instance, word0.applyAsLong(instance) ^ (1L << bitIndex));
+        } else {
+            setWord1.accept(instance, word1.applyAsLong(instance) ^ (1L << bitIndex));
+        }
+    }
+
+    public void clear(T instance) {
+        setWord0.accept(instance, 0L);
+        if (setWord1 != null) {
+            setWord1.accept(instance, 0L);
+        }
+    }
+
+    // --- 查询 ---
+
+    public boolean isEmpty(T instance) {
+        return word0.applyAsLong(instance) == 0L && (word1 == null || word1.applyAsLong(instance) == 0L);
+    }
+
+    public int cardinality(T instance) {
+        int count = Long.bitCount(word0.applyAsLong(instance));
+        return word1 == null ? count : count + Long.bitCount(word1.applyAsLong(instance));
+    }
+
+    public int length(T instance) {
+        if (word1 != null) {
+            long high = word1.applyAsLong(instance);
+            if (high != 0L) {
+                return 128 - Long.numberOfLeadingZeros(high);
+            }
+        }
+        return 64 - Long.numberOfLeadingZeros(word0.applyAsLong(instance));
+    }
+
+    public int nextSetBit(T instance, int fromIndex) {
+        if (fromIndex < 0) {
+            throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+        }
+        if (fromIndex < 64) {
+            long word = word0.applyAsLong(instance) & (-1L << fromIndex);
+            if (word != 0L) {
+                return Long.numberOfTrailingZeros(word);
+            }
+            fromIndex = 64;
+        }
+        if (word1 != null && fromIndex < 128) {
+            long word = word1.applyAsLong(instance) & (-1L << fromIndex);
+            if (word != 0L) {
+                return 64 + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 低 64 位，可直接与枚举掩码比较。
+     */
+    public long getWord0(T instance) {
+        return word0.applyAsLong(instance);
+    }
+
+    /**
+     * 以 WordAccessor 的形式暴露同一组字段（1 或 2 个 word，不可扩容），用于构造 CompactBitsHandle 以使用完整 API。
+     */
+    public WordAccessor<T> asWordAccessor() {
+        final int words = maxBits >>> 6;
+        return new WordAccessor<T>() {
+            @Override
+            public long getWord(T instance, int wordIndex) {
+                if (wordIndex == 0) {
+                    return word0.applyAsLong(instance);
+                }
+                return wordIndex == 1 && word1 != null ? word1.applyAsLong(instance) : 0L;
+            }
+
+            @Override
+            public void setWord(T instance, int wordIndex, long value) {
+                if (wordIndex == 0) {
+                    setWord0.accept(instance, value);
+                } else if (wordIndex == 1 && setWord1 != null) {
+                    setWord1.accept(instance, value);
+                } else if (value != 0L) {
+                    throw new IndexOutOfBoundsException("wordIndex " + wordIndex + " beyond fixed capacity " + maxBits);
+                }
+            }
+
+            @Override
+            public void ensureCapacity(T instance, int minWordCount) {
+                if (minWordCount > words) {
+                    throw new IndexOutOfBoundsException("FixedBitsHandle supports " + maxBits + " bits");
+                }
+            }
+
+            @Override
+            public int getWordCount(T instance) {
+                return words;
+            }
+        };
+    }
+
+    private void checkBitIndex(int bitIndex) {
+        if (bitIndex < 0 || bitIndex >= maxBits) {
+            throw new IndexOutOfBoundsException("bitIndex out of range [0, " + maxBits + "): " + bitIndex);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+import java.util.BitSet;
+
+/**
+ * 堆内存占用估算，按 64 位 HotSpot 默认配置（压缩指针、12 字节对象头、8 字节对齐）计算，
+ * 与 JOL 的 GraphLayout.totalSize() 在该配置下一致（见 FootprintTest）。
+ * 用于比较 CompactBitsHandle 宿主与 java.util.BitSet 的内存占用，不追求在所有 JVM 参数下精确。
+ */
+public final class Footprint {
+
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+    static final int ALIGNMENT = 8;
+
+    /**
+     * BitSet 对象本身：对象头 + long[] 引用 + int wordsInUse + boolean sizeIsSticky，对齐后 24 字节。
+     */
+    static final long BIT_SET_SHALLOW = align(OBJECT_HEADER + REFERENCE + 4 + 1);
+
+    private Footprint() {
+    }
+
+    public static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    public static long longArrayBytes(int length) {
+        return align(ARRAY_HEADER + 8L * length);
+    }
+
+    /**
+     * BitSet 对象及其 words 数组占用的字节数（不含持有它的宿主字段）。
+     */
+    public static long bitSetBytes(BitSet bitSet) {
+        return BIT_SET_SHALLOW + longArrayBytes(bitSet.size() >>> 6);
+    }
+
+    /**
+     * 用 CompactBitsHandle 代替宿主中的 BitSet 字段可节省的字节数（不考虑宿主对象的对齐填充）。
+     *
+     * @param hostFieldBytes 宿主中位字段本身占用的字节数，例如 1 个 inline long + 1 个 long[] 引用为 12
+     */
+    public static <T> long savedBytes(BitSet bitSet, CompactBitsHandle<T> handle, T instance, int hostFieldBytes) {
+        return REFERENCE + bitSetBytes(bitSet) - (hostFieldBytes + handle.estimatedBytes(instance));
+    }
+}
@@ -0,0 +1,384 @@
+package org.example;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * 各 WordAccessor 读写宿主字段的公共入口：宿主的若干 long 字段（按下标）、一个引用字段（溢出数组/存储对象/目录）
+ * 和一个可选的 int 字段。
+ * <p>
+ * VarHandle 只有在 static final 字段中才会被 JIT 当作常量折叠；保存在 accessor 的实例 final 字段或数组里时，
+ * 每次调用都走通用的 LambdaForm 路径，还要为擦除后的 T 做 asType 适配。因此这里用 ASM 为每个宿主生成一个子类：
+ * VarHandle 保存在生成类的 static final 字段中，按宿主的精确类型调用，long 字段按下标用 tableswitch 分派，
+ * 效果与手写 TestBean 那样直接访问字段的 accessor 相同。
+ * 生成类通过宿主传入的 Lookup 定义在 Lookup 所在的包中，因此 Lookup 必须来自宿主所在包并带有包访问权限
+ * （宿主类中的 MethodHandles.lookup() 即可）。需要 JDK 9+（VarHandle、Lookup.defineClass）。
+ *
+ * @param <T> 宿主类型
+ */
+public abstract class HostFields<T> {
+
+    private static final String SUPER = Type.getInternalName(HostFields.class);
+    private static final String VAR_HANDLE = Type.getInternalName(VarHandle.class);
+    private static final String VAR_HANDLE_DESC = Type.getDescriptor(VarHandle.class);
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    /**
+     * 生成类名 -> 待写入 static final 字段的 VarHandle，由生成类的静态初始化取走。
+     */
+    private static final Map<String, VarHandle[]> PENDING = new ConcurrentHashMap<>();
+
+    /**
+     * long 字段上的操作：方法名、VarHandle 访问模式、返回类型、除宿主和下标外的 long 参数个数。
+     */
+    private static final Object[][] LONG_OPS = {
+            {"getLong", "get", Type.LONG_TYPE, 0},
+            {"setLong", "set", Type.VOID_TYPE, 1},
+            {"getLongVolatile", "getVolatile", Type.LONG_TYPE, 0},
+            {"setLongVolatile", "setVolatile", Type.VOID_TYPE, 1},
+            {"compareAndSetLong", "compareAndSet", Type.BOOLEAN_TYPE, 2},
+            {"getAndBitwiseOrLong", "getAndBitwiseOr", Type.LONG_TYPE, 1},
+            {"getAndBitwiseAndLong", "getAndBitwiseAnd", Type.LONG_TYPE, 1},
+            {"getAndBitwiseXorLong", "getAndBitwiseXor", Type.LONG_TYPE, 1},
+    };
+
+    private Class<T> hostClass;
+    private VarHandle[] longFields;
+    private VarHandle refField;
+    private VarHandle intField;
+
+    protected HostFields() {
+    }
+
+    /**
+     * 按字段名查找 VarHandle，字段不存在、类型不符或无权访问时抛出 IllegalArgumentException。
+     */
+    static VarHandle find(MethodHandles.Lookup lookup, Class<?> hostClass, String name, Class<?> type) {
+        try {
+            return lookup.findVarHandle(hostClass, name, type);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access " + type.getSimpleName() + " field '" + name
+                    + "' of " + hostClass.getName(), e);
+        }
+    }
+
+    /**
+     * 按字段名生成宿主专用的实现。
+     *
+     * @param lookup     宿主类中的 MethodHandles.lookup()，用于访问 private 字段并定义生成类
+     * @param hostClass  宿主类型
+     * @param longFields long 字段名，按下标排列，可以为空
+     * @param refField   引用字段名，为 null 时不支持 getRef 等方法
+     * @param refType    引用字段类型
+     */
+    static <T> HostFields<T> of(MethodHandles.Lookup lookup, Class<T> hostClass,
+                                String[] longFields, String refField, Class<?> refType) {
+        VarHandle[] longs = new VarHandle[longFields.length];
+        for (int i = 0; i < longFields.length; i++) {
+            longs[i] = find(lookup, hostClass, longFields[i], long.class);
+        }
+        VarHandle ref = refField != null ? find(lookup, hostClass, refField, refType) : null;
+        return generate(lookup, hostClass, longs, ref, null);
+    }
+
+    /**
+     * 返回额外支持 int 字段（getInt/setInt）的新实现，原有字段不变。
+     */
+    HostFields<T> withIntField(MethodHandles.Lookup lookup, String name) {
+        return generate(lookup, hostClass, longFields, refField, find(lookup, hostClass, name, int.class));
+    }
+
+    final int longCount() {
+        return longFields.length;
+    }
+
+    // --- 由生成类覆盖；生成类只覆盖宿主实际声明的字段 ---
+
+    public long getLong(T instance, int index) {
+        throw unsupported();
+    }
+
+    public void setLong(T instance, int index, long value) {
+        throw unsupported();
+    }
+
+    public long getLongVolatile(T instance, int index) {
+        throw unsupported();
+    }
+
+    public void setLongVolatile(T instance, int index, long value) {
+        throw unsupported();
+    }
+
+    public boolean compareAndSetLong(T instance, int index, long expected, long newValue) {
+        throw unsupported();
+    }
+
+    public long getAndBitwiseOrLong(T instance, int index, long mask) {
+        throw unsupported();
+    }
+
+    public long getAndBitwiseAndLong(T instance, int index, long mask) {
+        throw unsupported();
+    }
+
+    public long getAndBitwiseXorLong(T instance, int index, long mask) {
+        throw unsupported();
+    }
+
+    public Object getRef(T instance) {
+        throw unsupported();
+    }
+
+    public void setRef(T instance, Object value) {
+        throw unsupported();
+    }
+
+    public Object getRefAcquire(T instance) {
+        throw unsupported();
+    }
+
+    public boolean compareAndSetRef(T instance, Object expected, Object newValue) {
+        throw unsupported();
+    }
+
+    public int getInt(T instance) {
+        throw unsupported();
+    }
+
+    public void setInt(T instance, int value) {
+        throw unsupported();
+    }
+
+    private UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException(hostClass.getName() + " does not declare this field");
+    }
+
+    /**
+     * 生成类的静态初始化调用，取走 generate 登记的 VarHandle。
+     */
+    protected static VarHandle[] claim(String className) {
+        VarHandle[] handles = PENDING.remove(className);
+        if (handles == null) {
+            throw new IllegalStateException("No field handles registered for " + className);
+        }
+        return handles;
+    }
+
+    protected static IndexOutOfBoundsException outOfRange(int index) {
+        return new IndexOutOfBoundsException("Field index " + index);
+    }
+
+    // --- 生成 ---
+
+    @SuppressWarnings("unchecked")
+    private static <T> HostFields<T> generate(MethodHandles.Lookup lookup, Class<T> hostClass,
+                                              VarHandle[] longs, VarHandle ref, VarHandle intField) {
+        if ((lookup.lookupModes() & MethodHandles.Lookup.PACKAGE) == 0) {
+            throw new IllegalArgumentException("Lookup " + lookup + " has no package access to define field accessors");
+        }
+        String packageName = lookup.lookupClass().getPackageName();
+        String className = (packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/")
+                + hostClass.getSimpleName() + "$$HostFields$" + SEQUENCE.incrementAndGet();
+
+        VarHandle[] handles = new VarHandle[longs.length + 2];
+        System.arraycopy(longs, 0, handles, 0, longs.length);
+        handles[longs.length] = ref;
+        handles[longs.length + 1] = intField;
+
+        byte[] bytes = new Generator(className, Type.getInternalName(hostClass), longs.length,
+                ref != null ? Type.getType(ref.varType()) : null, intField != null).generate();
+        String binaryName = className.replace('/', '.');
+        PENDING.put(binaryName, handles);
+        HostFields<T> fields;
+        try {
+            fields = (HostFields<T>) lookup.defineClass(bytes).getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot define field accessors for " + hostClass.getName(), e);
+        } finally {
+            PENDING.remove(binaryName);
+        }
+        fields.hostClass = hostClass;
+        fields.longFields = longs;
+        fields.refField = ref;
+        fields.intField = intField;
+        return fields;
+    }
+
+    private static final class Generator {
+        private final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        private final String className;
+        private final String host;
+        private final int longCount;
+        private final Type refType;
+        private final boolean hasInt;
+
+        Generator(String className, String host, int longCount, Type refType, boolean hasInt) {
+            this.className = className;
+            this.host = host;
+            this.longCount = longCount;
+            this.refType = refType;
+            this.hasInt = hasInt;
+        }
+
+        byte[] generate() {
+            cw.visit(V9, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null, SUPER, null);
+            for (int i = 0; i < longCount; i++) {
+                cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, "L" + i, VAR_HANDLE_DESC, null, null).visitEnd();
+            }
+            if (refType != null) {
+                cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, "REF", VAR_HANDLE_DESC, null, null).visitEnd();
+            }
+            if (hasInt) {
+                cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, "INT", VAR_HANDLE_DESC, null, null).visitEnd();
+            }
+            staticInit();
+            constructor();
+
+            for (Object[] op : LONG_OPS) {
+                longOp((String) op[0], (String) op[1], (Type) op[2], (Integer) op[3]);
+            }
+            if (refType != null) {
+                Type object = Type.getType(Object.class);
+                fieldOp("getRef", "REF", "get", object, refType, 0);
+                fieldOp("setRef", "REF", "set", Type.VOID_TYPE, refType, 1);
+                fieldOp("getRefAcquire", "REF", "getAcquire", object, refType, 0);
+                fieldOp("compareAndSetRef", "REF", "compareAndSet", Type.BOOLEAN_TYPE, refType, 2);
+            }
+            if (hasInt) {
+                fieldOp("getInt", "INT", "get", Type.INT_TYPE, Type.INT_TYPE, 0);
+                fieldOp("setInt", "INT", "set", Type.VOID_TYPE, Type.INT_TYPE, 1);
+            }
+            cw.visitEnd();
+            return cw.toByteArray();
+        }
+
+        private void staticInit() {
+            MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+            mv.visitCode();
+            mv.visitLdcInsn(className.replace('/', '.'));
+            mv.visitMethodInsn(INVOKESTATIC, SUPER, "claim", "(Ljava/lang/String;)[" + VAR_HANDLE_DESC, false);
+            mv.visitVarInsn(ASTORE, 0);
+            for (int i = 0; i < longCount; i++) {
+                storeHandle(mv, i, "L" + i);
+            }
+            if (refType != null) {
+                storeHandle(mv, longCount, "REF");
+            }
+            if (hasInt) {
+                storeHandle(mv, longCount + 1, "INT");
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        private void storeHandle(MethodVisitor mv, int index, String field) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitLdcInsn(index);
+            mv.visitInsn(AALOAD);
+            mv.visitFieldInsn(PUTSTATIC, className, field, VAR_HANDLE_DESC);
+        }
+
+        private void constructor() {
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitMethodInsn(INVOKESPECIAL, SUPER, "<init>", "()V", false);
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        /**
+         * (Object instance, int index, long... args) -> switch (index) { case i: Li.mode((Host) instance, args); }
+         */
+        private void longOp(String name, String mode, Type returnType, int longArgs) {
+            Type[] params = new Type[2 + longArgs];
+            Type[] handleParams = new Type[1 + longArgs];
+            params[0] = Type.getType(Object.class);
+            params[1] = Type.INT_TYPE;
+            handleParams[0] = Type.getObjectType(host);
+            for (int i = 0; i < longArgs; i++) {
+                params[2 + i] = Type.LONG_TYPE;
+                handleParams[1 + i] = Type.LONG_TYPE;
+            }
+            String handleDesc = Type.getMethodDescriptor(returnType, handleParams);
+
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, name, Type.getMethodDescriptor(returnType, params), null, null);
+            mv.visitCode();
+            Label outOfRange = new Label();
+            if (longCount > 0) {
+                Label[] cases = new Label[longCount];
+                for (int i = 0; i < longCount; i++) {
+                    cases[i] = new Label();
+                }
+                mv.visitVarInsn(ILOAD, 2);
+                mv.visitTableSwitchInsn(0, longCount - 1, outOfRange, cases);
+                for (int i = 0; i < longCount; i++) {
+                    mv.visitLabel(cases[i]);
+                    mv.visitFieldInsn(GETSTATIC, className, "L" + i, VAR_HANDLE_DESC);
+                    mv.visitVarInsn(ALOAD, 1);
+                    mv.visitTypeInsn(CHECKCAST, host);
+                    for (int arg = 0; arg < longArgs; arg++) {
+                        mv.visitVarInsn(LLOAD, 3 + 2 * arg);
+                    }
+                    mv.visitMethodInsn(INVOKEVIRTUAL, VAR_HANDLE, mode, handleDesc, false);
+                    mv.visitInsn(returnType.getOpcode(IRETURN));
+                }
+            }
+            mv.visitLabel(outOfRange);
+            mv.visitVarInsn(ILOAD, 2);
+            mv.visitMethodInsn(INVOKESTATIC, SUPER, "outOfRange", "(I)Ljava/lang/IndexOutOfBoundsException;", false);
+            mv.visitInsn(ATHROW);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        /**
+         * (Object instance, value...) -> FIELD.mode((Host) instance, value...)。
+         * 引用字段的参数和返回值在方法签名中是 Object，调用 VarHandle 前 CHECKCAST 为字段类型，保证签名精确匹配。
+         */
+        private void fieldOp(String name, String field, String mode, Type returnType, Type fieldType, int argCount) {
+            Type object = Type.getType(Object.class);
+            boolean reference = fieldType.getSort() == Type.OBJECT || fieldType.getSort() == Type.ARRAY;
+            Type[] params = new Type[1 + argCount];
+            Type[] handleParams = new Type[1 + argCount];
+            params[0] = object;
+            handleParams[0] = Type.getObjectType(host);
+            for (int i = 0; i < argCount; i++) {
+                params[1 + i] = reference ? object : fieldType;
+                handleParams[1 + i] = fieldType;
+            }
+            Type handleReturn = returnType.equals(object) ? fieldType : returnType;
+
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, name, Type.getMethodDescriptor(returnType, params), null, null);
+            mv.visitCode();
+            mv.visitFieldInsn(GETSTATIC, className, field, VAR_HANDLE_DESC);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(CHECKCAST, host);
+            int slot = 2;
+            for (int i = 0; i < argCount; i++) {
+                mv.visitVarInsn(params[1 + i].getOpcode(ILOAD), slot);
+                if (reference) {
+                    mv.visitTypeInsn(CHECKCAST, fieldType.getInternalName());
+                }
+                slot += params[1 + i].getSize();
+            }
+            mv.visitMethodInsn(INVOKEVIRTUAL, VAR_HANDLE, mode, Type.getMethodDescriptor(handleReturn, handleParams), false);
+            mv.visitInsn(returnType.getOpcode(IRETURN));
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * 位图索引中的行集合：第 n 位表示第 n 行。EqualityBitmapIndex/BitSlicedIndex 的查询结果都是新的 IndexBitmap，
+ * 可以原地用 {@link #and}/{@link #or}/{@link #andNot}/{@link #not} 组合，例如 "status in (A, B) and approved"：
+ * <pre>
+ * IndexBitmap rows = status.in(A, B).and(approved.eq(1));
+ * </pre>
+ * 所有运算都以 64 位 word 为单位通过 CompactBitsHandle 完成。组合方法修改并返回 this，需要保留原值时先 {@link #copy()}。
+ * 非线程安全。
+ */
+public final class IndexBitmap {
+
+    private long[] words;
+    private int wordsInUse;
+
+    static final InlineHeapWordAccessor<IndexBitmap> ACCESSOR =
+            InlineHeapWordAccessor.of(MethodHandles.lookup(), IndexBitmap.class, "words")
+                    .withWordsInUseField(MethodHandles.lookup(), "wordsInUse");
+
+    public static final CompactBitsHandle<IndexBitmap> HANDLE = new CompactBitsHandle<>(ACCESSOR);
+
+    public IndexBitmap() {
+    }
+
+    /**
+     * 直接接管 words 数组（不复制），用于索引内部逐 word 计算出的结果。
+     */
+    static IndexBitmap wrap(long[] words) {
+        IndexBitmap bitmap = new IndexBitmap();
+        int n = words.length;
+        while (n > 0 && words[n - 1] == 0L) {
+            n--;
+        }
+        bitmap.words = n == 0 ? null : words;
+        bitmap.wordsInUse = n;
+        return bitmap;
+    }
+
+    /**
+     * 包含 [0, rowCount) 全部行的位图。
+     */
+    public static IndexBitmap allRows(int rowCount) {
+        IndexBitmap bitmap = new IndexBitmap();
+        HANDLE.set(bitmap, 0, rowCount);
+        return bitmap;
+    }
+
+    public IndexBitmap copy() {
+        IndexBitmap copy = new IndexBitmap();
+        HANDLE.or(copy, HANDLE, this);
+        return copy;
+    }
+
+    // --- 布尔组合（原地修改并返回 this） ---
+
+    public IndexBitmap and(IndexBitmap other) {
+        HANDLE.and(this, HANDLE, other);
+        return this;
+    }
+
+    public IndexBitmap or(IndexBitmap other) {
+        HANDLE.or(this, HANDLE, other);
+        return this;
+    }
+
+    public IndexBitmap andNot(IndexBitmap other) {
+        HANDLE.andNot(this, HANDLE, other);
+        return this;
+    }
+
+    /**
+     * 在 [0, rowCount) 范围内取反。
+     */
+    public IndexBitmap not(int rowCount) {
+        IndexBitmap all = allRows(rowCount);
+        HANDLE.andNot(all, HANDLE, this);
+        words = all.words;
+        wordsInUse = all.wordsInUse;
+        return this;
+    }
+
+    // --- 结果读取 ---
+
+    public void add(int row) {
+        HANDLE.set(this, row);
+    }
+
+    public boolean contains(int row) {
+        return HANDLE.get(this, row);
+    }
+
+    public int cardinality() {
+        return HANDLE.cardinality(this);
+    }
+
+    public boolean isEmpty() {
+        return HANDLE.isEmpty(this);
+    }
+
+    public void forEachRow(IntConsumer action) {
+        HANDLE.forEachSetBit(this, action);
+    }
+
+    public IntStream rows() {
+        return HANDLE.stream(this);
+    }
+
+    @Override
+    public String toString() {
+        return "IndexBitmap{cardinality=" + cardinality() + ", length=" + HANDLE.length(this) + "}";
+    }
+}
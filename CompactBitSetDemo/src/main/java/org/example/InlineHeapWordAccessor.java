@@ -0,0 +1,219 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+
+/**
+ * 可复用的 WordAccessor：宿主声明 N 个 inline long 字段 + 1 个惰性分配的 long[] 溢出数组，
+ * 按字段名生成字段访问（{@link HostFields}），无需每个宿主手写 TestBean 那样的 accessor。
+ * <pre>
+ * public class SaleOrder {
+ *     private long flags;
+ *     private long[] moreFlags;
+ *
+ *     static final CompactBitsHandle&lt;SaleOrder&gt; FLAGS = new CompactBitsHandle&lt;&gt;(
+ *             InlineHeapWordAccessor.of(MethodHandles.lookup(), SaleOrder.class, "moreFlags", "flags"));
+ * }
+ * </pre>
+ * word 0..N-1 存放在 inline 字段中，word N 之后存放在溢出数组中（作为连续 word 段暴露给 Handle）。
+ * 宿主额外声明一个 int 字段并调用 {@link #withWordsInUseField} 后，length/isEmpty/trim 均为 O(1)。
+ * accessor 应保存在 static final 字段中，保证调用点单态、可被 JIT 内联。
+ *
+ * @param <T> 宿主类型
+ */
+public final class InlineHeapWordAccessor<T> implements WordAccessor<T> {
+
+    /**
+     * 溢出数组的扩容策略。
+     */
+    public interface GrowthPolicy {
+        /**
+         * 返回新的数组长度，必须 >= minLength。
+         */
+        int newLength(int currentLength, int minLength);
+    }
+
+    /**
+     * 按 2 倍扩容（与 TestBean 一致），适合持续追加的位字段。
+     */
+    public static final GrowthPolicy DOUBLING = (currentLength, minLength) ->
+            Math.max(minLength, currentLength == 0 ? 1 : currentLength * 2);
+
+    /**
+     * 恰好扩容到所需长度，内存最省，适合位数固定或很少变化的位字段。
+     */
+    public static final GrowthPolicy EXACT = (currentLength, minLength) -> minLength;
+
+    private final Class<T> hostClass;
+    private final HostFields<T> fields;
+    private final boolean tracking;
+    private final int inlineCount;
+    private final GrowthPolicy growthPolicy;
+    private final boolean trimOnZero;
+
+    private InlineHeapWordAccessor(Class<T> hostClass, HostFields<T> fields, boolean tracking,
+                                   GrowthPolicy growthPolicy, boolean trimOnZero) {
+        this.hostClass = hostClass;
+        this.fields = fields;
+        this.tracking = tracking;
+        this.inlineCount = fields.longCount();
+        this.growthPolicy = growthPolicy;
+        this.trimOnZero = trimOnZero;
+    }
+
+    /**
+     * 按字段名创建 accessor，默认 2 倍扩容、trim 时释放尾部 0 word。
+     *
+     * @param lookup       宿主类中的 MethodHandles.lookup()，用于访问 private 字段
+     * @param hostClass    宿主类型
+     * @param heapField    long[] 溢出数组字段名
+     * @param inlineFields inline long 字段名，按 word 顺序排列，可以为空
+     */
+    public static <T> InlineHeapWordAccessor<T> of(MethodHandles.Lookup lookup, Class<T> hostClass,
+                                                   String heapField, String... inlineFields) {
+        if (lookup == null || hostClass == null || heapField == null) {
+            throw new NullPointerException("lookup, hostClass and heapField cannot be null");
+        }
+        HostFields<T> fields = HostFields.of(lookup, hostClass, inlineFields, heapField, long[].class);
+        return new InlineHeapWordAccessor<>(hostClass, fields, false, DOUBLING, true);
+    }
+
+    /**
+     * 返回使用指定扩容策略的新 accessor。
+     */
+    public InlineHeapWordAccessor<T> withGrowthPolicy(GrowthPolicy growthPolicy) {
+        if (growthPolicy == null) {
+            throw new NullPointerException("growthPolicy cannot be null");
+        }
+        return new InlineHeapWordAccessor<>(hostClass, fields, tracking, growthPolicy, trimOnZero);
+    }
+
+    /**
+     * 返回指定 trim 行为的新 accessor：false 时保留溢出数组容量，避免频繁 set/clear 时反复分配。
+     */
+    public InlineHeapWordAccessor<T> withTrimOnZero(boolean trimOnZero) {
+        return new InlineHeapWordAccessor<>(hostClass, fields, tracking, growthPolicy, trimOnZero);
+    }
+
+    /**
+     * 返回使用宿主 int 字段跟踪 wordsInUse 的新 accessor，字段初始值 0 即表示空位集合。
+     */
+    public InlineHeapWordAccessor<T> withWordsInUseField(MethodHandles.Lookup lookup, String wordsInUseField) {
+        return new InlineHeapWordAccessor<>(hostClass, fields.withIntField(lookup, wordsInUseField), true,
+                growthPolicy, trimOnZero);
+    }
+
+    public Class<T> getHostClass() {
+        return hostClass;
+    }
+
+    public int getInlineCount() {
+        return inlineCount;
+    }
+
+    // --- WordAccessor ---
+
+    @Override
+    public long getWord(T instance, int wordIndex) {
+        if (wordIndex < inlineCount) {
+            return fields.getLong(instance, wordIndex);
+        }
+        long[] heap = (long[]) fields.getRef(instance);
+        int heapIndex = wordIndex - inlineCount;
+        if (heap == null || heapIndex >= heap.length) {
+            return 0L;
+        }
+        return heap[heapIndex];
+    }
+
+    @Override
+    public void setWord(T instance, int wordIndex, long value) {
+        if (wordIndex < inlineCount) {
+            fields.setLong(instance, wordIndex, value);
+            return;
+        }
+        long[] heap = (long[]) fields.getRef(instance);
+        int heapIndex = wordIndex - inlineCount;
+        if (heap == null || heapIndex >= heap.length) {
+            if (value == 0L) {
+                return; // 未分配的 word 视为 0
+            }
+            throw new IndexOutOfBoundsException("wordIndex " + wordIndex + " beyond capacity, call ensureCapacity first");
+        }
+        heap[heapIndex] = value;
+    }
+
+    @Override
+    public void ensureCapacity(T instance, int minWordCount) {
+        int minHeapLength = minWordCount - inlineCount;
+        if (minHeapLength <= 0) {
+            return;
+        }
+        long[] heap = (long[]) fields.getRef(instance);
+        int currentLength = heap != null ? heap.length : 0;
+        if (currentLength >= minHeapLength) {
+            return;
+        }
+        int newLength = growthPolicy.newLength(currentLength, minHeapLength);
+        if (newLength < minHeapLength) {
+            throw new IllegalStateException("GrowthPolicy returned " + newLength + " < required " + minHeapLength);
+        }
+        fields.setRef(instance, heap == null ? new long[newLength] : Arrays.copyOf(heap, newLength));
+    }
+
+    @Override
+    public int getWordCount(T instance) {
+        long[] heap = (long[]) fields.getRef(instance);
+        return inlineCount + (heap != null ? heap.length : 0);
+    }
+
+    @Override
+    public void trim(T instance) {
+        if (!trimOnZero) {
+            return;
+        }
+        long[] heap = (long[]) fields.getRef(instance);
+        if (heap == null) {
+            return;
+        }
+        int n;
+        if (tracking) {
+            n = Math.max(0, fields.getInt(instance) - inlineCount);
+        } else {
+            n = heap.length;
+            while (n > 0 && heap[n - 1] == 0L) {
+                n--;
+            }
+        }
+        if (n == 0) {
+            fields.setRef(instance, null);
+        } else if (n < heap.length) {
+            fields.setRef(instance, Arrays.copyOf(heap, n));
+        }
+    }
+
+    @Override
+    public boolean tracksWordsInUse() {
+        return tracking;
+    }
+
+    @Override
+    public int getWordsInUse(T instance) {
+        return fields.getInt(instance);
+    }
+
+    @Override
+    public void setWordsInUse(T instance, int value) {
+        fields.setInt(instance, value);
+    }
+
+    @Override
+    public long[] getWordSegment(T instance) {
+        return (long[]) fields.getRef(instance);
+    }
+
+    @Override
+    public int getSegmentOffset() {
+        return inlineCount;
+    }
+}
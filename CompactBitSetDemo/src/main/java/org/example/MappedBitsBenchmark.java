@@ -0,0 +1,130 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 堆上存储（InlineHeapWordAccessor）与内存映射文件（MappedWordAccessor）的 get/set/cardinality 吞吐对比，
+ * 映射文件在 Trial 开始时创建于临时目录，结束时删除。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedBitsBenchmark {
+
+    private static final int MAX_BIT_INDEX = 1_000_000; // 与 CompactBitsHandleBenchmark 相同
+    private static final int OPERATIONS = 10_000;
+
+    private Path file;
+    private HeapBean heapBean;
+    private MappedBean mappedBean;
+    private int[] randomIndices;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = Files.createTempFile("mapped-bits", ".bin");
+        heapBean = new HeapBean();
+        mappedBean = new MappedBean();
+        mappedBean.bits = MappedWords.open(file);
+        Random random = new Random(42);
+        for (int i = 0; i < MAX_BIT_INDEX / 10; i++) {
+            int bit = random.nextInt(MAX_BIT_INDEX);
+            HeapBean.HANDLE.set(heapBean, bit);
+            MappedBean.HANDLE.set(mappedBean, bit);
+        }
+        randomIndices = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            randomIndices[i] = random.nextInt(MAX_BIT_INDEX);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mappedBean.bits.close();
+        Files.deleteIfExists(file);
+    }
+
+    // --- get ---
+
+    @Benchmark
+    public void benchmarkHeap_Get(Blackhole blackhole) {
+        for (int index : randomIndices) {
+            blackhole.consume(HeapBean.HANDLE.get(heapBean, index));
+        }
+    }
+
+    @Benchmark
+    public void benchmarkMapped_Get(Blackhole blackhole) {
+        for (int index : randomIndices) {
+            blackhole.consume(MappedBean.HANDLE.get(mappedBean, index));
+        }
+    }
+
+    // --- set（重复置位已存在的位之后结果稳定） ---
+
+    @Benchmark
+    public void benchmarkHeap_Set(Blackhole blackhole) {
+        for (int index : randomIndices) {
+            HeapBean.HANDLE.set(heapBean, index);
+        }
+        blackhole.consume(heapBean);
+    }
+
+    @Benchmark
+    public void benchmarkMapped_Set(Blackhole blackhole) {
+        for (int index : randomIndices) {
+            MappedBean.HANDLE.set(mappedBean, index);
+        }
+        blackhole.consume(mappedBean);
+    }
+
+    // --- cardinality ---
+
+    @Benchmark
+    public void benchmarkHeap_Cardinality(Blackhole blackhole) {
+        blackhole.consume(HeapBean.HANDLE.cardinality(heapBean));
+    }
+
+    @Benchmark
+    public void benchmarkMapped_Cardinality(Blackhole blackhole) {
+        blackhole.consume(MappedBean.HANDLE.cardinality(mappedBean));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MappedBitsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class HeapBean {
+        private long inlineBits;
+        private long[] heapArray;
+        private int wordsInUse;
+
+        public static final CompactBitsHandle<HeapBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), HeapBean.class, "heapArray", "inlineBits")
+                        .withWordsInUseField(MethodHandles.lookup(), "wordsInUse"));
+    }
+
+    public static class MappedBean {
+        private MappedWords bits;
+
+        public static final CompactBitsHandle<MappedBean> HANDLE = new CompactBitsHandle<>(
+                MappedWordAccessor.of(MethodHandles.lookup(), MappedBean.class, "bits"));
+    }
+}
@@ -0,0 +1,165 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * 使用 MappedWords（内存映射文件）作为存储的 WordAccessor，位图在重启后仍然存在，且不占用堆内存。
+ * 宿主声明一个 MappedWords 字段，由调用方打开文件后赋值：
+ * <pre>
+ * public class Room {
+ *     private MappedWords availability;
+ *
+ *     static final MappedWordAccessor&lt;Room&gt; AVAILABILITY_WORDS =
+ *             MappedWordAccessor.of(MethodHandles.lookup(), Room.class, "availability");
+ *     static final CompactBitsHandle&lt;Room&gt; AVAILABILITY = new CompactBitsHandle&lt;&gt;(AVAILABILITY_WORDS);
+ * }
+ *
+ * room.availability = MappedWords.open(Paths.get("room-42.bits"));
+ * Room.AVAILABILITY.set(room, 1024);
+ * Room.AVAILABILITY_WORDS.force(room);
+ * </pre>
+ * wordsInUse 由 MappedWords 在内存中维护，length/isEmpty 为 O(1)；trim 不会缩小文件。
+ * 字段为 null 时视为空位图，此时写入非 0 word 抛出 IllegalStateException。
+ *
+ * @param <T> 宿主类型
+ */
+public final class MappedWordAccessor<T> implements WordAccessor<T> {
+
+    private final HostFields<T> fields;
+
+    private MappedWordAccessor(HostFields<T> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * 按字段名创建 accessor。
+     *
+     * @param lookup     宿主类中的 MethodHandles.lookup()，用于访问 private 字段
+     * @param hostClass  宿主类型
+     * @param storeField MappedWords 字段名
+     */
+    public static <T> MappedWordAccessor<T> of(MethodHandles.Lookup lookup, Class<T> hostClass, String storeField) {
+        if (lookup == null || hostClass == null || storeField == null) {
+            throw new NullPointerException("lookup, hostClass and storeField cannot be null");
+        }
+        return new MappedWordAccessor<>(HostFields.of(lookup, hostClass, new String[0], storeField, MappedWords.class));
+    }
+
+    /**
+     * 返回宿主的存储，未打开时为 null。
+     */
+    public MappedWords getStore(T instance) {
+        return (MappedWords) fields.getRef(instance);
+    }
+
+    /**
+     * 把宿主位图的修改同步写回磁盘，未打开时不做任何事。
+     */
+    public void force(T instance) {
+        MappedWords words = (MappedWords) fields.getRef(instance);
+        if (words != null) {
+            words.force();
+        }
+    }
+
+    // --- WordAccessor ---
+
+    @Override
+    public long getWord(T instance, int wordIndex) {
+        MappedWords words = (MappedWords) fields.getRef(instance);
+        return words == null ? 0L : words.getWord(wordIndex);
+    }
+
+    @Override
+    public void setWord(T instance, int wordIndex, long value) {
+        MappedWords words = (MappedWords) fields.getRef(instance);
+        if (words == null) {
+            if (value == 0L) {
+                return;
+            }
+            throw notOpened();
+        }
+        words.setWord(wordIndex, value);
+    }
+
+    @Override
+    public void ensureCapacity(T instance, int minWordCount) {
+        MappedWords words = (MappedWords) fields.getRef(instance);
+        if (words == null) {
+            if (minWordCount <= 0) {
+                return;
+            }
+            throw notOpened();
+        }
+        words.ensureCapacity(minWordCount);
+    }
+
+    @Override
+    public int getWordCount(T instance) {
+        MappedWords words = (MappedWords) fields.getRef(instance);
+        return words == null ? 0 : words.capacity();
+    }
+
+    @Override
+    public boolean tracksWordsInUse() {
+        return true;
+    }
+
+    @Override
+    public int getWordsInUse(T instance) {
+        MappedWords words = (MappedWords) fields.getRef(instance);
+        return words == null ? 0 : words.wordsInUse();
+    }
+
+    @Override
+    public void setWordsInUse(T instance, int wordsInUse) {
+        MappedWords words = (MappedWords) fields.getRef(instance);
+        if (words != null) {
+            words.setWordsInUse(wordsInUse);
+        }
+    }
+
+    /**
+     * 映射区位于堆外，只计算 MappedWords 对象本身。
+     */
+    @Override
+    public long estimatedBytes(T instance) {
+        return fields.getRef(instance) == null ? 0L : Footprint.align(Footprint.OBJECT_HEADER + 2 * Footprint.REFERENCE + 8);
+    }
+
+    @Override
+    public void getWords(T instance, int fromWordIndex, long[] dest, int destPos, int length) {
+        MappedWords words = (MappedWords) fields.getRef(instance);
+        if (words == null) {
+            for (int i = 0; i < length; i++) {
+                dest[destPos + i] = 0L;
+            }
+            return;
+        }
+        words.getWords(fromWordIndex, dest, destPos, length);
+    }
+
+    @Override
+    public void setWords(T instance, int fromWordIndex, long[] src, int srcPos, int length) {
+        MappedWords words = (MappedWords) fields.getRef(instance);
+        if (words == null) {
+            WordAccessor.super.setWords(instance, fromWordIndex, src, srcPos, length);
+            return;
+        }
+        words.setWords(fromWordIndex, src, srcPos, length);
+    }
+
+    @Override
+    public void fillWords(T instance, int fromWordIndex, int toWordIndex, long value) {
+        MappedWords words = (MappedWords) fields.getRef(instance);
+        if (words == null) {
+            WordAccessor.super.fillWords(instance, fromWordIndex, toWordIndex, value);
+            return;
+        }
+        words.fillWords(fromWordIndex, toWordIndex, value);
+    }
+
+    private static IllegalStateException notOpened() {
+        return new IllegalStateException("MappedWords not opened for this instance");
+    }
+}
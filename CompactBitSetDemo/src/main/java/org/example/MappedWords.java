@@ -0,0 +1,176 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 基于内存映射文件的 word 存储，用于需要在重启后保留、又不适合放在堆上的大位图（例如可用性位图）。
+ * 文件内容就是按 word 顺序排列的小端 long，与 {@code BitSet.toByteArray()} 的字节布局一致（末尾可能多出 0 字节），
+ * 因此可以直接用 {@code BitSet.valueOf(Files.readAllBytes(file))} 读取。
+ * <p>
+ * 读写直接作用于映射区，不经过堆上副本；容量不足时扩大文件并重新映射（remap）。
+ * 修改何时写回磁盘由操作系统决定，需要持久化保证时调用 {@link #force()}。
+ * wordsInUse 只保存在内存中，打开文件时从尾部向前扫描一次得到。
+ * 由于 int 位下标最多对应 2^25 个 word（256 MB），单个 MappedByteBuffer 足够容纳。非线程安全。
+ */
+public final class MappedWords implements Closeable {
+
+    /**
+     * 新文件的最小容量（word 数），对应一个 8 KB 的映射区。
+     */
+    static final int MIN_CAPACITY = 1024;
+
+    private static final int MAX_CAPACITY = 1 << 25;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int wordsInUse;
+
+    private MappedWords(FileChannel channel, int capacity) throws IOException {
+        this.channel = channel;
+        map(capacity);
+        this.wordsInUse = scanWordsInUse(capacity);
+    }
+
+    /**
+     * 打开（不存在时创建）位图文件，已有内容按小端 word 读取。
+     */
+    public static MappedWords open(Path file) throws IOException {
+        return open(file, MIN_CAPACITY);
+    }
+
+    /**
+     * 打开（不存在时创建）位图文件，并至少预留 initialWords 个 word 的映射区。
+     */
+    public static MappedWords open(Path file, int initialWords) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file cannot be null");
+        }
+        if (initialWords < 0 || initialWords > MAX_CAPACITY) {
+            throw new IllegalArgumentException("initialWords out of range: " + initialWords);
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long existing = (channel.size() + 7) >>> 3;
+            if (existing > MAX_CAPACITY) {
+                throw new IOException("Bitmap file too large: " + channel.size() + " bytes");
+            }
+            return new MappedWords(channel, Math.max((int) existing, Math.max(initialWords, MIN_CAPACITY)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // --- word 读写 ---
+
+    public long getWord(int wordIndex) {
+        return wordIndex < capacity ? buffer.getLong(wordIndex << 3) : 0L;
+    }
+
+    /**
+     * 写入一个 word，调用前需保证 {@link #ensureCapacity}。
+     */
+    public void setWord(int wordIndex, long value) {
+        buffer.putLong(wordIndex << 3, value);
+    }
+
+    public void getWords(int fromWordIndex, long[] dest, int destPos, int length) {
+        int n = Math.max(0, Math.min(length, capacity - fromWordIndex));
+        if (n > 0) {
+            longView(fromWordIndex).get(dest, destPos, n);
+        }
+        for (int i = n; i < length; i++) {
+            dest[destPos + i] = 0L;
+        }
+    }
+
+    public void setWords(int fromWordIndex, long[] src, int srcPos, int length) {
+        longView(fromWordIndex).put(src, srcPos, length);
+    }
+
+    public void fillWords(int fromWordIndex, int toWordIndex, long value) {
+        for (int i = fromWordIndex; i < toWordIndex; i++) {
+            buffer.putLong(i << 3, value);
+        }
+    }
+
+    /**
+     * 容量不足时按 2 倍扩大文件并重新映射，旧的映射区由 GC 回收（JDK 没有公开的 unmap）。
+     */
+    public void ensureCapacity(int minWordCount) {
+        if (minWordCount <= capacity) {
+            return;
+        }
+        if (minWordCount > MAX_CAPACITY) {
+            throw new IllegalArgumentException("minWordCount out of range: " + minWordCount);
+        }
+        try {
+            map(Math.max(minWordCount, (int) Math.min(MAX_CAPACITY, capacity * 2L)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 映射区容量（word 数），即文件长度 / 8。
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    public int wordsInUse() {
+        return wordsInUse;
+    }
+
+    void setWordsInUse(int wordsInUse) {
+        this.wordsInUse = wordsInUse;
+    }
+
+    // --- 持久化 ---
+
+    /**
+     * 把映射区的修改同步写回磁盘（{@link MappedByteBuffer#force()}），返回后即使进程崩溃数据也不会丢失。
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * 关闭文件通道，之前的修改仍会由操作系统写回；需要确保落盘时先调用 {@link #force()}。
+     * 关闭后不能再访问该对象。
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void map(int newCapacity) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) newCapacity << 3);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        capacity = newCapacity;
+    }
+
+    private LongBuffer longView(int fromWordIndex) {
+        LongBuffer view = buffer.asLongBuffer();
+        view.position(fromWordIndex);
+        return view;
+    }
+
+    private int scanWordsInUse(int from) {
+        int i = from - 1;
+        while (i >= 0 && buffer.getLong(i << 3) == 0L) {
+            i--;
+        }
+        return i + 1;
+    }
+}
@@ -0,0 +1,129 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大位集合（50 万个 word，3200 万位）上 parallel* 方法随线程数的扩展性，
+ * parallelism = 1 时即为 fork-join 的调度开销基线，另附顺序版本作对比。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelBitsBenchmark {
+
+    private static final int WORDS = 500_000;
+    private static final int BITS = WORDS * 64;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private LargeBean left;
+    private LargeBean right;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = new ForkJoinPool(parallelism);
+        left = new LargeBean();
+        right = new LargeBean();
+        Random random = new Random(42);
+        long[] words = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = random.nextLong();
+        }
+        LargeBean.HANDLE.fill(left, words);
+        for (int i = 0; i < WORDS; i++) {
+            words[i] = random.nextLong();
+        }
+        LargeBean.HANDLE.fill(right, words);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    // --- cardinality ---
+
+    @Benchmark
+    public void benchmarkSequential_Cardinality(Blackhole blackhole) {
+        blackhole.consume(LargeBean.HANDLE.cardinality(left));
+    }
+
+    @Benchmark
+    public void benchmarkParallel_Cardinality(Blackhole blackhole) {
+        blackhole.consume(pool.submit(() -> LargeBean.HANDLE.parallelCardinality(left)).join());
+    }
+
+    // --- or（重复执行后结果稳定） ---
+
+    @Benchmark
+    public void benchmarkSequential_Or(Blackhole blackhole) {
+        LargeBean.HANDLE.or(left, LargeBean.HANDLE, right);
+        blackhole.consume(left);
+    }
+
+    @Benchmark
+    public void benchmarkParallel_Or(Blackhole blackhole) {
+        pool.submit(() -> LargeBean.HANDLE.parallelOr(left, LargeBean.HANDLE, right)).join();
+        blackhole.consume(left);
+    }
+
+    // --- xor（结果在两个状态间交替，大小不变） ---
+
+    @Benchmark
+    public void benchmarkSequential_Xor(Blackhole blackhole) {
+        LargeBean.HANDLE.xor(left, LargeBean.HANDLE, right);
+        blackhole.consume(left);
+    }
+
+    @Benchmark
+    public void benchmarkParallel_Xor(Blackhole blackhole) {
+        pool.submit(() -> LargeBean.HANDLE.parallelXor(left, LargeBean.HANDLE, right)).join();
+        blackhole.consume(left);
+    }
+
+    // --- 范围填充 ---
+
+    @Benchmark
+    public void benchmarkSequential_SetRange(Blackhole blackhole) {
+        LargeBean.HANDLE.set(left, 1, BITS - 1);
+        blackhole.consume(left);
+    }
+
+    @Benchmark
+    public void benchmarkParallel_SetRange(Blackhole blackhole) {
+        pool.submit(() -> LargeBean.HANDLE.parallelSet(left, 1, BITS - 1)).join();
+        blackhole.consume(left);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ParallelBitsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class LargeBean {
+        private long inlineBits;
+        private long[] heapArray;
+        private int wordsInUse;
+
+        public static final CompactBitsHandle<LargeBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), LargeBean.class, "heapArray", "inlineBits")
+                        .withWordsInUseField(MethodHandles.lookup(), "wordsInUse"));
+    }
+}
@@ -0,0 +1,176 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * CompactBitsHandle 并行路径使用的 fork-join 任务，只操作宿主暴露的连续 word 段（long[]），
+ * 不同任务写入互不重叠的下标区间，因此无需同步。
+ * <p>
+ * 任务在调用线程所属的 ForkJoinPool 中执行；普通线程调用时 fork 出的子任务进入 commonPool。
+ * 因此可以通过 {@code pool.submit(() -> handle.parallelCardinality(x)).join()} 控制并行度。
+ */
+final class ParallelWordTasks {
+
+    static final int AND = 0;
+    static final int OR = 1;
+    static final int XOR = 2;
+    static final int AND_NOT = 3;
+
+    /**
+     * 叶子任务最少处理的 word 数，避免任务调度开销超过计算本身。
+     */
+    private static final int MIN_LEAF_WORDS = 1 << 12;
+
+    private ParallelWordTasks() {
+    }
+
+    /**
+     * 每个核心大约分到 4 个叶子任务，便于负载均衡。
+     */
+    private static int leafSize(int words) {
+        int parallelism = ForkJoinTask.inForkJoinPool()
+                ? ForkJoinTask.getPool().getParallelism()
+                : ForkJoinPool.getCommonPoolParallelism();
+        return Math.max(MIN_LEAF_WORDS, words / (parallelism * 4));
+    }
+
+    static int cardinality(long[] words, int from, int to) {
+        return new Cardinality(words, from, to, leafSize(to - from)).invoke();
+    }
+
+    static void fill(long[] words, int from, int to, long value) {
+        new Fill(words, from, to, value, leafSize(to - from)).invoke();
+    }
+
+    /**
+     * 对 wordIndex ∈ [from, to) 执行 target[w - targetOffset] = target op source[w - sourceOffset]，
+     * source 越界的 word 视为 0。
+     */
+    static void combine(int op, long[] target, int targetOffset, long[] source, int sourceOffset, int from, int to) {
+        new Combine(op, target, targetOffset, source, sourceOffset, from, to, leafSize(to - from)).invoke();
+    }
+
+    private static final class Cardinality extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] words;
+        private final int from;
+        private final int to;
+        private final int leaf;
+
+        Cardinality(long[] words, int from, int to, int leaf) {
+            this.words = words;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= leaf) {
+                return WordKernels.ACTIVE.bitCount(words, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            Cardinality left = new Cardinality(words, from, mid, leaf);
+            left.fork();
+            int right = new Cardinality(words, mid, to, leaf).compute();
+            return right + left.join();
+        }
+    }
+
+    private static final class Fill extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] words;
+        private final int from;
+        private final int to;
+        private final long value;
+        private final int leaf;
+
+        Fill(long[] words, int from, int to, long value, int leaf) {
+            this.words = words;
+            this.from = from;
+            this.to = to;
+            this.value = value;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leaf) {
+                WordKernels.ACTIVE.fill(words, from, to, value);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Fill(words, from, mid, value, leaf), new Fill(words, mid, to, value, leaf));
+        }
+    }
+
+    private static final class Combine extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int op;
+        private final long[] target;
+        private final int targetOffset;
+        private final long[] source;
+        private final int sourceOffset;
+        private final int from;
+        private final int to;
+        private final int leaf;
+
+        Combine(int op, long[] target, int targetOffset, long[] source, int sourceOffset, int from, int to, int leaf) {
+            this.op = op;
+            this.target = target;
+            this.targetOffset = targetOffset;
+            this.source = source;
+            this.sourceOffset = sourceOffset;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leaf) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Combine(op, target, targetOffset, source, sourceOffset, from, mid, leaf),
+                        new Combine(op, target, targetOffset, source, sourceOffset, mid, to, leaf));
+                return;
+            }
+            // source 的有效部分之后全部视为 0
+            int sourceEnd = Math.min(to, sourceOffset + source.length);
+            int t = from - targetOffset;
+            int s = from - sourceOffset;
+            int n = Math.max(0, sourceEnd - from);
+            switch (op) {
+                case AND:
+                    for (int i = 0; i < n; i++) {
+                        target[t + i] &= source[s + i];
+                    }
+                    Arrays.fill(target, t + n, to - targetOffset, 0L);
+                    break;
+                case OR:
+                    for (int i = 0; i < n; i++) {
+                        target[t + i] |= source[s + i];
+                    }
+                    break;
+                case XOR:
+                    for (int i = 0; i < n; i++) {
+                        target[t + i] ^= source[s + i];
+                    }
+                    break;
+                case AND_NOT:
+                    for (int i = 0; i < n; i++) {
+                        target[t + i] &= ~source[s + i];
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown op: " + op);
+            }
+        }
+    }
+}
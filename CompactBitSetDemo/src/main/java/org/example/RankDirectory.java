@@ -0,0 +1,111 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * rank/select 辅助目录：每 {@link #BLOCK_WORDS} 个 word（512 位）记录一次此前的置位总数，额外占用约 6% 的位图大小。
+ * rank 为 "块前缀计数 + 块内至多 7 个 word 的 bitCount"，select 先在前缀计数上二分查找块再扫描块内 word。
+ * <p>
+ * 由 {@link RankedWordAccessor} 维护：写入 word 时只记录最小的脏 word 下标，下一次 rank/select 时从该下标所在的块开始重建，
+ * 因此连续多次写入只触发一次（部分）重建。宿主声明一个该类型的字段即可，首次查询时自动创建。
+ */
+public final class RankDirectory {
+
+    static final int BLOCK_SHIFT = 3;
+    static final int BLOCK_WORDS = 1 << BLOCK_SHIFT;
+
+    /**
+     * counts[b] 为 word [0, b * BLOCK_WORDS) 中的置位数，b * BLOCK_WORDS 不超过 wordCount 时有效。
+     */
+    private int[] counts = new int[1];
+    private final long[] block = new long[BLOCK_WORDS];
+    private int wordCount;
+    private int total;
+    private int dirtyFrom = Integer.MAX_VALUE;
+
+    // --- 维护 ---
+
+    /**
+     * wordIndex 及之后的 word 可能已被修改。
+     */
+    void invalidate(int wordIndex) {
+        if (wordIndex < dirtyFrom) {
+            dirtyFrom = wordIndex;
+        }
+    }
+
+    boolean isStale(int currentWordCount) {
+        return dirtyFrom < wordCount || currentWordCount != wordCount;
+    }
+
+    /**
+     * 以 [0, newWordCount) 为范围，从第一个脏 word 所在的块开始重新计算前缀计数。
+     */
+    <T> void rebuild(WordAccessor<T> accessor, T instance, int newWordCount) {
+        int from = Math.min(dirtyFrom, Math.min(wordCount, newWordCount));
+        int fromBlock = from >>> BLOCK_SHIFT;
+        int blocks = (newWordCount + BLOCK_WORDS - 1) >>> BLOCK_SHIFT;
+        if (counts.length < blocks + 1) {
+            counts = Arrays.copyOf(counts, Math.max(blocks + 1, counts.length * 2));
+        }
+        int sum = counts[fromBlock];
+        for (int b = fromBlock; b < blocks; b++) {
+            int start = b << BLOCK_SHIFT;
+            int length = Math.min(BLOCK_WORDS, newWordCount - start);
+            accessor.getWords(instance, start, block, 0, length);
+            for (int i = 0; i < length; i++) {
+                sum += Long.bitCount(block[i]);
+            }
+            counts[b + 1] = sum;
+        }
+        wordCount = newWordCount;
+        total = sum;
+        dirtyFrom = Integer.MAX_VALUE;
+    }
+
+    // --- 查询（调用前需保证目录是最新的） ---
+
+    /**
+     * 目录覆盖的 word 数，之后的 word 全为 0。
+     */
+    int wordCount() {
+        return wordCount;
+    }
+
+    int total() {
+        return total;
+    }
+
+    /**
+     * 第 blockIndex 块之前（word [0, blockIndex * BLOCK_WORDS)）的置位数。
+     */
+    int rankOfBlock(int blockIndex) {
+        return counts[blockIndex];
+    }
+
+    /**
+     * 第 k 个（从 0 开始）置位所在的块，要求 0 &lt;= k &lt; total()：即满足 counts[b] &lt;= k 的最大 b。
+     */
+    int blockOfRank(int k) {
+        int low = 0;
+        int high = ((wordCount + BLOCK_WORDS - 1) >>> BLOCK_SHIFT) - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (counts[mid] <= k) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 目录本身的堆内存估算。
+     */
+    long estimatedBytes() {
+        return Footprint.align(Footprint.OBJECT_HEADER + 2 * Footprint.REFERENCE + 12)
+                + Footprint.align(Footprint.ARRAY_HEADER + 4L * counts.length)
+                + Footprint.longArrayBytes(BLOCK_WORDS);
+    }
+}
@@ -0,0 +1,129 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1M 位集合上的 rank/select：没有目录时线性扫描（PlainBean）对比 RankedWordAccessor 维护的 RankDirectory（RankedBean）。
+ * Mixed 场景每 OPERATIONS 次查询前修改一位，衡量惰性增量重建的开销。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankSelectBenchmark {
+
+    private static final int MAX_BIT_INDEX = 1_000_000; // 与 CompactBitsHandleBenchmark 相同
+    private static final int OPERATIONS = 1_000;
+
+    @Param({"10", "50"})
+    public int densityPercent;
+
+    private PlainBean plainBean;
+    private RankedBean rankedBean;
+    private int[] randomIndices;
+    private int[] randomRanks;
+    private int mutation;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        plainBean = new PlainBean();
+        rankedBean = new RankedBean();
+        Random random = new Random(42);
+        for (int i = 0; i < MAX_BIT_INDEX; i++) {
+            if (random.nextInt(100) < densityPercent) {
+                PlainBean.HANDLE.set(plainBean, i);
+                RankedBean.HANDLE.set(rankedBean, i);
+            }
+        }
+        int cardinality = PlainBean.HANDLE.cardinality(plainBean);
+        randomIndices = new int[OPERATIONS];
+        randomRanks = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            randomIndices[i] = random.nextInt(MAX_BIT_INDEX);
+            randomRanks[i] = random.nextInt(cardinality);
+        }
+    }
+
+    // --- rank ---
+
+    @Benchmark
+    public void benchmarkPlain_Rank(Blackhole blackhole) {
+        for (int index : randomIndices) {
+            blackhole.consume(PlainBean.HANDLE.rank(plainBean, index));
+        }
+    }
+
+    @Benchmark
+    public void benchmarkRanked_Rank(Blackhole blackhole) {
+        for (int index : randomIndices) {
+            blackhole.consume(RankedBean.HANDLE.rank(rankedBean, index));
+        }
+    }
+
+    // --- select ---
+
+    @Benchmark
+    public void benchmarkPlain_Select(Blackhole blackhole) {
+        for (int k : randomRanks) {
+            blackhole.consume(PlainBean.HANDLE.select(plainBean, k));
+        }
+    }
+
+    @Benchmark
+    public void benchmarkRanked_Select(Blackhole blackhole) {
+        for (int k : randomRanks) {
+            blackhole.consume(RankedBean.HANDLE.select(rankedBean, k));
+        }
+    }
+
+    // --- 修改一位后查询：目录从被修改的块开始重建 ---
+
+    @Benchmark
+    public void benchmarkRanked_MixedFlipThenRank(Blackhole blackhole) {
+        int bit = randomIndices[mutation++ % OPERATIONS];
+        RankedBean.HANDLE.set(rankedBean, bit, !RankedBean.HANDLE.get(rankedBean, bit));
+        for (int index : randomIndices) {
+            blackhole.consume(RankedBean.HANDLE.rank(rankedBean, index));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RankSelectBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class PlainBean {
+        private long inlineBits;
+        private long[] heapArray;
+        private int wordsInUse;
+
+        public static final CompactBitsHandle<PlainBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), PlainBean.class, "heapArray", "inlineBits")
+                        .withWordsInUseField(MethodHandles.lookup(), "wordsInUse"));
+    }
+
+    public static class RankedBean {
+        private long inlineBits;
+        private long[] heapArray;
+        private int wordsInUse;
+        private RankDirectory ranks;
+
+        public static final CompactBitsHandle<RankedBean> HANDLE = new CompactBitsHandle<>(RankedWordAccessor.of(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), RankedBean.class, "heapArray", "inlineBits")
+                        .withWordsInUseField(MethodHandles.lookup(), "wordsInUse"),
+                MethodHandles.lookup(), RankedBean.class, "ranks"));
+    }
+}
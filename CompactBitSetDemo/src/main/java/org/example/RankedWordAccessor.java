@@ -0,0 +1,155 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * 在任意 WordAccessor 外层维护 {@link RankDirectory}，使 {@link CompactBitsHandle#rank} 为 O(1)、
+ * {@link CompactBitsHandle#select} 为 O(log n)。宿主额外声明一个 RankDirectory 字段：
+ * <pre>
+ * public class Slots {
+ *     private long[] occupied;
+ *     private RankDirectory occupiedRanks;
+ *
+ *     static final CompactBitsHandle&lt;Slots&gt; OCCUPIED = new CompactBitsHandle&lt;&gt;(RankedWordAccessor.of(
+ *             InlineHeapWordAccessor.of(MethodHandles.lookup(), Slots.class, "occupied"),
+ *             MethodHandles.lookup(), Slots.class, "occupiedRanks"));
+ *
+ *     int denseIndexOf(int slot) {
+ *         return OCCUPIED.rank(this, slot);
+ *     }
+ * }
+ * </pre>
+ * 所有写入都经过本类转发并标记目录过期，下一次 rank/select 时增量重建。为此本类不暴露底层的连续 word 段
+ * （Handle 会直接写该数组而绕过失效标记），批量操作退回逐 word 路径，适合查询远多于修改的位图。
+ *
+ * @param <T> 宿主类型
+ */
+public final class RankedWordAccessor<T> implements WordAccessor<T> {
+
+    private final WordAccessor<T> delegate;
+    private final HostFields<T> directory;
+    private final boolean tracking;
+
+    private RankedWordAccessor(WordAccessor<T> delegate, HostFields<T> directory) {
+        this.delegate = delegate;
+        this.directory = directory;
+        this.tracking = delegate.tracksWordsInUse();
+    }
+
+    /**
+     * @param delegate       实际存储位的 accessor
+     * @param lookup         宿主类中的 MethodHandles.lookup()，用于访问 private 字段
+     * @param hostClass      宿主类型
+     * @param directoryField RankDirectory 字段名
+     */
+    public static <T> RankedWordAccessor<T> of(WordAccessor<T> delegate, MethodHandles.Lookup lookup,
+                                               Class<T> hostClass, String directoryField) {
+        if (delegate == null || lookup == null || hostClass == null || directoryField == null) {
+            throw new NullPointerException("delegate, lookup, hostClass and directoryField cannot be null");
+        }
+        return new RankedWordAccessor<>(delegate,
+                HostFields.of(lookup, hostClass, new String[0], directoryField, RankDirectory.class));
+    }
+
+    private void invalidate(T instance, int fromWordIndex) {
+        RankDirectory ranks = (RankDirectory) directory.getRef(instance);
+        if (ranks != null) {
+            ranks.invalidate(fromWordIndex);
+        }
+    }
+
+    // --- rank 目录 ---
+
+    @Override
+    public RankDirectory getRankDirectory(T instance) {
+        RankDirectory ranks = (RankDirectory) directory.getRef(instance);
+        if (ranks == null) {
+            ranks = new RankDirectory();
+            directory.setRef(instance, ranks);
+        }
+        int count = tracking ? delegate.getWordsInUse(instance) : delegate.getWordCount(instance);
+        if (ranks.isStale(count)) {
+            ranks.rebuild(delegate, instance, count);
+        }
+        return ranks;
+    }
+
+    // --- 读取：直接转发 ---
+
+    @Override
+    public long getWord(T instance, int wordIndex) {
+        return delegate.getWord(instance, wordIndex);
+    }
+
+    @Override
+    public int getWordCount(T instance) {
+        return delegate.getWordCount(instance);
+    }
+
+    @Override
+    public boolean tracksWordsInUse() {
+        return tracking;
+    }
+
+    @Override
+    public int getWordsInUse(T instance) {
+        return delegate.getWordsInUse(instance);
+    }
+
+    @Override
+    public void getWords(T instance, int fromWordIndex, long[] dest, int destPos, int length) {
+        delegate.getWords(instance, fromWordIndex, dest, destPos, length);
+    }
+
+    @Override
+    public long estimatedBytes(T instance) {
+        RankDirectory ranks = (RankDirectory) directory.getRef(instance);
+        return delegate.estimatedBytes(instance) + (ranks == null ? 0L : ranks.estimatedBytes());
+    }
+
+    // --- 写入：转发并标记目录过期 ---
+
+    @Override
+    public void setWord(T instance, int wordIndex, long value) {
+        delegate.setWord(instance, wordIndex, value);
+        invalidate(instance, wordIndex);
+    }
+
+    @Override
+    public void setWords(T instance, int fromWordIndex, long[] src, int srcPos, int length) {
+        delegate.setWords(instance, fromWordIndex, src, srcPos, length);
+        invalidate(instance, fromWordIndex);
+    }
+
+    @Override
+    public void fillWords(T instance, int fromWordIndex, int toWordIndex, long value) {
+        delegate.fillWords(instance, fromWordIndex, toWordIndex, value);
+        invalidate(instance, fromWordIndex);
+    }
+
+    @Override
+    public boolean shareWords(T source, T target) {
+        if (!delegate.shareWords(source, target)) {
+            return false;
+        }
+        invalidate(target, 0);
+        return true;
+    }
+
+    // --- 容量与 wordsInUse：不改变位内容，目录按 word 数变化自行判断是否过期 ---
+
+    @Override
+    public void ensureCapacity(T instance, int minWordCount) {
+        delegate.ensureCapacity(instance, minWordCount);
+    }
+
+    @Override
+    public void trim(T instance) {
+        delegate.trim(instance);
+    }
+
+    @Override
+    public void setWordsInUse(T instance, int wordsInUse) {
+        delegate.setWordsInUse(instance, wordsInUse);
+    }
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * 使用 RoaringWords 作为存储的 WordAccessor，适合位下标很大但很稀疏的位字段（例如最大 100 万的租户特性 ID）。
+ * 宿主只需声明一个 RoaringWords 字段，空位集合时该字段为 null，不占额外内存：
+ * <pre>
+ * public class Tenant {
+ *     private RoaringWords features;
+ *
+ *     static final CompactBitsHandle&lt;Tenant&gt; FEATURES = new CompactBitsHandle&lt;&gt;(
+ *             RoaringWordAccessor.of(MethodHandles.lookup(), Tenant.class, "features"));
+ * }
+ * </pre>
+ * getWordCount 返回最高非 0 word + 1，因此 length/size 与稠密存储一致，扫描不会越过最后一个置位。
+ *
+ * @param <T> 宿主类型
+ */
+public final class RoaringWordAccessor<T> implements WordAccessor<T> {
+
+    private final HostFields<T> fields;
+
+    private RoaringWordAccessor(HostFields<T> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * 按字段名创建 accessor。
+     *
+     * @param lookup     宿主类中的 MethodHandles.lookup()，用于访问 private 字段
+     * @param hostClass  宿主类型
+     * @param storeField RoaringWords 字段名
+     */
+    public static <T> RoaringWordAccessor<T> of(MethodHandles.Lookup lookup, Class<T> hostClass, String storeField) {
+        if (lookup == null || hostClass == null || storeField == null) {
+            throw new NullPointerException("lookup, hostClass and storeField cannot be null");
+        }
+        return new RoaringWordAccessor<>(HostFields.of(lookup, hostClass, new String[0], storeField, RoaringWords.class));
+    }
+
+    /**
+     * 返回宿主的存储，空位集合时为 null。
+     */
+    public RoaringWords getStore(T instance) {
+        return (RoaringWords) fields.getRef(instance);
+    }
+
+    // --- WordAccessor ---
+
+    @Override
+    public long getWord(T instance, int wordIndex) {
+        RoaringWords words = (RoaringWords) fields.getRef(instance);
+        return words == null ? 0L : words.getWord(wordIndex);
+    }
+
+    @Override
+    public void setWord(T instance, int wordIndex, long value) {
+        RoaringWords words = (RoaringWords) fields.getRef(instance);
+        if (words == null) {
+            if (value == 0L) {
+                return;
+            }
+            words = new RoaringWords();
+            fields.setRef(instance, words);
+        }
+        words.setWord(wordIndex, value);
+    }
+
+    @Override
+    public void ensureCapacity(T instance, int minWordCount) {
+        // 容器按需创建，任意 wordIndex 均可直接写入
+    }
+
+    @Override
+    public int getWordCount(T instance) {
+        RoaringWords words = (RoaringWords) fields.getRef(instance);
+        return words == null ? 0 : words.wordCount();
+    }
+
+    @Override
+    public void trim(T instance) {
+        RoaringWords words = (RoaringWords) fields.getRef(instance);
+        if (words != null && words.isEmpty()) {
+            fields.setRef(instance, null);
+        }
+    }
+
+    @Override
+    public long estimatedBytes(T instance) {
+        RoaringWords words = (RoaringWords) fields.getRef(instance);
+        return words == null ? 0L : words.estimatedBytes();
+    }
+
+    @Override
+    public void fillWords(T instance, int fromWordIndex, int toWordIndex, long value) {
+        if (fromWordIndex >= toWordIndex) {
+            return;
+        }
+        RoaringWords words = (RoaringWords) fields.getRef(instance);
+        if (words == null) {
+            if (value == 0L) {
+                return;
+            }
+            words = new RoaringWords();
+            fields.setRef(instance, words);
+        }
+        words.fillWords(fromWordIndex, toWordIndex, value);
+    }
+}
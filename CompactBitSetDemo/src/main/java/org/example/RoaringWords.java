@@ -0,0 +1,506 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * 仿 Roaring Bitmap 的稀疏 word 存储：按 1024 个 word（65536 位）分块，每块按密度选择容器：
+ * <ul>
+ *     <li>ArrayContainer：置位数 &lt;= 4096 时，保存有序的块内位下标（char[]），稀疏数据每位只占 2 字节；</li>
+ *     <li>BitmapContainer：置位数 &gt; 4096 时，使用固定的 long[1024]；</li>
+ *     <li>RunContainer：连续区间（由 fillWords 或 {@link #runOptimize()} 产生），每段只占 4 字节。</li>
+ * </ul>
+ * 对外仍以 word 为单位读写，由 {@link RoaringWordAccessor} 接入 CompactBitsHandle。全 0 的块会立即移除。
+ * 非线程安全。
+ */
+public final class RoaringWords {
+
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_WORDS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_WORDS - 1;
+    private static final int CHUNK_BITS = CHUNK_WORDS << 6;
+    static final int ARRAY_MAX = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    private int wordCount;
+    private int lastIndex; // 顺序扫描时命中同一块，避免每个 word 都二分查找
+
+    // --- word 读写 ---
+
+    public long getWord(int wordIndex) {
+        int index = indexOf(wordIndex >>> CHUNK_SHIFT);
+        return index < 0 ? 0L : containers[index].getWord(wordIndex & CHUNK_MASK);
+    }
+
+    public void setWord(int wordIndex, long value) {
+        char key = (char) (wordIndex >>> CHUNK_SHIFT);
+        int index = indexOf(key);
+        if (index < 0) {
+            if (value == 0L) {
+                return;
+            }
+            Container container = new ArrayContainer().setWord(wordIndex & CHUNK_MASK, value);
+            insertAt(-index - 1, key, container);
+        } else {
+            Container updated = containers[index].setWord(wordIndex & CHUNK_MASK, value);
+            if (updated == null) {
+                removeAt(index);
+            } else {
+                containers[index] = updated;
+            }
+        }
+        if (value != 0L) {
+            if (wordIndex >= wordCount) {
+                wordCount = wordIndex + 1;
+            }
+        } else if (wordIndex == wordCount - 1) {
+            wordCount = size == 0 ? 0 : (keys[size - 1] << CHUNK_SHIFT) + containers[size - 1].highestWord() + 1;
+        }
+    }
+
+    /**
+     * 将 [fromWordIndex, toWordIndex) 全部设置为 value：完整覆盖的块直接替换为单个 run（全 1）或移除（全 0）。
+     */
+    public void fillWords(int fromWordIndex, int toWordIndex, long value) {
+        if (fromWordIndex >= toWordIndex) {
+            return; // 空区间不能改变 wordCount
+        }
+        int i = fromWordIndex;
+        while (i < toWordIndex) {
+            int chunkEnd = ((i >>> CHUNK_SHIFT) + 1) << CHUNK_SHIFT;
+            if ((i & CHUNK_MASK) == 0 && chunkEnd <= toWordIndex && (value == 0L || value == -1L)) {
+                char key = (char) (i >>> CHUNK_SHIFT);
+                int index = indexOf(key);
+                if (value == 0L) {
+                    if (index >= 0) {
+                        removeAt(index);
+                    }
+                } else if (index >= 0) {
+                    containers[index] = RunContainer.full();
+                } else {
+                    insertAt(-index - 1, key, RunContainer.full());
+                }
+                i = chunkEnd;
+            } else {
+                int end = Math.min(chunkEnd, toWordIndex);
+                for (; i < end; i++) {
+                    setWord(i, value);
+                }
+            }
+        }
+        if (value != 0L) {
+            wordCount = Math.max(wordCount, toWordIndex);
+        } else {
+            wordCount = size == 0 ? 0 : (keys[size - 1] << CHUNK_SHIFT) + containers[size - 1].highestWord() + 1;
+        }
+    }
+
+    /**
+     * 最高非 0 word 的下标 + 1。
+     */
+    public int wordCount() {
+        return wordCount;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int cardinality() {
+        int sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += containers[i].cardinality();
+        }
+        return sum;
+    }
+
+    public int containerCount() {
+        return size;
+    }
+
+    /**
+     * 把每个块转换为占用内存最小的容器（尤其是把连续区间压缩为 run），适合批量加载完成后调用一次。
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].optimize();
+        }
+    }
+
+    /**
+     * 估算占用的堆内存字节数，包括本对象、键数组、容器数组和全部容器，按 {@link Footprint} 的模型计算。
+     */
+    public long estimatedBytes() {
+        // 本对象：keys、containers 两个引用 + size、wordCount、lastIndex
+        long bytes = Footprint.align(Footprint.OBJECT_HEADER + 2 * Footprint.REFERENCE + 3 * 4)
+                + Footprint.align(Footprint.ARRAY_HEADER + 2L * keys.length)
+                + Footprint.align(Footprint.ARRAY_HEADER + (long) Footprint.REFERENCE * containers.length);
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].estimatedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * 返回 wordIndex 所在块使用的容器类型名称，未分配时返回 null，用于测试和诊断。
+     */
+    String containerType(int wordIndex) {
+        int index = indexOf(wordIndex >>> CHUNK_SHIFT);
+        return index < 0 ? null : containers[index].getClass().getSimpleName();
+    }
+
+    // --- 键查找 ---
+
+    private int indexOf(int key) {
+        int last = lastIndex;
+        if (last < size && keys[last] == key) {
+            return last;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) key);
+        if (index >= 0) {
+            lastIndex = index;
+        }
+        return index;
+    }
+
+    private void insertAt(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+        lastIndex = index;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+        lastIndex = 0;
+    }
+
+    // --- 容器 ---
+
+    abstract static class Container {
+        abstract long getWord(int localWord);
+
+        /**
+         * 返回写入后的容器（类型可能变化），全 0 时返回 null。
+         */
+        abstract Container setWord(int localWord, long value);
+
+        abstract int cardinality();
+
+        abstract int highestWord();
+
+        abstract long estimatedBytes();
+
+        abstract void appendTo(BitmapContainer bitmap);
+
+        /**
+         * 选择 array / bitmap / run 中最省内存的表示。
+         */
+        Container optimize() {
+            int card = cardinality();
+            BitmapContainer bitmap = new BitmapContainer();
+            appendTo(bitmap);
+            int runs = bitmap.countRuns();
+            long runBytes = 4L * runs;
+            long arrayBytes = 2L * card;
+            long bitmapBytes = 8L * CHUNK_WORDS;
+            if (runBytes < arrayBytes && runBytes < bitmapBytes) {
+                return RunContainer.from(bitmap, runs);
+            }
+            return card <= ARRAY_MAX ? ArrayContainer.from(bitmap) : bitmap;
+        }
+    }
+
+    static final class ArrayContainer extends Container {
+        private char[] values = new char[4];
+        private int cardinality;
+
+        static ArrayContainer from(BitmapContainer bitmap) {
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[Math.max(4, bitmap.cardinality)];
+            for (int w = 0; w < CHUNK_WORDS; w++) {
+                long word = bitmap.words[w];
+                while (word != 0L) {
+                    array.values[array.cardinality++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return array;
+        }
+
+        /**
+         * 第一个 >= position 的元素下标。
+         */
+        private int lowerBound(int position) {
+            int low = 0;
+            int high = cardinality;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < position) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        long getWord(int localWord) {
+            int base = localWord << 6;
+            long word = 0L;
+            for (int i = lowerBound(base); i < cardinality && values[i] < base + 64; i++) {
+                word |= 1L << values[i];
+            }
+            return word;
+        }
+
+        @Override
+        Container setWord(int localWord, long value) {
+            int base = localWord << 6;
+            int from = lowerBound(base);
+            int to = from;
+            while (to < cardinality && values[to] < base + 64) {
+                to++;
+            }
+            int newCount = Long.bitCount(value);
+            int newCardinality = cardinality - (to - from) + newCount;
+            if (newCardinality == 0) {
+                return null;
+            }
+            if (newCardinality > ARRAY_MAX) {
+                BitmapContainer bitmap = new BitmapContainer();
+                appendTo(bitmap);
+                return bitmap.setWord(localWord, value);
+            }
+            if (newCardinality > values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(newCardinality, values.length * 2)));
+            }
+            System.arraycopy(values, to, values, from + newCount, cardinality - to);
+            int i = from;
+            while (value != 0L) {
+                values[i++] = (char) (base + Long.numberOfTrailingZeros(value));
+                value &= value - 1;
+            }
+            cardinality = newCardinality;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int highestWord() {
+            return values[cardinality - 1] >>> 6;
+        }
+
+        @Override
+        long estimatedBytes() {
+            return Footprint.align(Footprint.OBJECT_HEADER + Footprint.REFERENCE + 4)
+                    + Footprint.align(Footprint.ARRAY_HEADER + 2L * values.length);
+        }
+
+        @Override
+        void appendTo(BitmapContainer bitmap) {
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bitmap.cardinality += cardinality;
+        }
+    }
+
+    static final class BitmapContainer extends Container {
+        private final long[] words = new long[CHUNK_WORDS];
+        private int cardinality;
+
+        @Override
+        long getWord(int localWord) {
+            return words[localWord];
+        }
+
+        @Override
+        Container setWord(int localWord, long value) {
+            cardinality += Long.bitCount(value) - Long.bitCount(words[localWord]);
+            words[localWord] = value;
+            if (cardinality == 0) {
+                return null;
+            }
+            return cardinality <= ARRAY_MAX ? ArrayContainer.from(this) : this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int highestWord() {
+            int i = CHUNK_WORDS - 1;
+            while (words[i] == 0L) {
+                i--;
+            }
+            return i;
+        }
+
+        @Override
+        long estimatedBytes() {
+            return Footprint.align(Footprint.OBJECT_HEADER + Footprint.REFERENCE + 4) + Footprint.longArrayBytes(CHUNK_WORDS);
+        }
+
+        @Override
+        void appendTo(BitmapContainer bitmap) {
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                bitmap.words[i] |= words[i];
+            }
+            bitmap.cardinality += cardinality;
+        }
+
+        /**
+         * 连续 1 区间的个数。
+         */
+        int countRuns() {
+            int runs = 0;
+            for (int i = 0; i < CHUNK_WORDS; i++) {
+                long word = words[i];
+                long next = i + 1 < CHUNK_WORDS ? words[i + 1] : 0L;
+                // 每个 run 的结尾是一个 1 后面紧跟 0（跨 word 时看下一个 word 的最低位）
+                runs += Long.bitCount(word & ~(word >>> 1 | next << 63));
+            }
+            return runs;
+        }
+    }
+
+    static final class RunContainer extends Container {
+        // 每个 run 占两个元素：起始位、长度 - 1
+        private final char[] runs;
+        private final int runCount;
+        private final int cardinality;
+
+        private RunContainer(char[] runs, int runCount) {
+            this.runs = runs;
+            this.runCount = runCount;
+            int sum = 0;
+            for (int i = 0; i < runCount; i++) {
+                sum += runs[2 * i + 1] + 1;
+            }
+            this.cardinality = sum;
+        }
+
+        static RunContainer full() {
+            return new RunContainer(new char[]{0, (char) (CHUNK_BITS - 1)}, 1);
+        }
+
+        static RunContainer from(BitmapContainer bitmap, int runCount) {
+            char[] runs = new char[2 * runCount];
+            int n = 0;
+            int position = 0;
+            while (n < runCount) {
+                int start = nextBit(bitmap.words, position, false);
+                int end = nextBit(bitmap.words, start, true);
+                runs[2 * n] = (char) start;
+                runs[2 * n + 1] = (char) (end - start - 1);
+                n++;
+                position = end;
+            }
+            return new RunContainer(runs, runCount);
+        }
+
+        private static int nextBit(long[] words, int from, boolean clear) {
+            int w = from >>> 6;
+            if (w >= CHUNK_WORDS) {
+                return CHUNK_BITS;
+            }
+            long word = (clear ? ~words[w] : words[w]) & (-1L << from);
+            while (word == 0L) {
+                if (++w == CHUNK_WORDS) {
+                    return CHUNK_BITS;
+                }
+                word = clear ? ~words[w] : words[w];
+            }
+            return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        long getWord(int localWord) {
+            int base = localWord << 6;
+            int last = base + 63;
+            // 找到第一个结尾 >= base 的 run
+            int low = 0;
+            int high = runCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (runs[2 * mid] + runs[2 * mid + 1] < base) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            long word = 0L;
+            for (int i = low; i < runCount && runs[2 * i] <= last; i++) {
+                int start = Math.max(runs[2 * i], base) - base;
+                int end = Math.min(runs[2 * i] + runs[2 * i + 1], last) - base;
+                word |= (-1L << start) & (-1L >>> (63 - end));
+            }
+            return word;
+        }
+
+        @Override
+        Container setWord(int localWord, long value) {
+            // run 只在批量加载/优化时产生，修改时展开为 bitmap 再按密度决定最终形态
+            BitmapContainer bitmap = new BitmapContainer();
+            appendTo(bitmap);
+            return bitmap.setWord(localWord, value);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int highestWord() {
+            int i = 2 * (runCount - 1);
+            return (runs[i] + runs[i + 1]) >>> 6;
+        }
+
+        @Override
+        long estimatedBytes() {
+            return Footprint.align(Footprint.OBJECT_HEADER + Footprint.REFERENCE + 2 * 4)
+                    + Footprint.align(Footprint.ARRAY_HEADER + 2L * runs.length);
+        }
+
+        @Override
+        void appendTo(BitmapContainer bitmap) {
+            for (int i = 0; i < runCount; i++) {
+                int start = runs[2 * i];
+                int end = start + runs[2 * i + 1] + 1; // 不含
+                int firstWord = start >>> 6;
+                int lastWord = (end - 1) >>> 6;
+                long firstMask = -1L << start;
+                long lastMask = -1L >>> -end;
+                if (firstWord == lastWord) {
+                    bitmap.words[firstWord] |= firstMask & lastMask;
+                } else {
+                    bitmap.words[firstWord] |= firstMask;
+                    for (int w = firstWord + 1; w < lastWord; w++) {
+                        bitmap.words[w] = -1L;
+                    }
+                    bitmap.words[lastWord] |= lastMask;
+                }
+            }
+            bitmap.cardinality += cardinality;
+        }
+    }
+}
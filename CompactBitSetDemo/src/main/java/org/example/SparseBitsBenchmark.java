@@ -0,0 +1,160 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 稠密存储（InlineHeapWordAccessor）与稀疏存储（RoaringWordAccessor）在不同密度下的吞吐对比，
+ * 每个密度的内存占用由 {@link #footprint} 通过 JMH 辅助计数器报告（estimatedBytes，不含宿主对象本身）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparseBitsBenchmark {
+
+    private static final int MAX_BIT_INDEX = 1_000_000; // 与 CompactBitsHandleBenchmark 相同
+    private static final int OPERATIONS = 10_000;
+
+    @Param({"0.0001", "0.001", "0.01", "0.1", "0.5"})
+    public double density;
+
+    private DenseBean denseBean;
+    private SparseBean sparseBean;
+    private int[] randomIndices;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        denseBean = new DenseBean();
+        sparseBean = new SparseBean();
+        int count = (int) (MAX_BIT_INDEX * density);
+        for (int i = 0; i < count; i++) {
+            int bit = random.nextInt(MAX_BIT_INDEX);
+            DenseBean.HANDLE.set(denseBean, bit);
+            SparseBean.HANDLE.set(sparseBean, bit);
+        }
+        randomIndices = new int[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            randomIndices[i] = random.nextInt(MAX_BIT_INDEX);
+        }
+    }
+
+    /**
+     * 内存占用，作为 footprint 基准的辅助结果输出（EVENTS：不按时间归一化，即最后一次赋值）。
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FootprintCounters {
+        public long denseBytes;
+        public long sparseBytes;
+        public long sparseContainers;
+    }
+
+    // --- 内存占用（setup 之后不修改位，计数器即该密度下的占用） ---
+
+    @Benchmark
+    public void footprint(FootprintCounters counters) {
+        counters.denseBytes = DenseBean.HANDLE.estimatedBytes(denseBean);
+        counters.sparseBytes = SparseBean.HANDLE.estimatedBytes(sparseBean);
+        counters.sparseContainers = sparseBean.bits != null ? sparseBean.bits.containerCount() : 0;
+    }
+
+    // --- get ---
+
+    @Benchmark
+    public void benchmarkDense_Get(Blackhole blackhole) {
+        for (int index : randomIndices) {
+            blackhole.consume(DenseBean.HANDLE.get(denseBean, index));
+        }
+    }
+
+    @Benchmark
+    public void benchmarkSparse_Get(Blackhole blackhole) {
+        for (int index : randomIndices) {
+            blackhole.consume(SparseBean.HANDLE.get(sparseBean, index));
+        }
+    }
+
+    // --- set（重复置位已存在的位之后结果稳定） ---
+
+    @Benchmark
+    public void benchmarkDense_Set(Blackhole blackhole) {
+        for (int index : randomIndices) {
+            DenseBean.HANDLE.set(denseBean, index);
+        }
+        blackhole.consume(denseBean);
+    }
+
+    @Benchmark
+    public void benchmarkSparse_Set(Blackhole blackhole) {
+        for (int index : randomIndices) {
+            SparseBean.HANDLE.set(sparseBean, index);
+        }
+        blackhole.consume(sparseBean);
+    }
+
+    // --- cardinality ---
+
+    @Benchmark
+    public void benchmarkDense_Cardinality(Blackhole blackhole) {
+        blackhole.consume(DenseBean.HANDLE.cardinality(denseBean));
+    }
+
+    @Benchmark
+    public void benchmarkSparse_Cardinality(Blackhole blackhole) {
+        blackhole.consume(SparseBean.HANDLE.cardinality(sparseBean));
+    }
+
+    // --- nextSetBit 遍历 ---
+
+    @Benchmark
+    public void benchmarkDense_NextSetBit(Blackhole blackhole) {
+        int from = 0;
+        for (int i = 0; i < OPERATIONS && from >= 0; i++) {
+            from = DenseBean.HANDLE.nextSetBit(denseBean, from + 1);
+            blackhole.consume(from);
+        }
+    }
+
+    @Benchmark
+    public void benchmarkSparse_NextSetBit(Blackhole blackhole) {
+        int from = 0;
+        for (int i = 0; i < OPERATIONS && from >= 0; i++) {
+            from = SparseBean.HANDLE.nextSetBit(sparseBean, from + 1);
+            blackhole.consume(from);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SparseBitsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    public static class DenseBean {
+        private long inlineBits;
+        private long[] heapArray;
+
+        public static final CompactBitsHandle<DenseBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), DenseBean.class, "heapArray", "inlineBits"));
+    }
+
+    public static class SparseBean {
+        private RoaringWords bits;
+
+        public static final CompactBitsHandle<SparseBean> HANDLE = new CompactBitsHandle<>(
+                RoaringWordAccessor.of(MethodHandles.lookup(), SparseBean.class, "bits"));
+    }
+}
@@ -33,4 +33,144 @@ public interface WordAccessor<T> {
     default void trim(T instance) {
         // 默认不实现，宿主可override
     }
+
+    // --- wordsInUse 跟踪（可选实现，对应 BitSet.wordsInUse） ---
+
+    /**
+     * 宿主是否保存 wordsInUse（最高非 0 word 的下标 + 1）。返回 true 时由 Handle 在每次修改后维护该值，
+     * length/isEmpty 变为 O(1)，clear 只在最高 word 变为 0 时才调用 trim。对同一个 accessor 必须是常量。
+     */
+    default boolean tracksWordsInUse() {
+        return false;
+    }
+
+    /**
+     * 返回宿主保存的 wordsInUse，仅当 tracksWordsInUse() 为 true 时调用。
+     */
+    default int getWordsInUse(T instance) {
+        throw new UnsupportedOperationException("wordsInUse is not tracked");
+    }
+
+    /**
+     * 保存 wordsInUse，仅当 tracksWordsInUse() 为 true 时调用。
+     */
+    default void setWordsInUse(T instance, int wordsInUse) {
+        throw new UnsupportedOperationException("wordsInUse is not tracked");
+    }
+
+    // --- 写时复制快照（可选实现） ---
+
+    /**
+     * 让 target 的位字段成为 source 的快照并共享底层存储（之后双方的写入互不可见），返回 true；
+     * 不支持共享时返回 false（默认），由 {@link CompactBitsHandle#snapshot} 逐 word 复制。
+     */
+    default boolean shareWords(T source, T target) {
+        return false;
+    }
+
+    // --- rank/select 加速（可选实现） ---
+
+    /**
+     * 返回 instance 最新的 rank 目录（过期时先重建），不支持时返回 null（默认），
+     * 由 {@link CompactBitsHandle#rank}/{@link CompactBitsHandle#select} 线性扫描。见 {@link RankedWordAccessor}。
+     */
+    default RankDirectory getRankDirectory(T instance) {
+        return null;
+    }
+
+    // --- 内存占用估算（可选实现） ---
+
+    /**
+     * 估算该位字段在宿主对象之外持有的堆内存字节数（inline 字段已计入宿主对象本身）。
+     * 默认按连续 word 段（long[]）计算，没有连续段时返回 0。
+     */
+    default long estimatedBytes(T instance) {
+        long[] segment = getWordSegment(instance);
+        return segment == null ? 0L : Footprint.longArrayBytes(segment.length);
+    }
+
+    // --- 批量 word 访问（可选实现） ---
+
+    /**
+     * 返回保存连续 word 段的底层数组，没有则返回 null（默认）。
+     * 数组下标 i 对应 wordIndex = getSegmentOffset() + i，且 getSegmentOffset() + 数组长度 不超过 getWordCount。
+     * Handle 会直接读写该数组以避免逐 word 的虚调用，因此宿主不能返回副本。
+     */
+    default long[] getWordSegment(T instance) {
+        return null;
+    }
+
+    /**
+     * 连续 word 段中第一个元素对应的 wordIndex（例如 inline 1 个 word 时为 1），对同一个 accessor 必须是常量。
+     */
+    default int getSegmentOffset() {
+        return 0;
+    }
+
+    /**
+     * 读取 [fromWordIndex, fromWordIndex + length) 到 dest[destPos...]，越界的 word 读为 0L。
+     */
+    default void getWords(T instance, int fromWordIndex, long[] dest, int destPos, int length) {
+        int i = 0;
+        long[] segment = getWordSegment(instance);
+        if (segment != null) {
+            int offset = getSegmentOffset();
+            for (; i < length && fromWordIndex + i < offset; i++) {
+                dest[destPos + i] = getWord(instance, fromWordIndex + i);
+            }
+            int segmentIndex = fromWordIndex + i - offset;
+            int n = Math.min(length - i, segment.length - segmentIndex);
+            if (n > 0) {
+                System.arraycopy(segment, segmentIndex, dest, destPos + i, n);
+                i += n;
+            }
+            Arrays.fill(dest, destPos + i, destPos + length, 0L);
+            return;
+        }
+        for (; i < length; i++) {
+            dest[destPos + i] = getWord(instance, fromWordIndex + i);
+        }
+    }
+
+    /**
+     * 将 src[srcPos...] 写入 [fromWordIndex, fromWordIndex + length)，调用前需保证 ensureCapacity。
+     */
+    default void setWords(T instance, int fromWordIndex, long[] src, int srcPos, int length) {
+        int i = 0;
+        long[] segment = getWordSegment(instance);
+        if (segment != null) {
+            int offset = getSegmentOffset();
+            for (; i < length && fromWordIndex + i < offset; i++) {
+                setWord(instance, fromWordIndex + i, src[srcPos + i]);
+            }
+            if (i < length) {
+                System.arraycopy(src, srcPos + i, segment, fromWordIndex + i - offset, length - i);
+            }
+            return;
+        }
+        for (; i < length; i++) {
+            setWord(instance, fromWordIndex + i, src[srcPos + i]);
+        }
+    }
+
+    /**
+     * 将 [fromWordIndex, toWordIndex) 全部设置为 value，调用前需保证 ensureCapacity。
+     */
+    default void fillWords(T instance, int fromWordIndex, int toWordIndex, long value) {
+        int i = fromWordIndex;
+        long[] segment = getWordSegment(instance);
+        if (segment != null) {
+            int offset = getSegmentOffset();
+            for (; i < toWordIndex && i < offset; i++) {
+                setWord(instance, i, value);
+            }
+            if (i < toWordIndex) {
+                WordKernels.ACTIVE.fill(segment, i - offset, toWordIndex - offset, value);
+            }
+            return;
+        }
+        for (; i < toWordIndex; i++) {
+            setWord(instance, i, value);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * 对连续 word 段（long[]）的批量扫描内核：计数、查找第一个不等于某值的 word、填充。
+ * <p>
+ * 运行时选择实现：{@code VectorWordKernels}（SIMD）位于单独的 vector 源集，只在 JDK 16+ 工具链下编译；
+ * 该类存在且 JVM 启用了 {@code jdk.incubator.vector} 模块（{@code --add-modules jdk.incubator.vector}）时使用它，
+ * 否则使用逐 word 的标量实现。可以通过 {@code -Dorg.example.vectorKernels=false} 强制使用标量实现。
+ * Vector 实现通过反射加载，因此 main 源集的编译和运行都不依赖孵化模块。
+ */
+abstract class WordKernels {
+
+    static final WordKernels SCALAR = new Scalar();
+
+    /**
+     * 当前 JVM 选中的实现，保存在 static final 字段中以便 JIT 内联。
+     */
+    static final WordKernels ACTIVE = select();
+
+    /**
+     * words[from, to) 中置位的总数。
+     */
+    abstract int bitCount(long[] words, int from, int to);
+
+    /**
+     * words[from, to) 中第一个不等于 skip 的下标，找不到返回 to。
+     */
+    abstract int indexOfNot(long[] words, int from, int to, long skip);
+
+    /**
+     * 将 words[from, to) 全部设置为 value。
+     */
+    abstract void fill(long[] words, int from, int to, long value);
+
+    /**
+     * 实现名称，用于基准测试输出。
+     */
+    abstract String name();
+
+    /**
+     * 返回 Vector 实现，当前 JVM 不支持时返回 null。
+     */
+    static WordKernels vectorOrNull() {
+        try {
+            return (WordKernels) Class.forName("org.example.VectorWordKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // 未编译 vector 源集（工具链 < 16），或运行时未启用 jdk.incubator.vector 模块
+            return null;
+        }
+    }
+
+    private static WordKernels select() {
+        if (!Boolean.parseBoolean(System.getProperty("org.example.vectorKernels", "true"))) {
+            return SCALAR;
+        }
+        WordKernels vector = vectorOrNull();
+        return vector != null ? vector : SCALAR;
+    }
+
+    private static final class Scalar extends WordKernels {
+        @Override
+        int bitCount(long[] words, int from, int to) {
+            int sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += Long.bitCount(words[i]);
+            }
+            return sum;
+        }
+
+        @Override
+        int indexOfNot(long[] words, int from, int to, long skip) {
+            for (int i = from; i < to; i++) {
+                if (words[i] != skip) {
+                    return i;
+                }
+            }
+            return to;
+        }
+
+        @Override
+        void fill(long[] words, int from, int to, long value) {
+            Arrays.fill(words, from, to, value);
+        }
+
+        @Override
+        String name() {
+            return "scalar";
+        }
+    }
+}
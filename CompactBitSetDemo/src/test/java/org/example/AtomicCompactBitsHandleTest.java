@@ -0,0 +1,153 @@
+package org.example;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AtomicCompactBitsHandleTest {
+
+    public static class SharedBean {
+        private volatile long inlineBits;
+        private volatile long[][] chunks;
+
+        static final AtomicChunkedWordAccessor<SharedBean> ACCESSOR =
+                AtomicChunkedWordAccessor.of(MethodHandles.lookup(), SharedBean.class, "chunks", "inlineBits");
+        static final AtomicCompactBitsHandle<SharedBean> HANDLE = new AtomicCompactBitsHandle<>(ACCESSOR);
+    }
+
+    private static final AtomicCompactBitsHandle<SharedBean> HANDLE = SharedBean.HANDLE;
+    private static final int THREADS = 4;
+
+    private SharedBean bean;
+
+    @Before
+    public void setUp() {
+        bean = new SharedBean();
+    }
+
+    private static void runConcurrently(Runnable task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                task.run();
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    // --- 单线程语义 ---
+
+    @Test
+    public void testSingleThread_vsBitSet() {
+        BitSet bs = new BitSet();
+        java.util.Random random = new java.util.Random(9);
+        for (int i = 0; i < 5000; i++) {
+            int bit = random.nextInt(20_000);
+            switch (random.nextInt(4)) {
+                case 0: bs.set(bit); HANDLE.set(bean, bit); break;
+                case 1: bs.clear(bit); HANDLE.clear(bean, bit); break;
+                case 2: bs.flip(bit); HANDLE.flip(bean, bit); break;
+                default:
+                    int to = bit + random.nextInt(300);
+                    bs.set(bit, to);
+                    HANDLE.set(bean, bit, to);
+            }
+        }
+        assertEquals(bs.cardinality(), HANDLE.cardinality(bean));
+        assertEquals(bs.length(), HANDLE.length(bean));
+        for (int i = bs.nextSetBit(0); i >= 0; i = bs.nextSetBit(i + 1)) {
+            assertEquals(i, HANDLE.nextSetBit(bean, i));
+        }
+        HANDLE.clear(bean, 0, 20_400);
+        assertTrue(HANDLE.isEmpty(bean));
+    }
+
+    @Test
+    public void testTestAndSet_returnsPreviousValue() {
+        assertFalse(HANDLE.testAndSet(bean, 70));
+        assertTrue(HANDLE.testAndSet(bean, 70));
+        assertTrue(HANDLE.testAndClear(bean, 70));
+        assertFalse(HANDLE.testAndClear(bean, 70));
+        assertFalse(HANDLE.testAndClear(bean, 100_000)); // 未分配
+    }
+
+    @Test
+    public void testEnsureCapacity_growsDirectoryGeometrically() {
+        AtomicChunkedWordAccessor<SharedBean> accessor = SharedBean.ACCESSOR;
+        int chunk = AtomicChunkedWordAccessor.CHUNK_WORDS;
+        accessor.ensureCapacity(bean, 2);
+        assertEquals(1 + chunk, accessor.getWordCount(bean));
+        accessor.ensureCapacity(bean, 2 + chunk);
+        assertEquals(1 + 2 * chunk, accessor.getWordCount(bean));
+        // 逐块扩容时目录按倍数增长
+        accessor.ensureCapacity(bean, 2 + 2 * chunk);
+        assertEquals(1 + 4 * chunk, accessor.getWordCount(bean));
+        // 一次要求更多时直接扩到所需大小
+        accessor.ensureCapacity(bean, 1 + 11 * chunk);
+        assertEquals(1 + 11 * chunk, accessor.getWordCount(bean));
+        // 目录中每个位置都有块，容量内的 word 都可以写
+        accessor.setWord(bean, 11 * chunk, -1L);
+        assertEquals(-1L, accessor.getWord(bean, 11 * chunk));
+    }
+
+    // --- 并发 ---
+
+    @Test
+    public void testConcurrentSet_sameWordsNoLostBits() throws InterruptedException {
+        int bits = 64 * 500;
+        AtomicInteger nextThread = new AtomicInteger();
+        runConcurrently(() -> {
+            int t = nextThread.getAndIncrement();
+            // 各线程交错写同一批 word 中的不同位，同时触发并发扩容
+            for (int i = t; i < bits; i += THREADS) {
+                HANDLE.set(bean, i);
+            }
+        });
+        assertEquals(bits, HANDLE.cardinality(bean));
+    }
+
+    @Test
+    public void testConcurrentTestAndSet_exactlyOneWinner() throws InterruptedException {
+        int bits = 10_000;
+        AtomicInteger winners = new AtomicInteger();
+        runConcurrently(() -> {
+            for (int i = 0; i < bits; i++) {
+                if (!HANDLE.testAndSet(bean, i)) {
+                    winners.incrementAndGet();
+                }
+            }
+        });
+        assertEquals(bits, winners.get());
+        assertEquals(bits, HANDLE.cardinality(bean));
+    }
+
+    @Test
+    public void testConcurrentFlip_evenFlipsCancelOut() throws InterruptedException {
+        int bits = 4096;
+        runConcurrently(() -> {
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < bits; i++) {
+                    HANDLE.flip(bean, i);
+                }
+            }
+        });
+        assertTrue(HANDLE.isEmpty(bean));
+    }
+}
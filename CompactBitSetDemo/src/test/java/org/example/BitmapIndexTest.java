@@ -0,0 +1,128 @@
+package org.example;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static org.junit.Assert.*;
+
+public class BitmapIndexTest {
+
+    private static final int ROWS = 5000;
+    private static final int STATUS_VALUES = 5;
+
+    private int[] status;
+    private long[] amount;
+    private boolean[] amountNull;
+    private EqualityBitmapIndex statusIndex;
+    private BitSlicedIndex amountIndex;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(31);
+        status = new int[ROWS];
+        amount = new long[ROWS];
+        amountNull = new boolean[ROWS];
+        statusIndex = new EqualityBitmapIndex(STATUS_VALUES);
+        amountIndex = new BitSlicedIndex(10);
+        for (int row = 0; row < ROWS; row++) {
+            status[row] = random.nextInt(STATUS_VALUES);
+            assertEquals(row, statusIndex.add(status[row]));
+            amountNull[row] = random.nextInt(20) == 0;
+            if (amountNull[row]) {
+                assertEquals(row, amountIndex.addNull());
+            } else {
+                amount[row] = random.nextInt(1000);
+                assertEquals(row, amountIndex.add(amount[row]));
+            }
+        }
+    }
+
+    private static void assertRows(IntPredicate expected, IndexBitmap actual) {
+        int count = 0;
+        for (int row = 0; row < ROWS; row++) {
+            assertEquals("row " + row, expected.test(row), actual.contains(row));
+            if (expected.test(row)) {
+                count++;
+            }
+        }
+        assertEquals(count, actual.cardinality());
+    }
+
+    @Test
+    public void testEquality_eqAndIn() {
+        assertRows(row -> status[row] == 2, statusIndex.eq(2));
+        assertRows(row -> status[row] == 0 || status[row] == 3, statusIndex.in(0, 3));
+        assertRows(row -> status[row] != 1, statusIndex.notIn(1));
+        assertRows(row -> false, statusIndex.in());
+    }
+
+    @Test
+    public void testEquality_resultsAreIndependentCopies() {
+        IndexBitmap rows = statusIndex.eq(2);
+        rows.and(statusIndex.eq(3));
+        assertTrue(rows.isEmpty());
+        assertRows(row -> status[row] == 2, statusIndex.eq(2));
+    }
+
+    @Test
+    public void testBitSliced_comparisons() {
+        for (long c : new long[]{-1, 0, 1, 255, 256, 500, 999, 1023, 1024, 5000}) {
+            assertRows(row -> !amountNull[row] && amount[row] == c, amountIndex.eq(c));
+            assertRows(row -> !amountNull[row] && amount[row] < c, amountIndex.lt(c));
+            assertRows(row -> !amountNull[row] && amount[row] <= c, amountIndex.le(c));
+            assertRows(row -> !amountNull[row] && amount[row] > c, amountIndex.gt(c));
+            assertRows(row -> !amountNull[row] && amount[row] >= c, amountIndex.ge(c));
+        }
+        assertRows(row -> !amountNull[row] && amount[row] >= 100 && amount[row] <= 300, amountIndex.between(100, 300));
+        assertRows(row -> false, amountIndex.between(300, 100));
+    }
+
+    @Test
+    public void testBooleanQuery_statusInAndAmountRange() {
+        IndexBitmap rows = statusIndex.in(1, 4).and(amountIndex.lt(200)).or(statusIndex.eq(0).and(amountIndex.ge(900)));
+        assertRows(row -> !amountNull[row]
+                && ((status[row] == 1 || status[row] == 4) && amount[row] < 200
+                || status[row] == 0 && amount[row] >= 900), rows);
+
+        IndexBitmap notTwo = statusIndex.eq(2).not(ROWS);
+        assertRows(row -> status[row] != 2, notTwo);
+        assertRows(row -> amountNull[row], amountIndex.notNull().not(ROWS));
+    }
+
+    @Test
+    public void testAggregates() {
+        IndexBitmap filter = statusIndex.eq(3);
+        long expectedSum = 0;
+        int[] expectedCounts = new int[STATUS_VALUES];
+        for (int row = 0; row < ROWS; row++) {
+            if (status[row] == 3) {
+                expectedSum += amount[row];
+            }
+            if (!amountNull[row] && amount[row] < 100) {
+                expectedCounts[status[row]]++;
+            }
+        }
+        assertEquals(expectedSum, amountIndex.sum(filter));
+        assertArrayEquals(expectedCounts, statusIndex.countByValue(amountIndex.lt(100)));
+    }
+
+    @Test
+    public void testBuild_fromColumns() {
+        BitSlicedIndex built = BitSlicedIndex.build(new long[]{5, 0, 1L << 40, 7});
+        assertEquals(41, built.bitDepth());
+        assertRows(row -> row == 0 || row == 3, built.between(5, 7));
+        assertEquals(5 + (1L << 40) + 7, built.sum(null));
+
+        EqualityBitmapIndex eq = EqualityBitmapIndex.build(new int[]{1, 1, 0}, 2);
+        assertEquals(3, eq.rowCount());
+        assertEquals(2, eq.eq(1).cardinality());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBitSliced_valueOutOfRange() {
+        amountIndex.add(1024);
+    }
+}
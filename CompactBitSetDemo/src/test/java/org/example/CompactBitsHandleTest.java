@@ -63,6 +63,16 @@ public class CompactBitsHandleTest {
                 if (n == 0) instance.heapArray = null;
                 else if (n < heap.length) instance.heapArray = Arrays.copyOf(heap, n);
             }
+
+            @Override
+            public long[] getWordSegment(TestBean instance) {
+                return instance.heapArray;
+            }
+
+            @Override
+            public int getSegmentOffset() {
+                return 1; // heap[0] 对应 word 1
+            }
         };
 
         public static final CompactBitsHandle<TestBean> HANDLE = new CompactBitsHandle<>(ACCESSOR);
@@ -127,6 +137,59 @@ public class CompactBitsHandleTest {
         public int size(){
             return HANDLE.size(this);
         }
+
+        public void and(TestBean other) {
+            HANDLE.and(this, HANDLE, other);
+        }
+
+        public void or(TestBean other) {
+            HANDLE.or(this, HANDLE, other);
+        }
+
+        public void xor(TestBean other) {
+            HANDLE.xor(this, HANDLE, other);
+        }
+
+        public void andNot(TestBean other) {
+            HANDLE.andNot(this, HANDLE, other);
+        }
+
+        public boolean intersects(TestBean other) {
+            return HANDLE.intersects(this, HANDLE, other);
+        }
+
+        public int intersectionCardinality(TestBean other) {
+            return HANDLE.intersectionCardinality(this, HANDLE, other);
+        }
+    }
+
+    // 只有一个 inline word 的另一种宿主，用于验证跨宿主类型的位运算
+    public static class InlineOnlyBean {
+        private long bits;
+
+        private static final WordAccessor<InlineOnlyBean> ACCESSOR = new WordAccessor<InlineOnlyBean>() {
+            @Override
+            public long getWord(InlineOnlyBean instance, int wordIndex) {
+                return wordIndex == 0 ? instance.bits : 0L;
+            }
+
+            @Override
+            public void setWord(InlineOnlyBean instance, int wordIndex, long value) {
+                instance.bits = value;
+            }
+
+            @Override
+            public void ensureCapacity(InlineOnlyBean instance, int minWordCount) {
+                if (minWordCount > 1) throw new IndexOutOfBoundsException("InlineOnlyBean supports 64 bits");
+            }
+
+            @Override
+            public int getWordCount(InlineOnlyBean instance) {
+                return 1;
+            }
+        };
+
+        public static final CompactBitsHandle<InlineOnlyBean> HANDLE = new CompactBitsHandle<>(ACCESSOR);
     }
 
     private TestBean bean;
@@ -443,6 +506,535 @@ public class CompactBitsHandleTest {
         assertEquals(bs.nextClearBit(50), cb.nextClearBit(50));
     }
 
+    // --- and / or / xor / andNot 对比测试 ---
+
+    private static void fillRandom(BitSet bs, TestBean cb, long seed, int bits) {
+        java.util.Random random = new java.util.Random(seed);
+        for (int i = 0; i < bits / 4; i++) {
+            int bit = random.nextInt(bits);
+            bs.set(bit);
+            cb.set(bit);
+        }
+    }
+
+    private static void assertSameBits(BitSet expected, TestBean actual) {
+        assertArrayEquals(expected.toLongArray(), Arrays.copyOf(actual.toLongArray(), expected.toLongArray().length));
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertEquals(expected.length(), actual.length());
+    }
+
+    @Test
+    public void testVsBitSet_and() {
+        BitSet bs1 = new BitSet(), bs2 = new BitSet();
+        TestBean cb1 = new TestBean(), cb2 = new TestBean();
+        fillRandom(bs1, cb1, 1, 1000);
+        fillRandom(bs2, cb2, 2, 300);
+
+        bs1.and(bs2);
+        cb1.and(cb2);
+        assertSameBits(bs1, cb1);
+    }
+
+    @Test
+    public void testVsBitSet_or() {
+        BitSet bs1 = new BitSet(), bs2 = new BitSet();
+        TestBean cb1 = new TestBean(), cb2 = new TestBean();
+        fillRandom(bs1, cb1, 1, 300);
+        fillRandom(bs2, cb2, 2, 1000);
+
+        bs1.or(bs2);
+        cb1.or(cb2);
+        assertSameBits(bs1, cb1);
+    }
+
+    @Test
+    public void testVsBitSet_xor() {
+        BitSet bs1 = new BitSet(), bs2 = new BitSet();
+        TestBean cb1 = new TestBean(), cb2 = new TestBean();
+        fillRandom(bs1, cb1, 1, 1000);
+        fillRandom(bs2, cb2, 2, 1000);
+
+        bs1.xor(bs2);
+        cb1.xor(cb2);
+        assertSameBits(bs1, cb1);
+
+        // 与自身异或得到空集
+        cb1.xor(cb1);
+        assertTrue(cb1.isEmpty());
+    }
+
+    @Test
+    public void testVsBitSet_andNot() {
+        BitSet bs1 = new BitSet(), bs2 = new BitSet();
+        TestBean cb1 = new TestBean(), cb2 = new TestBean();
+        fillRandom(bs1, cb1, 1, 1000);
+        fillRandom(bs2, cb2, 2, 500);
+
+        bs1.andNot(bs2);
+        cb1.andNot(cb2);
+        assertSameBits(bs1, cb1);
+    }
+
+    @Test
+    public void testIntersects_andIntersectionCardinality() {
+        TestBean cb1 = new TestBean().set(3).set(100).set(200);
+        TestBean cb2 = new TestBean().set(4).set(100);
+        assertTrue(cb1.intersects(cb2));
+        assertEquals(1, cb1.intersectionCardinality(cb2));
+
+        cb2.clear(100);
+        assertFalse(cb1.intersects(cb2));
+        assertEquals(0, cb1.intersectionCardinality(cb2));
+    }
+
+    @Test
+    public void testBulkOps_acrossHostTypes() {
+        TestBean cb = new TestBean().set(1).set(2).set(130);
+        InlineOnlyBean small = new InlineOnlyBean();
+        InlineOnlyBean.HANDLE.set(small, 2);
+        InlineOnlyBean.HANDLE.set(small, 5);
+
+        assertEquals(1, handle.intersectionCardinality(cb, InlineOnlyBean.HANDLE, small));
+
+        handle.or(cb, InlineOnlyBean.HANDLE, small);
+        assertEquals(4, cb.cardinality());
+
+        InlineOnlyBean.HANDLE.and(small, handle, cb);
+        assertEquals(2, InlineOnlyBean.HANDLE.cardinality(small));
+
+        handle.and(cb, InlineOnlyBean.HANDLE, small);
+        assertFalse(cb.get(130));
+        assertNull(cb.heapArray);
+    }
+
+    // --- snapshot（不支持共享存储时逐 word 复制） ---
+
+    @Test
+    public void testSnapshot_copiesAndDetaches() {
+        BitSet bs = new BitSet();
+        for (int bit : new int[]{0, 63, 64, 200, 1000}) {
+            bs.set(bit);
+            handle.set(bean, bit);
+        }
+        TestBean copy = new TestBean();
+        handle.set(copy, 5000);
+        handle.snapshot(bean, copy);
+        assertArrayEquals(bs.toLongArray(), handle.toLongArray(copy));
+        assertEquals(1001, handle.length(copy));
+
+        handle.clear(copy, 1000);
+        handle.set(copy, 1);
+        assertTrue(handle.get(bean, 1000));
+        assertFalse(handle.get(bean, 1));
+        assertEquals(bs.cardinality(), handle.cardinality(bean));
+
+        handle.snapshot(new TestBean(), copy);
+        assertTrue(handle.isEmpty(copy));
+        assertNull(copy.heapArray);
+    }
+
+    // --- 连续 word 段与逐 word 访问结果一致 ---
+
+    // 不暴露 getWordSegment 的 accessor，Handle 只能走逐 word 的默认路径
+    private static final CompactBitsHandle<TestBean> PER_WORD_HANDLE = new CompactBitsHandle<>(new WordAccessor<TestBean>() {
+        @Override
+        public long getWord(TestBean instance, int wordIndex) {
+            return TestBean.ACCESSOR.getWord(instance, wordIndex);
+        }
+
+        @Override
+        public void setWord(TestBean instance, int wordIndex, long value) {
+            TestBean.ACCESSOR.setWord(instance, wordIndex, value);
+        }
+
+        @Override
+        public void ensureCapacity(TestBean instance, int minWordCount) {
+            TestBean.ACCESSOR.ensureCapacity(instance, minWordCount);
+        }
+
+        @Override
+        public int getWordCount(TestBean instance) {
+            return TestBean.ACCESSOR.getWordCount(instance);
+        }
+
+        @Override
+        public void trim(TestBean instance) {
+            TestBean.ACCESSOR.trim(instance);
+        }
+    });
+
+    @Test
+    public void testSegmentScan_matchesPerWordAccess() {
+        TestBean viaSegment = new TestBean();
+        TestBean perWord = new TestBean();
+        java.util.Random random = new java.util.Random(3);
+        for (int round = 0; round < 200; round++) {
+            int from = random.nextInt(2000);
+            int to = from + random.nextInt(300);
+            if (random.nextBoolean()) {
+                handle.set(viaSegment, from, to);
+                PER_WORD_HANDLE.set(perWord, from, to);
+            } else {
+                handle.clear(viaSegment, from, to);
+                PER_WORD_HANDLE.clear(perWord, from, to);
+            }
+            assertArrayEquals(PER_WORD_HANDLE.toLongArray(perWord), handle.toLongArray(viaSegment));
+            assertEquals(PER_WORD_HANDLE.cardinality(perWord), handle.cardinality(viaSegment));
+            assertEquals(PER_WORD_HANDLE.length(perWord), handle.length(viaSegment));
+            assertEquals(PER_WORD_HANDLE.isEmpty(perWord), handle.isEmpty(viaSegment));
+            int probe = random.nextInt(2500);
+            assertEquals(PER_WORD_HANDLE.nextSetBit(perWord, probe), handle.nextSetBit(viaSegment, probe));
+            assertEquals(PER_WORD_HANDLE.nextClearBit(perWord, probe), handle.nextClearBit(viaSegment, probe));
+        }
+    }
+
+    @Test
+    public void testNextClearBit_beyondWordCount() {
+        bean.set(0, 64);
+        assertEquals(200, bean.nextClearBit(200));
+        assertEquals(new BitSet().nextClearBit(200), new TestBean().nextClearBit(200));
+    }
+
+    // --- 置位遍历 / 反向查找 ---
+
+    @Test
+    public void testForEachSetBit_cursor_stream_vsBitSet() {
+        BitSet bs = new BitSet();
+        fillRandom(bs, bean, 13, 3000);
+        int[] expected = bs.stream().toArray();
+
+        int[] collected = new int[expected.length];
+        int[] n = {0};
+        handle.forEachSetBit(bean, bit -> collected[n[0]++] = bit);
+        assertEquals(expected.length, n[0]);
+        assertArrayEquals(expected, collected);
+
+        assertArrayEquals(expected, handle.stream(bean).toArray());
+        assertEquals(bs.stream().sum(), handle.stream(bean).sum());
+
+        CompactBitsHandle<TestBean>.SetBitCursor cursor = handle.cursor(bean);
+        for (int bit : expected) {
+            assertTrue(cursor.hasNext());
+            assertEquals(bit, cursor.nextInt());
+        }
+        assertFalse(cursor.hasNext());
+
+        // 游标复用到另一个实例
+        TestBean other = new TestBean().set(7).set(640);
+        cursor.reset(other);
+        assertEquals(7, cursor.nextInt());
+        assertEquals(640, cursor.nextInt());
+        assertFalse(cursor.hasNext());
+
+        assertEquals(0, handle.stream(new TestBean()).count());
+    }
+
+    @Test(expected = java.util.NoSuchElementException.class)
+    public void testCursor_exhausted() {
+        handle.cursor(bean).nextInt();
+    }
+
+    @Test
+    public void testPreviousSetBit_previousClearBit_vsBitSet() {
+        BitSet bs = new BitSet();
+        fillRandom(bs, bean, 21, 2000);
+        bs.set(500, 700);
+        bean.set(500, 700);
+        for (int i = -1; i < 2300; i++) {
+            assertEquals("previousSetBit " + i, bs.previousSetBit(i), handle.previousSetBit(bean, i));
+            assertEquals("previousClearBit " + i, bs.previousClearBit(i), handle.previousClearBit(bean, i));
+        }
+        TestBean full = new TestBean().set(0, 128);
+        assertEquals(-1, handle.previousClearBit(full, 127));
+        assertEquals(-1, handle.previousSetBit(new TestBean(), 100));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPreviousSetBit_belowMinusOne() {
+        handle.previousSetBit(bean, -2);
+    }
+
+    // --- 并行版本 ---
+
+    // 阈值很低，强制走 fork-join 路径
+    private static final CompactBitsHandle<TestBean> PARALLEL_HANDLE = new CompactBitsHandle<>(TestBean.ACCESSOR, 64);
+
+    @Test
+    public void testParallel_matchesSequential() {
+        int bits = 64 * 20_000;
+        BitSet bs1 = new BitSet(), bs2 = new BitSet();
+        TestBean cb1 = new TestBean(), cb2 = new TestBean();
+        fillRandom(bs1, cb1, 31, bits);
+        fillRandom(bs2, cb2, 32, bits / 2);
+
+        assertEquals(bs1.cardinality(), PARALLEL_HANDLE.parallelCardinality(cb1));
+
+        BitSet expected = (BitSet) bs1.clone();
+        expected.xor(bs2);
+        PARALLEL_HANDLE.parallelXor(cb1, handle, cb2);
+        assertSameBits(expected, cb1);
+
+        expected.or(bs2);
+        PARALLEL_HANDLE.parallelOr(cb1, handle, cb2);
+        assertSameBits(expected, cb1);
+
+        expected.andNot(bs2);
+        PARALLEL_HANDLE.parallelAndNot(cb1, handle, cb2);
+        assertSameBits(expected, cb1);
+
+        // 较短的 other：and 之后高位全部清零并 trim
+        BitSet shortBits = new BitSet();
+        TestBean shortBean = new TestBean();
+        fillRandom(shortBits, shortBean, 33, bits / 3);
+        expected.and(shortBits);
+        PARALLEL_HANDLE.parallelAnd(cb1, handle, shortBean);
+        assertSameBits(expected, cb1);
+    }
+
+    @Test
+    public void testParallelSetClear_matchesBitSet() {
+        BitSet bs = new BitSet();
+        bs.set(13, 64 * 15_000 + 7);
+        PARALLEL_HANDLE.parallelSet(bean, 13, 64 * 15_000 + 7);
+        assertSameBits(bs, bean);
+
+        bs.clear(100, 64 * 10_000 + 3);
+        PARALLEL_HANDLE.parallelClear(bean, 100, 64 * 10_000 + 3);
+        assertSameBits(bs, bean);
+
+        bs.clear(5, Integer.MAX_VALUE);
+        PARALLEL_HANDLE.parallelClear(bean, 5, Integer.MAX_VALUE);
+        assertSameBits(bs, bean);
+        assertNull(bean.heapArray);
+    }
+
+    @Test
+    public void testParallel_runsInCallersPool() throws Exception {
+        bean.set(0, 64 * 10_000);
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(2);
+        try {
+            assertEquals(64 * 10_000, (int) pool.submit(() -> PARALLEL_HANDLE.parallelCardinality(bean)).get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // --- 批量 setAll/getAll/clearAll ---
+
+    @Test
+    public void testSetAllClearAll_randomAndClustered() {
+        java.util.Random random = new java.util.Random(13);
+        int[] randomIndices = new int[2000];
+        for (int i = 0; i < randomIndices.length; i++) {
+            randomIndices[i] = random.nextInt(100_000);
+        }
+        int[] clustered = new int[2000];
+        for (int i = 0; i < clustered.length; i++) {
+            clustered[i] = 50_000 + i * 3;
+        }
+        for (int[] indices : new int[][]{randomIndices, clustered}) {
+            BitSet bs = new BitSet();
+            TestBean cb = new TestBean();
+            cb.set(3);
+            bs.set(3);
+            TestBean.HANDLE.setAll(cb, indices);
+            for (int index : indices) {
+                bs.set(index);
+            }
+            assertSameBits(bs, cb);
+
+            int[] toClear = Arrays.copyOf(indices, indices.length / 2);
+            TestBean.HANDLE.clearAll(cb, toClear);
+            for (int index : toClear) {
+                bs.clear(index);
+            }
+            assertSameBits(bs, cb);
+
+            boolean[] out = new boolean[indices.length];
+            long[] packed = new long[(indices.length + 63) / 64 + 1];
+            packed[packed.length - 1] = -1L;
+            int expectedCount = 0;
+            for (int index : indices) {
+                expectedCount += bs.get(index) ? 1 : 0;
+            }
+            assertEquals(expectedCount, TestBean.HANDLE.getAll(cb, indices, out));
+            assertEquals(expectedCount, TestBean.HANDLE.getAll(cb, indices, packed));
+            for (int i = 0; i < indices.length; i++) {
+                assertEquals(bs.get(indices[i]), out[i]);
+                assertEquals(bs.get(indices[i]), (packed[i >> 6] & (1L << i)) != 0);
+            }
+            assertEquals(0L, packed[packed.length - 1]);
+        }
+    }
+
+    @Test
+    public void testClearAll_trimsHeap() {
+        TestBean cb = new TestBean();
+        TestBean.HANDLE.setAll(cb, new int[]{1, 500, 501, 10_000});
+        TestBean.HANDLE.clearAll(cb, new int[]{10_000, 500, 501, 200_000});
+        assertEquals(2, cb.length());
+        assertNull(cb.heapArray);
+    }
+
+    @Test
+    public void testSetAll_invalidIndexLeavesInstanceUnchanged() {
+        TestBean cb = new TestBean();
+        try {
+            TestBean.HANDLE.setAll(cb, new int[]{1, 2, -5});
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        assertTrue(cb.isEmpty());
+        assertEquals(0, TestBean.HANDLE.getAll(cb, new int[0], new long[0]));
+    }
+
+    // --- 序列化 ---
+
+    private static byte[] writeToBytes(TestBean cb) throws java.io.IOException {
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        TestBean.HANDLE.writeTo(cb, new java.io.DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testWriteTo_payloadMatchesBitSetToByteArray() throws Exception {
+        for (int bits : new int[]{0, 1, 7, 64, 65, 1000, 70_000}) {
+            BitSet bs = new BitSet();
+            TestBean cb = new TestBean();
+            fillRandom(bs, cb, bits, bits + 1);
+            byte[] expected = bs.toByteArray();
+
+            byte[] written = writeToBytes(cb);
+            assertEquals(TestBean.HANDLE.serializedSize(cb), written.length);
+            int prefix = written.length - expected.length;
+            assertArrayEquals(expected, Arrays.copyOfRange(written, prefix, written.length));
+            assertEquals(BitSet.valueOf(expected), BitSet.valueOf(Arrays.copyOfRange(written, prefix, written.length)));
+        }
+    }
+
+    @Test
+    public void testReadFrom_dataInputRoundTrip() throws Exception {
+        BitSet bs = new BitSet();
+        TestBean source = new TestBean();
+        fillRandom(bs, source, 5, 5000);
+        byte[] written = writeToBytes(source);
+
+        // 目标中原有的更高位必须被清除
+        TestBean target = new TestBean();
+        target.set(100_000);
+        TestBean.HANDLE.readFrom(target, new java.io.DataInputStream(new java.io.ByteArrayInputStream(written)));
+        assertSameBits(bs, target);
+
+        TestBean.HANDLE.readFrom(target, new java.io.DataInputStream(new java.io.ByteArrayInputStream(new byte[]{0})));
+        assertTrue(target.isEmpty());
+        assertNull(target.heapArray);
+    }
+
+    @Test
+    public void testByteBuffer_roundTripKeepsOrderAndPosition() {
+        BitSet bs = new BitSet();
+        TestBean source = new TestBean();
+        fillRandom(bs, source, 9, 3000);
+        source.set(2999);
+
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(3 + TestBean.HANDLE.serializedSize(source));
+        buffer.position(3);
+        TestBean.HANDLE.writeTo(source, buffer);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(java.nio.ByteOrder.BIG_ENDIAN, buffer.order());
+
+        buffer.position(3);
+        TestBean target = new TestBean();
+        TestBean.HANDLE.readFrom(target, buffer);
+        assertFalse(buffer.hasRemaining());
+        assertSameBits(bs, target);
+    }
+
+    @Test
+    public void testReadFrom_trailingZeroBytesTolerated() {
+        TestBean target = new TestBean();
+        target.set(5);
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(new byte[]{10, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+        TestBean.HANDLE.readFrom(target, buffer);
+        assertEquals(1, target.length());
+        assertEquals(1, target.cardinality());
+    }
+
+    @Test(expected = java.nio.BufferUnderflowException.class)
+    public void testReadFrom_truncatedBuffer() {
+        TestBean.HANDLE.readFrom(new TestBean(), java.nio.ByteBuffer.wrap(new byte[]{9, 1, 2, 3}));
+    }
+
+    @Test(expected = java.io.StreamCorruptedException.class)
+    public void testReadFrom_malformedLength() throws Exception {
+        byte[] corrupt = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F};
+        TestBean.HANDLE.readFrom(new TestBean(), new java.io.DataInputStream(new java.io.ByteArrayInputStream(corrupt)));
+    }
+
+    // --- 字节数组 fill/toByteArray ---
+
+    @Test
+    public void testToByteArray_matchesBitSet() {
+        for (int bits : new int[]{0, 1, 7, 63, 64, 65, 1000, 70_000}) {
+            BitSet bs = new BitSet();
+            TestBean cb = new TestBean();
+            fillRandom(bs, cb, bits, bits + 1);
+            assertArrayEquals("bits " + bits, bs.toByteArray(), TestBean.HANDLE.toByteArray(cb));
+        }
+    }
+
+    @Test
+    public void testFillBytes_vsBitSetValueOf() {
+        java.util.Random random = new java.util.Random(17);
+        for (int length : new int[]{0, 1, 7, 8, 9, 16, 17, 1001}) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            if (length > 3) {
+                // 尾部 0 字节被忽略
+                bytes[length - 1] = 0;
+                bytes[length - 2] = 0;
+            }
+            BitSet expected = BitSet.valueOf(bytes);
+
+            TestBean cb = new TestBean();
+            cb.set(100_000);
+            TestBean.HANDLE.fill(cb, bytes);
+            assertSameBits(expected, cb);
+            assertArrayEquals(expected.toByteArray(), TestBean.HANDLE.toByteArray(cb));
+
+            TestBean perWord = new TestBean();
+            PER_WORD_HANDLE.fill(perWord, bytes);
+            assertSameBits(expected, perWord);
+            assertArrayEquals(expected.toByteArray(), PER_WORD_HANDLE.toByteArray(perWord));
+        }
+        TestBean cb = new TestBean();
+        TestBean.HANDLE.fill(cb, new byte[]{0, 0, 0});
+        assertTrue(cb.isEmpty());
+        assertNull(cb.heapArray);
+    }
+
+    @Test
+    public void testFillByteBuffer_usesRemainingWithoutModifyingBuffer() {
+        byte[] bytes = new byte[40];
+        new java.util.Random(3).nextBytes(bytes);
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(bytes);
+        buffer.position(3).limit(30);
+        BitSet expected = BitSet.valueOf(buffer);
+
+        TestBean cb = new TestBean();
+        TestBean.HANDLE.fill(cb, buffer);
+        assertSameBits(expected, cb);
+        assertEquals(3, buffer.position());
+        assertEquals(30, buffer.limit());
+        assertEquals(java.nio.ByteOrder.BIG_ENDIAN, buffer.order());
+
+        java.nio.ByteBuffer direct = java.nio.ByteBuffer.allocateDirect(27);
+        direct.put(bytes, 3, 27).flip();
+        TestBean fromDirect = new TestBean();
+        TestBean.HANDLE.fill(fromDirect, direct);
+        assertSameBits(expected, fromDirect);
+    }
+
     // --- fill 对比测试 ---
 
     @Test
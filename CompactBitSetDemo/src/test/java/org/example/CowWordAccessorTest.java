@@ -0,0 +1,177 @@
+package org.example;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CowWordAccessorTest {
+
+    public static class CowBean {
+        private long inlineBits;
+        private CowWords bits;
+
+        static final CowWordAccessor<CowBean> ACCESSOR =
+                CowWordAccessor.of(MethodHandles.lookup(), CowBean.class, "bits", "inlineBits");
+        static final CompactBitsHandle<CowBean> HANDLE = new CompactBitsHandle<>(ACCESSOR);
+    }
+
+    private static final CompactBitsHandle<CowBean> HANDLE = CowBean.HANDLE;
+
+    private CowBean bean;
+
+    @Before
+    public void setUp() {
+        bean = new CowBean();
+    }
+
+    private static CowBean snapshotOf(CowBean source) {
+        CowBean copy = new CowBean();
+        HANDLE.snapshot(source, copy);
+        return copy;
+    }
+
+    @Test
+    public void testVsBitSet_random() {
+        BitSet bs = new BitSet();
+        Random random = new Random(16);
+        for (int i = 0; i < 20_000; i++) {
+            int bit = random.nextInt(200_000);
+            if (random.nextInt(4) == 0) {
+                bs.clear(bit);
+                HANDLE.clear(bean, bit);
+            } else {
+                bs.set(bit);
+                HANDLE.set(bean, bit);
+            }
+        }
+        HANDLE.set(bean, 1000, 70_000);
+        bs.set(1000, 70_000);
+        HANDLE.clear(bean, 20_000, 60_000);
+        bs.clear(20_000, 60_000);
+        assertEquals(bs.cardinality(), HANDLE.cardinality(bean));
+        assertEquals(bs.length(), HANDLE.length(bean));
+        assertArrayEquals(bs.toLongArray(), HANDLE.toLongArray(bean));
+        for (int i = bs.nextSetBit(0); i >= 0; i = bs.nextSetBit(i + 1)) {
+            assertEquals(i, HANDLE.nextSetBit(bean, i));
+        }
+    }
+
+    @Test
+    public void testSnapshot_versionsAreIndependent() {
+        Random random = new Random(7);
+        List<BitSet> expected = new ArrayList<>();
+        List<CowBean> versions = new ArrayList<>();
+        BitSet bs = new BitSet();
+        CowBean current = bean;
+        for (int version = 0; version < 50; version++) {
+            for (int i = 0; i < 20; i++) {
+                int bit = random.nextInt(100_000);
+                if (random.nextBoolean()) {
+                    bs.set(bit);
+                    HANDLE.set(current, bit);
+                } else {
+                    bs.clear(bit);
+                    HANDLE.clear(current, bit);
+                }
+            }
+            expected.add((BitSet) bs.clone());
+            versions.add(current);
+            current = snapshotOf(current);
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            assertArrayEquals("version " + i, expected.get(i).toLongArray(), HANDLE.toLongArray(versions.get(i)));
+            assertEquals("version " + i, expected.get(i).length(), HANDLE.length(versions.get(i)));
+        }
+    }
+
+    @Test
+    public void testSnapshot_copiesOnlyTouchedChunk() {
+        HANDLE.set(bean, 0, 640_000);
+        CowWords original = CowBean.ACCESSOR.getStore(bean);
+        // 10000 个 word，第 0 个为 inline，其余 9999 个占 157 块
+        int chunks = (10_000 - 1 + CowWords.CHUNK_WORDS - 1) / CowWords.CHUNK_WORDS;
+        assertEquals(0, original.sharedChunkCount());
+
+        CowBean copy = snapshotOf(bean);
+        CowWords copied = CowBean.ACCESSOR.getStore(copy);
+        assertEquals(chunks, copied.sharedChunkCount());
+        assertEquals(chunks, original.sharedChunkCount());
+
+        HANDLE.clear(copy, 100_000);
+        assertEquals(chunks - 1, copied.sharedChunkCount());
+        assertEquals(Footprint.longArrayBytes(CowWords.CHUNK_WORDS), copied.ownedBytes());
+        assertTrue(HANDLE.get(bean, 100_000));
+        assertEquals(640_000, HANDLE.cardinality(bean));
+        assertEquals(639_999, HANDLE.cardinality(copy));
+
+        // 写入与共享块相同的值不复制
+        HANDLE.set(copy, 200_000);
+        assertEquals(chunks - 1, copied.sharedChunkCount());
+
+        // 原版本的修改同样只复制自己的块，对快照不可见
+        HANDLE.clear(bean, 300_000);
+        assertEquals(chunks - 1, original.sharedChunkCount());
+        assertTrue(HANDLE.get(copy, 300_000));
+    }
+
+    @Test
+    public void testInlineWords_snapshotAndTrim() {
+        HANDLE.set(bean, 3);
+        assertNull(bean.bits);
+        CowBean copy = snapshotOf(bean);
+        assertEquals(1L << 3, copy.inlineBits);
+        assertNull(copy.bits);
+
+        HANDLE.set(copy, 100);
+        assertNotNull(copy.bits);
+        assertEquals(101, HANDLE.length(copy));
+        assertEquals(4, HANDLE.length(bean));
+
+        HANDLE.clear(copy, 100);
+        assertNull(copy.bits);
+        assertEquals(4, HANDLE.length(copy));
+        HANDLE.clear(copy);
+        assertTrue(HANDLE.isEmpty(copy));
+        assertTrue(HANDLE.get(bean, 3));
+    }
+
+    @Test
+    public void testClearRange_dropsWholeChunks() {
+        HANDLE.set(bean, 0, 100_000);
+        CowBean copy = snapshotOf(bean);
+        int sharedBefore = CowBean.ACCESSOR.getStore(copy).sharedChunkCount();
+        HANDLE.clear(copy, 64, 64 + 64 * 64 * 10);
+        CowWords copied = CowBean.ACCESSOR.getStore(copy);
+        // 被整块清空的共享块直接丢弃，只有首尾 word 所在的块可能被复制
+        assertEquals(sharedBefore - 10, copied.sharedChunkCount());
+        assertTrue(copied.ownedBytes() <= 2 * Footprint.longArrayBytes(CowWords.CHUNK_WORDS));
+        assertEquals(100_000 - 64 * 64 * 10, HANDLE.cardinality(copy));
+        assertEquals(100_000, HANDLE.cardinality(bean));
+    }
+
+    @Test
+    public void testSerialization_roundTrip() {
+        HANDLE.set(bean, 5);
+        HANDLE.set(bean, 12_345);
+        CowBean copy = snapshotOf(bean);
+        ByteBuffer buffer = ByteBuffer.allocate(HANDLE.serializedSize(copy));
+        HANDLE.writeTo(copy, buffer);
+        buffer.flip();
+        CowBean read = new CowBean();
+        HANDLE.readFrom(read, buffer);
+        assertArrayEquals(HANDLE.toLongArray(bean), HANDLE.toLongArray(read));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOf_wrongFieldType() {
+        CowWordAccessor.of(MethodHandles.lookup(), CowBean.class, "inlineBits");
+    }
+}
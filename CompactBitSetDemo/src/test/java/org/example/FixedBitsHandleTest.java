@@ -0,0 +1,110 @@
+package org.example;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FixedBitsHandleTest {
+
+    public static class Flags64 {
+        private long flags;
+
+        static final FixedBitsHandle<Flags64> FLAGS = FixedBitsHandle.of64(o -> o.flags, (o, v) -> o.flags = v);
+    }
+
+    public static class Flags128 {
+        private long low;
+        private long high;
+
+        static final FixedBitsHandle<Flags128> FLAGS = FixedBitsHandle.of128(
+                o -> o.low, (o, v) -> o.low = v,
+                o -> o.high, (o, v) -> o.high = v);
+    }
+
+    @Test
+    public void test64_singleFieldReadsAndWrites() {
+        Flags64 bean = new Flags64();
+        Flags64.FLAGS.set(bean, 0);
+        Flags64.FLAGS.set(bean, 63);
+        assertEquals(0x8000000000000001L, bean.flags);
+        assertTrue(Flags64.FLAGS.get(bean, 63));
+        assertEquals(64, Flags64.FLAGS.length(bean));
+        assertEquals(2, Flags64.FLAGS.cardinality(bean));
+        assertEquals(63, Flags64.FLAGS.nextSetBit(bean, 1));
+        assertEquals(-1, Flags64.FLAGS.nextSetBit(bean, 64));
+
+        Flags64.FLAGS.flip(bean, 63);
+        Flags64.FLAGS.set(bean, 5, true);
+        Flags64.FLAGS.set(bean, 0, false);
+        assertEquals(1L << 5, Flags64.FLAGS.getWord0(bean));
+        Flags64.FLAGS.clear(bean);
+        assertTrue(Flags64.FLAGS.isEmpty(bean));
+    }
+
+    @Test
+    public void test128_vsBitSet() {
+        Flags128 bean = new Flags128();
+        BitSet bs = new BitSet();
+        Random random = new Random(8);
+        for (int i = 0; i < 1000; i++) {
+            int bit = random.nextInt(128);
+            switch (random.nextInt(3)) {
+                case 0:
+                    bs.set(bit);
+                    Flags128.FLAGS.set(bean, bit);
+                    break;
+                case 1:
+                    bs.clear(bit);
+                    Flags128.FLAGS.clear(bean, bit);
+                    break;
+                default:
+                    bs.flip(bit);
+                    Flags128.FLAGS.flip(bean, bit);
+            }
+            assertEquals(bs.get(bit), Flags128.FLAGS.get(bean, bit));
+        }
+        assertEquals(bs.cardinality(), Flags128.FLAGS.cardinality(bean));
+        assertEquals(bs.length(), Flags128.FLAGS.length(bean));
+        assertEquals(bs.isEmpty(), Flags128.FLAGS.isEmpty(bean));
+        for (int i = 0; i <= 128; i++) {
+            assertEquals("from " + i, bs.nextSetBit(i), Flags128.FLAGS.nextSetBit(bean, i));
+        }
+        assertArrayEquals(bs.toLongArray(), new long[]{bean.low, bean.high});
+    }
+
+    @Test
+    public void testOutOfRange() {
+        Flags64 bean = new Flags64();
+        for (int bit : new int[]{-1, 64, 1000}) {
+            try {
+                Flags64.FLAGS.set(bean, bit);
+                fail("bit " + bit);
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        }
+        try {
+            Flags128.FLAGS.get(new Flags128(), 128);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @Test
+    public void testAsWordAccessor_sharesFields() {
+        CompactBitsHandle<Flags128> full = new CompactBitsHandle<>(Flags128.FLAGS.asWordAccessor());
+        Flags128 bean = new Flags128();
+        full.set(bean, 60, 70);
+        assertEquals(10, Flags128.FLAGS.cardinality(bean));
+        assertTrue(Flags128.FLAGS.get(bean, 64));
+        assertEquals(128, full.size(bean));
+        assertEquals(70, full.nextClearBit(bean, 60));
+        try {
+            full.set(bean, 128);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.example;
+
+import org.junit.Test;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.lang.invoke.MethodHandles;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 用 JOL 校验 Footprint/estimatedBytes 的估算，以及 BitSet 与 CompactBitsHandle 宿主在不同规模下的内存占用对比。
+ * 对比表由 {@link #main} 输出，测试本身只做断言。
+ */
+public class FootprintTest {
+
+    public static class BitSetHost {
+        private final BitSet bits = new BitSet();
+    }
+
+    public static class CompactHost {
+        private long inlineBits;
+        private long[] heapArray;
+
+        static final CompactBitsHandle<CompactHost> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), CompactHost.class, "heapArray", "inlineBits"));
+    }
+
+    public static class SparseHost {
+        private RoaringWords bits;
+
+        static final CompactBitsHandle<SparseHost> HANDLE = new CompactBitsHandle<>(
+                RoaringWordAccessor.of(MethodHandles.lookup(), SparseHost.class, "bits"));
+    }
+
+    private static final String[] SCENARIOS = {"empty", "1 word", "10 words", "1M bits sparse", "1M bits dense"};
+
+    private static int[] bitsOf(String scenario) {
+        switch (scenario) {
+            case "empty":
+                return new int[0];
+            case "1 word":
+                return new int[]{3, 60};
+            case "10 words": {
+                int[] bits = new int[640 / 7 + 1];
+                for (int i = 0; i < bits.length; i++) {
+                    bits[i] = i * 7;
+                }
+                return bits;
+            }
+            case "1M bits sparse": {
+                Random random = new Random(42);
+                int[] bits = new int[1000];
+                for (int i = 0; i < bits.length; i++) {
+                    bits[i] = random.nextInt(1_000_000);
+                }
+                return bits;
+            }
+            default: {
+                int[] bits = new int[500_000];
+                for (int i = 0; i < bits.length; i++) {
+                    bits[i] = i * 2;
+                }
+                return bits;
+            }
+        }
+    }
+
+    @Test
+    public void testEstimates_matchJol() {
+        for (String scenario : SCENARIOS) {
+            int[] bits = bitsOf(scenario);
+            BitSet bitSet = new BitSet();
+            CompactHost compact = new CompactHost();
+            for (int bit : bits) {
+                bitSet.set(bit);
+                CompactHost.HANDLE.set(compact, bit);
+            }
+            assertEquals(scenario, GraphLayout.parseInstance(bitSet).totalSize(), Footprint.bitSetBytes(bitSet));
+            assertEquals(scenario, GraphLayout.parseInstance(compact).totalSize(),
+                    ClassLayout.parseClass(CompactHost.class).instanceSize() + CompactHost.HANDLE.estimatedBytes(compact));
+        }
+    }
+
+    @Test
+    public void testRoaringEstimate_matchesJol() {
+        // array 容器（稀疏）和 bitmap 容器（稠密）
+        for (String scenario : new String[]{"1 word", "1M bits sparse", "1M bits dense"}) {
+            SparseHost sparse = new SparseHost();
+            for (int bit : bitsOf(scenario)) {
+                SparseHost.HANDLE.set(sparse, bit);
+            }
+            assertEquals(scenario, GraphLayout.parseInstance(sparse.bits).totalSize(), SparseHost.HANDLE.estimatedBytes(sparse));
+        }
+        // run 容器
+        SparseHost runs = new SparseHost();
+        SparseHost.HANDLE.set(runs, 1000, 300_000);
+        runs.bits.runOptimize();
+        assertEquals(GraphLayout.parseInstance(runs.bits).totalSize(), SparseHost.HANDLE.estimatedBytes(runs));
+        assertEquals(0L, SparseHost.HANDLE.estimatedBytes(new SparseHost()));
+    }
+
+    /**
+     * 按场景设置位后，三种宿主的 JOL 实测大小：BitSet host、Compact host、Sparse host。
+     */
+    private static long[] measure(String scenario, CompactHost compact) {
+        BitSetHost bitSetHost = new BitSetHost();
+        SparseHost sparse = new SparseHost();
+        for (int bit : bitsOf(scenario)) {
+            bitSetHost.bits.set(bit);
+            CompactHost.HANDLE.set(compact, bit);
+            SparseHost.HANDLE.set(sparse, bit);
+        }
+        return new long[]{GraphLayout.parseInstance(bitSetHost).totalSize(),
+                GraphLayout.parseInstance(compact).totalSize(), GraphLayout.parseInstance(sparse).totalSize()};
+    }
+
+    @Test
+    public void testFootprintMatrix_savings() {
+        for (String scenario : SCENARIOS) {
+            CompactHost compact = new CompactHost();
+            long[] bytes = measure(scenario, compact);
+            // 未超出 inline word 时不分配任何数组
+            if (!scenario.startsWith("1M") && !scenario.equals("10 words")) {
+                assertNull(compact.heapArray);
+                assertTrue(scenario, bytes[1] < bytes[0]);
+            }
+            if (scenario.equals("1M bits sparse")) {
+                assertTrue(bytes[2] * 4 < bytes[0]);
+            }
+        }
+    }
+
+    /**
+     * 输出 README 中的内存占用对比表。
+     */
+    public static void main(String[] args) {
+        System.out.printf("%-16s %14s %14s %14s %10s%n", "Scenario", "BitSet host", "Compact host", "Sparse host", "Saving");
+        for (String scenario : SCENARIOS) {
+            long[] bytes = measure(scenario, new CompactHost());
+            long best = Math.min(bytes[1], bytes[2]);
+            System.out.printf("%-16s %14d %14d %14d %9.1f%%%n", scenario, bytes[0], bytes[1], bytes[2],
+                    100.0 * (bytes[0] - best) / bytes[0]);
+        }
+    }
+}
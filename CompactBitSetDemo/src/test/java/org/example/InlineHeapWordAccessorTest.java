@@ -0,0 +1,191 @@
+package org.example;
+
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class InlineHeapWordAccessorTest {
+
+    // 两个 inline word + 溢出数组
+    public static class TwoInlineBean {
+        private long bits0;
+        private long bits1;
+        private long[] moreBits;
+
+        static final InlineHeapWordAccessor<TwoInlineBean> ACCESSOR =
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), TwoInlineBean.class, "moreBits", "bits0", "bits1");
+        static final CompactBitsHandle<TwoInlineBean> HANDLE = new CompactBitsHandle<>(ACCESSOR);
+    }
+
+    // 没有 inline word，全部在溢出数组中
+    public static class HeapOnlyBean {
+        private long[] words;
+
+        static final CompactBitsHandle<HeapOnlyBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), HeapOnlyBean.class, "words"));
+    }
+
+    // 不 trim、按需精确扩容
+    public static class KeepCapacityBean {
+        private long bits;
+        private long[] moreBits;
+
+        static final CompactBitsHandle<KeepCapacityBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), KeepCapacityBean.class, "moreBits", "bits")
+                        .withGrowthPolicy(InlineHeapWordAccessor.EXACT)
+                        .withTrimOnZero(false));
+    }
+
+    // 跟踪 wordsInUse
+    public static class TrackedBean {
+        private long bits;
+        private long[] moreBits;
+        private int wordsInUse;
+
+        static final CompactBitsHandle<TrackedBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), TrackedBean.class, "moreBits", "bits")
+                        .withWordsInUseField(MethodHandles.lookup(), "wordsInUse"));
+    }
+
+    @Test
+    public void testInlineWords_noHeapAllocation() {
+        TwoInlineBean bean = new TwoInlineBean();
+        TwoInlineBean.HANDLE.set(bean, 0);
+        TwoInlineBean.HANDLE.set(bean, 127);
+
+        assertEquals(1L, bean.bits0);
+        assertEquals(1L << 63, bean.bits1);
+        assertNull(bean.moreBits);
+        assertEquals(128, TwoInlineBean.HANDLE.size(bean));
+    }
+
+    @Test
+    public void testOverflowIntoHeap_andTrimOnZero() {
+        TwoInlineBean bean = new TwoInlineBean();
+        TwoInlineBean.HANDLE.set(bean, 128);
+        assertNotNull(bean.moreBits);
+        assertEquals(1L, bean.moreBits[0]);
+
+        TwoInlineBean.HANDLE.clear(bean, 128);
+        assertNull(bean.moreBits);
+    }
+
+    @Test
+    public void testVsBitSet_random() {
+        BitSet bs = new BitSet();
+        TwoInlineBean bean = new TwoInlineBean();
+        HeapOnlyBean heapOnly = new HeapOnlyBean();
+        Random random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            int from = random.nextInt(3000);
+            int to = from + random.nextInt(200);
+            boolean value = random.nextInt(3) != 0;
+            bs.set(from, to, value);
+            TwoInlineBean.HANDLE.set(bean, from, to, value);
+            HeapOnlyBean.HANDLE.set(heapOnly, from, to, value);
+        }
+        assertEquals(bs.cardinality(), TwoInlineBean.HANDLE.cardinality(bean));
+        assertEquals(bs.length(), TwoInlineBean.HANDLE.length(bean));
+        assertEquals(bs.cardinality(), HeapOnlyBean.HANDLE.cardinality(heapOnly));
+        for (int i = bs.nextSetBit(0); i >= 0; i = bs.nextSetBit(i + 1)) {
+            assertEquals(i, TwoInlineBean.HANDLE.nextSetBit(bean, i));
+            assertEquals(i, HeapOnlyBean.HANDLE.nextSetBit(heapOnly, i));
+        }
+    }
+
+    @Test
+    public void testGrowthPolicyAndKeepCapacity() {
+        KeepCapacityBean bean = new KeepCapacityBean();
+        KeepCapacityBean.HANDLE.set(bean, 64 * 5);
+        assertEquals(5, bean.moreBits.length); // EXACT：不多分配
+
+        KeepCapacityBean.HANDLE.clear(bean, 64 * 5);
+        assertNotNull(bean.moreBits); // 不 trim，保留容量
+        assertTrue(KeepCapacityBean.HANDLE.isEmpty(bean));
+    }
+
+    @Test
+    public void testWordsInUse_matchesBitSet() {
+        BitSet bs = new BitSet();
+        TrackedBean bean = new TrackedBean();
+        TrackedBean other = new TrackedBean();
+        Random random = new Random(5);
+        for (int i = 0; i < 3000; i++) {
+            int bit = random.nextInt(2000);
+            int op = random.nextInt(6);
+            if (op == 0) {
+                bs.set(bit);
+                TrackedBean.HANDLE.set(bean, bit);
+            } else if (op == 1) {
+                bs.clear(bit);
+                TrackedBean.HANDLE.clear(bean, bit);
+            } else if (op == 2) {
+                int to = Math.min(2000, bit + random.nextInt(200));
+                bs.clear(bit, to);
+                TrackedBean.HANDLE.clear(bean, bit, to);
+            } else if (op == 3) {
+                int to = bit + random.nextInt(100);
+                bs.set(bit, to);
+                TrackedBean.HANDLE.set(bean, bit, to);
+            } else if (op == 4) {
+                TrackedBean.HANDLE.set(other, random.nextInt(2000));
+                BitSet otherBits = BitSet.valueOf(TrackedBean.HANDLE.toLongArray(other));
+                bs.xor(otherBits);
+                TrackedBean.HANDLE.xor(bean, TrackedBean.HANDLE, other);
+            } else {
+                bs.andNot(BitSet.valueOf(TrackedBean.HANDLE.toLongArray(other)));
+                TrackedBean.HANDLE.andNot(bean, TrackedBean.HANDLE, other);
+            }
+            assertEquals((bs.length() + 63) >> 6, bean.wordsInUse);
+            assertEquals(bs.length(), TrackedBean.HANDLE.length(bean));
+            assertEquals(bs.isEmpty(), TrackedBean.HANDLE.isEmpty(bean));
+            assertEquals(bs.cardinality(), TrackedBean.HANDLE.cardinality(bean));
+        }
+        TrackedBean.HANDLE.clear(bean);
+        assertEquals(0, bean.wordsInUse);
+        assertNull(bean.moreBits);
+    }
+
+    @Test
+    public void testWordsInUse_trimOnlyWhenTopWordCleared() {
+        TrackedBean bean = new TrackedBean();
+        TrackedBean.HANDLE.set(bean, 64 * 3);
+        TrackedBean.HANDLE.set(bean, 64 * 8);
+        long[] heap = bean.moreBits;
+
+        TrackedBean.HANDLE.clear(bean, 64 * 3);
+        assertSame(heap, bean.moreBits); // 最高 word 未变，不 trim
+
+        TrackedBean.HANDLE.clear(bean, 64 * 8);
+        assertEquals(0, bean.wordsInUse);
+        assertNull(bean.moreBits);
+    }
+
+    @Test
+    public void testWordsInUse_batchSetAllClearAll() {
+        TrackedBean bean = new TrackedBean();
+        TrackedBean.HANDLE.setAll(bean, new int[]{5, 64 * 3, 64 * 8 + 1, 64 * 8 + 2});
+        assertEquals(9, bean.wordsInUse);
+        assertEquals(64 * 8 + 3, TrackedBean.HANDLE.length(bean));
+
+        TrackedBean.HANDLE.clearAll(bean, new int[]{64 * 8 + 1, 64 * 8 + 2});
+        assertEquals(4, bean.wordsInUse);
+        TrackedBean.HANDLE.clearAll(bean, new int[]{64 * 3, 5});
+        assertEquals(0, bean.wordsInUse);
+        assertTrue(TrackedBean.HANDLE.isEmpty(bean));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownField() {
+        InlineHeapWordAccessor.of(MethodHandles.lookup(), TwoInlineBean.class, "moreBits", "missing");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongFieldType() {
+        InlineHeapWordAccessor.of(MethodHandles.lookup(), TwoInlineBean.class, "bits0");
+    }
+}
@@ -0,0 +1,137 @@
+package org.example;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MappedWordAccessorTest {
+
+    public static class MappedBean {
+        private MappedWords bits;
+
+        static final MappedWordAccessor<MappedBean> ACCESSOR =
+                MappedWordAccessor.of(MethodHandles.lookup(), MappedBean.class, "bits");
+        static final CompactBitsHandle<MappedBean> HANDLE = new CompactBitsHandle<>(ACCESSOR);
+    }
+
+    private static final CompactBitsHandle<MappedBean> HANDLE = MappedBean.HANDLE;
+
+    private Path dir;
+    private Path file;
+    private MappedBean bean;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("mapped-words");
+        file = dir.resolve("bits.bin");
+        bean = new MappedBean();
+        bean.bits = MappedWords.open(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (bean.bits != null) {
+            bean.bits.close();
+        }
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+    }
+
+    private void reopen() throws IOException {
+        MappedBean.ACCESSOR.force(bean);
+        bean.bits.close();
+        bean = new MappedBean();
+        bean.bits = MappedWords.open(file);
+    }
+
+    @Test
+    public void testVsBitSet_random() {
+        BitSet bs = new BitSet();
+        Random random = new Random(11);
+        for (int i = 0; i < 20_000; i++) {
+            int bit = random.nextInt(300_000);
+            if (random.nextInt(4) == 0) {
+                bs.clear(bit);
+                HANDLE.clear(bean, bit);
+            } else {
+                bs.set(bit);
+                HANDLE.set(bean, bit);
+            }
+        }
+        assertEquals(bs.cardinality(), HANDLE.cardinality(bean));
+        assertEquals(bs.length(), HANDLE.length(bean));
+        assertArrayEquals(bs.toLongArray(), HANDLE.toLongArray(bean));
+        for (int i = bs.nextSetBit(0); i >= 0; i = bs.nextSetBit(i + 1)) {
+            assertEquals(i, HANDLE.nextSetBit(bean, i));
+        }
+    }
+
+    @Test
+    public void testGrowth_remapsFile() throws IOException {
+        assertEquals(MappedWords.MIN_CAPACITY, bean.bits.capacity());
+        HANDLE.set(bean, 3);
+        HANDLE.set(bean, 64 * MappedWords.MIN_CAPACITY + 5);
+
+        assertEquals(2 * MappedWords.MIN_CAPACITY, bean.bits.capacity());
+        assertEquals(8L * 2 * MappedWords.MIN_CAPACITY, Files.size(file));
+        assertTrue(HANDLE.get(bean, 3));
+        assertTrue(HANDLE.get(bean, 64 * MappedWords.MIN_CAPACITY + 5));
+    }
+
+    @Test
+    public void testPersistence_acrossReopen() throws IOException {
+        HANDLE.set(bean, 7);
+        HANDLE.set(bean, 100, 200);
+        HANDLE.set(bean, 500_000);
+        HANDLE.clear(bean, 500_000);
+        reopen();
+
+        assertEquals(101, HANDLE.cardinality(bean));
+        assertEquals(200, HANDLE.length(bean));
+        assertTrue(HANDLE.get(bean, 7));
+        assertFalse(HANDLE.get(bean, 500_000));
+    }
+
+    @Test
+    public void testFileLayout_compatibleWithBitSet() throws IOException {
+        HANDLE.set(bean, 1);
+        HANDLE.set(bean, 65);
+        HANDLE.set(bean, 10_000);
+        MappedBean.ACCESSOR.force(bean);
+
+        BitSet bs = BitSet.valueOf(Files.readAllBytes(file));
+        assertEquals(BitSet.valueOf(HANDLE.toLongArray(bean)), bs);
+    }
+
+    @Test
+    public void testClearAll_keepsFile() throws IOException {
+        HANDLE.set(bean, 10, 5000);
+        HANDLE.clear(bean);
+        assertTrue(HANDLE.isEmpty(bean));
+        reopen();
+        assertTrue(HANDLE.isEmpty(bean));
+        assertEquals(MappedWords.MIN_CAPACITY, bean.bits.capacity());
+    }
+
+    @Test
+    public void testNotOpened() {
+        MappedBean empty = new MappedBean();
+        assertFalse(HANDLE.get(empty, 5));
+        assertTrue(HANDLE.isEmpty(empty));
+        HANDLE.clear(empty, 5);
+        try {
+            HANDLE.set(empty, 5);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
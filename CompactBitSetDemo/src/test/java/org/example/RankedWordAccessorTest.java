@@ -0,0 +1,179 @@
+package org.example;
+
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RankedWordAccessorTest {
+
+    // 带 rank 目录、跟踪 wordsInUse
+    public static class RankedBean {
+        private long bits;
+        private long[] moreBits;
+        private int wordsInUse;
+        private RankDirectory ranks;
+
+        static final CompactBitsHandle<RankedBean> HANDLE = new CompactBitsHandle<>(RankedWordAccessor.of(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), RankedBean.class, "moreBits", "bits")
+                        .withWordsInUseField(MethodHandles.lookup(), "wordsInUse"),
+                MethodHandles.lookup(), RankedBean.class, "ranks"));
+    }
+
+    // 带 rank 目录、不跟踪 wordsInUse（目录按 word 总数重建）
+    public static class UntrackedRankedBean {
+        private long[] words;
+        private RankDirectory ranks;
+
+        static final CompactBitsHandle<UntrackedRankedBean> HANDLE = new CompactBitsHandle<>(RankedWordAccessor.of(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), UntrackedRankedBean.class, "words"),
+                MethodHandles.lookup(), UntrackedRankedBean.class, "ranks"));
+    }
+
+    // 没有 rank 目录，走线性扫描
+    public static class PlainBean {
+        private long bits;
+        private long[] moreBits;
+
+        static final CompactBitsHandle<PlainBean> HANDLE = new CompactBitsHandle<>(
+                InlineHeapWordAccessor.of(MethodHandles.lookup(), PlainBean.class, "moreBits", "bits"));
+    }
+
+    private static <T> void assertRankSelect(BitSet expected, CompactBitsHandle<T> handle, T instance) {
+        int length = expected.length();
+        int rank = 0;
+        for (int i = 0; i <= length + 130; i++) {
+            assertEquals("rank " + i, rank, handle.rank(instance, i));
+            if (expected.get(i)) {
+                assertEquals("select " + rank, i, handle.select(instance, rank));
+                rank++;
+            }
+        }
+        assertEquals(-1, handle.select(instance, rank));
+        assertEquals(-1, handle.select(instance, Integer.MAX_VALUE));
+        assertEquals(rank, handle.rank(instance, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testRankSelect_vsBitSet() {
+        for (int density : new int[]{1, 10, 50, 99}) {
+            Random random = new Random(density);
+            BitSet bs = new BitSet();
+            RankedBean ranked = new RankedBean();
+            UntrackedRankedBean untracked = new UntrackedRankedBean();
+            PlainBean plain = new PlainBean();
+            for (int i = 0; i < 20_000; i++) {
+                if (random.nextInt(100) < density) {
+                    bs.set(i);
+                    RankedBean.HANDLE.set(ranked, i);
+                    UntrackedRankedBean.HANDLE.set(untracked, i);
+                    PlainBean.HANDLE.set(plain, i);
+                }
+            }
+            assertRankSelect(bs, RankedBean.HANDLE, ranked);
+            assertRankSelect(bs, UntrackedRankedBean.HANDLE, untracked);
+            assertRankSelect(bs, PlainBean.HANDLE, plain);
+        }
+    }
+
+    @Test
+    public void testMutations_invalidateDirectory() {
+        BitSet bs = new BitSet();
+        RankedBean bean = new RankedBean();
+        Random random = new Random(18);
+        for (int round = 0; round < 40; round++) {
+            int from = random.nextInt(30_000);
+            int to = from + random.nextInt(3_000);
+            switch (round % 5) {
+                case 0:
+                    bs.set(from);
+                    RankedBean.HANDLE.set(bean, from);
+                    break;
+                case 1:
+                    bs.clear(from);
+                    RankedBean.HANDLE.clear(bean, from);
+                    break;
+                case 2:
+                    bs.set(from, to);
+                    RankedBean.HANDLE.set(bean, from, to);
+                    break;
+                case 3:
+                    bs.clear(from, to);
+                    RankedBean.HANDLE.clear(bean, from, to);
+                    break;
+                default:
+                    bs.flip(0, 64 * 9);
+                    long[] words = RankedBean.HANDLE.toLongArray(bean);
+                    long[] flipped = Arrays.copyOf(words, Math.max(words.length, 9));
+                    for (int i = 0; i < 9; i++) {
+                        flipped[i] = ~flipped[i];
+                    }
+                    RankedBean.HANDLE.fill(bean, flipped);
+                    break;
+            }
+            int probe = random.nextInt(35_000);
+            assertEquals("round " + round, bs.get(0, probe).cardinality(), RankedBean.HANDLE.rank(bean, probe));
+            int k = bs.isEmpty() ? 0 : random.nextInt(bs.cardinality());
+            int expected = -1;
+            for (int i = bs.nextSetBit(0), seen = 0; i >= 0; i = bs.nextSetBit(i + 1), seen++) {
+                if (seen == k) {
+                    expected = i;
+                    break;
+                }
+            }
+            assertEquals("round " + round, expected, RankedBean.HANDLE.select(bean, k));
+        }
+        assertRankSelect(bs, RankedBean.HANDLE, bean);
+
+        RankedBean.HANDLE.clear(bean);
+        assertEquals(0, RankedBean.HANDLE.rank(bean, 10_000));
+        assertEquals(-1, RankedBean.HANDLE.select(bean, 0));
+    }
+
+    @Test
+    public void testDirectory_createdLazilyAndRebuiltIncrementally() {
+        RankedBean bean = new RankedBean();
+        RankedBean.HANDLE.set(bean, 0, 100_000);
+        assertNull(bean.ranks);
+        assertEquals(50_000, RankedBean.HANDLE.rank(bean, 50_000));
+        RankDirectory directory = bean.ranks;
+        assertNotNull(directory);
+        assertTrue(RankedBean.HANDLE.estimatedBytes(bean) > Footprint.longArrayBytes(bean.moreBits.length));
+
+        RankedBean.HANDLE.clear(bean, 99_000);
+        assertEquals(99_000, RankedBean.HANDLE.rank(bean, 99_001));
+        assertEquals(99_001, RankedBean.HANDLE.select(bean, 99_000));
+        assertSame(directory, bean.ranks);
+
+        // 目录之外（wordsInUse 之后）的下标
+        assertEquals(99_999, RankedBean.HANDLE.rank(bean, 1 << 30));
+    }
+
+    @Test
+    public void testSelectInWord_allPositions() {
+        PlainBean bean = new PlainBean();
+        PlainBean.HANDLE.set(bean, 0, 64);
+        for (int k = 0; k < 64; k++) {
+            assertEquals(k, PlainBean.HANDLE.select(bean, k));
+        }
+        RankedBean ranked = new RankedBean();
+        RankedBean.HANDLE.set(ranked, 63);
+        RankedBean.HANDLE.set(ranked, 64 * 20 + 7);
+        assertEquals(63, RankedBean.HANDLE.select(ranked, 0));
+        assertEquals(64 * 20 + 7, RankedBean.HANDLE.select(ranked, 1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRank_negativeIndex() {
+        RankedBean.HANDLE.rank(new RankedBean(), -1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSelect_negativeRank() {
+        PlainBean.HANDLE.select(new PlainBean(), -1);
+    }
+}
@@ -0,0 +1,162 @@
+package org.example;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RoaringWordAccessorTest {
+
+    public static class SparseBean {
+        private RoaringWords bits;
+
+        static final RoaringWordAccessor<SparseBean> ACCESSOR =
+                RoaringWordAccessor.of(MethodHandles.lookup(), SparseBean.class, "bits");
+        static final CompactBitsHandle<SparseBean> HANDLE = new CompactBitsHandle<>(ACCESSOR);
+    }
+
+    private static final CompactBitsHandle<SparseBean> HANDLE = SparseBean.HANDLE;
+
+    private SparseBean bean;
+
+    @Before
+    public void setUp() {
+        bean = new SparseBean();
+    }
+
+    private void assertSameBits(BitSet expected) {
+        assertEquals(expected.cardinality(), HANDLE.cardinality(bean));
+        assertEquals(expected.length(), HANDLE.length(bean));
+        assertEquals(expected.isEmpty(), HANDLE.isEmpty(bean));
+        for (int i = expected.nextSetBit(0); i >= 0; i = expected.nextSetBit(i + 1)) {
+            assertTrue("bit " + i, HANDLE.get(bean, i));
+            assertEquals(i, HANDLE.nextSetBit(bean, i));
+        }
+        assertEquals(-1, HANDLE.nextSetBit(bean, expected.length()));
+    }
+
+    @Test
+    public void testEmpty_noStoreAllocated() {
+        assertTrue(HANDLE.isEmpty(bean));
+        assertEquals(0, HANDLE.size(bean));
+        HANDLE.clear(bean, 500_000);
+        assertNull(bean.bits);
+
+        HANDLE.set(bean, 500_000);
+        assertNotNull(bean.bits);
+        HANDLE.clear(bean, 500_000);
+        assertNull(bean.bits);
+    }
+
+    @Test
+    public void testVsBitSet_acrossDensities() {
+        for (double density : new double[]{0.0001, 0.01, 0.2, 0.7}) {
+            setUp();
+            BitSet bs = new BitSet();
+            Random random = new Random(17);
+            int max = 400_000;
+            int count = (int) (max * density);
+            for (int i = 0; i < count; i++) {
+                int bit = random.nextInt(max);
+                bs.set(bit);
+                HANDLE.set(bean, bit);
+            }
+            for (int i = 0; i < count / 3; i++) {
+                int bit = random.nextInt(max);
+                bs.clear(bit);
+                HANDLE.clear(bean, bit);
+            }
+            assertSameBits(bs);
+        }
+    }
+
+    @Test
+    public void testArrayToBitmapAndBack() {
+        // 一个块 65536 位，超过 4096 个置位后转为 bitmap
+        for (int i = 0; i < RoaringWords.ARRAY_MAX; i++) {
+            HANDLE.set(bean, i * 2);
+        }
+        assertEquals("ArrayContainer", bean.bits.containerType(0));
+
+        HANDLE.set(bean, 1);
+        assertEquals("BitmapContainer", bean.bits.containerType(0));
+
+        HANDLE.clear(bean, 1);
+        assertEquals("ArrayContainer", bean.bits.containerType(0));
+        assertEquals(RoaringWords.ARRAY_MAX, HANDLE.cardinality(bean));
+    }
+
+    @Test
+    public void testRangeSet_usesRunContainers() {
+        BitSet bs = new BitSet();
+        bs.set(10, 300_000);
+        HANDLE.set(bean, 10, 300_000);
+
+        assertEquals("RunContainer", bean.bits.containerType(70_000 >> 6));
+        assertTrue(bean.bits.estimatedBytes() < 64 * 1024);
+        assertSameBits(bs);
+
+        // 修改 run 后展开为 bitmap
+        bs.clear(100_000);
+        HANDLE.clear(bean, 100_000);
+        assertEquals("BitmapContainer", bean.bits.containerType(100_000 >> 6));
+        assertSameBits(bs);
+
+        bs.clear(0, 200_000);
+        HANDLE.clear(bean, 0, 200_000);
+        assertSameBits(bs);
+    }
+
+    @Test
+    public void testFillWords_emptyRangeKeepsLength() {
+        SparseBean.ACCESSOR.fillWords(bean, 100, 100, -1L);
+        assertNull(bean.bits);
+        HANDLE.set(bean, 5);
+        SparseBean.ACCESSOR.fillWords(bean, 2000, 2000, -1L);
+        SparseBean.ACCESSOR.fillWords(bean, 3000, 2500, 1L);
+        assertEquals(6, HANDLE.length(bean));
+        assertEquals(1, bean.bits.wordCount());
+    }
+
+    @Test
+    public void testRunOptimize() {
+        BitSet bs = new BitSet();
+        for (int i = 0; i < 60_000; i += 1000) {
+            bs.set(i, i + 500);
+            for (int j = i; j < i + 500; j++) {
+                HANDLE.set(bean, j);
+            }
+        }
+        long before = bean.bits.estimatedBytes();
+        bean.bits.runOptimize();
+        assertEquals("RunContainer", bean.bits.containerType(0));
+        assertTrue(bean.bits.estimatedBytes() < before);
+        assertSameBits(bs);
+    }
+
+    @Test
+    public void testSparse_smallerThanDense() {
+        Random random = new Random(23);
+        for (int i = 0; i < 1000; i++) {
+            HANDLE.set(bean, random.nextInt(1_000_000));
+        }
+        long dense = 16 + 8L * ((1_000_000 + 63) / 64);
+        assertTrue(bean.bits.estimatedBytes() * 10 < dense);
+    }
+
+    @Test
+    public void testBulkOps_withDenseHost() {
+        CompactBitsHandleTest.TestBean dense = new CompactBitsHandleTest.TestBean();
+        dense.set(5).set(70_000).set(70_001);
+        HANDLE.set(bean, 70_000);
+        HANDLE.set(bean, 900_000);
+
+        assertEquals(1, HANDLE.intersectionCardinality(bean, CompactBitsHandleTest.TestBean.HANDLE, dense));
+        HANDLE.or(bean, CompactBitsHandleTest.TestBean.HANDLE, dense);
+        assertEquals(4, HANDLE.cardinality(bean));
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WordKernelsTest {
+
+    private static final WordKernels VECTOR = WordKernels.vectorOrNull();
+
+    private static long[] randomWords(Random random, int n) {
+        long[] words = new long[n];
+        for (int i = 0; i < n; i++) {
+            words[i] = random.nextLong();
+        }
+        return words;
+    }
+
+    @Test
+    public void testActive_vectorWhenModuleAvailable() {
+        // vectorTest 任务设置该属性，保证那次运行覆盖的是 Vector 实现
+        if (Boolean.getBoolean("wordkernels.requireVector")) {
+            assertNotNull("jdk.incubator.vector is not available", VECTOR);
+        }
+        assertSame(VECTOR != null ? VECTOR.getClass() : WordKernels.SCALAR.getClass(),
+                WordKernels.ACTIVE.getClass());
+    }
+
+    @Test
+    public void testBitCount_matchesScalar() {
+        Random random = new Random(3);
+        long[] words = randomWords(random, 1000);
+        words[7] = -1L;
+        words[8] = 0L;
+        for (int[] range : new int[][]{{0, 0}, {0, 1}, {0, 1000}, {3, 997}, {5, 13}, {999, 1000}}) {
+            int expected = WordKernels.SCALAR.bitCount(words, range[0], range[1]);
+            assertEquals(expected, WordKernels.ACTIVE.bitCount(words, range[0], range[1]));
+        }
+    }
+
+    @Test
+    public void testIndexOfNot_findsFirstDifferentWord() {
+        long[] words = new long[1000];
+        for (int hit : new int[]{0, 1, 3, 4, 7, 8, 63, 500, 999}) {
+            words[hit] = 1L << (hit & 63);
+            for (int from = Math.max(0, hit - 9); from <= hit; from++) {
+                assertEquals(hit, WordKernels.ACTIVE.indexOfNot(words, from, 1000, 0L));
+            }
+            assertEquals(hit, WordKernels.ACTIVE.indexOfNot(words, 0, hit + 1, 0L));
+            assertEquals(hit, WordKernels.ACTIVE.indexOfNot(words, 0, hit, 0L));
+            words[hit] = 0L;
+        }
+        assertEquals(1000, WordKernels.ACTIVE.indexOfNot(words, 0, 1000, 0L));
+
+        java.util.Arrays.fill(words, -1L);
+        words[77] = 5L;
+        assertEquals(77, WordKernels.ACTIVE.indexOfNot(words, 2, 1000, -1L));
+        assertEquals(50, WordKernels.ACTIVE.indexOfNot(words, 2, 50, -1L));
+    }
+
+    @Test
+    public void testFill_onlyTouchesRange() {
+        long[] words = new long[100];
+        WordKernels.ACTIVE.fill(words, 3, 97, -1L);
+        for (int i = 0; i < words.length; i++) {
+            assertEquals("word " + i, i >= 3 && i < 97 ? -1L : 0L, words[i]);
+        }
+        WordKernels.ACTIVE.fill(words, 10, 11, 42L);
+        assertEquals(42L, words[10]);
+        assertEquals(-1L, words[11]);
+    }
+
+    @Test
+    public void testHandle_usesKernelsConsistently() {
+        CompactBitsHandleTest.TestBean bean = new CompactBitsHandleTest.TestBean();
+        CompactBitsHandle<CompactBitsHandleTest.TestBean> handle = CompactBitsHandleTest.TestBean.HANDLE;
+        handle.set(bean, 1_000_000);
+        assertEquals(1_000_000, handle.nextSetBit(bean, 65));
+        assertEquals(1, handle.cardinality(bean));
+
+        handle.set(bean, 70, 999_937);
+        assertEquals(999_937 - 70 + 1, handle.cardinality(bean));
+        assertEquals(999_937, handle.nextClearBit(bean, 70));
+    }
+}
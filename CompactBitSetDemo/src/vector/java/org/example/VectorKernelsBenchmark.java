@@ -0,0 +1,81 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 标量与 Vector API 内核在 100 万位（15625 个 word）上的对比：cardinality、跨越长 0 区间的 nextSetBit/isEmpty 扫描、
+ * 以及 set(from, to)/clear(from, to) 中的填充循环。Vector 实现不可用时 kernel=vector 的 Trial 会直接失败。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class VectorKernelsBenchmark {
+
+    private static final int MAX_BIT_INDEX = 1_000_000; // 与 CompactBitsHandleBenchmark 相同
+    private static final int WORDS = (MAX_BIT_INDEX + 63) >>> 6;
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    private WordKernels kernels;
+    private long[] randomWords;
+    private long[] sparseWords;
+    private long[] fillTarget;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        kernels = "vector".equals(kernel) ? WordKernels.vectorOrNull() : WordKernels.SCALAR;
+        if (kernels == null) {
+            throw new IllegalStateException("jdk.incubator.vector is not available");
+        }
+        Random random = new Random(42);
+        randomWords = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            randomWords[i] = random.nextLong();
+        }
+        // 只有最后一位置位：nextSetBit(0) 需要跨越整个 0 区间
+        sparseWords = new long[WORDS];
+        sparseWords[WORDS - 1] = 1L;
+        fillTarget = new long[WORDS];
+    }
+
+    @Benchmark
+    public void benchmarkCardinality(Blackhole blackhole) {
+        blackhole.consume(kernels.bitCount(randomWords, 0, WORDS));
+    }
+
+    @Benchmark
+    public void benchmarkNextSetBit_ZeroRun(Blackhole blackhole) {
+        blackhole.consume(kernels.indexOfNot(sparseWords, 0, WORDS, 0L));
+    }
+
+    @Benchmark
+    public void benchmarkSetRange_Fill(Blackhole blackhole) {
+        kernels.fill(fillTarget, 1, WORDS - 1, -1L);
+        blackhole.consume(fillTarget);
+    }
+
+    @Benchmark
+    public void benchmarkClearRange_Fill(Blackhole blackhole) {
+        kernels.fill(fillTarget, 1, WORDS - 1, 0L);
+        blackhole.consume(fillTarget);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(VectorKernelsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
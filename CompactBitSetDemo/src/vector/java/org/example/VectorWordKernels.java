@@ -0,0 +1,85 @@
+package org.example;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * 基于 {@code jdk.incubator.vector} 的 WordKernels 实现，只由 {@link WordKernels} 反射加载。
+ * 编译和运行都需要 {@code --add-modules jdk.incubator.vector}（JDK 16+）。
+ * <p>
+ * bitCount 在向量寄存器内做 SWAR 计数（与 Long.bitCount 的分治算法相同，按块累加字节计数后再水平求和），
+ * 而不是使用 JDK 19 才加入的 VectorOperators.BIT_COUNT，因此在 JDK 17 的孵化版本上也能运行；
+ * 剩余不足一个向量的尾部按标量处理。
+ */
+final class VectorWordKernels extends WordKernels {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private static final long M1 = 0x5555555555555555L;
+    private static final long M2 = 0x3333333333333333L;
+    private static final long M4 = 0x0f0f0f0f0f0f0f0fL;
+    private static final long M8 = 0x00ff00ff00ff00ffL;
+    private static final long H0001 = 0x0001000100010001L;
+    private static final int BLOCK = 31;
+
+    @Override
+    int bitCount(long[] words, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        LongVector acc = LongVector.zero(SPECIES);
+        while (i < bound) {
+            // 每字节的计数最多为 8，累加 BLOCK 个向量后仍不超过 255，再统一做一次水平求和
+            int blockEnd = Math.min(bound, i + BLOCK * LANES);
+            LongVector bytes = LongVector.zero(SPECIES);
+            for (; i < blockEnd; i += LANES) {
+                LongVector x = LongVector.fromArray(SPECIES, words, i);
+                x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(M1));
+                x = x.and(M2).add(x.lanewise(VectorOperators.LSHR, 2).and(M2));
+                bytes = bytes.add(x.add(x.lanewise(VectorOperators.LSHR, 4)).and(M4));
+            }
+            LongVector shorts = bytes.and(M8).add(bytes.lanewise(VectorOperators.LSHR, 8).and(M8));
+            acc = acc.add(shorts.mul(H0001).lanewise(VectorOperators.LSHR, 48));
+        }
+        int sum = (int) acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += Long.bitCount(words[i]);
+        }
+        return sum;
+    }
+
+    @Override
+    int indexOfNot(long[] words, int from, int to, long skip) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += LANES) {
+            VectorMask<Long> differs = LongVector.fromArray(SPECIES, words, i).compare(VectorOperators.NE, skip);
+            if (differs.anyTrue()) {
+                return i + differs.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (words[i] != skip) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * C2 已将 Arrays.fill 编译为向量化的填充桩代码，显式的 LongVector.intoArray 循环实测并不更快。
+     */
+    @Override
+    void fill(long[] words, int from, int to, long value) {
+        Arrays.fill(words, from, to, value);
+    }
+
+    @Override
+    String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+}